@@ -0,0 +1,53 @@
+package cn.xu.cache.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地缓存（L1）配置
+ * <p>只有配置了前缀的Key才会进入本地缓存，未配置的Key仍只走Redis</p>
+ * <p>命中时返回的是节点内共享的对象，配置的前缀对应的读取方需在修改结果前先复制</p>
+ *
+ * <pre>
+ * cache:
+ *   local:
+ *     enabled: true
+ *     prefixes:
+ *       "[user:info:]":
+ *         maximum-size: 10000
+ *         expire-seconds: 60
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.local")
+public class LocalCacheProperties {
+
+    /**
+     * 是否启用本地缓存
+     */
+    private boolean enabled = false;
+
+    /**
+     * Key前缀 -> 缓存规格
+     */
+    private Map<String, Spec> prefixes = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * 最大条目数
+         */
+        private long maximumSize = 1000;
+
+        /**
+         * 写入后过期时间（秒）
+         */
+        private long expireSeconds = 60;
+    }
+}
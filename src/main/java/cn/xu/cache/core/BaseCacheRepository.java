@@ -78,14 +78,8 @@ public abstract class BaseCacheRepository {
      * @param ttl 过期时间（秒）
      */
     protected void addToSet(String key, Object[] values, int ttl) {
-        long addedCount = redisOps.sAdd(key, values);
-        // 只在首次添加时设置过期时间
-        if (addedCount > 0) {
-            long currentSize = redisOps.sSize(key);
-            if (currentSize == addedCount) {
-                redisOps.expire(key, ttl);
-            }
-        }
+        // 只在首次添加时设置过期时间（脚本内判断，一次往返）
+        redisOps.sAddExpireOnCreate(key, ttl, values);
         log.debug("[缓存] 添加到Set: key={}, count={}", key, values.length);
     }
     
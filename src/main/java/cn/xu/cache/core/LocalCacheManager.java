@@ -0,0 +1,311 @@
+package cn.xu.cache.core;
+
+import cn.xu.cache.config.LocalCacheProperties;
+import com.fasterxml.jackson.databind.JavaType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 本地缓存管理器（二级缓存L1）
+ * <p>按Key前缀维护Caffeine缓存，位于Redis之前，用于读多写少的小对象</p>
+ * <p>保存的是写入时复制出的反序列化对象，命中时直接返回，不再做序列化或反序列化。
+ * 返回的对象在所有读取线程间共享，调用方只能读取；需要在结果上补充子评论、用户信息等时先复制再修改</p>
+ * <p>失效时通过Redis发布/订阅通知所有节点同步清除本地副本</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalCacheManager implements MessageListener {
+
+    /**
+     * 本地缓存失效通知频道
+     */
+    public static final String INVALIDATE_CHANNEL = "cache:local:invalidate";
+
+    private static final String NODE_ID = UUID.randomUUID().toString();
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = "\n";
+    private static final String TYPE_KEYS = "K";
+    private static final String TYPE_PATTERN = "P";
+    private static final JavaType OBJECT_TYPE = RedisOperations.typeOf(Object.class);
+
+    private final LocalCacheProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<String, Cache<String, Entry>> caches = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> loadCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> loadNanos = new ConcurrentHashMap<>();
+
+    /**
+     * 按长度倒序排列的前缀，保证最长前缀优先匹配
+     */
+    private List<String> sortedPrefixes = Collections.emptyList();
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled() || properties.getPrefixes().isEmpty()) {
+            log.info("[本地缓存] 未启用");
+            return;
+        }
+
+        properties.getPrefixes().forEach((prefix, spec) -> {
+            caches.put(prefix, Caffeine.newBuilder()
+                    .maximumSize(spec.getMaximumSize())
+                    .expireAfterWrite(Duration.ofSeconds(spec.getExpireSeconds()))
+                    .recordStats()
+                    .build());
+            loadCounts.put(prefix, new LongAdder());
+            loadNanos.put(prefix, new LongAdder());
+        });
+
+        List<String> prefixes = new ArrayList<>(caches.keySet());
+        prefixes.sort(Comparator.comparingInt(String::length).reversed());
+        sortedPrefixes = prefixes;
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+        log.info("[本地缓存] 已启用 - prefixes: {}", sortedPrefixes);
+    }
+
+    /**
+     * 是否启用
+     */
+    public boolean isEnabled() {
+        return !caches.isEmpty();
+    }
+
+    // ==================== 读写 ====================
+
+    /**
+     * 读取本地缓存
+     *
+     * @param type 值类型，为null时与从Redis读出的结构一致（对象为Map）
+     * @return 缓存中的共享对象（只读），未命中或Key不在本地缓存范围内返回null
+     */
+    public Object get(String key, JavaType type) {
+        Cache<String, Entry> cache = cacheFor(key);
+        Entry entry = cache != null ? cache.getIfPresent(key) : null;
+        if (entry == null) {
+            return null;
+        }
+        if (Objects.equals(entry.type(), type)) {
+            return entry.value();
+        }
+        // 同一Key按不同类型读取，转换出一份新对象，不替换缓存中的值
+        try {
+            return RedisOperations.VALUE_MAPPER.convertValue(entry.value(), type != null ? type : OBJECT_TYPE);
+        } catch (IllegalArgumentException e) {
+            log.warn("[本地缓存] 类型转换失败，按未命中处理: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入本地缓存（Key不在本地缓存范围内时忽略）
+     * <p>写入时复制一份再保存，之后调用方对原对象的修改不影响缓存</p>
+     *
+     * @param type 值类型，与读取时传入的类型一致；为null时按Redis读出的结构保存（对象为Map）
+     */
+    public void put(String key, Object value, JavaType type) {
+        if (value == null) {
+            return;
+        }
+        Cache<String, Entry> cache = cacheFor(key);
+        if (cache != null) {
+            try {
+                byte[] snapshot = RedisOperations.VALUE_MAPPER.writeValueAsBytes(value);
+                Object copy = RedisOperations.VALUE_MAPPER.readValue(snapshot, type != null ? type : OBJECT_TYPE);
+                cache.put(key, new Entry(type, copy));
+            } catch (IOException e) {
+                log.warn("[本地缓存] 复制失败，跳过本地缓存: key={}, error={}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 记录一次数据源加载耗时
+     */
+    public void recordLoad(String key, long nanos) {
+        String prefix = prefixOf(key);
+        if (prefix != null) {
+            loadCounts.get(prefix).increment();
+            loadNanos.get(prefix).add(nanos);
+        }
+    }
+
+    // ==================== 失效 ====================
+
+    /**
+     * 清除单个Key并通知其他节点
+     */
+    public void evict(String key) {
+        evictAll(Collections.singletonList(key));
+    }
+
+    /**
+     * 批量清除Key并通知其他节点
+     */
+    public void evictAll(Collection<String> keys) {
+        if (!isEnabled() || keys == null || keys.isEmpty()) {
+            return;
+        }
+        List<String> localKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (prefixOf(key) != null) {
+                localKeys.add(key);
+            }
+        }
+        if (localKeys.isEmpty()) {
+            return;
+        }
+        invalidateKeys(localKeys);
+        publish(TYPE_KEYS, String.join(KEY_SEPARATOR, localKeys));
+    }
+
+    /**
+     * 按Redis通配模式清除并通知其他节点
+     *
+     * @param pattern Redis风格的通配模式，如 "comment:hot:page:1:100:*"
+     */
+    public void evictByPattern(String pattern) {
+        if (!isEnabled() || pattern == null) {
+            return;
+        }
+        invalidatePattern(pattern);
+        publish(TYPE_PATTERN, pattern);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            String[] parts = body.split(Pattern.quote(FIELD_SEPARATOR), 3);
+            if (parts.length < 3 || NODE_ID.equals(parts[0])) {
+                return;
+            }
+            if (TYPE_KEYS.equals(parts[1])) {
+                invalidateKeys(Arrays.asList(parts[2].split(KEY_SEPARATOR)));
+            } else if (TYPE_PATTERN.equals(parts[1])) {
+                invalidatePattern(parts[2]);
+            }
+        } catch (Exception e) {
+            log.warn("[本地缓存] 处理失效通知失败: {}", e.getMessage());
+        }
+    }
+
+    // ==================== 监控 ====================
+
+    /**
+     * 按前缀统计命中、未命中和加载耗时
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.forEach((prefix, cache) -> {
+            CacheStats cacheStats = cache.stats();
+            long loads = loadCounts.get(prefix).sum();
+            long nanos = loadNanos.get(prefix).sum();
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("size", cache.estimatedSize());
+            item.put("hitCount", cacheStats.hitCount());
+            item.put("missCount", cacheStats.missCount());
+            item.put("hitRate", cacheStats.hitRate());
+            item.put("evictionCount", cacheStats.evictionCount());
+            item.put("loadCount", loads);
+            item.put("avgLoadMillis", loads > 0 ? nanos / 1_000_000.0 / loads : 0.0);
+            stats.put(prefix, item);
+        });
+        return stats;
+    }
+
+    // ==================== 私有方法 ====================
+
+    private Cache<String, Entry> cacheFor(String key) {
+        String prefix = prefixOf(key);
+        return prefix != null ? caches.get(prefix) : null;
+    }
+
+    private String prefixOf(String key) {
+        if (key == null) {
+            return null;
+        }
+        for (String prefix : sortedPrefixes) {
+            if (key.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    private void invalidateKeys(Collection<String> keys) {
+        for (String key : keys) {
+            Cache<String, Entry> cache = cacheFor(key);
+            if (cache != null) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    private void invalidatePattern(String pattern) {
+        Pattern regex = Pattern.compile(globToRegex(pattern));
+        for (Cache<String, Entry> cache : caches.values()) {
+            cache.asMap().keySet().removeIf(key -> regex.matcher(key).matches());
+        }
+    }
+
+    private void publish(String type, String payload) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL,
+                    NODE_ID + FIELD_SEPARATOR + type + FIELD_SEPARATOR + payload);
+        } catch (Exception e) {
+            log.warn("[本地缓存] 发布失效通知失败，其他节点将等待本地缓存过期: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Redis通配模式转正则（支持 * 和 ?）
+     */
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * 本地缓存项：写入时的值类型及对应的对象
+     */
+    private record Entry(JavaType type, Object value) {
+    }
+}
@@ -66,6 +66,38 @@ public class RedisKeyManager {
         return key("post", "rank", "hot");
     }
 
+    /**
+     * 标签热门帖子排行Key
+     * @return Redis Key: post:rank:hot:tag:{tagId}
+     */
+    public static String postHotRankTagKey(Long tagId) {
+        return key("post", "rank", "hot", "tag", tagId);
+    }
+
+    /**
+     * 标签热门帖子排行Key的前缀（后接标签ID），用于扫描全部标签排行
+     * @return post:rank:hot:tag:
+     */
+    public static String postHotRankTagKeyPrefix() {
+        return key("post", "rank", "hot", "tag") + SEPARATOR;
+    }
+
+    /**
+     * 周期热门帖子排行Key（仅包含该周期内发布的帖子）
+     * @param period week / month
+     * @return Redis Key: post:rank:hot:{period}
+     */
+    public static String postHotRankPeriodKey(String period) {
+        return key("post", "rank", "hot", period);
+    }
+
+    /**
+     * 热门排行分数的基准时间（所有排行分数按同一时刻计算时间衰减）
+     */
+    public static String postHotRankReferenceKey() {
+        return key("post", "rank", "hot", "reference");
+    }
+
     // 帖子热度缓存key (用于临时存储点赞、收藏、评论等操作对热度的影响)
     public static String postHotCacheKey(Long postId) {
         return key("post", "hot", postId);
@@ -135,13 +167,38 @@ public class RedisKeyManager {
     }
 
     /**
-     * 搜索关键词前缀Key（用于清除相关缓存）
-     * @param keyword 搜索关键词
-     * @return Redis Key前缀
+     * 搜索结果全局代数（String计数器），帖子删除等无法按词定位的变更时自增，使全部搜索缓存失效
+     * @return Redis Key: post:search:gen
      */
-    public static String postSearchKeyPrefix(String keyword) {
-        String keywordHash = String.valueOf(keyword.hashCode());
-        return key("post", "search", keywordHash);
+    public static String postSearchGenerationKey() {
+        return key("post", "search", "gen");
+    }
+
+    /**
+     * 无词搜索代数（String计数器），任一帖子创建或更新时自增，使提取不出搜索词的搜索（如单个字母）的缓存失效
+     * <p>"_" 不会出现在搜索词中，不与词代数Key冲突</p>
+     * @return Redis Key: post:search:gen:_
+     */
+    public static String postSearchUntermedGenerationKey() {
+        return key("post", "search", "gen", "_");
+    }
+
+    /**
+     * 搜索词代数（String计数器），可搜索字段包含该词的帖子变更时自增，使包含该词的搜索缓存失效
+     * @param term 搜索词（英文片段的前缀、中文二元词或单字）
+     * @return Redis Key: post:search:gen:{term}
+     */
+    public static String postSearchTermGenerationKey(String term) {
+        return key("post", "search", "gen", term);
+    }
+
+    /**
+     * 帖子搜索结果页缓存Key（摘要已包含查询、筛选条件、分页和各代数）
+     * @param digest 缓存摘要
+     * @return Redis Key: post:search:page:{digest}
+     */
+    public static String postSearchPageKey(String digest) {
+        return key("post", "search", "page", digest);
     }
 
     // ===================== 用户模块 =====================
@@ -150,6 +207,14 @@ public class RedisKeyManager {
         return key("user", "info", userId);
     }
 
+    /**
+     * 用户卡片缓存Key（仅包含展示字段，不含密码等敏感信息）
+     * @return Redis Key: user:card:{userId}
+     */
+    public static String userCardKey(Long userId) {
+        return key("user", "card", userId);
+    }
+
     public static String userFollowingKey(Long userId) {
         return key("user", "following", userId);
     }
@@ -251,10 +316,24 @@ public class RedisKeyManager {
 
     // ===================== 通知模块 =====================
 
+    /**
+     * 用户未读通知数（Hash结构，字段为通知类型，all 为总数）
+     * @param userId 用户ID
+     * @return Redis Key: notification:unread:{userId}
+     */
     public static String notificationUnreadKey(Long userId) {
         return key("notification", "unread", userId);
     }
 
+    /**
+     * 用户未读通知数的加载标记，加载期间有增减时被删除，加载结果随即作废
+     * @param userId 用户ID
+     * @return Redis Key: notification:unread:{userId}:loading
+     */
+    public static String notificationUnreadLoadingKey(Long userId) {
+        return key("notification", "unread", userId, "loading");
+    }
+
     public static String notificationCountKey(Long userId) {
         return key("notification", "count", userId);
     }
@@ -281,25 +360,52 @@ public class RedisKeyManager {
     }
 
     /**
-     * 会话列表Key
+     * 用户私信未读总数Key（未删除、未免打扰会话的未读数之和）
      * @param userId 用户ID
-     * @param pageNo 页码
-     * @param pageSize 每页数量
-     * @return Redis Key
+     * @return Redis Key: private_message:unread_total:{userId}
+     */
+    public static String privateMessageUnreadTotalKey(Long userId) {
+        return key("private_message", "unread_total", userId);
+    }
+
+    /**
+     * 用户私信未读总数的加载标记，用法同 {@link #notificationUnreadLoadingKey}
+     * @param userId 用户ID
+     * @return Redis Key: private_message:unread_total:{userId}:loading
+     */
+    public static String privateMessageUnreadTotalLoadingKey(Long userId) {
+        return key("private_message", "unread_total", userId, "loading");
+    }
+
+    /**
+     * 会话列表Key（ZSet结构，成员为对方用户ID，按置顶和最后消息时间排序）
+     * @param userId 用户ID
+     * @return Redis Key: private_message:conversation_list:{userId}
      */
-    public static String privateMessageConversationListKey(Long userId, Integer pageNo, Integer pageSize) {
-        return key("private_message", "conversation_list", userId, pageNo, pageSize);
+    public static String privateMessageConversationListKey(Long userId) {
+        return key("private_message", "conversation_list", userId);
+    }
+
+    /**
+     * 会话列表的加载标记，用法同 {@link #notificationUnreadLoadingKey}
+     * @param userId 用户ID
+     * @return Redis Key: private_message:conversation_list:{userId}:loading
+     */
+    public static String privateMessageConversationListLoadingKey(Long userId) {
+        return key("private_message", "conversation_list", userId, "loading");
     }
 
     /**
      * 会话列表缓存过期时间（秒）
      */
     public static final int CONVERSATION_LIST_CACHE_TTL = 300; // 5分钟
+    public static final int CONVERSATION_LIST_LOADING_TTL = 30; // 30秒，超过则视为加载失败
 
     /**
      * 未读数缓存过期时间（秒）
      */
     public static final int UNREAD_COUNT_CACHE_TTL = 600; // 10分钟
+    public static final int UNREAD_COUNT_LOADING_TTL = 30; // 30秒，超过则视为加载失败
 
     // ===================== 关注模块 =====================
 
@@ -348,6 +454,17 @@ public class RedisKeyManager {
         return key("follow", "mutual", userId);
     }
 
+    // ===================== 关注时间线 =====================
+
+    /**
+     * 关注时间线收件箱Key（ZSET，member为帖子ID，score为帖子ID）
+     * @param userId 用户ID
+     * @return Redis Key: timeline:inbox:{userId}
+     */
+    public static String timelineInboxKey(Long userId) {
+        return key("timeline", "inbox", userId);
+    }
+
     /**
      * 关注状态Key
      * @param followerId 关注者ID
@@ -398,6 +515,111 @@ public class RedisKeyManager {
         return key("favorite", "folder", "content", folderId);
     }
 
+    // ===================== 定时任务 =====================
+
+    /**
+     * 用户计数校验任务断点Key（Hash结构，maxId 为本轮区间上界，p{n} 为各分区已完成的最大用户ID）
+     * @return Redis Key: task:user_count_verify:checkpoint
+     */
+    public static String userCountVerifyCheckpointKey() {
+        return key("task", "user_count_verify", "checkpoint");
+    }
+
+    // ===================== 搜索索引 =====================
+
+    /**
+     * 全量重建索引进度Key（Hash结构，记录状态、已完成的最大ID和统计，用于断点续跑和进度查询）
+     * @param indexName 索引名称
+     * @return Redis Key: es:reindex:{indexName}:progress
+     */
+    public static String esReindexProgressKey(String indexName) {
+        return key("es", "reindex", indexName, "progress");
+    }
+
+    /**
+     * 全量重建索引互斥Key，保证集群内同一时间只有一个实例在重建
+     * @param indexName 索引名称
+     * @return Redis Key: es:reindex:{indexName}:lock
+     */
+    public static String esReindexLockKey(String indexName) {
+        return key("es", "reindex", indexName, "lock");
+    }
+
+    /**
+     * 别名当前正在构建的新版本索引，构建期间实时变更需要同时写入该索引
+     * @param alias 索引别名
+     * @return Redis Key: es:index:{alias}:building
+     */
+    public static String esBuildingIndexKey(String alias) {
+        return key("es", "index", alias, "building");
+    }
+
+    /**
+     * 构建期间删除的文档ID（Set），切换别名前在新索引中重放，防止批量导入写回已删除的帖子
+     * @param alias 索引别名
+     * @return Redis Key: es:index:{alias}:building:deletes
+     */
+    public static String esBuildingDeletesKey(String alias) {
+        return key("es", "index", alias, "building", "deletes");
+    }
+
+    /**
+     * 别名下文档的数据代数（String计数器），每次写入后自增，用于搜索结果缓存的整体失效
+     * @param alias 索引别名
+     * @return Redis Key: es:index:{alias}:generation
+     */
+    public static String esIndexGenerationKey(String alias) {
+        return key("es", "index", alias, "generation");
+    }
+
+    /**
+     * 帖子搜索结果页缓存Key
+     * @param generation 索引代数
+     * @param queryHash 规范化查询及过滤条件的摘要
+     * @param page 页码（从0开始）
+     * @param size 每页数量
+     * @return Redis Key: es:search:post:{generation}:{queryHash}:{page}:{size}
+     */
+    public static String esPostSearchResultKey(long generation, String queryHash, int page, int size) {
+        return key("es", "search", "post", generation, queryHash, page, size);
+    }
+
+    /**
+     * 索引失败的帖子ID集合
+     * @return Redis Key: es:index:failed:tasks
+     */
+    public static String esIndexFailedTasksKey() {
+        return key("es", "index", "failed", "tasks");
+    }
+
+    // ===================== WebSocket集群 =====================
+
+    /**
+     * 用户在线节点集合（Set结构，成员为持有该用户会话的节点ID）
+     * @param userId 用户ID
+     * @return Redis Key: ws:presence:{userId}
+     */
+    public static String wsPresenceKey(Long userId) {
+        return key("ws", "presence", userId);
+    }
+
+    /**
+     * WebSocket节点心跳（ZSet结构，成员为节点ID，分数为最近一次心跳时间戳）
+     * @return Redis Key: ws:nodes
+     */
+    public static String wsNodesKey() {
+        return key("ws", "nodes");
+    }
+
+    /**
+     * 节点推送频道，其他节点经此频道把推送帧转发给持有会话的节点
+     * @param nodeId 节点ID
+     * @return Redis Channel: ws:node:{nodeId}
+     */
+    public static String wsNodeChannel(String nodeId) {
+        return key("ws", "node", nodeId);
+    }
+
     // ===================== TTL常量定义 =====================
 
     /**
@@ -444,4 +666,44 @@ public class RedisKeyManager {
      * 帖子热门排行缓存过期时间（30分钟）
      */
     public static final int POST_HOT_RANK_TTL = 1800;
+
+    /**
+     * 用户卡片缓存过期时间（10分钟）- 资料变更时主动失效，计数允许短暂延迟
+     */
+    public static final int USER_CARD_TTL = 600;
+
+    /**
+     * 关注时间线收件箱过期时间（7天）- 读取时续期，不活跃用户的收件箱自然淘汰，再次访问时重建
+     */
+    public static final int TIMELINE_INBOX_TTL = 7 * 24 * 3600;
+
+    /**
+     * 用户排行榜过期时间（2小时）- 定时任务每30分钟整体发布，过期仅作为任务停止时的兜底
+     */
+    public static final int USER_RANKING_TTL = 2 * 3600;
+
+    /**
+     * 定时任务断点过期时间（2天）- 中断的任务在下一轮执行时续跑，过期后从头开始
+     */
+    public static final int TASK_CHECKPOINT_TTL = 2 * 24 * 3600;
+
+    /**
+     * 全量重建索引进度过期时间（7天）- 完成后保留供查询，中断的重建在此期间可续跑
+     */
+    public static final int ES_REINDEX_PROGRESS_TTL = 7 * 24 * 3600;
+
+    /**
+     * 全量重建索引互斥锁过期时间（5分钟）- 重建期间每批续期，实例宕机后自动释放
+     */
+    public static final int ES_REINDEX_LOCK_TTL = 300;
+
+    /**
+     * 搜索词代数过期时间（1天）- 需远大于搜索结果缓存时间，过期归零后不会与仍存活的缓存Key冲突
+     */
+    public static final int SEARCH_TERM_GENERATION_TTL = 24 * 3600;
+
+    /**
+     * 用户在线节点集合过期时间（5分钟）- 各节点每次心跳续期，节点宕机且用户不再连接时自然清除
+     */
+    public static final int WS_PRESENCE_TTL = 300;
 }
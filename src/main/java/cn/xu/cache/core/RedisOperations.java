@@ -1,9 +1,14 @@
 package cn.xu.cache.core;
 
 import cn.xu.common.constants.LogConstants;
+import cn.xu.config.RedisConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
@@ -21,10 +26,95 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class RedisOperations {
 
+    /**
+     * 批量ZADD时单条命令的最大成员数，避免单条命令过大阻塞Redis
+     */
+    private static final int ZADD_CHUNK_SIZE = 1000;
+
+    /**
+     * 单次Lua脚本调用的最大成员数
+     */
+    private static final int SCRIPT_ARGS_CHUNK_SIZE = 1000;
+
+    /**
+     * SADD并在Key新建时设置过期时间：KEYS[1]: Set Key；ARGV[1]: 过期秒数；ARGV[2..n]: 成员
+     */
+    private static final DefaultRedisScript<Long> SADD_EXPIRE_ON_CREATE_SCRIPT = new DefaultRedisScript<>(
+            "local existed = redis.call('EXISTS', KEYS[1]) " +
+            "local added = redis.call('SADD', KEYS[1], unpack(ARGV, 2)) " +
+            "if existed == 0 and added > 0 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end " +
+            "return added", Long.class);
+
+    /**
+     * 值序列化未开启类型信息，对象读出后是 LinkedHashMap；用与序列化相同的时间格式转回目标类型，
+     * 忽略序列化时由getter产生的派生字段；本地缓存（{@link LocalCacheManager}）也用它保存值的快照
+     */
+    static final ObjectMapper VALUE_MAPPER = RedisConfig.createRedisObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
     private final RedisTemplate<String, Object> redisTemplate;
 
     // ==================== 通用操作 ====================
 
+    /**
+     * 把读出的缓存值转换为指定类型
+     *
+     * @return 转换结果；值为空或无法转换时返回null（调用方按未命中处理）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T convertValue(Object value, Class<T> targetType) {
+        if (value == null) {
+            return null;
+        }
+        if (targetType.isInstance(value)) {
+            return (T) value;
+        }
+        if (!(value instanceof Map)) {
+            return null;
+        }
+        try {
+            return VALUE_MAPPER.convertValue(value, targetType);
+        } catch (IllegalArgumentException e) {
+            log.warn("缓存值类型转换失败: targetType={}, error={}", targetType.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 把读出的缓存值转换为带泛型的类型（如 {@code List<Comment>}）
+     *
+     * @return 转换结果；值为空或无法转换时返回null（调用方按未命中处理）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T convertValue(Object value, JavaType targetType) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Map) && !(value instanceof Collection)) {
+            return targetType.getRawClass().isInstance(value) ? (T) value : null;
+        }
+        try {
+            return VALUE_MAPPER.convertValue(value, targetType);
+        } catch (IllegalArgumentException e) {
+            log.warn("缓存值类型转换失败: targetType={}, error={}", targetType, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 构造转换用的类型
+     */
+    public static JavaType typeOf(Class<?> type) {
+        return VALUE_MAPPER.getTypeFactory().constructType(type);
+    }
+
+    /**
+     * 构造转换用的列表类型
+     */
+    public static JavaType listTypeOf(Class<?> elementType) {
+        return VALUE_MAPPER.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
     /**
      * 检查Redis连接是否正常
      */
@@ -101,6 +191,19 @@ public class RedisOperations {
         }
     }
 
+    /**
+     * 重命名key（原子替换目标key）
+     */
+    public boolean rename(String oldKey, String newKey) {
+        try {
+            redisTemplate.rename(oldKey, newKey);
+            return true;
+        } catch (Exception e) {
+            log.error("重命名key失败: oldKey={}, newKey={}, error={}", oldKey, newKey, e.getMessage());
+            return false;
+        }
+    }
+
     // ==================== String操作 ====================
 
     /**
@@ -197,6 +300,31 @@ public class RedisOperations {
         }
     }
 
+    /**
+     * 批量设置并指定过期时间（管道方式，一次往返）
+     */
+    public boolean multiSet(Map<String, Object> map, long seconds) {
+        if (map == null || map.isEmpty()) {
+            return true;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(org.springframework.data.redis.core.RedisOperations<K, V> operations) {
+                    org.springframework.data.redis.core.RedisOperations<String, Object> ops =
+                            (org.springframework.data.redis.core.RedisOperations<String, Object>) operations;
+                    map.forEach((key, value) -> ops.opsForValue().set(key, value, seconds, TimeUnit.SECONDS));
+                    return null;
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            log.error("批量设置失败: count={}, error={}", map.size(), e.getMessage());
+            return false;
+        }
+    }
+
     // ==================== Hash操作 ====================
 
     /**
@@ -261,6 +389,22 @@ public class RedisOperations {
         }
     }
 
+    /**
+     * 批量Hash字段递增（管道方式，一次往返）
+     *
+     * @param key    Hash Key
+     * @param deltas 字段及增量
+     * @return 是否执行成功
+     */
+    public boolean hIncrementAll(String key, Map<String, Long> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return true;
+        }
+        RedisPipeline pipeline = pipeline();
+        deltas.forEach((field, delta) -> pipeline.hIncrement(key, field, delta));
+        return pipeline.execute() != null;
+    }
+
     // ==================== Set操作 ====================
 
     /**
@@ -289,6 +433,31 @@ public class RedisOperations {
         }
     }
 
+    /**
+     * 添加Set成员，仅在Key新建时设置过期时间（Lua脚本，一次往返且原子）
+     *
+     * @param key     Set Key
+     * @param seconds 过期秒数
+     * @param values  成员
+     * @return 新增成员数，失败返回0
+     */
+    public long sAddExpireOnCreate(String key, long seconds, Object... values) {
+        if (values == null || values.length == 0) {
+            return 0;
+        }
+        // 分段调用，避免成员过多超出Lua unpack的栈限制；首段建Key时已设置过期时间
+        long total = 0;
+        for (int from = 0; from < values.length; from += SCRIPT_ARGS_CHUNK_SIZE) {
+            int to = Math.min(from + SCRIPT_ARGS_CHUNK_SIZE, values.length);
+            Object[] args = new Object[to - from + 1];
+            args[0] = seconds;
+            System.arraycopy(values, from, args, 1, to - from);
+            Long added = execute(SADD_EXPIRE_ON_CREATE_SCRIPT, Collections.singletonList(key), args);
+            total += added != null ? added : 0;
+        }
+        return total;
+    }
+
     /**
      * 移除Set成员
      */
@@ -341,6 +510,46 @@ public class RedisOperations {
         }
     }
 
+    /**
+     * 批量添加ZSet成员（单条ZADD命令）
+     */
+    public long zAdd(String key, Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        if (tuples == null || tuples.isEmpty()) {
+            return 0;
+        }
+        try {
+            Long count = redisTemplate.opsForZSet().add(key, tuples);
+            return count != null ? count : 0;
+        } catch (Exception e) {
+            log.error("批量添加ZSet成员失败: key={}, count={}, error={}", key, tuples.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 大批量添加ZSet成员：按 {@value #ZADD_CHUNK_SIZE} 个一组拆成多条ZADD，通过管道一次往返发送
+     *
+     * @param key    ZSet Key
+     * @param tuples 成员及分数
+     * @return 是否执行成功
+     */
+    public boolean zAddAll(String key, Collection<ZSetOperations.TypedTuple<Object>> tuples) {
+        if (tuples == null || tuples.isEmpty()) {
+            return true;
+        }
+        RedisPipeline pipeline = pipeline();
+        Set<ZSetOperations.TypedTuple<Object>> chunk = new HashSet<>();
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            chunk.add(tuple);
+            if (chunk.size() >= ZADD_CHUNK_SIZE) {
+                pipeline.zAdd(key, chunk);
+                chunk = new HashSet<>();
+            }
+        }
+        pipeline.zAdd(key, chunk);
+        return pipeline.execute() != null;
+    }
+
     /**
      * 获取ZSet指定范围（按分数从低到高）
      */
@@ -470,6 +679,21 @@ public class RedisOperations {
         }
     }
 
+    /**
+     * 按分数区间倒序获取ZSet成员及分数（ZREVRANGEBYSCORE ... WITHSCORES LIMIT）
+     */
+    public Set<ZSetOperations.TypedTuple<Object>> zReverseRangeByScoreWithScores(String key, double min, double max,
+                                                                               long offset, long count) {
+        try {
+            Set<ZSetOperations.TypedTuple<Object>> result = redisTemplate.opsForZSet()
+                    .reverseRangeByScoreWithScores(key, min, max, offset, count);
+            return result != null ? result : Collections.emptySet();
+        } catch (Exception e) {
+            log.error("按分数获取ZSet倒序范围失败: key={}, error={}", key, e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
     /**
      * 获取ZSet成员的倒序排名（从高到低，0开始）
      */
@@ -595,6 +819,15 @@ public class RedisOperations {
         }
     }
 
+    // ==================== 管道 ====================
+
+    /**
+     * 创建管道构建器，登记的命令在 execute() 时一次往返发送
+     */
+    public RedisPipeline pipeline() {
+        return new RedisPipeline(redisTemplate);
+    }
+
     // ==================== Lua脚本执行 ====================
 
     /**
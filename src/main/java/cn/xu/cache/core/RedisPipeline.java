@@ -0,0 +1,208 @@
+package cn.xu.cache.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Redis管道构建器
+ * <p>先登记命令，调用 {@link #execute()} 时通过管道一次往返发送，结果按登记顺序返回</p>
+ * <p>通过 {@link RedisOperations#pipeline()} 获取，实例不可复用，也不是线程安全的</p>
+ *
+ * <pre>
+ * redisOps.pipeline()
+ *         .hIncrement(key, "like", 1)
+ *         .expire(key, 3600)
+ *         .execute();
+ * </pre>
+ */
+@Slf4j
+public class RedisPipeline {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final List<Consumer<org.springframework.data.redis.core.RedisOperations<String, Object>>> commands = new ArrayList<>();
+
+    RedisPipeline(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // ==================== 通用 ====================
+
+    public RedisPipeline delete(String key) {
+        commands.add(ops -> ops.delete(key));
+        return this;
+    }
+
+    public RedisPipeline expire(String key, long seconds) {
+        commands.add(ops -> ops.expire(key, seconds, TimeUnit.SECONDS));
+        return this;
+    }
+
+    public RedisPipeline rename(String oldKey, String newKey) {
+        commands.add(ops -> ops.rename(oldKey, newKey));
+        return this;
+    }
+
+    // ==================== String ====================
+
+    public RedisPipeline get(String key) {
+        commands.add(ops -> ops.opsForValue().get(key));
+        return this;
+    }
+
+    public RedisPipeline set(String key, Object value) {
+        commands.add(ops -> ops.opsForValue().set(key, value));
+        return this;
+    }
+
+    public RedisPipeline set(String key, Object value, long seconds) {
+        commands.add(ops -> ops.opsForValue().set(key, value, seconds, TimeUnit.SECONDS));
+        return this;
+    }
+
+    public RedisPipeline increment(String key, long delta) {
+        commands.add(ops -> ops.opsForValue().increment(key, delta));
+        return this;
+    }
+
+    public RedisPipeline setIfAbsent(String key, Object value, long seconds) {
+        commands.add(ops -> ops.opsForValue().setIfAbsent(key, value, seconds, TimeUnit.SECONDS));
+        return this;
+    }
+
+    // ==================== Hash ====================
+
+    public RedisPipeline hIncrement(String key, String field, long delta) {
+        commands.add(ops -> ops.opsForHash().increment(key, field, delta));
+        return this;
+    }
+
+    public RedisPipeline hSetAll(String key, Map<String, Object> map) {
+        if (map != null && !map.isEmpty()) {
+            commands.add(ops -> ops.opsForHash().putAll(key, map));
+        }
+        return this;
+    }
+
+    public RedisPipeline hGetAll(String key) {
+        commands.add(ops -> ops.opsForHash().entries(key));
+        return this;
+    }
+
+    // ==================== List ====================
+
+    public RedisPipeline lPush(String key, Object value) {
+        commands.add(ops -> ops.opsForList().leftPush(key, value));
+        return this;
+    }
+
+    public RedisPipeline lRemove(String key, long count, Object value) {
+        commands.add(ops -> ops.opsForList().remove(key, count, value));
+        return this;
+    }
+
+    public RedisPipeline lTrim(String key, long start, long end) {
+        commands.add(ops -> ops.opsForList().trim(key, start, end));
+        return this;
+    }
+
+    // ==================== Set ====================
+
+    public RedisPipeline sAdd(String key, Object... values) {
+        commands.add(ops -> ops.opsForSet().add(key, values));
+        return this;
+    }
+
+    public RedisPipeline sMembers(String key) {
+        commands.add(ops -> ops.opsForSet().members(key));
+        return this;
+    }
+
+    public RedisPipeline sRemove(String key, Object... values) {
+        if (values != null && values.length > 0) {
+            commands.add(ops -> ops.opsForSet().remove(key, values));
+        }
+        return this;
+    }
+
+    // ==================== ZSet ====================
+
+    public RedisPipeline zAdd(String key, Object value, double score) {
+        commands.add(ops -> ops.opsForZSet().add(key, value, score));
+        return this;
+    }
+
+    public RedisPipeline zAdd(String key, Set<ZSetOperations.TypedTuple<Object>> tuples) {
+        if (tuples != null && !tuples.isEmpty()) {
+            commands.add(ops -> ops.opsForZSet().add(key, tuples));
+        }
+        return this;
+    }
+
+    public RedisPipeline zIncrementScore(String key, Object value, double delta) {
+        commands.add(ops -> ops.opsForZSet().incrementScore(key, value, delta));
+        return this;
+    }
+
+    public RedisPipeline zRemove(String key, Object... values) {
+        if (values != null && values.length > 0) {
+            commands.add(ops -> ops.opsForZSet().remove(key, values));
+        }
+        return this;
+    }
+
+    public RedisPipeline zRangeWithScores(String key, long start, long end) {
+        commands.add(ops -> ops.opsForZSet().rangeWithScores(key, start, end));
+        return this;
+    }
+
+    public RedisPipeline zReverseRange(String key, long start, long end) {
+        commands.add(ops -> ops.opsForZSet().reverseRange(key, start, end));
+        return this;
+    }
+
+    public RedisPipeline zSize(String key) {
+        commands.add(ops -> ops.opsForZSet().zCard(key));
+        return this;
+    }
+
+    // ==================== 执行 ====================
+
+    /**
+     * 已登记的命令数
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 一次往返执行所有命令
+     *
+     * @return 各命令结果（与登记顺序一致），执行失败返回null
+     */
+    public List<Object> execute() {
+        if (commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(org.springframework.data.redis.core.RedisOperations<K, V> operations) {
+                    org.springframework.data.redis.core.RedisOperations<String, Object> ops =
+                            (org.springframework.data.redis.core.RedisOperations<String, Object>) operations;
+                    commands.forEach(command -> command.accept(ops));
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.error("管道执行失败: commands={}, error={}", commands.size(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package cn.xu.cache.repository;
+
+import cn.xu.cache.core.BaseCacheRepository;
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.model.entity.UserConversation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 私信会话列表缓存仓储
+ * <p>每个用户一个ZSet，成员为会话对方的用户ID，分数为最后消息时间（毫秒），置顶会话额外加上固定偏移排在最前，
+ * 与数据库中 is_pinned DESC, last_message_time DESC 的排序一致</p>
+ * <p>最多保存 {@value #MAX_SIZE} 个最近会话；成员数达到上限时视为不完整，超出部分的分页和总数由调用方回源数据库</p>
+ * <p>重建与更新并发：读库前先写入带随机令牌的加载标记，更新位置和移除会话都会删除该标记，
+ * 重建时令牌不匹配则放弃写入，避免读库之后才提交的新消息被旧快照覆盖、在TTL内从列表中消失</p>
+ */
+@Slf4j
+@Repository
+public class ConversationCacheRepository extends BaseCacheRepository {
+
+    public static final int MAX_SIZE = 500;
+
+    /**
+     * 置顶会话的分数偏移（约317年的毫秒数，大于任何最后消息时间）
+     */
+    private static final long PINNED_OFFSET = 10_000_000_000_000L;
+
+    /**
+     * 更新会话位置：KEYS[1]: 会话列表Key；KEYS[2]: 加载标记；ARGV[1]: 对方用户ID；ARGV[2]: 最后消息时间；
+     * ARGV[3]: 容量；ARGV[4]: 过期时间；ARGV[5]: 置顶偏移（原分数带偏移的会话保持置顶）
+     * <p>列表未加载时不创建，避免只包含最近变化会话的残缺列表被当作完整列表</p>
+     */
+    private static final String TOUCH_SCRIPT =
+            "redis.call('DEL', KEYS[2]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "local score = tonumber(ARGV[2]) " +
+            "local old = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if old and tonumber(old) >= tonumber(ARGV[5]) then score = score + tonumber(ARGV[5]) end " +
+            "redis.call('ZADD', KEYS[1], score, ARGV[1]) " +
+            "redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 1)) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+            "return 1";
+
+    /**
+     * 重建会话列表：KEYS[1]: 会话列表Key；KEYS[2]: 加载标记；ARGV[1]: 令牌；ARGV[2]: 过期时间；
+     * ARGV[3..]: 分数、对方用户ID交替
+     */
+    private static final String LOAD_SCRIPT =
+            "if redis.call('GET', KEYS[2]) ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[2], KEYS[1]) " +
+            "for i = 3, #ARGV, 2 do redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> TOUCH_REDIS_SCRIPT = new DefaultRedisScript<>(TOUCH_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> LOAD_REDIS_SCRIPT = new DefaultRedisScript<>(LOAD_SCRIPT, Long.class);
+
+    /**
+     * 读取一页会话对方用户ID
+     *
+     * @return 对方用户ID（按顺序）；列表未加载、或请求范围超出不完整列表时返回null
+     */
+    public List<Long> getConversationPage(Long userId, int offset, int size) {
+        String key = RedisKeyManager.privateMessageConversationListKey(userId);
+        List<Object> results = redisOps.pipeline()
+                .zSize(key)
+                .zReverseRange(key, offset, offset + size - 1L)
+                .execute();
+        if (results == null || results.size() < 2) {
+            return null;
+        }
+        Long total = convertToLong(results.get(0));
+        if (total == null || total == 0) {
+            return null;
+        }
+        if (total >= MAX_SIZE && offset + size > total) {
+            return null;
+        }
+
+        List<Long> otherUserIds = new ArrayList<>();
+        if (results.get(1) instanceof Collection<?> members) {
+            for (Object member : members) {
+                Long otherUserId = convertToLong(member);
+                if (otherUserId != null) {
+                    otherUserIds.add(otherUserId);
+                }
+            }
+        }
+        return otherUserIds;
+    }
+
+    /**
+     * 获取会话总数
+     *
+     * @return 会话总数；列表未加载或不完整时返回null
+     */
+    public Integer getConversationCount(Long userId) {
+        long total = redisOps.zSize(RedisKeyManager.privateMessageConversationListKey(userId));
+        return total > 0 && total < MAX_SIZE ? (int) total : null;
+    }
+
+    /**
+     * 开始从数据库读取最近会话，返回重建时需要的令牌（在读库之前调用）
+     */
+    public long beginConversationLoad(Long userId) {
+        long token = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        redisOps.set(RedisKeyManager.privateMessageConversationListLoadingKey(userId), token,
+                RedisKeyManager.CONVERSATION_LIST_LOADING_TTL);
+        return token;
+    }
+
+    /**
+     * 用数据库中最近的会话重建列表；读库期间会话有更新或移除时放弃写入
+     *
+     * @param token {@link #beginConversationLoad} 返回的令牌
+     * @return 是否写入
+     */
+    public boolean cacheConversations(Long userId, List<UserConversation> conversations, long token) {
+        if (conversations == null || conversations.isEmpty()) {
+            return false;
+        }
+        List<Object> args = new ArrayList<>(conversations.size() * 2 + 2);
+        args.add(token);
+        args.add(RedisKeyManager.CONVERSATION_LIST_CACHE_TTL);
+        for (UserConversation conversation : conversations) {
+            args.add(score(conversation.getIsPinned(), conversation.getLastMessageTime()));
+            args.add(conversation.getOtherUserId());
+        }
+        Long written = redisOps.execute(LOAD_REDIS_SCRIPT,
+                List.of(RedisKeyManager.privateMessageConversationListKey(userId),
+                        RedisKeyManager.privateMessageConversationListLoadingKey(userId)),
+                args.toArray());
+        return written != null && written == 1;
+    }
+
+    /**
+     * 会话有新消息或新建后，把会话移到对应位置（列表未加载时忽略）
+     */
+    public void touchConversation(Long ownerId, Long otherUserId, LocalDateTime lastMessageTime) {
+        redisOps.execute(TOUCH_REDIS_SCRIPT,
+                List.of(RedisKeyManager.privateMessageConversationListKey(ownerId),
+                        RedisKeyManager.privateMessageConversationListLoadingKey(ownerId)),
+                otherUserId, score(0, lastMessageTime), MAX_SIZE, RedisKeyManager.CONVERSATION_LIST_CACHE_TTL,
+                PINNED_OFFSET);
+    }
+
+    /**
+     * 会话删除后从列表移除（先使进行中的重建作废）
+     */
+    public void removeConversation(Long ownerId, Long otherUserId) {
+        redisOps.delete(RedisKeyManager.privateMessageConversationListLoadingKey(ownerId));
+        redisOps.zRemove(RedisKeyManager.privateMessageConversationListKey(ownerId), otherUserId);
+    }
+
+    private long score(Integer isPinned, LocalDateTime lastMessageTime) {
+        long time = lastMessageTime != null
+                ? lastMessageTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        return Integer.valueOf(1).equals(isPinned) ? time + PINNED_OFFSET : time;
+    }
+}
@@ -3,6 +3,8 @@ package cn.xu.cache.repository;
 import cn.xu.cache.core.BaseCacheRepository;
 import cn.xu.cache.core.RedisKeyManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
@@ -112,4 +114,140 @@ public class PostCacheRepository extends BaseCacheRepository {
         String redisKey = RedisKeyManager.postHotRankKey();
         return redisOps.zSize(redisKey);
     }
+
+    // ==================== 热门排行（全局/标签/周期） ====================
+
+    /**
+     * 重建时单条ZADD写入的最大成员数
+     */
+    private static final int ZADD_BATCH_SIZE = 1000;
+
+    /**
+     * 游标失效后扫描同分成员时每次读取的数量
+     */
+    private static final int TIE_SCAN_BATCH = 200;
+
+    /**
+     * 批量写入热门排行分数，并裁剪到指定容量（移除分数最低的成员）
+     * @param redisKey 排行Key
+     * @param postScores 帖子ID和分数的映射
+     * @param capacity 排行容量
+     */
+    public void addHotScores(String redisKey, Map<Long, Double> postScores, int capacity) {
+        if (postScores == null || postScores.isEmpty()) {
+            return;
+        }
+        redisOps.zAdd(redisKey, toTuples(postScores.entrySet()));
+        redisOps.zRemoveRange(redisKey, 0, -(capacity + 1));
+    }
+
+    /**
+     * 从多个热门排行中移除帖子
+     * @param redisKeys 排行Key
+     * @param postId 帖子ID
+     */
+    public void removeFromHotRanks(Collection<String> redisKeys, Long postId) {
+        for (String redisKey : redisKeys) {
+            redisOps.zRemove(redisKey, postId.toString());
+        }
+    }
+
+    /**
+     * 整体替换热门排行：先写临时Key，再RENAME覆盖，读请求不会看到半成品
+     * @param redisKey 排行Key
+     * @param postScores 帖子ID和分数的映射（为空时删除排行）
+     */
+    public void replaceHotRank(String redisKey, Map<Long, Double> postScores) {
+        if (postScores == null || postScores.isEmpty()) {
+            deleteCache(redisKey);
+            return;
+        }
+
+        String stagingKey = redisKey + ":rebuilding";
+        deleteCache(stagingKey);
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(postScores.entrySet());
+        for (int i = 0; i < entries.size(); i += ZADD_BATCH_SIZE) {
+            redisOps.zAdd(stagingKey, toTuples(entries.subList(i, Math.min(i + ZADD_BATCH_SIZE, entries.size()))));
+        }
+        redisOps.rename(stagingKey, redisKey);
+        log.debug("[缓存] 重建热门排行: key={}, size={}", redisKey, postScores.size());
+    }
+
+    /**
+     * 按排名分页读取热门排行
+     * @param redisKey 排行Key
+     * @param offset 起始排名
+     * @param limit 数量
+     * @return 帖子ID和分数（按分数从高到低）
+     */
+    public List<ZSetOperations.TypedTuple<Object>> getHotRankPage(String redisKey, long offset, int limit) {
+        return new ArrayList<>(redisOps.zReverseRangeWithScores(redisKey, offset, offset + limit - 1));
+    }
+
+    /**
+     * 按游标读取热门排行的下一页
+     * <p>排行按 (分数, 成员) 倒序排列。游标帖子仍在排行且分数未变时从其排名之后继续；
+     * 否则先取与游标同分、成员排在游标之后的帖子，再取严格低于游标分数的帖子，同分的帖子不会被跳过</p>
+     * @param redisKey 排行Key
+     * @param cursorScore 上一页最后一条的分数
+     * @param cursorId 上一页最后一条的帖子ID
+     * @param limit 数量
+     * @return 帖子ID和分数（按分数从高到低）
+     */
+    public List<ZSetOperations.TypedTuple<Object>> getHotRankAfter(String redisKey, double cursorScore,
+                                                                   Long cursorId, int limit) {
+        String member = cursorId.toString();
+        Long rank = redisOps.zReverseRank(redisKey, member);
+        if (rank != null) {
+            Double score = redisOps.zScore(redisKey, member);
+            if (score != null && Double.compare(score, cursorScore) == 0) {
+                return getHotRankPage(redisKey, rank + 1, limit);
+            }
+        }
+
+        // 同分成员按成员字典序倒序排列，与 ZREVRANGE 的顺序一致
+        List<ZSetOperations.TypedTuple<Object>> result = new ArrayList<>(limit);
+        for (long offset = 0; result.size() < limit; offset += TIE_SCAN_BATCH) {
+            Set<ZSetOperations.TypedTuple<Object>> ties = redisOps.zReverseRangeByScoreWithScores(
+                    redisKey, cursorScore, cursorScore, offset, TIE_SCAN_BATCH);
+            if (ties.isEmpty()) {
+                break;
+            }
+            for (ZSetOperations.TypedTuple<Object> tuple : ties) {
+                if (tuple.getValue() != null && tuple.getValue().toString().compareTo(member) < 0) {
+                    result.add(tuple);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+            if (ties.size() < TIE_SCAN_BATCH) {
+                break;
+            }
+        }
+        if (result.size() < limit) {
+            result.addAll(redisOps.zReverseRangeByScoreWithScores(
+                    redisKey, Double.NEGATIVE_INFINITY, Math.nextDown(cursorScore), 0, limit - result.size()));
+        }
+        return result;
+    }
+
+    /**
+     * 获取指定热门排行的大小
+     * @param redisKey 排行Key
+     * @return 排行成员数
+     */
+    public long getHotRankSize(String redisKey) {
+        return redisOps.zSize(redisKey);
+    }
+
+    private Set<ZSetOperations.TypedTuple<Object>> toTuples(Collection<Map.Entry<Long, Double>> entries) {
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        for (Map.Entry<Long, Double> entry : entries) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                tuples.add(new DefaultTypedTuple<>(entry.getKey().toString(), entry.getValue()));
+            }
+        }
+        return tuples;
+    }
 }
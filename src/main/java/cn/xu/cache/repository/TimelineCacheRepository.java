@@ -0,0 +1,142 @@
+package cn.xu.cache.repository;
+
+import cn.xu.cache.core.BaseCacheRepository;
+import cn.xu.cache.core.RedisKeyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 关注时间线缓存仓储
+ * <p>每个用户一个收件箱ZSET，member和score均为帖子ID（帖子ID自增，倒序即发布顺序）</p>
+ * <p>收件箱中始终保留一个占位成员（score=0），用于区分"已构建但为空"和"未构建"，读取时按 score&gt;=1 过滤</p>
+ */
+@Slf4j
+@Repository
+public class TimelineCacheRepository extends BaseCacheRepository {
+
+    /**
+     * 占位成员，标记收件箱已构建
+     */
+    private static final String PLACEHOLDER = "0";
+
+    /**
+     * 扇出写入脚本：只写入已存在的收件箱（未构建的由读取时重建），并裁剪到容量上限
+     * KEYS: 收件箱Key列表；ARGV[1]: 成员；ARGV[2]: 分数；ARGV[3]: 容量（不含占位成员）
+     */
+    private static final String PUSH_SCRIPT =
+            "local pushed = 0 " +
+            "for i, key in ipairs(KEYS) do " +
+            "  if redis.call('EXISTS', key) == 1 then " +
+            "    redis.call('ZADD', key, ARGV[2], ARGV[1]) " +
+            "    redis.call('ZREMRANGEBYRANK', key, 1, -(tonumber(ARGV[3]) + 1)) " +
+            "    pushed = pushed + 1 " +
+            "  end " +
+            "end " +
+            "return pushed";
+
+    private static final DefaultRedisScript<Long> PUSH_REDIS_SCRIPT = new DefaultRedisScript<>(PUSH_SCRIPT, Long.class);
+
+    /**
+     * 收件箱是否已构建
+     */
+    public boolean isInboxReady(Long userId) {
+        return hasKey(RedisKeyManager.timelineInboxKey(userId));
+    }
+
+    /**
+     * 将帖子推送到一批粉丝的收件箱（一次脚本调用完成一批）
+     *
+     * @param userIds  粉丝ID
+     * @param postId   帖子ID
+     * @param capacity 收件箱容量
+     * @return 实际写入的收件箱数量
+     */
+    public long pushToInboxes(Collection<Long> userIds, Long postId, int capacity) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = userIds.stream()
+                .map(RedisKeyManager::timelineInboxKey)
+                .collect(Collectors.toList());
+        // 脚本参数经值序列化器编码：成员以字符串传入，与 zAdd 写入的成员一致；分数和容量以数值传入
+        Long pushed = getRedisOps().execute(PUSH_REDIS_SCRIPT, keys, postId.toString(), postId, capacity);
+        return pushed != null ? pushed : 0;
+    }
+
+    /**
+     * 重建收件箱：先写临时Key再RENAME，读取方不会看到半成品
+     *
+     * @param userId  用户ID
+     * @param postIds 帖子ID
+     */
+    public void rebuildInbox(Long userId, Collection<Long> postIds) {
+        String inboxKey = RedisKeyManager.timelineInboxKey(userId);
+        String stagingKey = inboxKey + ":rebuilding";
+
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        tuples.add(ZSetOperations.TypedTuple.of(PLACEHOLDER, 0D));
+        for (Long postId : postIds) {
+            tuples.add(ZSetOperations.TypedTuple.of(postId.toString(), postId.doubleValue()));
+        }
+        getRedisOps().delete(stagingKey);
+        getRedisOps().zAdd(stagingKey, tuples);
+        getRedisOps().rename(stagingKey, inboxKey);
+        expire(inboxKey, RedisKeyManager.TIMELINE_INBOX_TTL);
+        log.debug("[缓存] 重建关注时间线收件箱 - userId: {}, size: {}", userId, postIds.size());
+    }
+
+    /**
+     * 按游标读取收件箱
+     *
+     * @param userId   用户ID
+     * @param beforeId 游标，只返回ID小于该值的帖子，为空表示从最新开始
+     * @param limit    数量
+     * @return 帖子ID（倒序）
+     */
+    public List<Long> getInboxPage(Long userId, Long beforeId, int limit) {
+        double max = beforeId != null ? beforeId - 1 : Double.POSITIVE_INFINITY;
+        if (max < 1) {
+            return Collections.emptyList();
+        }
+        Set<ZSetOperations.TypedTuple<Object>> tuples = getRedisOps().zReverseRangeByScoreWithScores(
+                RedisKeyManager.timelineInboxKey(userId), 1, max, 0, limit);
+        List<Long> postIds = new ArrayList<>(tuples.size());
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            Long postId = convertToLong(tuple.getValue());
+            if (postId != null) {
+                postIds.add(postId);
+            }
+        }
+        return postIds;
+    }
+
+    /**
+     * 从收件箱移除已失效的帖子（已删除、已撤回）
+     */
+    public void removeFromInbox(Long userId, Collection<Long> postIds) {
+        if (postIds == null || postIds.isEmpty()) {
+            return;
+        }
+        getRedisOps().zRemove(RedisKeyManager.timelineInboxKey(userId),
+                postIds.stream().map(String::valueOf).toArray());
+    }
+
+    /**
+     * 续期收件箱
+     */
+    public void touchInbox(Long userId) {
+        expire(RedisKeyManager.timelineInboxKey(userId), RedisKeyManager.TIMELINE_INBOX_TTL);
+    }
+
+    /**
+     * 删除收件箱（关注关系变化后，下次读取时重建）
+     */
+    public void evictInbox(Long userId) {
+        deleteCache(RedisKeyManager.timelineInboxKey(userId));
+    }
+}
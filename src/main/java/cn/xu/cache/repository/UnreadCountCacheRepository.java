@@ -0,0 +1,228 @@
+package cn.xu.cache.repository;
+
+import cn.xu.cache.core.BaseCacheRepository;
+import cn.xu.cache.core.RedisKeyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 未读数缓存仓储
+ * <p>通知未读数按类型存为Hash（all 字段为总数），私信未读总数存为计数；
+ * 未命中时由调用方从数据库统计后写入，之后随发送、已读、删除原子增减</p>
+ * <p>增减只作用于已加载的计数（不存在时不创建，避免把增量当成总数），结果不小于0；
+ * 计数按 UNREAD_COUNT_CACHE_TTL 过期后重新统计，以此修正异常导致的偏差</p>
+ * <p>加载与增减并发：加载前先写入带随机令牌的加载标记，计数不存在时的增减和清除都会删除该标记，
+ * 写入时令牌不匹配则放弃写入，下次读取重新统计，避免把统计后发生的增减丢掉</p>
+ */
+@Slf4j
+@Repository
+public class UnreadCountCacheRepository extends BaseCacheRepository {
+
+    private static final String TOTAL_FIELD = "all";
+
+    /**
+     * 通知未读数增减：KEYS[1]: 未读数Hash；KEYS[2]: 加载标记；ARGV[1]: 通知类型；ARGV[2]: 增量
+     * <p>类型计数被截断为0时，总数只按实际变化量调整，保持总数等于各类型之和</p>
+     */
+    private static final String NOTIFICATION_INCR_SCRIPT =
+            "if redis.call('EXISTS', KEYS[1]) == 0 then redis.call('DEL', KEYS[2]) return -1 end " +
+            "local delta = tonumber(ARGV[2]) " +
+            "local v = redis.call('HINCRBY', KEYS[1], ARGV[1], delta) " +
+            "if v < 0 then redis.call('HSET', KEYS[1], ARGV[1], 0) delta = delta - v end " +
+            "local t = redis.call('HINCRBY', KEYS[1], 'all', delta) " +
+            "if t < 0 then redis.call('HSET', KEYS[1], 'all', 0) t = 0 end " +
+            "return t";
+
+    /**
+     * 私信未读数增减：KEYS[1]: 未读总数Key；KEYS[2]: 加载标记；ARGV[1]: 增量
+     */
+    private static final String MESSAGE_INCR_SCRIPT =
+            "if redis.call('EXISTS', KEYS[1]) == 0 then redis.call('DEL', KEYS[2]) return -1 end " +
+            "local v = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "if v < 0 then redis.call('INCRBY', KEYS[1], -v) v = 0 end " +
+            "return v";
+
+    /**
+     * 写入统计的通知未读数：KEYS[1]: 未读数Hash；KEYS[2]: 加载标记；ARGV[1]: 令牌；ARGV[2]: 过期时间；
+     * ARGV[3]: 总数；ARGV[4..]: 类型、未读数交替
+     */
+    private static final String NOTIFICATION_LOAD_SCRIPT =
+            "if redis.call('GET', KEYS[2]) ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[2], KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'all', ARGV[3]) " +
+            "for i = 4, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1";
+
+    /**
+     * 写入统计的私信未读总数：KEYS[1]: 未读总数Key；KEYS[2]: 加载标记；ARGV[1]: 令牌；ARGV[2]: 过期时间；ARGV[3]: 总数
+     */
+    private static final String MESSAGE_LOAD_SCRIPT =
+            "if redis.call('GET', KEYS[2]) ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[2]) " +
+            "redis.call('SET', KEYS[1], ARGV[3], 'EX', ARGV[2]) " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> NOTIFICATION_INCR_REDIS_SCRIPT =
+            new DefaultRedisScript<>(NOTIFICATION_INCR_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> MESSAGE_INCR_REDIS_SCRIPT =
+            new DefaultRedisScript<>(MESSAGE_INCR_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> NOTIFICATION_LOAD_REDIS_SCRIPT =
+            new DefaultRedisScript<>(NOTIFICATION_LOAD_SCRIPT, Long.class);
+    private static final DefaultRedisScript<Long> MESSAGE_LOAD_REDIS_SCRIPT =
+            new DefaultRedisScript<>(MESSAGE_LOAD_SCRIPT, Long.class);
+
+    // ==================== 通知 ====================
+
+    /**
+     * 获取通知未读总数
+     *
+     * @return 未读总数，未加载返回null
+     */
+    public Long getNotificationUnreadTotal(Long userId) {
+        return convertToLong(redisOps.hGet(RedisKeyManager.notificationUnreadKey(userId), TOTAL_FIELD));
+    }
+
+    /**
+     * 获取各类型通知未读数（只包含未读数大于0的类型）
+     *
+     * @return 类型 -> 未读数，未加载返回null
+     */
+    public Map<Integer, Long> getNotificationUnreadByType(Long userId) {
+        Map<Object, Object> entries = redisOps.hGetAll(RedisKeyManager.notificationUnreadKey(userId));
+        if (entries == null || !entries.containsKey(TOTAL_FIELD)) {
+            return null;
+        }
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            String field = entry.getKey().toString();
+            Long count = convertToLong(entry.getValue());
+            if (!TOTAL_FIELD.equals(field) && count != null && count > 0) {
+                try {
+                    counts.put(Integer.valueOf(field), count);
+                } catch (NumberFormatException e) {
+                    log.debug("[缓存] 忽略未知的未读数字段 - userId: {}, field: {}", userId, field);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 开始从数据库统计通知未读数，返回写入时需要的令牌（在统计之前调用）
+     */
+    public long beginNotificationUnreadLoad(Long userId) {
+        return beginLoad(RedisKeyManager.notificationUnreadLoadingKey(userId));
+    }
+
+    /**
+     * 写入从数据库统计的各类型通知未读数；统计期间发生过增减或清除时放弃写入
+     *
+     * @param token {@link #beginNotificationUnreadLoad} 返回的令牌
+     * @return 是否写入
+     */
+    public boolean cacheNotificationUnread(Long userId, Map<Integer, Long> countsByType, long token) {
+        List<Object> args = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<Integer, Long> entry : countsByType.entrySet()) {
+            long count = entry.getValue() != null ? entry.getValue() : 0L;
+            args.add(entry.getKey());
+            args.add(count);
+            total += count;
+        }
+        args.addAll(0, List.of(token, RedisKeyManager.UNREAD_COUNT_CACHE_TTL, total));
+        Long written = redisOps.execute(NOTIFICATION_LOAD_REDIS_SCRIPT,
+                List.of(RedisKeyManager.notificationUnreadKey(userId), RedisKeyManager.notificationUnreadLoadingKey(userId)),
+                args.toArray());
+        return written != null && written == 1;
+    }
+
+    /**
+     * 增减某类型的通知未读数（未加载时忽略，并使进行中的加载作废）
+     */
+    public void incrementNotificationUnread(Long userId, Integer type, long delta) {
+        if (userId == null || type == null || delta == 0) {
+            return;
+        }
+        redisOps.execute(NOTIFICATION_INCR_REDIS_SCRIPT,
+                List.of(RedisKeyManager.notificationUnreadKey(userId), RedisKeyManager.notificationUnreadLoadingKey(userId)),
+                type, delta);
+    }
+
+    /**
+     * 清除通知未读数，下次读取时重新统计
+     */
+    public void evictNotificationUnread(Long userId) {
+        redisOps.delete(List.of(RedisKeyManager.notificationUnreadKey(userId),
+                RedisKeyManager.notificationUnreadLoadingKey(userId)));
+    }
+
+    // ==================== 私信 ====================
+
+    /**
+     * 获取私信未读总数
+     *
+     * @return 未读总数，未加载返回null
+     */
+    public Long getMessageUnreadTotal(Long userId) {
+        return getCount(RedisKeyManager.privateMessageUnreadTotalKey(userId));
+    }
+
+    /**
+     * 开始统计私信未读总数，返回写入时需要的令牌（在统计之前调用）
+     */
+    public long beginMessageUnreadLoad(Long userId) {
+        return beginLoad(RedisKeyManager.privateMessageUnreadTotalLoadingKey(userId));
+    }
+
+    /**
+     * 写入统计的私信未读总数；统计期间发生过增减或清除时放弃写入
+     *
+     * @param token {@link #beginMessageUnreadLoad} 返回的令牌
+     * @return 是否写入
+     */
+    public boolean cacheMessageUnreadTotal(Long userId, long total, long token) {
+        Long written = redisOps.execute(MESSAGE_LOAD_REDIS_SCRIPT,
+                List.of(RedisKeyManager.privateMessageUnreadTotalKey(userId),
+                        RedisKeyManager.privateMessageUnreadTotalLoadingKey(userId)),
+                token, RedisKeyManager.UNREAD_COUNT_CACHE_TTL, total);
+        return written != null && written == 1;
+    }
+
+    /**
+     * 增减私信未读总数（未加载时忽略，并使进行中的加载作废）
+     */
+    public void incrementMessageUnread(Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        redisOps.execute(MESSAGE_INCR_REDIS_SCRIPT,
+                List.of(RedisKeyManager.privateMessageUnreadTotalKey(userId),
+                        RedisKeyManager.privateMessageUnreadTotalLoadingKey(userId)),
+                delta);
+    }
+
+    /**
+     * 清除私信未读总数，下次读取时重新统计
+     */
+    public void evictMessageUnread(Long userId) {
+        redisOps.delete(List.of(RedisKeyManager.privateMessageUnreadTotalKey(userId),
+                RedisKeyManager.privateMessageUnreadTotalLoadingKey(userId)));
+    }
+
+    /**
+     * 写入加载标记，令牌为随机正数
+     */
+    private long beginLoad(String loadingKey) {
+        long token = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        redisOps.set(loadingKey, token, RedisKeyManager.UNREAD_COUNT_LOADING_TTL);
+        return token;
+    }
+}
@@ -0,0 +1,121 @@
+package cn.xu.cache.repository;
+
+import cn.xu.cache.core.BaseCacheRepository;
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.model.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 用户卡片缓存仓储
+ * <p>缓存作者信息展示所需的精简用户数据（昵称、头像、计数等），不含密码、邮箱、手机号</p>
+ * <p>批量读取使用一次MGET，批量写入使用管道，一次往返完成</p>
+ */
+@Slf4j
+@Repository
+public class UserCardCacheRepository extends BaseCacheRepository {
+
+    /**
+     * 用户不存在时的空值标记，防止缓存穿透
+     */
+    private static final String NULL_VALUE = "NULL";
+
+    /**
+     * 批量读取用户卡片
+     *
+     * @param userIds 用户ID
+     * @param missed  输出参数，收集未命中缓存的用户ID（空值标记视为命中）
+     * @return 命中的用户卡片
+     */
+    public Map<Long, User> getCards(Collection<Long> userIds, Set<Long> missed) {
+        Map<Long, User> result = new HashMap<>();
+        List<Long> ids = new ArrayList<>(userIds);
+        List<String> keys = ids.stream()
+                .map(RedisKeyManager::userCardKey)
+                .collect(Collectors.toList());
+
+        List<Object> values = getRedisOps().multiGet(keys);
+        if (values == null) {
+            // Redis不可用，全部视为未命中
+            missed.addAll(ids);
+            return result;
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            Object value = i < values.size() ? values.get(i) : null;
+            if (NULL_VALUE.equals(value)) {
+                continue;
+            }
+            // 未开启类型信息，读出的是Map，需转回User；无法转换的按未命中处理
+            User card = getRedisOps().convertValue(value, User.class);
+            if (card != null) {
+                result.put(ids.get(i), card);
+            } else {
+                missed.add(ids.get(i));
+            }
+        }
+        log.debug("[缓存] 用户卡片批量读取 - total: {}, hit: {}, miss: {}", ids.size(), result.size(), missed.size());
+        return result;
+    }
+
+    /**
+     * 批量写入用户卡片，查询不到的用户写入空值标记
+     *
+     * @param requestedIds 本次查询的用户ID
+     * @param users        数据库查询结果
+     */
+    public void cacheCards(Collection<Long> requestedIds, Map<Long, User> users) {
+        Map<String, Object> cards = new HashMap<>();
+        users.forEach((id, user) -> cards.put(RedisKeyManager.userCardKey(id), user));
+        if (!cards.isEmpty()) {
+            getRedisOps().multiSet(cards, RedisKeyManager.USER_CARD_TTL);
+        }
+
+        Map<String, Object> nullMarkers = new HashMap<>();
+        for (Long id : requestedIds) {
+            if (!users.containsKey(id)) {
+                nullMarkers.put(RedisKeyManager.userCardKey(id), NULL_VALUE);
+            }
+        }
+        if (!nullMarkers.isEmpty()) {
+            getRedisOps().multiSet(nullMarkers, RedisKeyManager.EMPTY_RESULT_TTL);
+        }
+    }
+
+    /**
+     * 删除用户卡片
+     */
+    public void evictCards(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        deleteCacheBatch(userIds.stream()
+                .map(RedisKeyManager::userCardKey)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * 从完整用户实体提取卡片字段
+     */
+    public static User toCard(User user) {
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .nickname(user.getNickname())
+                .avatar(user.getAvatar())
+                .gender(user.getGender())
+                .description(user.getDescription())
+                .status(user.getStatus())
+                .userType(user.getUserType())
+                .followCount(user.getFollowCount())
+                .fansCount(user.getFansCount())
+                .likeCount(user.getLikeCount())
+                .postCount(user.getPostCount())
+                .commentCount(user.getCommentCount())
+                .createTime(user.getCreateTime())
+                .build();
+    }
+}
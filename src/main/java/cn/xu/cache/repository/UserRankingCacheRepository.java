@@ -3,6 +3,8 @@ package cn.xu.cache.repository;
 import cn.xu.cache.core.BaseCacheRepository;
 import cn.xu.cache.core.RedisKeyManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
@@ -17,6 +19,20 @@ import java.util.stream.Collectors;
 @Repository
 public class UserRankingCacheRepository extends BaseCacheRepository {
 
+    /**
+     * 增量更新脚本：KEYS: 排行Key；ARGV[1]: 用户ID；ARGV[2]: 容量；ARGV[3..]: 与KEYS一一对应的分数
+     */
+    private static final String UPDATE_SCORE_SCRIPT =
+            "for i, key in ipairs(KEYS) do " +
+            "  if redis.call('EXISTS', key) == 1 then " +
+            "    redis.call('ZADD', key, ARGV[i + 2], ARGV[1]) " +
+            "    redis.call('ZREMRANGEBYRANK', key, 0, -(tonumber(ARGV[2]) + 1)) " +
+            "  end " +
+            "end " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> UPDATE_SCORE_REDIS_SCRIPT = new DefaultRedisScript<>(UPDATE_SCORE_SCRIPT, Long.class);
+
     /**
      * 获取用户排行榜ID列表
      * @param sortType 排序类型：fans(粉丝数)、likes(获赞数)、posts(帖子数)、comprehensive(综合)
@@ -45,36 +61,69 @@ public class UserRankingCacheRepository extends BaseCacheRepository {
     }
 
     /**
-     * 缓存用户排行榜
+     * 发布用户排行榜（双缓冲）
+     * <p>先在临时Key中构建完整排行，再RENAME覆盖线上Key；RENAME是原子的，读取方始终看到完整的旧排行或新排行</p>
+     * <p>构建、设置过期时间和切换在同一管道中完成，一次往返</p>
      * @param sortType 排序类型
      * @param userScores 用户ID和分数的映射
      */
     public void cacheUserRanking(String sortType, Map<Long, Double> userScores) {
+        String redisKey = RedisKeyManager.userRankingKey(sortType);
         if (userScores == null || userScores.isEmpty()) {
+            deleteCache(redisKey);
             cacheEmptyResult(sortType);
             return;
         }
 
-        String redisKey = RedisKeyManager.userRankingKey(sortType);
+        Set<ZSetOperations.TypedTuple<Object>> tuples = toTuples(userScores);
+        if (tuples.isEmpty()) {
+            return;
+        }
+        String stagingKey = redisKey + ":rebuilding";
         
         try {
-            deleteCache(redisKey); // 先清空旧数据
-            
-            // 批量插入新数据
-            userScores.forEach((userId, score) -> {
-                if (score != null && userId != null) {
-                    redisOps.zAdd(redisKey, userId.toString(), score);
-                }
-            });
-            
-            expire(redisKey, RedisKeyManager.RANKING_TTL);
+            List<Object> results = redisOps.pipeline()
+                    .delete(stagingKey)
+                    .zAdd(stagingKey, tuples)
+                    .expire(stagingKey, RedisKeyManager.USER_RANKING_TTL)
+                    .rename(stagingKey, redisKey)
+                    .delete(redisKey + ":empty")
+                    .execute();
+            if (results == null) {
+                log.warn("[缓存] 发布用户排行榜失败，保留旧排行 - key: {}", redisKey);
+                return;
+            }
             
-            log.debug("缓存用户排行榜成功: key={}, size={}", redisKey, userScores.size());
+            log.debug("发布用户排行榜成功: key={}, size={}", redisKey, tuples.size());
         } catch (Exception e) {
-            log.error("[缓存] 缓存用户排行榜失败 - key: {}", redisKey, e);
+            log.error("[缓存] 发布用户排行榜失败 - key: {}", redisKey, e);
         }
     }
 
+    /**
+     * 增量更新单个用户在多个排行中的分数
+     * <p>只更新已发布的排行（排行不存在时不创建，避免读取方把单个成员当成完整排行），更新后裁剪到容量上限</p>
+     * @param userId 用户ID
+     * @param scores 排序类型和分数的映射
+     * @param capacity 排行容量
+     */
+    public void updateUserScores(Long userId, Map<String, Double> scores, int capacity) {
+        if (userId == null || scores == null || scores.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(scores.size());
+        Object[] args = new Object[scores.size() + 2];
+        args[0] = userId.toString();
+        args[1] = capacity;
+        int i = 2;
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            keys.add(RedisKeyManager.userRankingKey(entry.getKey()));
+            args[i++] = entry.getValue();
+        }
+        redisOps.execute(UPDATE_SCORE_REDIS_SCRIPT, keys, args);
+        log.debug("增量更新用户排行榜分数: userId={}, scores={}", userId, scores);
+    }
+
     /**
      * 更新单个用户的排行榜分数
      * @param sortType 排序类型
@@ -106,11 +155,7 @@ public class UserRankingCacheRepository extends BaseCacheRepository {
         
         try {
             // 批量更新排行榜分数
-            userScores.forEach((userId, score) -> {
-                if (score != null && userId != null) {
-                    redisOps.zAdd(redisKey, userId.toString(), score);
-                }
-            });
+            redisOps.zAddAll(redisKey, toTuples(userScores));
             
             log.debug("批量更新用户排行榜成功: key={}, size={}", redisKey, userScores.size());
         } catch (Exception e) {
@@ -229,9 +274,7 @@ public class UserRankingCacheRepository extends BaseCacheRepository {
         
         try {
             // 批量删除无效的ID
-            for (Long invalidId : invalidIds) {
-                redisOps.zRemove(redisKey, invalidId.toString());
-            }
+            redisOps.zRemove(redisKey, invalidIds.stream().map(String::valueOf).toArray());
             
             log.info("[缓存] 清理无效数据成功 - key: {}, count: {}", redisKey, invalidIds.size());
         } catch (Exception e) {
@@ -239,4 +282,17 @@ public class UserRankingCacheRepository extends BaseCacheRepository {
         }
     }
 
+    /**
+     * 用户ID和分数转换为ZSet成员（成员统一使用字符串形式的用户ID）
+     */
+    private Set<ZSetOperations.TypedTuple<Object>> toTuples(Map<Long, Double> userScores) {
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        userScores.forEach((userId, score) -> {
+            if (score != null && userId != null) {
+                tuples.add(ZSetOperations.TypedTuple.of(userId.toString(), score));
+            }
+        });
+        return tuples;
+    }
+
 }
@@ -1,7 +1,9 @@
 package cn.xu.cache.service;
 
 import cn.xu.cache.core.DistributedLock;
+import cn.xu.cache.core.LocalCacheManager;
 import cn.xu.cache.core.RedisOperations;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +24,7 @@ import java.util.stream.Collectors;
  *   <li>缓存击穿：分布式锁</li>
  *   <li>缓存雪崩：随机过期时间</li>
  *   <li>降级处理：Redis 不可用时直接查库</li>
+ *   <li>本地缓存：配置了前缀的Key先查本地缓存（L1），再查Redis（L2）</li>
  * </ul>
  */
 @Slf4j
@@ -32,6 +35,7 @@ public class CacheService {
     private final RedisOperations redisOps;
     private final DistributedLock distributedLock;
     private final ObjectMapper objectMapper;
+    private final LocalCacheManager localCache;
 
     // 空值缓存标记
     private static final String NULL_VALUE = "NULL";
@@ -60,8 +64,8 @@ public class CacheService {
      */
     public <T> T getOrLoad(String key, Supplier<T> loader, long ttl, Class<T> valueType) {
         try {
-            // 1. 尝试从缓存获取
-            Object cached = redisOps.get(key);
+            // 1. 尝试从缓存获取（L1 -> L2）
+            Object cached = readCache(key, RedisOperations.typeOf(valueType));
             if (cached != null) {
                 if (NULL_VALUE.equals(cached)) {
                     log.debug("缓存命中空值: key={}", key);
@@ -72,7 +76,7 @@ public class CacheService {
             }
 
             // 2. 缓存未命中，从数据源加载
-            T value = loader.get();
+            T value = load(key, loader);
 
             // 3. 写入缓存（包括空值）
             if (value == null) {
@@ -82,7 +86,7 @@ public class CacheService {
             } else {
                 // 添加随机过期时间，防止缓存雪崩
                 long actualTtl = ttl + ThreadLocalRandom.current().nextInt(RANDOM_TTL_RANGE);
-                redisOps.set(key, value, actualTtl);
+                writeCache(key, value, RedisOperations.typeOf(valueType), actualTtl);
                 log.debug("写入缓存: key={}, ttl={}s", key, actualTtl);
             }
 
@@ -116,8 +120,8 @@ public class CacheService {
      */
     public <T> T getOrLoadWithLock(String key, Supplier<T> loader, long ttl, Class<T> valueType) {
         try {
-            // 1. 尝试从缓存获取
-            Object cached = redisOps.get(key);
+            // 1. 尝试从缓存获取（L1 -> L2）
+            Object cached = readCache(key, RedisOperations.typeOf(valueType));
             if (cached != null) {
                 if (NULL_VALUE.equals(cached)) {
                     return null;
@@ -132,7 +136,7 @@ public class CacheService {
                 if (distributedLock.tryLock(lockKey)) {
                     try {
                         // 双重检查：获取锁后再次检查缓存
-                        cached = redisOps.get(key);
+                        cached = readCache(key, RedisOperations.typeOf(valueType));
                         if (cached != null) {
                             if (NULL_VALUE.equals(cached)) {
                                 return null;
@@ -141,14 +145,14 @@ public class CacheService {
                         }
 
                         // 从数据源加载
-                        T value = loader.get();
+                        T value = load(key, loader);
 
                         // 写入缓存
                         if (value == null) {
                             redisOps.set(key, NULL_VALUE, NULL_CACHE_TTL);
                         } else {
                             long actualTtl = ttl + ThreadLocalRandom.current().nextInt(RANDOM_TTL_RANGE);
-                            redisOps.set(key, value, actualTtl);
+                            writeCache(key, value, RedisOperations.typeOf(valueType), actualTtl);
                         }
 
                         return value;
@@ -166,7 +170,7 @@ public class CacheService {
                 }
 
                 // 重试前再次检查缓存（可能其他线程已加载完成）
-                cached = redisOps.get(key);
+                cached = readCache(key, RedisOperations.typeOf(valueType));
                 if (cached != null) {
                     if (NULL_VALUE.equals(cached)) {
                         return null;
@@ -228,27 +232,40 @@ public class CacheService {
                     .map(id -> keyPrefix + id)
                     .collect(Collectors.toList());
 
-            // 2. 批量获取缓存
-            List<Object> cachedValues = redisOps.multiGet(keys);
+            // 2. 先查本地缓存，只有本地未命中的才批量查询 Redis
+            List<ID> remoteIds = new ArrayList<>();
+            List<String> remoteKeys = new ArrayList<>();
+            for (int i = 0; i < idList.size(); i++) {
+                Object local = localCache.get(keys.get(i), RedisOperations.typeOf(valueType));
+                if (local != null) {
+                    result.put(idList.get(i), convertValue(local, valueType));
+                } else {
+                    remoteIds.add(idList.get(i));
+                    remoteKeys.add(keys.get(i));
+                }
+            }
+            List<Object> cachedValues = remoteKeys.isEmpty()
+                    ? Collections.emptyList() : redisOps.multiGet(remoteKeys);
 
             // 3. 分离命中和未命中的 ID
             List<ID> missedIds = new ArrayList<>();
             if (cachedValues != null) {
-                for (int i = 0; i < idList.size(); i++) {
+                for (int i = 0; i < remoteIds.size(); i++) {
                     Object cached = cachedValues.get(i);
-                    ID id = idList.get(i);
+                    ID id = remoteIds.get(i);
                     if (cached == null) {
                         missedIds.add(id);
                     } else if (!NULL_VALUE.equals(cached)) {
                         T value = convertValue(cached, valueType);
                         if (value != null) {
                             result.put(id, value);
+                            localCache.put(remoteKeys.get(i), value, RedisOperations.typeOf(valueType));
                         }
                     }
                     // NULL_VALUE 表示空值缓存，不加入结果
                 }
             } else {
-                missedIds.addAll(idList);
+                missedIds.addAll(remoteIds);
             }
 
             log.debug("批量缓存查询: total={}, hit={}, miss={}",
@@ -256,7 +273,9 @@ public class CacheService {
 
             // 4. 加载未命中的数据
             if (!missedIds.isEmpty()) {
+                long loadStart = System.nanoTime();
                 List<T> loadedValues = loader.apply(missedIds);
+                localCache.recordLoad(keyPrefix, System.nanoTime() - loadStart);
                 Map<ID, T> loadedMap = loadedValues.stream()
                         .collect(Collectors.toMap(idExtractor, v -> v, (a, b) -> a));
 
@@ -268,6 +287,7 @@ public class CacheService {
                     if (value != null) {
                         result.put(id, value);
                         toCache.put(key, value);
+                        localCache.put(key, value, RedisOperations.typeOf(valueType));
                     } else {
                         // 缓存空值
                         toCache.put(key, NULL_VALUE);
@@ -314,6 +334,7 @@ public class CacheService {
      */
     public void evict(String key) {
         redisOps.delete(key);
+        localCache.evict(key);
         log.debug("删除缓存: key={}", key);
     }
 
@@ -328,6 +349,7 @@ public class CacheService {
                 .map(id -> keyPrefix + id)
                 .collect(Collectors.toList());
         redisOps.delete(keys);
+        localCache.evictAll(keys);
         log.debug("批量删除缓存: count={}", keys.size());
     }
 
@@ -337,6 +359,7 @@ public class CacheService {
      * @param pattern 匹配模式，如 "comment:hot:page:1:100:*"
      */
     public void evictByPattern(String pattern) {
+        localCache.evictByPattern(pattern);
         try {
             Set<String> keys = redisOps.scan(pattern, 100);
             if (!keys.isEmpty()) {
@@ -353,10 +376,20 @@ public class CacheService {
     /**
      * 获取列表缓存
      */
-    @SuppressWarnings("unchecked")
     public <T> List<T> getListOrLoad(String key, Supplier<List<T>> loader, long ttl) {
+        return getListOrLoad(key, loader, ttl, null);
+    }
+
+    /**
+     * 获取列表缓存，命中时把元素转换为指定类型
+     *
+     * @param elementType 元素类型，为null时命中结果的对象元素为Map
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getListOrLoad(String key, Supplier<List<T>> loader, long ttl, Class<T> elementType) {
+        JavaType listType = elementType != null ? RedisOperations.listTypeOf(elementType) : null;
         try {
-            Object cached = redisOps.get(key);
+            Object cached = readCache(key, listType);
             if (cached != null) {
                 if (NULL_VALUE.equals(cached)) {
                     return Collections.emptyList();
@@ -364,12 +397,12 @@ public class CacheService {
                 return (List<T>) cached;
             }
 
-            List<T> value = loader.get();
+            List<T> value = load(key, loader);
             if (value == null || value.isEmpty()) {
                 redisOps.set(key, NULL_VALUE, NULL_CACHE_TTL);
             } else {
                 long actualTtl = ttl + ThreadLocalRandom.current().nextInt(RANDOM_TTL_RANGE);
-                redisOps.set(key, value, actualTtl);
+                writeCache(key, value, listType, actualTtl);
             }
             return value != null ? value : Collections.emptyList();
         } catch (Exception e) {
@@ -383,11 +416,21 @@ public class CacheService {
      * 获取列表缓存，带分布式锁防止缓存击穿
      * <p>适用于热点列表数据</p>
      */
-    @SuppressWarnings("unchecked")
     public <T> List<T> getListOrLoadWithLock(String key, Supplier<List<T>> loader, long ttl) {
+        return getListOrLoadWithLock(key, loader, ttl, null);
+    }
+
+    /**
+     * 获取列表缓存，带分布式锁，命中时把元素转换为指定类型
+     *
+     * @param elementType 元素类型，为null时命中结果的对象元素为Map
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getListOrLoadWithLock(String key, Supplier<List<T>> loader, long ttl, Class<T> elementType) {
+        JavaType listType = elementType != null ? RedisOperations.listTypeOf(elementType) : null;
         try {
             // 1. 尝试从缓存获取
-            Object cached = redisOps.get(key);
+            Object cached = readCache(key, listType);
             if (cached != null) {
                 if (NULL_VALUE.equals(cached)) {
                     return Collections.emptyList();
@@ -402,7 +445,7 @@ public class CacheService {
                 if (distributedLock.tryLock(lockKey)) {
                     try {
                         // 双重检查：获取锁后再次检查缓存
-                        cached = redisOps.get(key);
+                        cached = readCache(key, listType);
                         if (cached != null) {
                             if (NULL_VALUE.equals(cached)) {
                                 return Collections.emptyList();
@@ -411,14 +454,14 @@ public class CacheService {
                         }
 
                         // 从数据源加载
-                        List<T> value = loader.get();
+                        List<T> value = load(key, loader);
 
                         // 写入缓存
                         if (value == null || value.isEmpty()) {
                             redisOps.set(key, NULL_VALUE, NULL_CACHE_TTL);
                         } else {
                             long actualTtl = ttl + ThreadLocalRandom.current().nextInt(RANDOM_TTL_RANGE);
-                            redisOps.set(key, value, actualTtl);
+                            writeCache(key, value, listType, actualTtl);
                         }
 
                         return value != null ? value : Collections.emptyList();
@@ -436,7 +479,7 @@ public class CacheService {
                 }
 
                 // 重试前再次检查缓存（可能其他线程已加载完成）
-                cached = redisOps.get(key);
+                cached = readCache(key, listType);
                 if (cached != null) {
                     if (NULL_VALUE.equals(cached)) {
                         return Collections.emptyList();
@@ -457,6 +500,52 @@ public class CacheService {
         }
     }
     
+    // ==================== 两级缓存读写 ====================
+
+    /**
+     * 读取缓存：先查本地缓存，未命中再查 Redis 并回填本地缓存
+     * <p>本地缓存命中时返回的是共享对象，调用方不能修改，需要修改时先复制</p>
+     *
+     * @param type 值类型，为null时返回Redis读出的原始结构；Redis中的值无法转换为该类型时按未命中处理
+     */
+    private Object readCache(String key, JavaType type) {
+        Object local = localCache.get(key, type);
+        if (local != null) {
+            return local;
+        }
+        Object cached = redisOps.get(key);
+        if (cached != null && !NULL_VALUE.equals(cached)) {
+            Object value = type != null ? redisOps.convertValue(cached, type) : cached;
+            if (value != null) {
+                localCache.put(key, value, type);
+            }
+            return value;
+        }
+        return cached;
+    }
+
+    /**
+     * 写入 Redis 和本地缓存
+     *
+     * @param type 值类型，与读取时传入的类型一致
+     */
+    private void writeCache(String key, Object value, JavaType type, long ttl) {
+        redisOps.set(key, value, ttl);
+        localCache.put(key, value, type);
+    }
+
+    /**
+     * 从数据源加载并记录耗时
+     */
+    private <T> T load(String key, Supplier<T> loader) {
+        long start = System.nanoTime();
+        try {
+            return loader.get();
+        } finally {
+            localCache.recordLoad(key, System.nanoTime() - start);
+        }
+    }
+
     // ==================== 类型转换工具 ====================
     
     /**
@@ -13,6 +13,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -38,11 +39,22 @@ public class RedisConfig {
         return new StringRedisTemplate(factory);
     }
 
+    /**
+     * Redis发布/订阅监听容器
+     * 由各订阅方在启动时自行注册监听的频道
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
+
     /**
      * 创建用于Redis序列化的ObjectMapper
-     * 支持Java 8时间类型
+     * 支持Java 8时间类型；{@link cn.xu.cache.core.RedisOperations#convertValue} 用同样的配置把读出的Map转回对象
      */
-    private ObjectMapper createRedisObjectMapper() {
+    public static ObjectMapper createRedisObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         
         // 配置 Java 8 时间类型序列化
@@ -1,6 +1,7 @@
 package cn.xu.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,6 +22,7 @@ public class ThreadPoolConfig {
 
     private ExecutorService likePool;
     private ExecutorService notifyPool;
+    private ExecutorService searchPool;
 
     /**
      * 点赞服务专用线程池
@@ -56,6 +58,27 @@ public class ThreadPoolConfig {
         return notifyPool;
     }
 
+    /**
+     * 聚合搜索专用线程池
+     * <p>队列有界，队列满时直接拒绝（对应分组按未完成返回），不在请求线程上执行，避免排队拖慢所有用户</p>
+     */
+    @Bean("searchThreadPool")
+    public ExecutorService searchThreadPool(
+            @Value("${app.search.aggregate.pool-size:32}") int poolSize,
+            @Value("${app.search.aggregate.queue-capacity:256}") int queueCapacity) {
+        searchPool = new ThreadPoolExecutor(
+                poolSize,               // 核心线程数
+                poolSize,               // 最大线程数
+                60L,                    // 空闲线程存活时间
+                TimeUnit.SECONDS,       // 时间单位
+                new LinkedBlockingQueue<>(queueCapacity),  // 工作队列
+                r -> new Thread(r, "search-aggregate-thread-" + r.hashCode()),  // 线程工厂
+                new ThreadPoolExecutor.AbortPolicy()  // 拒绝策略
+        );
+        ((ThreadPoolExecutor) searchPool).allowCoreThreadTimeOut(true);
+        return searchPool;
+    }
+
     /**
      * 应用关闭时优雅关闭线程池
      */
@@ -64,6 +87,7 @@ public class ThreadPoolConfig {
         log.info("正在关闭线程池...");
         shutdownPool(likePool, "likeThreadPool");
         shutdownPool(notifyPool, "notifyThreadPool");
+        shutdownPool(searchPool, "searchThreadPool");
         log.info("线程池已关闭");
     }
 
@@ -0,0 +1,250 @@
+package cn.xu.config.websocket;
+
+import cn.xu.cache.core.RedisKeyManager;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket集群推送
+ * <p>发送给用户的消息：本节点有会话时直接交给本地消息代理；用户在其他节点在线时，
+ * 按目标节点放入发件队列，由后台线程定期把每个节点的待发消息合并为一条，发布到该节点的 ws:node:{nodeId} 频道</p>
+ * <p>每个节点只订阅自己的频道，收到后交给本地消息代理投递到会话</p>
+ * <p>{@link #sendToUsers} 用于同一消息的批量推送（如系统通知群发），避免逐个用户查询在线节点</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketClusterMessenger implements MessageListener {
+
+    private static final TypeReference<List<Frame>> FRAME_LIST_TYPE = new TypeReference<>() {
+    };
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketSessionManager sessionManager;
+    private final WebSocketPresenceRegistry presenceRegistry;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 发件队列合并发送的间隔（毫秒）
+     */
+    @Value("${app.websocket.cluster.batch-interval-ms:20}")
+    private long batchIntervalMs;
+
+    /**
+     * 单条频道消息最多包含的推送帧数
+     */
+    @Value("${app.websocket.cluster.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 目标节点 -> 待转发的推送帧
+     */
+    private final Map<String, Queue<Frame>> outbox = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    /**
+     * 转发给其他节点的推送帧（同一消息发给该节点上的多个用户）
+     */
+    public record Frame(List<Long> userIds, String destination, Object payload) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!presenceRegistry.isEnabled()) {
+            return;
+        }
+        listenerContainer.addMessageListener(this,
+                new ChannelTopic(RedisKeyManager.wsNodeChannel(presenceRegistry.getNodeId())));
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-cluster-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 推送给用户的所有会话（可能分布在多个节点）
+     *
+     * @param userId      用户ID
+     * @param destination 用户目的地（如 /queue/notifications）
+     * @param payload     消息内容
+     * @return 用户是否在线（本节点已投递或已放入其他节点的发件队列）
+     */
+    public boolean sendToUser(Long userId, String destination, Object payload) {
+        if (userId == null) {
+            return false;
+        }
+        return !sendToUsers(List.of(userId), destination, payload).isEmpty();
+    }
+
+    /**
+     * 同一消息推送给多个用户
+     * <p>在线节点一次批量查询；本节点的会话共用一次转换后的消息体；
+     * 同一节点上的用户合并为一个推送帧转发</p>
+     *
+     * @return 在线的用户（本节点已投递或已放入其他节点的发件队列）
+     */
+    public Set<Long> sendToUsers(Collection<Long> userIds, String destination, Object payload) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Long> targets = new LinkedHashSet<>(userIds);
+        targets.remove(null);
+
+        Set<Long> delivered = new HashSet<>();
+        List<Long> local = new ArrayList<>();
+        for (Long userId : targets) {
+            if (sessionManager.hasLocalSession(userId)) {
+                local.add(userId);
+            }
+        }
+        deliverLocal(local, destination, payload);
+        delivered.addAll(local);
+
+        if (presenceRegistry.isEnabled() && !targets.isEmpty()) {
+            Map<String, List<Long>> usersByNode = new HashMap<>();
+            presenceRegistry.nodesOf(targets).forEach((userId, nodes) -> {
+                for (String node : nodes) {
+                    if (!node.equals(presenceRegistry.getNodeId())) {
+                        usersByNode.computeIfAbsent(node, k -> new ArrayList<>()).add(userId);
+                        delivered.add(userId);
+                    }
+                }
+            });
+            usersByNode.forEach((node, ids) -> outbox.computeIfAbsent(node, k -> new ConcurrentLinkedQueue<>())
+                    .add(new Frame(ids, destination, payload)));
+        }
+        return delivered;
+    }
+
+    /**
+     * 投递给本节点的会话，多个用户时消息体只转换一次
+     */
+    private void deliverLocal(List<Long> userIds, String destination, Object payload) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (userIds.size() == 1) {
+            messagingTemplate.convertAndSendToUser(userIds.get(0).toString(), destination, payload);
+            return;
+        }
+        org.springframework.messaging.Message<?> converted = messagingTemplate.getMessageConverter().toMessage(payload, null);
+        String prefix = messagingTemplate.getUserDestinationPrefix();
+        for (Long userId : userIds) {
+            try {
+                if (converted != null) {
+                    messagingTemplate.send(prefix + userId + destination, converted);
+                } else {
+                    messagingTemplate.convertAndSendToUser(userId.toString(), destination, payload);
+                }
+            } catch (Exception e) {
+                log.warn("[WebSocket集群] 本节点投递失败: userId={}, error={}", userId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 收到其他节点转发的推送帧
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<Frame> frames;
+        try {
+            frames = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), FRAME_LIST_TYPE);
+        } catch (Exception e) {
+            log.warn("[WebSocket集群] 解析转发消息失败: {}", e.getMessage());
+            return;
+        }
+        for (Frame frame : frames) {
+            List<Long> local = new ArrayList<>(frame.userIds().size());
+            for (Long userId : frame.userIds()) {
+                if (sessionManager.hasLocalSession(userId)) {
+                    local.add(userId);
+                }
+            }
+            try {
+                deliverLocal(local, frame.destination(), frame.payload());
+            } catch (Exception e) {
+                log.warn("[WebSocket集群] 投递转发消息失败: users={}, error={}", local.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把各节点的发件队列合并发布到对应频道
+     */
+    private void flush() {
+        for (Map.Entry<String, Queue<Frame>> entry : outbox.entrySet()) {
+            Queue<Frame> queue = entry.getValue();
+            while (!queue.isEmpty()) {
+                List<Frame> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+                Frame frame;
+                while (batch.size() < batchSize && (frame = queue.poll()) != null) {
+                    batch.add(frame);
+                }
+                if (!batch.isEmpty()) {
+                    publish(entry.getKey(), batch);
+                }
+            }
+        }
+    }
+
+    private void publish(String node, List<Frame> batch) {
+        try {
+            Long receivers = stringRedisTemplate.convertAndSend(
+                    RedisKeyManager.wsNodeChannel(node), objectMapper.writeValueAsString(batch));
+            if (receivers == null || receivers == 0) {
+                log.debug("[WebSocket集群] 目标节点未订阅，丢弃推送 - node: {}, frames: {}", node, batch.size());
+            }
+        } catch (Exception e) {
+            log.warn("[WebSocket集群] 转发推送失败 - node: {}, frames: {}, error: {}", node, batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -34,6 +34,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // 启用简单消息代理，处理以/topic和/queue为前缀的消息
+        // 代理只投递本节点的会话，发给其他节点用户的消息由 WebSocketClusterMessenger 经Redis转发
         // /topic: 广播消息（如系统公告）
         // /queue: 点对点消息（如个人通知）
         registry.enableSimpleBroker("/topic", "/queue")
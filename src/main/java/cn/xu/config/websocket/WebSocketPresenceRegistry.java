@@ -0,0 +1,222 @@
+package cn.xu.config.websocket;
+
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.cache.core.RedisOperations;
+import cn.xu.cache.core.RedisPipeline;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * WebSocket在线状态注册表（集群）
+ * <p>用户在本节点建立第一个会话时把本节点ID加入 ws:presence:{userId}，最后一个会话断开时移除；
+ * 各节点定期在 ws:nodes 中写入心跳，查询用户所在节点时只返回心跳未过期的节点</p>
+ * <p>关闭集群模式（app.websocket.cluster.enabled=false）时不访问Redis，只有本节点的会话</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketPresenceRegistry {
+
+    /**
+     * 本节点ID（每次启动生成）
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+
+    /**
+     * 发现未知节点时重新读取存活节点的最小间隔
+     */
+    private static final long ALIVE_REFRESH_MIN_INTERVAL_MS = 1000;
+
+    private final RedisOperations redisOps;
+
+    @Value("${app.websocket.cluster.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 节点心跳超时时间（秒），超过该时间未心跳的节点视为已下线
+     */
+    @Value("${app.websocket.cluster.node-ttl:90}")
+    private int nodeTtlSeconds;
+
+    private volatile Set<String> aliveNodes = Collections.emptySet();
+    private volatile long aliveRefreshedAt = 0;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("[WebSocket集群] 未启用，推送只到达本节点的会话");
+            return;
+        }
+        heartbeat(Collections.emptySet());
+        log.info("[WebSocket集群] 已启用 - nodeId: {}, aliveNodes: {}", NODE_ID, aliveNodes.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return NODE_ID;
+    }
+
+    /**
+     * 用户在本节点上线（本节点第一个会话建立时调用）
+     */
+    public void online(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        String key = RedisKeyManager.wsPresenceKey(userId);
+        redisOps.pipeline()
+                .sAdd(key, NODE_ID)
+                .expire(key, RedisKeyManager.WS_PRESENCE_TTL)
+                .execute();
+    }
+
+    /**
+     * 用户在本节点下线（本节点最后一个会话断开时调用）
+     */
+    public void offline(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        redisOps.sRemove(RedisKeyManager.wsPresenceKey(userId), NODE_ID);
+    }
+
+    /**
+     * 查询持有用户会话的存活节点（可能包含本节点）
+     */
+    public Set<String> nodesOf(Long userId) {
+        if (!enabled || userId == null) {
+            return Collections.emptySet();
+        }
+        String key = RedisKeyManager.wsPresenceKey(userId);
+        return filterAlive(key, redisOps.sMembers(key));
+    }
+
+    /**
+     * 批量查询多个用户所在的存活节点（一次管道往返）
+     *
+     * @return userId -> 节点集合，不在线的用户不在结果中
+     */
+    public Map<Long, Set<String>> nodesOf(Collection<Long> userIds) {
+        if (!enabled || userIds == null || userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        RedisPipeline pipeline = redisOps.pipeline();
+        for (Long userId : ids) {
+            pipeline.sMembers(RedisKeyManager.wsPresenceKey(userId));
+        }
+        List<Object> results = pipeline.execute();
+        if (results == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, Set<String>> nodesByUser = new HashMap<>();
+        for (int i = 0; i < ids.size() && i < results.size(); i++) {
+            if (results.get(i) instanceof Set<?> members && !members.isEmpty()) {
+                Set<String> nodes = filterAlive(RedisKeyManager.wsPresenceKey(ids.get(i)), members);
+                if (!nodes.isEmpty()) {
+                    nodesByUser.put(ids.get(i), nodes);
+                }
+            }
+        }
+        return nodesByUser;
+    }
+
+    /**
+     * 过滤出心跳未过期的节点，确认已下线的节点从在线集合中移除
+     */
+    private Set<String> filterAlive(String key, Collection<?> members) {
+        if (members == null || members.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> nodes = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (Object member : members) {
+            String node = member.toString();
+            if (NODE_ID.equals(node) || aliveNodes.contains(node)) {
+                nodes.add(node);
+            } else {
+                unknown.add(node);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return nodes;
+        }
+
+        // 本地的存活节点列表可能还没包含新启动的节点，重新读取后再判断
+        if (System.currentTimeMillis() - aliveRefreshedAt >= ALIVE_REFRESH_MIN_INTERVAL_MS) {
+            refreshAliveNodes();
+            List<String> dead = new ArrayList<>();
+            for (String node : unknown) {
+                if (aliveNodes.contains(node)) {
+                    nodes.add(node);
+                } else {
+                    dead.add(node);
+                }
+            }
+            if (!dead.isEmpty()) {
+                redisOps.sRemove(key, dead.toArray());
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * 节点心跳：写入本节点心跳并为本节点的在线用户续期，然后刷新存活节点列表
+     *
+     * @param localUserIds 本节点当前在线的用户
+     */
+    public void heartbeat(Collection<Long> localUserIds) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        RedisPipeline pipeline = redisOps.pipeline().zAdd(RedisKeyManager.wsNodesKey(), NODE_ID, now);
+        for (Long userId : localUserIds) {
+            String key = RedisKeyManager.wsPresenceKey(userId);
+            pipeline.sAdd(key, NODE_ID).expire(key, RedisKeyManager.WS_PRESENCE_TTL);
+        }
+        pipeline.execute();
+        redisOps.zRemoveRangeByScore(RedisKeyManager.wsNodesKey(), 0, now - nodeTtlSeconds * 1000L);
+        refreshAliveNodes();
+    }
+
+    /**
+     * 节点下线：移除本节点的心跳和所有在线记录
+     */
+    public void leave(Collection<Long> localUserIds) {
+        if (!enabled) {
+            return;
+        }
+        RedisPipeline pipeline = redisOps.pipeline().zRemove(RedisKeyManager.wsNodesKey(), NODE_ID);
+        for (Long userId : localUserIds) {
+            pipeline.sRemove(RedisKeyManager.wsPresenceKey(userId), NODE_ID);
+        }
+        pipeline.execute();
+        log.info("[WebSocket集群] 节点已下线 - nodeId: {}, users: {}", NODE_ID, localUserIds.size());
+    }
+
+    private void refreshAliveNodes() {
+        long now = System.currentTimeMillis();
+        Set<ZSetOperations.TypedTuple<Object>> tuples = redisOps.zReverseRangeByScoreWithScores(
+                RedisKeyManager.wsNodesKey(), now - nodeTtlSeconds * 1000L, Double.MAX_VALUE, 0, 10000);
+        Set<String> nodes = new HashSet<>();
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            if (tuple.getValue() != null) {
+                nodes.add(tuple.getValue().toString());
+            }
+        }
+        aliveNodes = nodes;
+        aliveRefreshedAt = now;
+    }
+}
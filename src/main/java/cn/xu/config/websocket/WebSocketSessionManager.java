@@ -1,76 +1,143 @@
 package cn.xu.config.websocket;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * WebSocket会话管理器
- * 
+ *
  * <p>管理用户WebSocket会话，支持一个用户多设备同时在线</p>
+ * <p>会话只保存在本节点内存中；用户在本节点上线、下线时同步到 {@link WebSocketPresenceRegistry}，
+ * 用于判断用户是否在集群中任一节点在线</p>
+ * <p>不使用全局锁：每个用户的会话集合是不可变集合，增删时通过 ConcurrentHashMap.compute 原子替换，
+ * 不同用户的连接、断开互不阻塞；读取时直接返回当前集合，不做复制</p>
+ * <p>在线记录在 compute 之外读写Redis，断开与重连并发时，最后一个会话断开后会重新检查本地会话，
+ * 避免用户仍有会话却被记为离线</p>
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class WebSocketSessionManager {
 
+    private final WebSocketPresenceRegistry presenceRegistry;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     /**
-     * userId -> sessionIds 映射
+     * userId -> sessionIds 映射（值为不可变集合）
      * 一个用户可以有多个session（多设备登录）
      */
-    private final Map<Long, Set<String>> userSessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> userSessions = new ConcurrentHashMap<>();
 
     /**
      * sessionId -> userId 反向映射
      * 用于快速查找session对应的用户
      */
-    private final Map<String, Long> sessionUsers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> sessionUsers = new ConcurrentHashMap<>();
+
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+
+    /**
+     * 连接数与连接变化指标
+     */
+    @PostConstruct
+    public void bindMetrics() {
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : Metrics.globalRegistry;
+        Gauge.builder("websocket.sessions", sessionUsers, ConcurrentHashMap::size)
+                .description("本节点WebSocket会话数")
+                .register(registry);
+        Gauge.builder("websocket.users", userSessions, ConcurrentHashMap::size)
+                .description("本节点在线用户数")
+                .register(registry);
+        FunctionCounter.builder("websocket.connects", connects, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("websocket.disconnects", disconnects, LongAdder::sum)
+                .register(registry);
+    }
 
     /**
      * 添加用户会话
-     * 已优化：使用 synchronized 保证 userSessions 和 sessionUsers 的原子性操作
      */
     public void addSession(Long userId, String sessionId) {
         if (userId == null || sessionId == null) {
             return;
         }
-        
-        // 使用 synchronized 保证两个 Map 操作的原子性
-        synchronized (this) {
-            userSessions.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet())
-                        .add(sessionId);
-            sessionUsers.put(sessionId, userId);
+
+        boolean[] firstSession = {false};
+        userSessions.compute(userId, (id, sessions) -> {
+            if (sessions == null) {
+                firstSession[0] = true;
+                return Set.of(sessionId);
+            }
+            if (sessions.contains(sessionId)) {
+                return sessions;
+            }
+            Set<String> next = new HashSet<>(sessions);
+            next.add(sessionId);
+            return Collections.unmodifiableSet(next);
+        });
+        if (sessionUsers.put(sessionId, userId) == null) {
+            connects.increment();
+        }
+        if (firstSession[0]) {
+            presenceRegistry.online(userId);
         }
-        
-        log.debug("[WebSocket] 添加会话: userId={}, sessionId={}, 当前会话数={}", 
+
+        log.debug("[WebSocket] 添加会话: userId={}, sessionId={}, 当前会话数={}",
                   userId, sessionId, getSessions(userId).size());
     }
 
     /**
      * 移除用户会话
-     * 已优化：使用 synchronized 保证 userSessions 和 sessionUsers 的原子性操作
      */
     public void removeSession(Long userId, String sessionId) {
         if (userId == null || sessionId == null) {
             return;
         }
-        
-        // 使用 synchronized 保证两个 Map 操作的原子性
-        synchronized (this) {
-            Set<String> sessions = userSessions.get(userId);
-            if (sessions != null) {
-                sessions.remove(sessionId);
-                if (sessions.isEmpty()) {
-                    userSessions.remove(userId);
-                }
+
+        boolean[] lastSession = {false};
+        userSessions.computeIfPresent(userId, (id, sessions) -> {
+            if (!sessions.contains(sessionId)) {
+                return sessions;
+            }
+            if (sessions.size() == 1) {
+                lastSession[0] = true;
+                return null;
+            }
+            Set<String> next = new HashSet<>(sessions);
+            next.remove(sessionId);
+            return Collections.unmodifiableSet(next);
+        });
+        if (sessionUsers.remove(sessionId, userId)) {
+            disconnects.increment();
+        }
+        if (lastSession[0]) {
+            presenceRegistry.offline(userId);
+            // 移除在线记录期间同一用户可能已重连（新会话的 online 可能早于这里的 offline），重新确认
+            if (userSessions.containsKey(userId)) {
+                presenceRegistry.online(userId);
             }
-            sessionUsers.remove(sessionId);
         }
-        
+
         log.debug("[WebSocket] 移除会话: userId={}, sessionId={}", userId, sessionId);
     }
 
@@ -85,45 +152,97 @@ public class WebSocketSessionManager {
     }
 
     /**
-     * 获取用户的所有会话
+     * 连接异常断开（未发送DISCONNECT帧）时也清理会话
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        removeSessionById(event.getSessionId());
+    }
+
+    /**
+     * 获取用户在本节点的所有会话（只读，不复制）
      */
     public Set<String> getSessions(Long userId) {
         if (userId == null) {
             return Collections.emptySet();
         }
         Set<String> sessions = userSessions.get(userId);
-        return sessions != null ? new HashSet<>(sessions) : Collections.emptySet();
+        return sessions != null ? sessions : Collections.emptySet();
     }
 
     /**
-     * 判断用户是否在线
+     * 判断用户是否在线（集群中任一节点）
      */
     public boolean isOnline(Long userId) {
         if (userId == null) {
             return false;
         }
-        Set<String> sessions = userSessions.get(userId);
-        return sessions != null && !sessions.isEmpty();
+        return hasLocalSession(userId) || !presenceRegistry.nodesOf(userId).isEmpty();
     }
 
     /**
-     * 获取所有在线用户ID
+     * 判断用户在本节点是否有会话
+     */
+    public boolean hasLocalSession(Long userId) {
+        return userId != null && userSessions.containsKey(userId);
+    }
+
+    /**
+     * 获取本节点所有在线用户ID（只读视图，随会话变化，不做复制）
      */
     public Set<Long> getOnlineUserIds() {
-        return new HashSet<>(userSessions.keySet());
+        return Collections.unmodifiableSet(userSessions.keySet());
     }
 
     /**
-     * 获取在线用户数量
+     * 获取本节点在线用户数量
      */
     public int getOnlineUserCount() {
         return userSessions.size();
     }
 
     /**
-     * 获取总会话数量
+     * 获取本节点总会话数量
      */
     public int getTotalSessionCount() {
         return sessionUsers.size();
     }
+
+    /**
+     * 累计连接次数
+     */
+    public long getConnectCount() {
+        return connects.sum();
+    }
+
+    /**
+     * 累计断开次数
+     */
+    public long getDisconnectCount() {
+        return disconnects.sum();
+    }
+
+    /**
+     * 节点心跳，同时为本节点的在线用户续期
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.cluster.heartbeat-interval:30000}")
+    public void heartbeat() {
+        try {
+            presenceRegistry.heartbeat(getOnlineUserIds());
+        } catch (Exception e) {
+            log.warn("[WebSocket] 节点心跳失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 应用关闭时移除本节点的在线记录
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            presenceRegistry.leave(getOnlineUserIds());
+        } catch (Exception e) {
+            log.warn("[WebSocket] 移除节点在线记录失败: {}", e.getMessage());
+        }
+    }
 }
@@ -2,6 +2,7 @@ package cn.xu.controller.admin;
 
 import cn.dev33.satoken.annotation.SaCheckLogin;
 import cn.dev33.satoken.annotation.SaCheckPermission;
+import cn.xu.cache.core.LocalCacheManager;
 import cn.xu.cache.core.RedisOperations;
 import cn.xu.common.ResponseCode;
 import cn.xu.common.annotation.ApiOperationLog;
@@ -36,6 +37,9 @@ public class SysCacheController {
     @Autowired(required = false)
     private RedisOperations redisOps;
 
+    @Autowired(required = false)
+    private LocalCacheManager localCacheManager;
+
     /**
      * 获取缓存信息
      *
@@ -204,6 +208,30 @@ public class SysCacheController {
                 .build();
     }
 
+    /**
+     * 获取本地缓存统计
+     *
+     * <p>按Key前缀返回本地缓存（L1）的条目数、命中、未命中和平均加载耗时
+     * <p>需要system:cache:list权限
+     *
+     * @return 各前缀的统计信息
+     */
+    @GetMapping("/local/stats")
+    @Operation(summary = "获取本地缓存统计")
+    @SaCheckLogin
+    @SaCheckPermission("system:cache:list")
+    @ApiOperationLog(description = "获取本地缓存统计")
+    public ResponseEntity<Map<String, Map<String, Object>>> getLocalCacheStats() {
+        Map<String, Map<String, Object>> stats = localCacheManager != null
+                ? localCacheManager.getStats() : Collections.emptyMap();
+
+        return ResponseEntity.<Map<String, Map<String, Object>>>builder()
+                .code(ResponseCode.SUCCESS.getCode())
+                .info("获取成功")
+                .data(stats)
+                .build();
+    }
+
     /**
      * 获取缓存Key的类型
      *
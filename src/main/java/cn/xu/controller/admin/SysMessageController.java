@@ -19,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -40,6 +41,11 @@ public class SysMessageController {
     private final NotificationRepository notificationRepository;
     private final UserMapper userMapper;
 
+    /**
+     * 群发系统通知时每批写入的通知数
+     */
+    private static final int SEND_BATCH_SIZE = 500;
+
     /**
      * 获取系统消息列表
      * 
@@ -133,13 +139,23 @@ public class SysMessageController {
             targetUserIds = request.getReceiverIds();
         }
         
-        // 为每个用户创建独立的通知记录
+        // 为每个用户创建独立的通知记录，分批写入，推送时同一批的在线用户一次群发
         int count = 0;
+        List<Notification> batch = new ArrayList<>(SEND_BATCH_SIZE);
         for (Long receiverId : targetUserIds) {
             Notification notification = Notification.createSystemNotification(
                     receiverId, request.getTitle(), request.getContent());
-            notificationService.sendNotification(notification);
-            count++;
+            notification.validate();
+            batch.add(notification);
+            if (batch.size() >= SEND_BATCH_SIZE) {
+                notificationService.sendNotifications(batch);
+                count += batch.size();
+                batch = new ArrayList<>(SEND_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            notificationService.sendNotifications(batch);
+            count += batch.size();
         }
         
         log.info("[管理端] 系统通知发送完成, 发送给{}个用户", count);
@@ -7,6 +7,7 @@ import cn.xu.common.response.ResponseEntity;
 import cn.xu.model.vo.search.AggregateSearchVO;
 import cn.xu.service.search.AggregateSearchService;
 import cn.xu.service.search.SearchHistoryService;
+import cn.xu.service.search.SearchSuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,6 +33,7 @@ public class AggregateSearchController {
     
     private final AggregateSearchService aggregateSearchService;
     private final SearchHistoryService searchHistoryService;
+    private final SearchSuggestionService searchSuggestionService;
     
     /**
      * 聚合搜索
@@ -271,7 +273,7 @@ public class AggregateSearchController {
     /**
      * 获取搜索建议
      * 
-     * <p>根据输入前缀匹配历史和热词
+     * <p>根据输入前缀匹配搜索历史、热词、标签和热门帖子标题，支持拼音首字母
      * 
      * @param prefix 输入前缀
      * @return 搜索建议列表
@@ -281,7 +283,7 @@ public class AggregateSearchController {
     public ResponseEntity<List<String>> getSuggestions(
             @Parameter(description = "输入前缀") @RequestParam String prefix) {
         Long userId = StpUtil.isLogin() ? StpUtil.getLoginIdAsLong() : null;
-        List<String> suggestions = searchHistoryService.getSuggestions(userId, prefix);
+        List<String> suggestions = searchSuggestionService.suggest(userId, prefix, 10);
         return ResponseEntity.<List<String>>builder()
                 .code(ResponseCode.SUCCESS.getCode())
                 .data(suggestions)
@@ -1,8 +1,11 @@
 package cn.xu.controller.web;
 
+import cn.xu.cache.core.RedisKeyManager;
 import cn.xu.cache.core.RedisOperations;
 import cn.xu.common.ResponseCode;
 import cn.xu.common.response.ResponseEntity;
+import cn.xu.elasticsearch.model.ReindexProgress;
+import cn.xu.elasticsearch.service.PostReindexService;
 import cn.xu.model.entity.Post;
 import cn.xu.service.post.PostQueryService;
 import cn.xu.service.post.PostStatisticsService;
@@ -38,6 +41,7 @@ public class ElasticsearchIndexController {
     private final SearchStrategy searchStrategy;
     private final PostQueryService postQueryService;
     private final PostStatisticsService postStatisticsService;
+    private final PostReindexService postReindexService;
     
     @org.springframework.beans.factory.annotation.Autowired(required = false)
     private RedisOperations redisOps;
@@ -50,95 +54,78 @@ public class ElasticsearchIndexController {
             ElasticsearchIndexManager indexManager,
             @Qualifier("elasticsearchSearchStrategy") SearchStrategy searchStrategy,
             PostQueryService postQueryService,
-            PostStatisticsService postStatisticsService) {
+            PostStatisticsService postStatisticsService,
+            PostReindexService postReindexService) {
         this.indexManager = indexManager;
         this.searchStrategy = searchStrategy;
         this.postQueryService = postQueryService;
         this.postStatisticsService = postStatisticsService;
+        this.postReindexService = postReindexService;
     }
 
     /**
      * 重新索引所有帖子
      * 
-     * <p>将MySQL中的所有已发布帖子重新索引到Elasticsearch
-     * <p>支持分批处理，适合大数据量场景
+     * <p>在后台启动全量重建：按主键游标读取已发布帖子，并行通过 _bulk 写入Elasticsearch
+     * <p>进度保存在Redis，中断后可续跑；集群内同一时间只有一个实例执行
      * 
-     * @param batchSize 批次大小，默认100
-     * @param offset 起始偏移量，默认0
-     * @return 索引结果统计
+     * @param resume 是否从上次未完成的进度续跑，默认true
+     * @return 启动后的重建进度
      */
     @PostMapping("/reindex")
-    @Operation(summary = "重新索引所有帖子", description = "将MySQL中的所有已发布帖子重新索引到Elasticsearch")
-    public ResponseEntity<ReindexResponse> reindexAllPosts(
-            @Parameter(description = "批次大小，默认100") @RequestParam(defaultValue = "100") int batchSize,
-            @Parameter(description = "起始偏移量，默认0") @RequestParam(defaultValue = "0") int offset) {
+    @Operation(summary = "重新索引所有帖子", description = "在后台将MySQL中的所有已发布帖子重新索引到Elasticsearch")
+    public ResponseEntity<ReindexProgress> reindexAllPosts(
+            @Parameter(description = "是否从上次未完成的进度续跑，默认true") @RequestParam(defaultValue = "true") boolean resume) {
         try {
-            log.info("开始重新索引所有帖子到Elasticsearch，batchSize={}, offset={}", batchSize, offset);
-            
-            int totalIndexed = 0;
-            int totalSkipped = 0;
-            int totalFailed = 0;
-            int currentOffset = offset;
-            
-            while (true) {
-                // 分批获取已发布的帖子
-                List<Post> posts = postQueryService.getAll(currentOffset / batchSize + 1, batchSize);
-                
-                if (posts == null || posts.isEmpty()) {
-                    break;
-                }
-                
-                // 索引每批帖子（只索引已发布的帖子）
-                for (Post post : posts) {
-                    try {
-                        // 只索引已发布的帖子
-                        if (Integer.valueOf(Post.STATUS_PUBLISHED).equals(post.getStatus())) {
-                            indexManager.indexPost(post);
-                            totalIndexed++;
-                        } else {
-                            totalSkipped++;
-                        }
-                    } catch (Exception e) {
-                        log.warn("索引帖子失败: postId={}", post.getId(), e);
-                        totalFailed++;
-                    }
-                }
-                
-                log.info("已索引 {} 个帖子，跳过 {} 个，失败 {} 个，当前批次: {} - {}", 
-                        totalIndexed, totalSkipped, totalFailed, currentOffset, currentOffset + posts.size());
-                
-                if (posts.size() < batchSize) {
-                    break;
-                }
-                
-                currentOffset += batchSize;
-            }
-            
-            ReindexResponse response = new ReindexResponse();
-            response.setTotalIndexed(totalIndexed);
-            response.setTotalSkipped(totalSkipped);
-            response.setTotalFailed(totalFailed);
-            response.setMessage("重新索引完成！");
-            
-            log.info("重新索引完成！共索引 {} 个帖子，跳过 {} 个，失败 {} 个", totalIndexed, totalSkipped, totalFailed);
-            
-            return ResponseEntity.<ReindexResponse>builder()
+            log.info("启动帖子全量重建，resume={}", resume);
+            ReindexProgress progress = postReindexService.start(resume);
+            return ResponseEntity.<ReindexProgress>builder()
                     .code(ResponseCode.SUCCESS.getCode())
-                    .info("重新索引完成！")
-                    .data(response)
+                    .info("重新索引已在后台执行")
+                    .data(progress)
                     .build();
         } catch (Exception e) {
-            log.error("重新索引失败", e);
-            ReindexResponse response = new ReindexResponse();
-            response.setMessage("重新索引失败: " + e.getMessage());
-            return ResponseEntity.<ReindexResponse>builder()
+            log.error("启动重新索引失败", e);
+            return ResponseEntity.<ReindexProgress>builder()
                     .code(ResponseCode.SYSTEM_ERROR.getCode())
-                    .info("重新索引失败: " + e.getMessage())
-                    .data(response)
+                    .info("启动重新索引失败: " + e.getMessage())
                     .build();
         }
     }
 
+    /**
+     * 查询全量重建进度
+     * 
+     * @return 重建状态、已写入数量、失败数量和吞吐
+     */
+    @GetMapping("/reindex/progress")
+    @Operation(summary = "查询重建进度", description = "查询帖子全量重建的进度和吞吐")
+    public ResponseEntity<ReindexProgress> getReindexProgress() {
+        return ResponseEntity.<ReindexProgress>builder()
+                .code(ResponseCode.SUCCESS.getCode())
+                .info("查询成功")
+                .data(postReindexService.getProgress())
+                .build();
+    }
+
+    /**
+     * 取消全量重建
+     * 
+     * <p>当前批次完成后停止，进度保留，可通过 resume=true 续跑
+     * 
+     * @return 取消后的重建进度
+     */
+    @PostMapping("/reindex/cancel")
+    @Operation(summary = "取消重建", description = "取消本实例正在执行的帖子全量重建，进度保留可续跑")
+    public ResponseEntity<ReindexProgress> cancelReindex() {
+        boolean cancelled = postReindexService.cancel();
+        return ResponseEntity.<ReindexProgress>builder()
+                .code(ResponseCode.SUCCESS.getCode())
+                .info(cancelled ? "已请求取消" : "本实例没有正在执行的重建")
+                .data(postReindexService.getProgress())
+                .build();
+    }
+
     /**
      * 重新索引单个帖子
      * 
@@ -254,7 +241,7 @@ public class ElasticsearchIndexController {
             log.info("开始重试失败的ES索引任务...");
             
             // 从Redis获取失败的索引任务
-            String failedTasksKey = "es:index:failed:tasks";
+            String failedTasksKey = RedisKeyManager.esIndexFailedTasksKey();
             Set<Object> failedPostIds = redisOps.sMembers(failedTasksKey);
             
             if (failedPostIds.isEmpty()) {
@@ -276,7 +263,7 @@ public class ElasticsearchIndexController {
                     java.util.Optional<Post> postOpt = postQueryService.getById(postId);
                     if (postOpt.isPresent()) {
                         Post post = postOpt.get();
-                        if (post != null && "PUBLISHED".equals(post.getStatus())) {
+                        if (post != null && Integer.valueOf(Post.STATUS_PUBLISHED).equals(post.getStatus())) {
                             boolean success = indexManager.indexPostWithRetry(post);
                             if (success) {
                                 totalIndexed++;
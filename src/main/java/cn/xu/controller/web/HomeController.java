@@ -3,6 +3,7 @@ package cn.xu.controller.web;
 import cn.dev33.satoken.annotation.SaCheckLogin;
 import cn.xu.common.ResponseCode;
 import cn.xu.common.annotation.ApiOperationLog;
+import cn.xu.common.response.CursorPageResponse;
 import cn.xu.common.response.PageResponse;
 import cn.xu.common.response.ResponseEntity;
 import cn.xu.model.entity.Post;
@@ -10,6 +11,7 @@ import cn.xu.model.entity.User;
 import cn.xu.model.vo.post.PostItemVO;
 import cn.xu.model.vo.post.PostListVO;
 import cn.xu.service.follow.FollowService;
+import cn.xu.service.follow.FollowTimelineService;
 import cn.xu.service.post.PostQueryService;
 import cn.xu.service.post.PostStatisticsService;
 import cn.xu.service.post.TagService;
@@ -47,6 +49,8 @@ public class HomeController {
     private UserService userService;
     @Resource
     private FollowService followService;
+    @Resource
+    private FollowTimelineService followTimelineService;
 
     /**
      * 获取帖子列表
@@ -96,6 +100,7 @@ public class HomeController {
      * 获取关注用户的帖子列表
      * 
      * <p>返回当前登录用户关注的所有用户发布的帖子，按时间倒序排列
+     * <p>按关注列表实时查询，仅为兼容按页码翻页的旧客户端保留；首页关注页使用 /following/feed
      * <p>需要登录后才能访问
      * 
      * @param page 页码，从1开始，默认为1
@@ -124,6 +129,32 @@ public class HomeController {
                 .code(ResponseCode.SUCCESS.getCode()).data(pageResponse).build();
     }
 
+    /**
+     * 游标方式获取关注用户的帖子列表（关注时间线）
+     * 
+     * <p>从关注时间线收件箱读取，按发布顺序倒序，翻页性能与页数无关；首页关注页使用该接口
+     * <p>需要登录后才能访问
+     * 
+     * @param cursor 游标，首次请求为空，后续传入上一页返回的 nextCursor
+     * @param size 每页数量，默认为10，最大50
+     * @return 游标分页的帖子列表
+     */
+    @GetMapping("/following/feed")
+    @SaCheckLogin
+    @Operation(summary = "getFollowingFeed")
+    @ApiOperationLog(description = "getFollowingFeed")
+    public ResponseEntity<CursorPageResponse<PostListVO>> getFollowingFeed(
+            @Parameter(description = "cursor") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "size") @RequestParam(defaultValue = "10") Integer size) {
+        Long currentUserId = LoginUserUtil.getLoginUserId();
+        int pageSize = Math.max(1, Math.min(size, 50));
+        CursorPageResponse<Post> timeline = followTimelineService.getTimeline(currentUserId, cursor, pageSize);
+        CursorPageResponse<PostListVO> response = CursorPageResponse.of(
+                convert(timeline.getData()), timeline.getNextCursor(), timeline.getHasMore(), pageSize);
+        return ResponseEntity.<CursorPageResponse<PostListVO>>builder()
+                .code(ResponseCode.SUCCESS.getCode()).data(response).build();
+    }
+
     /**
      * 获取精选帖子列表
      * 
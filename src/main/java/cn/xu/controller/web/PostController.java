@@ -129,7 +129,7 @@ public class PostController {
             @Parameter(description = "搜索关键词") @RequestParam String keyword,
             @Parameter(description = "帖子类型筛选") @RequestParam(required = false) String[] types,
             @Parameter(description = "发布时间范围筛选") @RequestParam(required = false, defaultValue = "all") String timeRange,
-            @Parameter(description = "排序方式") @RequestParam(required = false, defaultValue = "time") String sortOption,
+            @Parameter(description = "排序方式：time/hot/comment/like/relevance") @RequestParam(required = false, defaultValue = "time") String sortOption,
             @Parameter(description = "页码") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "页面大小") @RequestParam(defaultValue = "10") int size,
             HttpServletRequest request) {
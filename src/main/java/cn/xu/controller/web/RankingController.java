@@ -9,6 +9,7 @@ import cn.xu.model.entity.User;
 import cn.xu.repository.mapper.PostMapper;
 import cn.xu.repository.mapper.TagMapper;
 import cn.xu.repository.mapper.UserMapper;
+import cn.xu.service.post.PostQueryService;
 import cn.xu.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -42,6 +43,7 @@ public class RankingController {
     private final UserRankingCacheRepository userRankingCacheRepository;
     private final UserService userService;
     private final PostMapper postMapper;
+    private final PostQueryService postQueryService;
     private final TagMapper tagMapper;
     private final UserMapper userMapper;
 
@@ -195,9 +197,13 @@ public class RankingController {
             // 计算时间范围
             LocalDateTime startTime = calculateStartTime(period);
 
-            // 查询帖子
+            // 查询帖子（热度排序走预计算的热门排行）
             List<Post> posts;
-            if (startTime != null) {
+            if ("hot".equals(safeSort)) {
+                posts = startTime != null
+                        ? postQueryService.getHotPostsByPeriod(period.toLowerCase(), startTime, safeLimit)
+                        : postQueryService.getHotPosts(1, safeLimit);
+            } else if (startTime != null) {
                 posts = postMapper.findPostsByTimeRangeAndSort(startTime, safeSort, 0, safeLimit);
             } else {
                 posts = postMapper.findPostsBySort(safeSort, 0, safeLimit);
@@ -3,8 +3,13 @@ package cn.xu.elasticsearch.converter;
 import cn.xu.elasticsearch.model.PostIndex;
 import cn.xu.model.entity.Post;
 import cn.xu.service.post.PostHotScorePolicy;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 帖子索引转换器
@@ -13,13 +18,22 @@ import java.time.LocalDateTime;
 public class PostIndexConverter {
 
     /**
-     * 将 Post 实体转换为 PostIndex 索引模型
+     * 将 Post 实体转换为 PostIndex 索引模型（不含标签）
      */
     public static PostIndex from(Post post) {
+        return from(post, null);
+    }
+
+    /**
+     * 将 Post 实体及其标签名称转换为 PostIndex 索引模型
+     */
+    public static PostIndex from(Post post, List<String> tags) {
         PostIndex index = new PostIndex();
         index.setId(post.getId());
         index.setTitle(post.getTitle());
         index.setDescription(post.getDescription());
+        index.setContent(truncateContent(post.getContent()));
+        index.setTags(tags != null ? new ArrayList<>(tags) : new ArrayList<>());
         index.setCoverUrl(post.getCoverUrl());
         index.setUserId(post.getUserId());
         index.setViewCount(post.getViewCount());
@@ -43,6 +57,39 @@ public class PostIndexConverter {
         return index;
     }
 
+    /**
+     * 文档的外部版本：帖子更新时间（毫秒），没有更新时间时返回null（不做版本控制）
+     */
+    public static Long version(PostIndex index) {
+        LocalDateTime updateTime = index.getUpdateTime();
+        return updateTime != null ? updateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+
+    /**
+     * 转换为带外部版本的写入请求
+     */
+    public static IndexQuery toIndexQuery(PostIndex index) {
+        return new IndexQueryBuilder()
+                .withId(String.valueOf(index.getId()))
+                .withObject(index)
+                .withVersion(version(index))
+                .build();
+    }
+
+    /**
+     * 截断正文，超长正文只索引开头部分
+     */
+    private static String truncateContent(String content) {
+        if (content == null || content.length() <= PostIndex.CONTENT_MAX_LENGTH) {
+            return content;
+        }
+        int end = PostIndex.CONTENT_MAX_LENGTH;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
+    }
+
     /**
      * 将 PostIndex 索引模型转换为 Post 实体
      */
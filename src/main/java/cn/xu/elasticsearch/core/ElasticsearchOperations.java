@@ -2,18 +2,29 @@ package cn.xu.elasticsearch.core;
 
 import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +43,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ElasticsearchOperations {
 
+    private static final String VERSION_CONFLICT = "version_conflict_engine_exception";
+
     private final org.springframework.data.elasticsearch.core.ElasticsearchOperations elasticsearchTemplate;
 
     // ==================== 健康检查 ====================
@@ -64,6 +77,38 @@ public class ElasticsearchOperations {
         }
     }
 
+    /**
+     * 保存文档到指定索引
+     */
+    public <T> T save(T entity, IndexCoordinates index) {
+        try {
+            return elasticsearchTemplate.save(entity, index);
+        } catch (Exception e) {
+            log.error("保存文档失败: entity={}, index={}", entity.getClass().getSimpleName(), index.getIndexName(), e);
+            throw new ElasticsearchException("保存文档失败", e);
+        }
+    }
+
+    /**
+     * 按外部版本写入文档到指定索引
+     *
+     * @return 是否写入；已有更高版本的文档时返回false
+     */
+    public boolean indexVersioned(IndexQuery query, IndexCoordinates index) {
+        try {
+            elasticsearchTemplate.index(query, index);
+            return true;
+        } catch (Exception e) {
+            if (isVersionConflict(e)) {
+                log.debug("文档版本过旧，忽略写入: id={}, index={}, version={}",
+                        query.getId(), index.getIndexName(), query.getVersion());
+                return false;
+            }
+            log.error("保存文档失败: id={}, index={}", query.getId(), index.getIndexName(), e);
+            throw new ElasticsearchException("保存文档失败", e);
+        }
+    }
+
     /**
      * 批量保存文档
      */
@@ -76,6 +121,37 @@ public class ElasticsearchOperations {
         }
     }
 
+    /**
+     * 批量写入文档（_bulk）
+     *
+     * @param queries 待写入的文档
+     * @param index   目标索引
+     * @return 写入失败的文档ID，全部成功时为空集合（因已有更高版本被拒绝的文档不算失败）；请求整体失败时抛出异常
+     */
+    public Set<String> bulkIndex(List<IndexQuery> queries, IndexCoordinates index) {
+        if (queries == null || queries.isEmpty()) {
+            return Collections.emptySet();
+        }
+        try {
+            elasticsearchTemplate.bulkIndex(queries, index);
+            return Collections.emptySet();
+        } catch (BulkFailureException e) {
+            Set<String> failed = new HashSet<>();
+            e.getFailedDocuments().forEach((id, details) -> {
+                if (!String.valueOf(details).contains(VERSION_CONFLICT)) {
+                    failed.add(id);
+                }
+            });
+            if (!failed.isEmpty()) {
+                log.warn("批量写入部分失败: index={}, failed={}", index.getIndexName(), failed.size());
+            }
+            return failed;
+        } catch (Exception e) {
+            log.error("批量写入失败: index={}, size={}", index.getIndexName(), queries.size(), e);
+            throw new ElasticsearchException("批量写入失败", e);
+        }
+    }
+
     /**
      * 根据 ID 删除文档
      */
@@ -88,6 +164,18 @@ public class ElasticsearchOperations {
         }
     }
 
+    /**
+     * 从指定索引删除文档
+     */
+    public String delete(String id, IndexCoordinates index) {
+        try {
+            return elasticsearchTemplate.delete(id, index);
+        } catch (Exception e) {
+            log.error("删除文档失败: id={}, index={}", id, index.getIndexName(), e);
+            throw new ElasticsearchException("删除文档失败", e);
+        }
+    }
+
     /**
      * 删除实体
      */
@@ -174,6 +262,23 @@ public class ElasticsearchOperations {
         }
     }
 
+    /**
+     * 多个查询合并为一次 _msearch 请求
+     *
+     * @param queries 查询列表
+     * @param classes 各查询的结果类型，与 queries 一一对应
+     * @param indexes 各查询的索引（或别名），与 queries 一一对应
+     * @return 各查询的结果，顺序与 queries 相同
+     */
+    public List<SearchHits<?>> multiSearch(List<NativeQuery> queries, List<Class<?>> classes, List<IndexCoordinates> indexes) {
+        try {
+            return elasticsearchTemplate.multiSearch(queries, classes, indexes);
+        } catch (Exception e) {
+            log.error("批量搜索失败: classes={}", classes, e);
+            throw new ElasticsearchException("批量搜索失败", e);
+        }
+    }
+
     /**
      * 搜索并转换为 Page
      */
@@ -284,6 +389,154 @@ public class ElasticsearchOperations {
         }
     }
 
+    /**
+     * 刷新指定索引
+     */
+    public void refreshIndex(IndexCoordinates index) {
+        try {
+            elasticsearchTemplate.indexOps(index).refresh();
+        } catch (Exception e) {
+            log.error("刷新索引失败: index={}", index.getIndexName(), e);
+        }
+    }
+
+    /**
+     * 修改索引刷新间隔（批量导入前设为"-1"关闭自动刷新，导入后恢复）
+     *
+     * @return 是否修改成功
+     */
+    public boolean updateRefreshInterval(String indexName, String interval) {
+        try {
+            getElcTemplate().execute(client -> client.indices().putSettings(r -> r
+                    .index(indexName)
+                    .settings(s -> s.refreshInterval(t -> t.time(interval)))));
+            return true;
+        } catch (Exception e) {
+            log.error("修改索引刷新间隔失败: index={}, interval={}", indexName, interval, e);
+            return false;
+        }
+    }
+
+    // ==================== 物理索引与别名 ====================
+
+    /**
+     * 按实体类的映射和设置创建指定名称的索引（用于版本化的物理索引）
+     */
+    public <T> boolean createIndex(String indexName, Class<T> clazz) {
+        try {
+            org.springframework.data.elasticsearch.core.IndexOperations classOps = elasticsearchTemplate.indexOps(clazz);
+            return elasticsearchTemplate.indexOps(IndexCoordinates.of(indexName))
+                    .create(classOps.createSettings(), classOps.createMapping());
+        } catch (Exception e) {
+            log.error("创建索引失败: index={}, class={}", indexName, clazz.getSimpleName(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 删除指定名称的索引
+     */
+    public boolean deleteIndex(String indexName) {
+        try {
+            return elasticsearchTemplate.indexOps(IndexCoordinates.of(indexName)).delete();
+        } catch (Exception e) {
+            log.error("删除索引失败: index={}", indexName, e);
+            return false;
+        }
+    }
+
+    /**
+     * 判断索引（或别名）是否存在
+     */
+    public boolean indexExists(String indexName) {
+        try {
+            return elasticsearchTemplate.indexOps(IndexCoordinates.of(indexName)).exists();
+        } catch (Exception e) {
+            log.error("检查索引存在失败: index={}", indexName, e);
+            return false;
+        }
+    }
+
+    /**
+     * 按通配符列出物理索引名称
+     */
+    public Set<String> listIndices(String pattern) {
+        try {
+            return new HashSet<>(getElcTemplate().execute(client -> client.indices()
+                    .get(r -> r.index(pattern).allowNoIndices(true))
+                    .result().keySet()));
+        } catch (Exception e) {
+            log.error("列出索引失败: pattern={}", pattern, e);
+            throw new ElasticsearchException("列出索引失败", e);
+        }
+    }
+
+    /**
+     * 查询别名当前指向的物理索引，别名不存在时返回空集合
+     */
+    public Set<String> getAliasIndices(String alias) {
+        try {
+            return new HashSet<>(getElcTemplate().execute(client -> {
+                if (!client.indices().existsAlias(r -> r.name(alias)).value()) {
+                    return Collections.<String>emptySet();
+                }
+                return client.indices().getAlias(r -> r.name(alias)).result().keySet();
+            }));
+        } catch (Exception e) {
+            log.error("查询别名失败: alias={}", alias, e);
+            throw new ElasticsearchException("查询别名失败", e);
+        }
+    }
+
+    /**
+     * 原子地把别名切换到新索引：一次请求内从旧索引移除别名并添加到新索引（设为写索引）
+     *
+     * @param alias      别名
+     * @param newIndex   新的物理索引
+     * @param oldIndices 别名当前指向的物理索引
+     */
+    public void switchAlias(String alias, String newIndex, Collection<String> oldIndices) {
+        try {
+            List<Action> actions = new ArrayList<>();
+            for (String oldIndex : oldIndices) {
+                if (!oldIndex.equals(newIndex)) {
+                    actions.add(Action.of(a -> a.remove(r -> r.index(oldIndex).alias(alias))));
+                }
+            }
+            actions.add(Action.of(a -> a.add(r -> r.index(newIndex).alias(alias).isWriteIndex(true))));
+            getElcTemplate().execute(client -> client.indices().updateAliases(r -> r.actions(actions)));
+        } catch (Exception e) {
+            log.error("切换别名失败: alias={}, newIndex={}, oldIndices={}", alias, newIndex, oldIndices, e);
+            throw new ElasticsearchException("切换别名失败", e);
+        }
+    }
+
+    /**
+     * 异常链中是否包含版本冲突（外部版本低于已有文档）
+     */
+    private static boolean isVersionConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockingFailureException
+                    || (t.getMessage() != null && t.getMessage().contains(VERSION_CONFLICT))) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 索引设置、别名等管理操作需要使用底层客户端
+     */
+    private ElasticsearchTemplate getElcTemplate() {
+        if (elasticsearchTemplate instanceof ElasticsearchTemplate template) {
+            return template;
+        }
+        throw new IllegalStateException("当前客户端不支持索引管理操作: " + elasticsearchTemplate.getClass().getSimpleName());
+    }
+
     // ==================== 获取底层模板 ====================
 
     /**
@@ -21,12 +21,12 @@ public class IndexNameManager {
     public static final String COMMENT_INDEX = "comments";
 
     /**
-     * 用户索引（预留）
+     * 用户索引
      */
     public static final String USER_INDEX = "users";
 
     /**
-     * 标签索引（预留）
+     * 标签索引
      */
     public static final String TAG_INDEX = "tags";
 
@@ -42,6 +42,16 @@ public class IndexNameManager {
      */
     public static final String COMMENT_INDEX_ALIAS = "comments_alias";
 
+    /**
+     * 用户索引别名
+     */
+    public static final String USER_INDEX_ALIAS = "users_alias";
+
+    /**
+     * 标签索引别名
+     */
+    public static final String TAG_INDEX_ALIAS = "tags_alias";
+
     // ==================== 工具方法 ====================
 
     /**
@@ -54,6 +64,15 @@ public class IndexNameManager {
         return indexName + "_v" + version;
     }
 
+    /**
+     * 获取某个索引所有版本的通配符
+     * @param indexName 索引名称
+     * @return 通配符（如 posts_v*）
+     */
+    public static String getVersionedIndexPattern(String indexName) {
+        return indexName + "_v*";
+    }
+
     /**
      * 获取带日期的索引名称
      * @param indexName 索引名称
@@ -0,0 +1,41 @@
+package cn.xu.elasticsearch.init;
+
+import cn.xu.elasticsearch.core.IndexNameManager;
+import cn.xu.elasticsearch.model.CommentIndex;
+import cn.xu.elasticsearch.model.PostIndex;
+import cn.xu.elasticsearch.model.TagIndex;
+import cn.xu.elasticsearch.model.UserIndex;
+import cn.xu.elasticsearch.service.IndexAliasService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * ES 索引别名初始化
+ * <p>在数据初始化之前确保帖子、评论、用户、标签的读写别名存在</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+@Order(50)
+public class IndexAliasInitializer implements ApplicationRunner {
+
+    private final IndexAliasService indexAliasService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            indexAliasService.ensureAlias(IndexNameManager.POST_INDEX_ALIAS, IndexNameManager.POST_INDEX, PostIndex.class);
+            indexAliasService.ensureAlias(IndexNameManager.COMMENT_INDEX_ALIAS, IndexNameManager.COMMENT_INDEX, CommentIndex.class);
+            indexAliasService.ensureAlias(IndexNameManager.USER_INDEX_ALIAS, IndexNameManager.USER_INDEX, UserIndex.class);
+            indexAliasService.ensureAlias(IndexNameManager.TAG_INDEX_ALIAS, IndexNameManager.TAG_INDEX, TagIndex.class);
+        } catch (Exception e) {
+            log.error("ES索引别名初始化失败，错误信息: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,14 +1,10 @@
 package cn.xu.elasticsearch.init;
 
-import cn.xu.cache.core.RedisOperations;
 import cn.xu.elasticsearch.repository.PostElasticRepository;
-import cn.xu.elasticsearch.service.ElasticsearchPostIndexService;
-import cn.xu.model.entity.Post;
-import cn.xu.repository.mapper.PostMapper;
+import cn.xu.elasticsearch.service.PostReindexService;
 import cn.xu.service.post.PostStatisticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
@@ -17,11 +13,11 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
-import java.util.List;
 
 /**
  * 帖子数据 ES 索引初始化
  * <p>应用启动时同步 ES 索引，如果数据不一致或为空则触发初始化</p>
+ * <p>初始化由 {@link PostReindexService} 在后台执行，不阻塞启动；上次重建被中断时从断点续跑</p>
  */
 @Slf4j
 @Component
@@ -31,12 +27,8 @@ import java.util.List;
 public class PostDataInitializer implements ApplicationRunner {
 
     private final PostStatisticsService postStatisticsService;
-    private final PostMapper postMapper;
-    private final ElasticsearchPostIndexService postIndexService;
     private final PostElasticRepository postElasticRepository;
-
-    @Autowired(required = false)
-    private RedisOperations redisOps;
+    private final PostReindexService postReindexService;
 
     @PostConstruct
     public void onInit() {
@@ -55,6 +47,12 @@ public class PostDataInitializer implements ApplicationRunner {
         log.info("自动初始化是否启用: enabled={}, 同步阈值={}", autoInitEnabled, syncThreshold);
 
         try {
+            if (postReindexService.hasInterruptedRun()) {
+                log.warn("检测到上次重建被中断，从断点继续重建");
+                postReindexService.start(true);
+                return;
+            }
+
             long mysqlCount = 0;
             try {
                 log.info("正在查询MySQL中已发布文章的数量...");
@@ -92,8 +90,9 @@ public class PostDataInitializer implements ApplicationRunner {
 
             if (needInit) {
                 if (autoInitEnabled) {
-                    log.warn("ES索引数据不一致，正在初始化... 原因: {}", reason);
-                    initializeIndex();
+                    log.warn("ES索引数据不一致，后台初始化中... 原因: {}", reason);
+                    postReindexService.start(false);
+                    log.info("初始化进度查询: GET /api/admin/elasticsearch/reindex/progress");
                 } else {
                     log.warn("ES索引数据不一致，但未启用自动初始化。请手动触发初始化操作。");
                     log.warn("1. 调用接口: POST /api/admin/elasticsearch/reindex");
@@ -108,87 +107,4 @@ public class PostDataInitializer implements ApplicationRunner {
             log.error("=== ES索引初始化结束 ===");
         }
     }
-
-    private void initializeIndex() {
-        try {
-            log.info("开始初始化ES文章索引...");
-
-            int batchSize = 100;
-            int offset = 0;
-            int totalIndexed = 0;
-            int totalSkipped = 0;
-            int totalFailed = 0;
-            List<Long> failedPostIds = new java.util.ArrayList<>();
-
-            while (true) {
-                List<Post> posts = postMapper.findAllWithPagination(offset, batchSize);
-
-                if (posts == null || posts.isEmpty()) {
-                    break;
-                }
-
-                for (Post post : posts) {
-                    try {
-                        if (Integer.valueOf(Post.STATUS_PUBLISHED).equals(post.getStatus())) {
-                            boolean success = postIndexService.indexPostWithRetry(post);
-                            if (success) {
-                                totalIndexed++;
-                            } else {
-                                log.warn("文章索引失败: postId={}", post.getId());
-                                totalFailed++;
-                                failedPostIds.add(post.getId());
-                                recordFailedIndexTask(post.getId());
-                            }
-                        } else {
-                            totalSkipped++;
-                        }
-                    } catch (Exception e) {
-                        log.warn("处理文章索引时发生异常: postId={}", post.getId(), e);
-                        totalFailed++;
-                        failedPostIds.add(post.getId());
-                        recordFailedIndexTask(post.getId());
-                    }
-                }
-
-                log.info("已处理 {} 条文章，跳过 {} 条，失败 {} 条，当前页: {} - {}",
-                        totalIndexed, totalSkipped, totalFailed, offset, offset + posts.size());
-
-                if (posts.size() < batchSize) {
-                    break;
-                }
-
-                offset += batchSize;
-            }
-
-            log.info("ES文章索引初始化完成，总共处理文章: {}，跳过: {}，失败: {}",
-                    totalIndexed, totalSkipped, totalFailed);
-
-            if (!failedPostIds.isEmpty()) {
-                log.warn("初始化过程中有 {} 条文章索引失败，具体失败ID: {}", 
-                        failedPostIds.size(), 
-                        failedPostIds.stream().limit(10).collect(java.util.stream.Collectors.toList()));
-                log.warn("1. 调用接口: POST /api/admin/elasticsearch/reindex");
-                log.warn("2. 调用接口: POST /api/admin/elasticsearch/reindex/failed");
-            }
-
-            log.info("=== ES索引初始化结束 ===");
-        } catch (Exception e) {
-            log.error("初始化ES文章索引时发生异常，错误信息: {}", e.getMessage(), e);
-            log.error("=== ES索引初始化结束 ===");
-        }
-    }
-
-    private void recordFailedIndexTask(Long postId) {
-        if (redisOps == null || postId == null) {
-            return;
-        }
-        try {
-            String failedTasksKey = "es:index:failed:tasks";
-            redisOps.sAdd(failedTasksKey, postId.toString());
-            redisOps.expire(failedTasksKey, 24 * 3600);
-            log.debug("记录失败的ES索引任务: postId={}", postId);
-        } catch (Exception e) {
-            log.warn("记录失败的ES索引任务时发生异常: postId={}", postId, e);
-        }
-    }
 }
@@ -0,0 +1,46 @@
+package cn.xu.elasticsearch.init;
+
+import cn.xu.elasticsearch.service.ElasticsearchUserTagIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户、标签数据 ES 索引初始化
+ * <p>索引为空时从数据库全量导入，之后由用户、标签变更事件增量同步</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+@Order(100)
+public class UserTagDataInitializer implements ApplicationRunner {
+
+    private final ElasticsearchUserTagIndexService userTagIndexService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (userTagIndexService.countUsers() == 0) {
+                log.info("正在初始化 Elasticsearch 用户数据...");
+                long count = userTagIndexService.indexAllUsers();
+                log.info("Elasticsearch 用户数据初始化完成，共处理 {} 条用户数据", count);
+            }
+        } catch (Exception e) {
+            log.error("ES用户索引初始化失败，错误信息: {}", e.getMessage(), e);
+        }
+        try {
+            if (userTagIndexService.countTags() == 0) {
+                log.info("正在初始化 Elasticsearch 标签数据...");
+                long count = userTagIndexService.indexAllTags();
+                log.info("Elasticsearch 标签数据初始化完成，共处理 {} 条标签数据", count);
+            }
+        } catch (Exception e) {
+            log.error("ES标签索引初始化失败，错误信息: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package cn.xu.elasticsearch.model;
 
+import cn.xu.elasticsearch.core.IndexNameManager;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.DateFormat;
@@ -10,8 +11,11 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * 评论索引文档（通过别名 comments_alias 读写）
+ */
 @Data
-@Document(indexName = "comments")
+@Document(indexName = IndexNameManager.COMMENT_INDEX_ALIAS, createIndex = false)
 public class CommentIndex {
     @Id
     private Long id;
@@ -1,26 +1,73 @@
 package cn.xu.elasticsearch.model;
 
+import cn.xu.elasticsearch.core.IndexNameManager;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.DateFormat;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * 帖子索引文档
+ * <p>通过别名 posts_alias 读写，别名背后的版本化物理索引由 IndexAliasService 创建和切换</p>
+ * <p>文本字段使用 cjk_text 分词器（定义见 elasticsearch/post-settings.json，基于ES内置的 cjk_bigram，
+ * 同时输出单字和二元词，无需安装插件）；映射变更需通过全量重建生成新版本索引后生效</p>
+ * <p>写入时以帖子的更新时间作为外部版本（见 {@link cn.xu.elasticsearch.converter.PostIndexConverter#version}），
+ * 版本低于已有文档的写入被ES拒绝；只改计数时更新时间不变，版本相同的写入照常覆盖</p>
+ */
 @Data
-@Document(indexName = "posts")
+@Document(indexName = IndexNameManager.POST_INDEX_ALIAS, createIndex = false,
+        versionType = Document.VersionType.EXTERNAL_GTE)
+@Setting(settingPath = "/elasticsearch/post-settings.json")
 public class PostIndex {
+
+    /**
+     * 正文索引的最大长度（字符），超出部分截断
+     */
+    public static final int CONTENT_MAX_LENGTH = 2000;
+
     @Id
+    @Field(type = FieldType.Long)
     private Long id;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    /**
+     * 标题，子字段 title.suggest 为 search_as_you_type 类型，用于输入即搜索的前缀匹配
+     */
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "cjk_text"),
+            otherFields = {
+                    @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type, analyzer = "standard")
+            }
+    )
     private String title;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    @Field(type = FieldType.Text, analyzer = "cjk_text")
     private String description;
 
+    /**
+     * 正文（截断至 {@link #CONTENT_MAX_LENGTH}），只参与检索和高亮，搜索结果不返回
+     */
+    @Field(type = FieldType.Text, analyzer = "cjk_text")
+    private String content;
+
+    /**
+     * 标签名称，精确匹配用 tags（忽略大小写），分词匹配用 tags.text
+     */
+    @MultiField(
+            mainField = @Field(type = FieldType.Keyword, normalizer = "lowercase_keyword"),
+            otherFields = {
+                    @InnerField(suffix = "text", type = FieldType.Text, analyzer = "cjk_text")
+            }
+    )
+    private List<String> tags;
+
     @Field(type = FieldType.Keyword)
     private String coverUrl;
 
@@ -0,0 +1,70 @@
+package cn.xu.elasticsearch.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 全量重建索引进度
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReindexProgress {
+
+    /**
+     * 重建状态
+     */
+    public enum Status {
+        /** 没有重建记录 */
+        IDLE,
+        /** 重建中（实例中断时也保持该状态，可续跑） */
+        RUNNING,
+        /** 已完成 */
+        COMPLETED,
+        /** 失败，可续跑 */
+        FAILED,
+        /** 已取消，可续跑 */
+        CANCELLED
+    }
+
+    /**
+     * 目标索引
+     */
+    private String indexName;
+
+    private Status status;
+
+    /**
+     * 已完成的最大帖子ID（续跑起点）
+     */
+    private Long lastId;
+
+    /**
+     * 已写入的文档数
+     */
+    private Long indexed;
+
+    /**
+     * 写入失败的文档数（已记录到失败任务集合，可通过重试接口补偿）
+     */
+    private Long failed;
+
+    /**
+     * 累计耗时（毫秒，不含中断期间）
+     */
+    private Long elapsedMs;
+
+    /**
+     * 平均吞吐（文档/秒）
+     */
+    private Long docsPerSecond;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,48 @@
+package cn.xu.elasticsearch.model;
+
+import cn.xu.elasticsearch.core.IndexNameManager;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+/**
+ * 标签索引文档（通过别名 tags_alias 读写）
+ */
+@Data
+@Document(indexName = IndexNameManager.TAG_INDEX_ALIAS, createIndex = false)
+@Setting(settingPath = "/elasticsearch/post-settings.json")
+public class TagIndex {
+
+    @Id
+    @Field(type = FieldType.Long)
+    private Long id;
+
+    /**
+     * 标签名，分词匹配用 name，精确匹配用 name.keyword（忽略大小写），前缀匹配用 name.suggest
+     */
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "cjk_text"),
+            otherFields = {
+                    @InnerField(suffix = "keyword", type = FieldType.Keyword, normalizer = "lowercase_keyword"),
+                    @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type, analyzer = "standard")
+            }
+    )
+    private String name;
+
+    @Field(type = FieldType.Text, analyzer = "cjk_text")
+    private String description;
+
+    /**
+     * 使用次数，相关度相同时的次序
+     */
+    @Field(type = FieldType.Integer)
+    private Integer usageCount;
+
+    @Field(type = FieldType.Integer)
+    private Integer isRecommended;
+}
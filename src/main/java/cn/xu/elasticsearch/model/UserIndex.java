@@ -0,0 +1,60 @@
+package cn.xu.elasticsearch.model;
+
+import cn.xu.elasticsearch.core.IndexNameManager;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
+
+/**
+ * 用户索引文档（通过别名 users_alias 读写）
+ * <p>只保存检索和排序需要的字段，搜索命中后按ID从用户卡片缓存取展示数据；
+ * 只收录正常状态的用户，禁用、注销后从索引删除</p>
+ */
+@Data
+@Document(indexName = IndexNameManager.USER_INDEX_ALIAS, createIndex = false)
+@Setting(settingPath = "/elasticsearch/post-settings.json")
+public class UserIndex {
+
+    @Id
+    @Field(type = FieldType.Long)
+    private Long id;
+
+    /**
+     * 用户名，精确匹配用 username（忽略大小写），前缀匹配用 username.suggest
+     */
+    @MultiField(
+            mainField = @Field(type = FieldType.Keyword, normalizer = "lowercase_keyword"),
+            otherFields = {
+                    @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type, analyzer = "standard")
+            }
+    )
+    private String username;
+
+    /**
+     * 昵称，子字段 nickname.suggest 用于输入未完成时的前缀匹配
+     */
+    @MultiField(
+            mainField = @Field(type = FieldType.Text, analyzer = "cjk_text"),
+            otherFields = {
+                    @InnerField(suffix = "suggest", type = FieldType.Search_As_You_Type, analyzer = "standard")
+            }
+    )
+    private String nickname;
+
+    @Field(type = FieldType.Text, analyzer = "cjk_text")
+    private String description;
+
+    @Field(type = FieldType.Integer)
+    private Integer userType;
+
+    /**
+     * 粉丝数，相关度相同时的次序
+     */
+    @Field(type = FieldType.Long)
+    private Long fansCount;
+}
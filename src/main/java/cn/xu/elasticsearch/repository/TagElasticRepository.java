@@ -0,0 +1,7 @@
+package cn.xu.elasticsearch.repository;
+
+import cn.xu.elasticsearch.model.TagIndex;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+
+public interface TagElasticRepository extends ElasticsearchRepository<TagIndex, Long> {
+}
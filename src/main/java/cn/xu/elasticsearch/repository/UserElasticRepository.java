@@ -0,0 +1,7 @@
+package cn.xu.elasticsearch.repository;
+
+import cn.xu.elasticsearch.model.UserIndex;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+
+public interface UserElasticRepository extends ElasticsearchRepository<UserIndex, Long> {
+}
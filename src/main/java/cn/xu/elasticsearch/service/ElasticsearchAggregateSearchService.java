@@ -0,0 +1,143 @@
+package cn.xu.elasticsearch.service;
+
+import cn.xu.elasticsearch.converter.PostIndexConverter;
+import cn.xu.elasticsearch.core.ElasticsearchOperations;
+import cn.xu.elasticsearch.core.IndexNameManager;
+import cn.xu.elasticsearch.model.PostIndex;
+import cn.xu.elasticsearch.model.TagIndex;
+import cn.xu.elasticsearch.model.UserIndex;
+import cn.xu.model.dto.search.AggregateSearchHits;
+import cn.xu.model.entity.Post;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Elasticsearch 聚合搜索服务
+ * <p>帖子、用户、标签三个查询合并为一次 _msearch 请求，替代三次数据库 LIKE 扫描</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class ElasticsearchAggregateSearchService {
+
+    private final ElasticsearchOperations esOps;
+    private final ElasticsearchPostSearchService postSearchService;
+
+    /**
+     * 总命中数精确统计上限（与帖子搜索共用）
+     */
+    @Value("${app.elasticsearch.search.track-total-hits:1000}")
+    private int trackTotalHitsUpTo;
+
+    /**
+     * 帖子索引可用时才走 ES（用户、标签索引随帖子索引一同初始化）
+     */
+    public boolean isAvailable() {
+        return postSearchService.isAvailable();
+    }
+
+    /**
+     * 一次请求搜索三个分组
+     *
+     * @throws cn.xu.elasticsearch.core.ElasticsearchException 请求失败时
+     */
+    public AggregateSearchHits search(String keyword, int postLimit, int userLimit, int tagLimit) {
+        String normalized = ElasticsearchPostSearchService.normalizeKeyword(keyword);
+
+        NativeQuery postQuery = NativeQuery.builder()
+                .withQuery(ElasticsearchPostSearchService.buildQuery(normalized, null))
+                .withSourceFilter(new FetchSourceFilterBuilder().withExcludes("content").build())
+                .withPageable(PageRequest.of(0, postLimit))
+                .withTrackTotalHitsUpTo(trackTotalHitsUpTo)
+                .build();
+        NativeQuery userQuery = NativeQuery.builder()
+                .withQuery(buildUserQuery(normalized))
+                .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("id").build())
+                .withPageable(PageRequest.of(0, userLimit))
+                .withSort(s -> s.score(sc -> sc.order(SortOrder.Desc)))
+                .withSort(s -> s.field(f -> f.field("fansCount").order(SortOrder.Desc)))
+                .withTrackTotalHitsUpTo(trackTotalHitsUpTo)
+                .build();
+        NativeQuery tagQuery = NativeQuery.builder()
+                .withQuery(buildTagQuery(normalized))
+                .withSourceFilter(new FetchSourceFilterBuilder().withIncludes("id").build())
+                .withPageable(PageRequest.of(0, tagLimit))
+                .withSort(s -> s.score(sc -> sc.order(SortOrder.Desc)))
+                .withSort(s -> s.field(f -> f.field("usageCount").order(SortOrder.Desc)))
+                .withTrackTotalHitsUpTo(trackTotalHitsUpTo)
+                .build();
+
+        List<SearchHits<?>> results = esOps.multiSearch(
+                List.of(postQuery, userQuery, tagQuery),
+                List.of(PostIndex.class, UserIndex.class, TagIndex.class),
+                List.of(IndexCoordinates.of(IndexNameManager.POST_INDEX_ALIAS),
+                        IndexCoordinates.of(IndexNameManager.USER_INDEX_ALIAS),
+                        IndexCoordinates.of(IndexNameManager.TAG_INDEX_ALIAS)));
+
+        SearchHits<?> postHits = results.get(0);
+        SearchHits<?> userHits = results.get(1);
+        SearchHits<?> tagHits = results.get(2);
+
+        List<Post> posts = postHits.getSearchHits().stream()
+                .map(hit -> PostIndexConverter.toPost((PostIndex) hit.getContent()))
+                .collect(Collectors.toList());
+        return new AggregateSearchHits(
+                posts, postHits.getTotalHits(),
+                ids(userHits), userHits.getTotalHits(),
+                ids(tagHits), tagHits.getTotalHits());
+    }
+
+    /**
+     * 用户查询：昵称分词匹配、昵称/用户名前缀匹配、用户名精确命中加权、简介兜底
+     */
+    private Query buildUserQuery(String keyword) {
+        return Query.of(q -> q.bool(b -> b
+                .should(s -> s.match(m -> m.field("nickname").query(keyword).boost(2.0f)))
+                .should(s -> s.term(t -> t.field("username").value(keyword).boost(5.0f)))
+                .should(s -> s.multiMatch(mm -> mm
+                        .query(keyword)
+                        .type(TextQueryType.BoolPrefix)
+                        .fields("nickname.suggest^2", "nickname.suggest._2gram", "nickname.suggest._3gram",
+                                "username.suggest", "username.suggest._2gram", "username.suggest._3gram")))
+                .should(s -> s.match(m -> m.field("description").query(keyword).minimumShouldMatch("80%").boost(0.5f)))
+                .minimumShouldMatch("1")));
+    }
+
+    /**
+     * 标签查询：名称精确命中优先，其次前缀和分词匹配
+     */
+    private Query buildTagQuery(String keyword) {
+        return Query.of(q -> q.bool(b -> b
+                .should(s -> s.term(t -> t.field("name.keyword").value(keyword).boost(5.0f)))
+                .should(s -> s.match(m -> m.field("name").query(keyword).boost(2.0f)))
+                .should(s -> s.multiMatch(mm -> mm
+                        .query(keyword)
+                        .type(TextQueryType.BoolPrefix)
+                        .fields("name.suggest", "name.suggest._2gram", "name.suggest._3gram")))
+                .should(s -> s.match(m -> m.field("description").query(keyword).minimumShouldMatch("80%").boost(0.5f)))
+                .minimumShouldMatch("1")));
+    }
+
+    private List<Long> ids(SearchHits<?> hits) {
+        return hits.getSearchHits().stream()
+                .map(SearchHit::getId)
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+}
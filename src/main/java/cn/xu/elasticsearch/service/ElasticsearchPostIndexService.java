@@ -2,21 +2,29 @@ package cn.xu.elasticsearch.service;
 
 import cn.xu.elasticsearch.converter.PostIndexConverter;
 import cn.xu.elasticsearch.core.ElasticsearchOperations;
+import cn.xu.elasticsearch.core.IndexNameManager;
 import cn.xu.elasticsearch.model.PostIndex;
 import cn.xu.elasticsearch.repository.PostElasticRepository;
 import cn.xu.model.entity.Post;
+import cn.xu.repository.mapper.TagMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
 
 /**
  * Elasticsearch 帖子索引服务
  * <p>负责帖子的索引管理：索引、更新、删除</p>
+ * <p>写入通过别名进入线上索引；全量重建期间同时写入构建中的新版本索引，保证切换别名时不丢失实时变更</p>
+ * <p>写入以帖子更新时间作为外部版本，与重建的批量导入并发时以更新的数据为准；构建期间的删除记录下来，
+ * 由重建任务在切换别名前重放</p>
  */
 @Slf4j
 @Service
@@ -26,6 +34,8 @@ public class ElasticsearchPostIndexService {
 
     private final ElasticsearchOperations esOps;
     private final PostElasticRepository postElasticRepository;
+    private final IndexAliasService indexAliasService;
+    private final TagMapper tagMapper;
 
     /**
      * 索引单个帖子
@@ -35,8 +45,8 @@ public class ElasticsearchPostIndexService {
             return;
         }
         try {
-            PostIndex index = PostIndexConverter.from(post);
-            esOps.save(index);
+            PostIndex index = toIndex(post);
+            write(index);
             log.debug("[ES] 索引帖子成功 - postId: {}", post.getId());
         } catch (Exception e) {
             log.warn("[ES] 索引帖子失败 - postId: {}", post.getId(), e);
@@ -60,8 +70,8 @@ public class ElasticsearchPostIndexService {
         long retryDelayMs = 500;
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
             try {
-                PostIndex index = PostIndexConverter.from(post);
-                esOps.save(index);
+                PostIndex index = toIndex(post);
+                write(index);
                 log.debug("[ES] 索引帖子成功 - postId: {}, 尝试次数: {}", post.getId(), attempt);
                 return true;
             } catch (Exception e) {
@@ -91,8 +101,8 @@ public class ElasticsearchPostIndexService {
                 removeIndexedPost(post.getId());
                 return;
             }
-            PostIndex index = PostIndexConverter.from(post);
-            esOps.save(index);
+            PostIndex index = toIndex(post);
+            write(index);
         } catch (Exception e) {
             log.warn("[ES] 更新帖子索引失败 - postId: {}", post != null ? post.getId() : null, e);
         }
@@ -104,11 +114,61 @@ public class ElasticsearchPostIndexService {
     public void removeIndexedPost(Long postId) {
         try {
             esOps.delete(String.valueOf(postId), PostIndex.class);
+            String building = indexAliasService.getBuildingIndex(IndexNameManager.POST_INDEX_ALIAS);
+            if (building != null) {
+                indexAliasService.recordBuildDelete(IndexNameManager.POST_INDEX_ALIAS, String.valueOf(postId));
+                esOps.delete(String.valueOf(postId), IndexCoordinates.of(building));
+            }
+            indexAliasService.bumpGeneration(IndexNameManager.POST_INDEX_ALIAS);
         } catch (Exception e) {
             log.warn("[ES] 删除索引失败 - postId: {}", postId, e);
         }
     }
 
+    /**
+     * 转换为索引文档，附带帖子的标签名称
+     */
+    private PostIndex toIndex(Post post) {
+        return PostIndexConverter.from(post, tagMapper.getTagNamesByPostId(post.getId()));
+    }
+
+    /**
+     * 写入线上索引（及构建中的索引）；可检索字段有变化时使已缓存的搜索结果失效
+     * <p>定时热度同步等只改计数的重写不换代，避免每轮同步都清空全部搜索缓存；版本过旧被拒绝的写入也不换代</p>
+     */
+    private void write(PostIndex index) {
+        PostIndex previous = esOps.get(String.valueOf(index.getId()), PostIndex.class);
+        IndexQuery query = PostIndexConverter.toIndexQuery(index);
+        boolean written = esOps.indexVersioned(query, IndexCoordinates.of(IndexNameManager.POST_INDEX_ALIAS));
+        saveToBuildingIndex(query);
+        if (written && (previous == null || !sameSearchableFields(previous, index))) {
+            indexAliasService.bumpGeneration(IndexNameManager.POST_INDEX_ALIAS);
+        }
+    }
+
+    /**
+     * 比较影响命中和过滤的字段（文本、标签、作者、精选、发布时间）
+     */
+    private static boolean sameSearchableFields(PostIndex a, PostIndex b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getContent(), b.getContent())
+                && Objects.equals(a.getTags(), b.getTags())
+                && Objects.equals(a.getUserId(), b.getUserId())
+                && Objects.equals(a.getIsFeatured(), b.getIsFeatured())
+                && Objects.equals(a.getPublishTime(), b.getPublishTime());
+    }
+
+    /**
+     * 全量重建期间，同时写入构建中的新版本索引
+     */
+    private void saveToBuildingIndex(IndexQuery query) {
+        String building = indexAliasService.getBuildingIndex(IndexNameManager.POST_INDEX_ALIAS);
+        if (building != null) {
+            esOps.indexVersioned(query, IndexCoordinates.of(building));
+        }
+    }
+
     /**
      * 获取热度排行
      */
@@ -1,56 +1,146 @@
 package cn.xu.elasticsearch.service;
 
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.cache.core.RedisOperations;
 import cn.xu.common.ResponseCode;
 import cn.xu.elasticsearch.converter.PostIndexConverter;
 import cn.xu.elasticsearch.core.ElasticsearchOperations;
+import cn.xu.elasticsearch.core.IndexNameManager;
 import cn.xu.elasticsearch.model.PostIndex;
 import cn.xu.elasticsearch.repository.PostElasticRepository;
+import cn.xu.model.dto.search.PostSearchPage;
 import cn.xu.model.dto.search.SearchFilter;
 import cn.xu.model.entity.Post;
 import cn.xu.support.exception.BusinessException;
 import co.elastic.clients.elasticsearch._types.SortOrder;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
-import lombok.RequiredArgsConstructor;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.HighlightQuery;
+import org.springframework.data.elasticsearch.core.query.highlight.Highlight;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightFieldParameters;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightParameters;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
 import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
  * Elasticsearch 帖子搜索服务
  * <p>负责帖子的 ES 搜索功能</p>
+ * <p>相关度：标题、标签、摘要、正文多字段匹配，整句命中标题/摘要、标签精确命中额外加权，
+ * 标题前缀（search_as_you_type）兜底未输入完整的最后一个词；命中片段高亮后随结果返回</p>
+ * <p>执行：索引是否可用、是否为空由后台探测维护，请求路径上不再 count；总数只精确统计到上限；
+ * 结果页按 (规范化查询, 过滤条件, 页码) 缓存在索引代数下，可检索字段变更时代数+1，旧缓存不再命中、自然过期
+ * （只有计数、热度变化时不换代，按这些字段排序的缓存页在TTL内保持旧顺序）；
+ * 深分页沿用上一页缓存的排序值走 search_after</p>
  */
 @Slf4j
 @Service
 @ConditionalOnProperty(name = "spring.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
 public class ElasticsearchPostSearchService {
 
+    private static final HighlightQuery POST_HIGHLIGHT = buildHighlight();
+
+    /**
+     * ES 默认的 index.max_result_window，from + size 不能超过该值
+     */
+    private static final int MAX_RESULT_WINDOW = 10000;
+
+    private static final long NOT_EMPTY = Long.MIN_VALUE;
+
     private final cn.xu.elasticsearch.core.ElasticsearchOperations esOps;
     private final PostElasticRepository postElasticRepository;
-    private boolean available = false;
+    private final IndexAliasService indexAliasService;
+    private final RedisOperations redisOps;
+
+    /**
+     * 总命中数精确统计的上限，超出时按上限返回
+     */
+    @Value("${app.elasticsearch.search.track-total-hits:1000}")
+    private int trackTotalHitsUpTo;
+
+    /**
+     * 结果偏移量达到该值后，优先使用上一页的排序值做 search_after
+     */
+    @Value("${app.elasticsearch.search.search-after-from:1000}")
+    private int searchAfterFrom;
+
+    /**
+     * 结果页缓存时间（秒）
+     */
+    @Value("${app.elasticsearch.search.cache-ttl:120}")
+    private int cacheTtlSeconds;
+
+    private volatile boolean available = false;
+
+    /**
+     * 探测到索引为空时的索引代数，代数变化前的搜索直接返回空结果
+     */
+    private volatile long emptyAtGeneration = NOT_EMPTY;
 
     public ElasticsearchPostSearchService(
             cn.xu.elasticsearch.core.ElasticsearchOperations esOps,
-            PostElasticRepository postElasticRepository) {
+            PostElasticRepository postElasticRepository,
+            IndexAliasService indexAliasService,
+            RedisOperations redisOps) {
         this.esOps = esOps;
         this.postElasticRepository = postElasticRepository;
+        this.indexAliasService = indexAliasService;
+        this.redisOps = redisOps;
     }
 
     @PostConstruct
     public void init() {
+        probeIndex();
+        if (available) {
+            log.info("[ES] 帖子搜索服务初始化成功");
+        } else {
+            log.warn("[ES] 帖子搜索服务初始化失败，等待后台探测恢复");
+        }
+    }
+
+    /**
+     * 后台探测索引可用性和是否为空，失败后在下一次探测时自动恢复
+     */
+    @Scheduled(fixedDelayString = "${app.elasticsearch.search.probe-interval:30000}",
+            initialDelayString = "${app.elasticsearch.search.probe-interval:30000}")
+    public void probeIndex() {
         try {
-            postElasticRepository.count();
+            long generation = currentGeneration();
+            long docCount = postElasticRepository.count();
+            emptyAtGeneration = docCount == 0 && generation >= 0 ? generation : NOT_EMPTY;
+            if (!available) {
+                log.info("[ES] 帖子索引可用 - 文档数: {}", docCount);
+            }
             available = true;
-            log.info("[ES] 帖子搜索服务初始化成功");
         } catch (Exception e) {
+            if (available) {
+                log.warn("[ES] 帖子索引探测失败: {}", e.getMessage());
+            }
             available = false;
-            log.warn("[ES] 帖子搜索服务初始化失败: {}", e.getMessage());
         }
     }
 
@@ -70,59 +160,30 @@ public class ElasticsearchPostSearchService {
         }
 
         try {
-            long totalCount = postElasticRepository.count();
-            if (totalCount == 0) {
+            if (keyword == null || keyword.trim().isEmpty()) {
                 return new PageImpl<>(new java.util.ArrayList<>(), pageable, 0);
             }
 
-            if (keyword == null || keyword.trim().isEmpty()) {
+            // 代数未知（Redis不可用）时不走缓存
+            long generation = currentGeneration();
+            if (generation == emptyAtGeneration) {
                 return new PageImpl<>(new java.util.ArrayList<>(), pageable, 0);
             }
 
-            // 构建查询
-            Query query = Query.of(q -> q
-                .bool(b -> {
-                    // 多字段匹配
-                    b.must(m -> m
-                        .multiMatch(mm -> mm
-                            .query(keyword)
-                            .fields("title^2", "description")
-                        )
-                    );
-
-                    // 时间范围过滤
-                    if (filter != null) {
-                        if (filter.getStartTime() != null) {
-                            b.filter(f -> f.range(r -> r.field("publishTime").gte(co.elastic.clients.json.JsonData.of(filter.getStartTime()))));
-                        }
-                        if (filter.getEndTime() != null) {
-                            b.filter(f -> f.range(r -> r.field("publishTime").lte(co.elastic.clients.json.JsonData.of(filter.getEndTime()))));
-                        }
-                    }
-                    return b;
-                })
-            );
-
-            // 确定排序字段
-            String sortField = "publishTime";
-            if (filter != null && filter.getSortOption() != null) {
-                switch (filter.getSortOption()) {
-                    case TIME: sortField = "publishTime"; break;
-                    case HOT: sortField = "hotScore"; break;
-                    case COMMENT: sortField = "commentCount"; break;
-                    case LIKE: sortField = "likeCount"; break;
-                    default: sortField = "publishTime";
+            String normalizedKeyword = normalizeKeyword(keyword);
+            SearchFilter normalizedFilter = normalizeFilter(filter);
+            String queryHash = queryHash(normalizedKeyword, normalizedFilter);
+            int page = pageable.getPageNumber();
+            int size = pageable.getPageSize();
+
+            PostSearchPage result = generation >= 0 ? getCachedPage(generation, queryHash, page, size) : null;
+            if (result == null) {
+                result = executeSearch(normalizedKeyword, normalizedFilter, generation, queryHash, page, size);
+                if (generation >= 0) {
+                    putCachedPage(generation, queryHash, page, size, result);
                 }
             }
-
-            // 使用 ElasticsearchOperations 进行搜索
-            Page<PostIndex> indexPage = esOps.searchPage(query, pageable, sortField, SortOrder.Desc, PostIndex.class);
-
-            List<Post> postEntities = indexPage.getContent().stream()
-                    .map(PostIndexConverter::toPost)
-                    .collect(Collectors.toList());
-
-            return new PageImpl<>(postEntities, pageable, indexPage.getTotalElements());
+            return new PageImpl<>(result.getPosts(), pageable, result.getTotal());
 
         } catch (Exception e) {
             log.error("[ES] Elasticsearch 搜索失败 - keyword: {}", keyword, e);
@@ -141,6 +202,215 @@ public class ElasticsearchPostSearchService {
         }
     }
 
+    /**
+     * 执行一次 ES 查询
+     * <p>偏移量较大且上一页在缓存中时用 search_after 接着上一页取，否则用 from/size；
+     * 两者都不可行（超出结果窗口且没有上一页的排序值）时返回空页</p>
+     */
+    private PostSearchPage executeSearch(String keyword, SearchFilter filter, long generation, String queryHash,
+                                         int page, int size) {
+        long offset = (long) page * size;
+        List<Object> searchAfter = null;
+        if (page > 0 && offset >= searchAfterFrom && generation >= 0) {
+            PostSearchPage previous = getCachedPage(generation, queryHash, page - 1, size);
+            if (previous != null && previous.getLastSortValues() != null) {
+                searchAfter = previous.getLastSortValues();
+            }
+        }
+        if (searchAfter == null && offset + size > MAX_RESULT_WINDOW) {
+            return new PostSearchPage(new ArrayList<>(), 0L, null);
+        }
+
+        NativeQueryBuilder queryBuilder = NativeQuery.builder()
+                .withQuery(buildQuery(keyword, filter))
+                .withSourceFilter(new FetchSourceFilterBuilder().withExcludes("content").build())
+                .withHighlightQuery(POST_HIGHLIGHT)
+                .withTrackTotalHitsUpTo(trackTotalHitsUpTo);
+        if (searchAfter != null) {
+            queryBuilder.withPageable(PageRequest.of(0, size)).withSearchAfter(searchAfter);
+        } else {
+            queryBuilder.withPageable(PageRequest.of(page, size));
+        }
+        // 排序末尾追加 id，保证排序稳定，search_after 不漏不重
+        String sortField = resolveSortField(filter);
+        if (sortField != null) {
+            queryBuilder.withSort(s -> s.field(f -> f.field(sortField).order(SortOrder.Desc)));
+        } else {
+            queryBuilder.withSort(s -> s.score(sc -> sc.order(SortOrder.Desc)));
+        }
+        queryBuilder.withSort(s -> s.field(f -> f.field("id").order(SortOrder.Desc)));
+
+        SearchHits<PostIndex> hits = esOps.search(queryBuilder.build(), PostIndex.class);
+
+        List<Post> posts = hits.getSearchHits().stream()
+                .map(this::toPostWithHighlights)
+                .collect(Collectors.toList());
+        List<Object> lastSortValues = hits.getSearchHits().isEmpty() ? null
+                : new ArrayList<>(hits.getSearchHits().get(hits.getSearchHits().size() - 1).getSortValues());
+        return new PostSearchPage(posts, hits.getTotalHits(), lastSortValues);
+    }
+
+    // ==================== 结果缓存 ====================
+
+    private long currentGeneration() {
+        return indexAliasService.currentGeneration(IndexNameManager.POST_INDEX_ALIAS);
+    }
+
+    private PostSearchPage getCachedPage(long generation, String queryHash, int page, int size) {
+        try {
+            Object cached = redisOps.get(RedisKeyManager.esPostSearchResultKey(generation, queryHash, page, size));
+            // 值序列化不带类型信息，读出的是Map，需转回 PostSearchPage
+            PostSearchPage result = redisOps.convertValue(cached, PostSearchPage.class);
+            return result != null && result.getPosts() != null ? result : null;
+        } catch (Exception e) {
+            log.warn("[ES] 读取搜索结果缓存失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putCachedPage(long generation, String queryHash, int page, int size, PostSearchPage result) {
+        try {
+            redisOps.set(RedisKeyManager.esPostSearchResultKey(generation, queryHash, page, size), result, cacheTtlSeconds);
+        } catch (Exception e) {
+            log.warn("[ES] 写入搜索结果缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 规范化关键词：去首尾空白、合并连续空白、转小写
+     */
+    static String normalizeKeyword(String keyword) {
+        return keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 时间范围截断到分钟，使"最近一天"这类按当前时间计算的过滤条件在一分钟内命中同一份缓存
+     */
+    private SearchFilter normalizeFilter(SearchFilter filter) {
+        if (filter == null) {
+            return null;
+        }
+        return SearchFilter.builder()
+                .startTime(truncateToMinute(filter.getStartTime()))
+                .endTime(truncateToMinute(filter.getEndTime()))
+                .sortOption(filter.getSortOption())
+                .build();
+    }
+
+    private LocalDateTime truncateToMinute(LocalDateTime time) {
+        return time != null ? time.truncatedTo(ChronoUnit.MINUTES) : null;
+    }
+
+    private String queryHash(String keyword, SearchFilter filter) {
+        String raw = keyword;
+        if (filter != null) {
+            raw += "|" + filter.getStartTime() + "|" + filter.getEndTime() + "|" + filter.getSortOption();
+        }
+        return DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ==================== 查询构建 ====================
+
+    /**
+     * 构建搜索查询：任一子句命中即召回，多个子句同时命中时得分累加（聚合搜索的帖子分组共用）
+     */
+    static Query buildQuery(String keyword, SearchFilter filter) {
+        return Query.of(q -> q
+            .bool(b -> {
+                // 多字段分词匹配（主召回）
+                b.should(s -> s
+                    .multiMatch(mm -> mm
+                        .query(keyword)
+                        .fields("title^3", "tags.text^2", "description^1.5", "content")
+                        .type(TextQueryType.BestFields)
+                        .tieBreaker(0.3)
+                        .minimumShouldMatch("60%")
+                    )
+                );
+                // 整句命中加权
+                b.should(s -> s.matchPhrase(mp -> mp.field("title").query(keyword).slop(1).boost(5.0f)));
+                b.should(s -> s.matchPhrase(mp -> mp.field("description").query(keyword).slop(1).boost(2.0f)));
+                // 标签精确命中
+                b.should(s -> s.term(t -> t.field("tags").value(keyword).boost(3.0f)));
+                // 标题前缀匹配（输入未完成时）
+                b.should(s -> s
+                    .multiMatch(mm -> mm
+                        .query(keyword)
+                        .type(TextQueryType.BoolPrefix)
+                        .fields("title.suggest", "title.suggest._2gram", "title.suggest._3gram")
+                    )
+                );
+                b.minimumShouldMatch("1");
+
+                // 时间范围过滤
+                if (filter != null) {
+                    if (filter.getStartTime() != null) {
+                        b.filter(f -> f.range(r -> r.field("publishTime").gte(co.elastic.clients.json.JsonData.of(filter.getStartTime()))));
+                    }
+                    if (filter.getEndTime() != null) {
+                        b.filter(f -> f.range(r -> r.field("publishTime").lte(co.elastic.clients.json.JsonData.of(filter.getEndTime()))));
+                    }
+                }
+                return b;
+            })
+        );
+    }
+
+    /**
+     * 确定排序字段，按相关度排序时返回null
+     */
+    private String resolveSortField(SearchFilter filter) {
+        if (filter == null || filter.getSortOption() == null) {
+            return "publishTime";
+        }
+        switch (filter.getSortOption()) {
+            case HOT: return "hotScore";
+            case COMMENT: return "commentCount";
+            case LIKE: return "likeCount";
+            case RELEVANCE: return null;
+            default: return "publishTime";
+        }
+    }
+
+    private Post toPostWithHighlights(SearchHit<PostIndex> hit) {
+        Post post = PostIndexConverter.toPost(hit.getContent());
+        Map<String, String> highlights = new HashMap<>();
+        for (String field : new String[]{"title", "description", "content"}) {
+            List<String> fragments = hit.getHighlightField(field);
+            if (!fragments.isEmpty()) {
+                highlights.put(field, String.join("...", fragments));
+            }
+        }
+        if (!highlights.isEmpty()) {
+            post.setHighlights(highlights);
+        }
+        return post;
+    }
+
+    /**
+     * 高亮设置：标题、摘要返回整段，正文返回一个命中片段
+     */
+    private static HighlightQuery buildHighlight() {
+        HighlightParameters parameters = HighlightParameters.builder()
+                .withPreTags("<em>")
+                .withPostTags("</em>")
+                .withEncoder("html")
+                .build();
+        HighlightFieldParameters wholeField = HighlightFieldParameters.builder()
+                .withNumberOfFragments(0)
+                .build();
+        HighlightFieldParameters snippet = HighlightFieldParameters.builder()
+                .withFragmentSize(120)
+                .withNumberOfFragments(1)
+                .build();
+        Highlight highlight = new Highlight(parameters, List.of(
+                new HighlightField("title", wholeField),
+                new HighlightField("description", wholeField),
+                new HighlightField("content", snippet)
+        ));
+        return new HighlightQuery(highlight, PostIndex.class);
+    }
+
     /**
      * 检查服务是否可用
      */
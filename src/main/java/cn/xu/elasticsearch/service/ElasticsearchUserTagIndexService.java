@@ -0,0 +1,189 @@
+package cn.xu.elasticsearch.service;
+
+import cn.xu.elasticsearch.core.ElasticsearchOperations;
+import cn.xu.elasticsearch.model.TagIndex;
+import cn.xu.elasticsearch.model.UserIndex;
+import cn.xu.elasticsearch.repository.TagElasticRepository;
+import cn.xu.elasticsearch.repository.UserElasticRepository;
+import cn.xu.event.core.BaseEvent.EventAction;
+import cn.xu.event.events.TagEvent;
+import cn.xu.event.events.UserEvent;
+import cn.xu.model.entity.Tag;
+import cn.xu.model.entity.User;
+import cn.xu.repository.mapper.TagMapper;
+import cn.xu.repository.mapper.UserMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Elasticsearch 用户、标签索引服务
+ * <p>用户注册、资料/状态变更和标签增删改提交后，按ID从数据库重新读取并写入（或删除）索引文档；
+ * 索引为空时由 {@link cn.xu.elasticsearch.init.UserTagDataInitializer} 全量导入</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class ElasticsearchUserTagIndexService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ElasticsearchOperations esOps;
+    private final UserElasticRepository userElasticRepository;
+    private final TagElasticRepository tagElasticRepository;
+    private final UserMapper userMapper;
+    private final TagMapper tagMapper;
+
+    // ==================== 事件同步 ====================
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserEvent(UserEvent event) {
+        if (event.getUserEventType() == UserEvent.UserEventType.LOGGED_IN) {
+            return;
+        }
+        syncUser(event.getUserId());
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTagEvent(TagEvent event) {
+        if (event.getAction() == EventAction.DELETE) {
+            removeTag(event.getTagId());
+        } else {
+            syncTag(event.getTagId());
+        }
+    }
+
+    /**
+     * 按数据库中的最新状态同步单个用户：正常状态写入，否则删除
+     */
+    public void syncUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            User user = userMapper.selectById(userId);
+            if (user == null || !Integer.valueOf(User.STATUS_NORMAL).equals(user.getStatus())) {
+                esOps.delete(String.valueOf(userId), UserIndex.class);
+                log.debug("[ES] 用户不可搜索，已删除索引 - userId: {}", userId);
+                return;
+            }
+            esOps.save(toIndex(user));
+            log.debug("[ES] 索引用户成功 - userId: {}", userId);
+        } catch (Exception e) {
+            log.warn("[ES] 同步用户索引失败 - userId: {}", userId, e);
+        }
+    }
+
+    /**
+     * 按数据库中的最新状态同步单个标签
+     */
+    public void syncTag(Long tagId) {
+        if (tagId == null) {
+            return;
+        }
+        try {
+            Tag tag = tagMapper.getTagById(tagId);
+            if (tag == null) {
+                removeTag(tagId);
+                return;
+            }
+            esOps.save(toIndex(tag));
+            log.debug("[ES] 索引标签成功 - tagId: {}", tagId);
+        } catch (Exception e) {
+            log.warn("[ES] 同步标签索引失败 - tagId: {}", tagId, e);
+        }
+    }
+
+    public void removeTag(Long tagId) {
+        try {
+            esOps.delete(String.valueOf(tagId), TagIndex.class);
+        } catch (Exception e) {
+            log.warn("[ES] 删除标签索引失败 - tagId: {}", tagId, e);
+        }
+    }
+
+    // ==================== 全量导入 ====================
+
+    /**
+     * 按主键游标分批导入所有正常状态的用户
+     *
+     * @return 导入数量
+     */
+    public long indexAllUsers() {
+        long lastId = 0L;
+        long total = 0;
+        while (true) {
+            List<User> batch = userMapper.findNormalForIndexAfterId(lastId, BATCH_SIZE);
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            esOps.saveAll(batch.stream().map(this::toIndex).collect(Collectors.toList()));
+            total += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            log.info("已导入 {} 条用户索引", total);
+        }
+        return total;
+    }
+
+    /**
+     * 导入所有标签
+     *
+     * @return 导入数量
+     */
+    public long indexAllTags() {
+        List<Tag> tags = tagMapper.getAllTags();
+        if (tags == null || tags.isEmpty()) {
+            return 0;
+        }
+        for (int i = 0; i < tags.size(); i += BATCH_SIZE) {
+            List<TagIndex> batch = new ArrayList<>();
+            for (Tag tag : tags.subList(i, Math.min(i + BATCH_SIZE, tags.size()))) {
+                batch.add(toIndex(tag));
+            }
+            esOps.saveAll(batch);
+        }
+        return tags.size();
+    }
+
+    public long countUsers() {
+        return userElasticRepository.count();
+    }
+
+    public long countTags() {
+        return tagElasticRepository.count();
+    }
+
+    // ==================== 转换 ====================
+
+    private UserIndex toIndex(User user) {
+        UserIndex index = new UserIndex();
+        index.setId(user.getId());
+        index.setUsername(user.getUsername());
+        index.setNickname(user.getNickname());
+        index.setDescription(user.getDescription());
+        index.setUserType(user.getUserType());
+        index.setFansCount(user.getFansCount() != null ? user.getFansCount() : 0L);
+        return index;
+    }
+
+    private TagIndex toIndex(Tag tag) {
+        TagIndex index = new TagIndex();
+        index.setId(tag.getId());
+        index.setName(tag.getName());
+        index.setDescription(tag.getDescription());
+        index.setUsageCount(tag.getUsageCount() != null ? tag.getUsageCount() : 0);
+        index.setIsRecommended(tag.getIsRecommended());
+        return index;
+    }
+}
@@ -0,0 +1,247 @@
+package cn.xu.elasticsearch.service;
+
+import cn.xu.cache.core.DistributedLock;
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.cache.core.RedisOperations;
+import cn.xu.elasticsearch.core.ElasticsearchException;
+import cn.xu.elasticsearch.core.ElasticsearchOperations;
+import cn.xu.elasticsearch.core.IndexNameManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 索引别名管理服务
+ * <p>读写统一通过别名访问，别名背后是带版本号的物理索引（如 posts_v20240101120000）</p>
+ * <p>重建时先创建新版本索引，构建期间实时变更同时写入新旧索引，构建完成后原子切换别名并清理旧版本，
+ * 整个过程搜索不中断；映射变更（如更换分词器）也通过重建生效，无需删除线上索引</p>
+ * <p>双写按外部版本（帖子更新时间）写入，批量导入的旧数据不会覆盖更新的实时写入；构建期间的删除另行记录，
+ * 切换别名前由重建任务在新索引中重放（见 {@link #drainBuildDeletes}）</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class IndexAliasService {
+
+    /**
+     * 构建中索引名称的本地缓存时间（毫秒），开始构建后需等待该时间，保证所有实例都已开始双写
+     */
+    public static final long BUILDING_INDEX_CACHE_MS = 5000;
+
+    private static final DateTimeFormatter VERSION_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ElasticsearchOperations esOps;
+    private final RedisOperations redisOps;
+    private final DistributedLock distributedLock;
+
+    /**
+     * 切换别名后保留的旧版本数（用于回滚）
+     */
+    @Value("${app.elasticsearch.index.retain-versions:1}")
+    private int retainVersions;
+
+    /**
+     * 别名 -> 构建中的索引（本地缓存，减少每次写入的Redis访问）
+     */
+    private final Map<String, BuildingIndex> buildingIndexCache = new ConcurrentHashMap<>();
+
+    /**
+     * 确保别名存在
+     * <p>别名不存在时：已有同名旧索引（未使用别名前创建的）则直接挂上别名，否则创建首个版本</p>
+     *
+     * @param alias     别名
+     * @param baseName  索引基础名称
+     * @param clazz     索引实体类（提供映射和设置）
+     */
+    public void ensureAlias(String alias, String baseName, Class<?> clazz) {
+        String lockKey = "es:alias:init:" + alias;
+        if (!distributedLock.tryLock(lockKey, 30, TimeUnit.SECONDS)) {
+            log.info("[ES别名] 其他实例正在初始化别名: {}", alias);
+            return;
+        }
+        try {
+            if (!esOps.getAliasIndices(alias).isEmpty()) {
+                return;
+            }
+            String target;
+            if (esOps.indexExists(baseName)) {
+                target = baseName;
+                log.info("[ES别名] 为已有索引挂上别名: {} -> {}", alias, target);
+            } else {
+                target = createVersion(baseName, clazz);
+                log.info("[ES别名] 创建首个版本索引: {} -> {}", alias, target);
+            }
+            esOps.switchAlias(alias, target, Collections.emptyList());
+        } finally {
+            distributedLock.unlock(lockKey);
+        }
+    }
+
+    /**
+     * 按实体类当前的映射创建新版本索引
+     *
+     * @return 新索引名称
+     */
+    public String createVersion(String baseName, Class<?> clazz) {
+        String indexName = IndexNameManager.getVersionedIndexName(baseName,
+                LocalDateTime.now().format(VERSION_FORMATTER));
+        if (!esOps.createIndex(indexName, clazz)) {
+            throw new ElasticsearchException("创建版本索引失败: " + indexName);
+        }
+        return indexName;
+    }
+
+    /**
+     * 开始构建：登记构建中的索引，各实例的实时写入随后同时写入该索引
+     */
+    public void beginBuild(String alias, String indexName) {
+        redisOps.delete(RedisKeyManager.esBuildingDeletesKey(alias));
+        redisOps.set(RedisKeyManager.esBuildingIndexKey(alias), indexName, RedisKeyManager.ES_REINDEX_PROGRESS_TTL);
+        buildingIndexCache.remove(alias);
+        log.info("[ES别名] 开始构建新版本: {} -> {}", alias, indexName);
+    }
+
+    /**
+     * 放弃构建：删除构建中的索引并停止双写
+     */
+    public void abortBuild(String alias) {
+        String building = readBuildingIndex(alias);
+        redisOps.delete(RedisKeyManager.esBuildingIndexKey(alias));
+        redisOps.delete(RedisKeyManager.esBuildingDeletesKey(alias));
+        buildingIndexCache.remove(alias);
+        if (building != null && !esOps.getAliasIndices(alias).contains(building)) {
+            esOps.deleteIndex(building);
+            log.info("[ES别名] 放弃构建并删除索引: {}", building);
+        }
+    }
+
+    /**
+     * 构建中的索引（无构建时返回null），结果在本地缓存 {@link #BUILDING_INDEX_CACHE_MS} 毫秒
+     */
+    public String getBuildingIndex(String alias) {
+        long now = System.currentTimeMillis();
+        BuildingIndex cached = buildingIndexCache.get(alias);
+        if (cached != null && cached.expireAt > now) {
+            return cached.indexName;
+        }
+        String indexName = null;
+        try {
+            indexName = readBuildingIndex(alias);
+        } catch (Exception e) {
+            log.warn("[ES别名] 读取构建中的索引失败: alias={}, error={}", alias, e.getMessage());
+        }
+        buildingIndexCache.put(alias, new BuildingIndex(indexName, now + BUILDING_INDEX_CACHE_MS));
+        return indexName;
+    }
+
+    /**
+     * 记录构建期间删除的文档
+     */
+    public void recordBuildDelete(String alias, String id) {
+        redisOps.sAddExpireOnCreate(RedisKeyManager.esBuildingDeletesKey(alias),
+                RedisKeyManager.ES_REINDEX_PROGRESS_TTL, id);
+    }
+
+    /**
+     * 取出并移除已记录的构建期间删除的文档ID
+     */
+    public Set<String> drainBuildDeletes(String alias) {
+        String key = RedisKeyManager.esBuildingDeletesKey(alias);
+        Set<Object> members = redisOps.sMembers(key);
+        if (members == null || members.isEmpty()) {
+            return Collections.emptySet();
+        }
+        redisOps.sRemove(key, members.toArray());
+        Set<String> ids = new HashSet<>();
+        for (Object member : members) {
+            ids.add(member.toString());
+        }
+        return ids;
+    }
+
+    /**
+     * 发布新版本：原子切换别名，停止双写，清理多余的旧版本
+     */
+    public void publish(String alias, String baseName, String newIndex) {
+        Set<String> oldIndices = esOps.getAliasIndices(alias);
+        esOps.switchAlias(alias, newIndex, oldIndices);
+        redisOps.delete(RedisKeyManager.esBuildingIndexKey(alias));
+        redisOps.delete(RedisKeyManager.esBuildingDeletesKey(alias));
+        buildingIndexCache.remove(alias);
+        bumpGeneration(alias);
+        log.info("[ES别名] 别名已切换: {} {} -> {}", alias, oldIndices, newIndex);
+
+        try {
+            cleanupOldVersions(baseName, newIndex);
+        } catch (Exception e) {
+            log.warn("[ES别名] 清理旧版本失败: baseName={}", baseName, e);
+        }
+    }
+
+    /**
+     * 别名当前的数据代数，别名下的文档每次变更后+1，搜索结果缓存以代数作为Key的一部分
+     * <p>Redis不可用时返回-1（调用方按代数未知处理）</p>
+     */
+    public long currentGeneration(String alias) {
+        try {
+            Object value = redisOps.get(RedisKeyManager.esIndexGenerationKey(alias));
+            return value != null ? Long.parseLong(value.toString()) : 0L;
+        } catch (Exception e) {
+            log.warn("[ES别名] 读取索引代数失败: alias={}, error={}", alias, e.getMessage());
+            return -1L;
+        }
+    }
+
+    /**
+     * 别名下的文档已变更，代数+1，之前代数下缓存的搜索结果随即失效
+     */
+    public void bumpGeneration(String alias) {
+        try {
+            redisOps.increment(RedisKeyManager.esIndexGenerationKey(alias), 1);
+        } catch (Exception e) {
+            log.warn("[ES别名] 更新索引代数失败: alias={}, error={}", alias, e.getMessage());
+        }
+    }
+
+    /**
+     * 保留最近 retainVersions 个旧版本，其余删除（未使用别名前的同名旧索引视为最旧版本）
+     */
+    private void cleanupOldVersions(String baseName, String current) {
+        List<String> oldVersions = new ArrayList<>(esOps.listIndices(IndexNameManager.getVersionedIndexPattern(baseName)));
+        oldVersions.remove(current);
+        oldVersions.sort(Comparator.reverseOrder());
+        if (esOps.indexExists(baseName)) {
+            oldVersions.add(baseName);
+        }
+        for (int i = Math.max(0, retainVersions); i < oldVersions.size(); i++) {
+            String indexName = oldVersions.get(i);
+            if (esOps.deleteIndex(indexName)) {
+                log.info("[ES别名] 删除旧版本索引: {}", indexName);
+            }
+        }
+    }
+
+    private String readBuildingIndex(String alias) {
+        Object value = redisOps.get(RedisKeyManager.esBuildingIndexKey(alias));
+        return value != null ? value.toString() : null;
+    }
+
+    private static class BuildingIndex {
+        private final String indexName;
+        private final long expireAt;
+
+        BuildingIndex(String indexName, long expireAt) {
+            this.indexName = indexName;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package cn.xu.elasticsearch.service;
+
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.cache.core.RedisOperations;
+import cn.xu.elasticsearch.converter.PostIndexConverter;
+import cn.xu.elasticsearch.core.ElasticsearchOperations;
+import cn.xu.elasticsearch.core.IndexNameManager;
+import cn.xu.elasticsearch.model.PostIndex;
+import cn.xu.elasticsearch.model.ReindexProgress;
+import cn.xu.model.dto.post.PostTagName;
+import cn.xu.model.entity.Post;
+import cn.xu.repository.mapper.PostMapper;
+import cn.xu.repository.mapper.TagMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 帖子索引全量重建服务
+ * <p>后台线程按主键游标读取已发布帖子，工作线程池并行转换并通过 _bulk 写入，每个请求按文档数和字节数双阈值切分</p>
+ * <p>重建期间关闭索引自动刷新；每轮完成后把进度写入Redis，实例中断后可从断点续跑，进度和吞吐可通过管理接口查询</p>
+ * <p>重建写入新版本的物理索引，线上搜索继续读旧版本；完成后原子切换别名（见 {@link IndexAliasService}）</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.elasticsearch.enabled", havingValue = "true", matchIfMissing = false)
+public class PostReindexService {
+
+    /**
+     * 每轮从数据库读取的帖子数
+     */
+    private static final int FETCH_SIZE = 2000;
+
+    /**
+     * 单个文档除文本字段外的固定开销估算（字段名、数值和日期字段）
+     */
+    private static final int DOC_OVERHEAD_BYTES = 512;
+
+    /**
+     * 失败任务集合过期时间（24小时）
+     */
+    private static final int FAILED_TASKS_TTL = 24 * 3600;
+
+    private static final String DEFAULT_REFRESH_INTERVAL = "1s";
+
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_TARGET = "target";
+    private static final String FIELD_LAST_ID = "lastId";
+    private static final String FIELD_INDEXED = "indexed";
+    private static final String FIELD_FAILED = "failed";
+    private static final String FIELD_ELAPSED = "elapsedMs";
+    private static final String FIELD_START_TIME = "startTime";
+    private static final String FIELD_UPDATE_TIME = "updateTime";
+
+    private final PostMapper postMapper;
+    private final TagMapper tagMapper;
+    private final ElasticsearchOperations esOps;
+    private final RedisOperations redisOps;
+    private final IndexAliasService indexAliasService;
+
+    @Value("${app.elasticsearch.reindex.workers:4}")
+    private int workers;
+
+    @Value("${app.elasticsearch.reindex.bulk-size:500}")
+    private int bulkSize;
+
+    @Value("${app.elasticsearch.reindex.bulk-bytes:5242880}")
+    private long bulkBytes;
+
+    /**
+     * 本实例是否正在重建
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile boolean cancelRequested;
+
+    /**
+     * 本实例持有互斥锁时写入的锁值
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * 启动后台重建
+     *
+     * @param resume 是否从上次未完成的进度续跑，false 时从头开始
+     * @return 启动后的进度；集群内已有重建在执行时直接返回其进度
+     */
+    public ReindexProgress start(boolean resume) {
+        String indexName = IndexNameManager.POST_INDEX;
+        if (!running.compareAndSet(false, true)) {
+            log.info("[ES重建] 本实例正在重建，忽略本次触发");
+            return getProgress();
+        }
+        if (!redisOps.setIfAbsent(RedisKeyManager.esReindexLockKey(indexName), instanceId,
+                RedisKeyManager.ES_REINDEX_LOCK_TTL)) {
+            running.set(false);
+            log.info("[ES重建] 其他实例正在重建，忽略本次触发");
+            return getProgress();
+        }
+        try {
+            cancelRequested = false;
+            RunState state = prepare(indexName, resume);
+            Thread worker = new Thread(() -> run(indexName, state), "post-reindex");
+            worker.setDaemon(true);
+            worker.start();
+        } catch (RuntimeException e) {
+            log.error("[ES重建] 启动失败", e);
+            releaseLock(indexName);
+            running.set(false);
+            throw e;
+        }
+        return getProgress();
+    }
+
+    /**
+     * 请求取消本实例正在执行的重建，当前轮完成后停止，进度保留可续跑
+     *
+     * @return 本实例是否有正在执行的重建
+     */
+    public boolean cancel() {
+        if (!running.get()) {
+            return false;
+        }
+        cancelRequested = true;
+        log.info("[ES重建] 已请求取消");
+        return true;
+    }
+
+    /**
+     * 是否存在被中断的重建（进度为执行中但没有实例持有锁，通常是实例在重建中途退出）
+     */
+    public boolean hasInterruptedRun() {
+        String indexName = IndexNameManager.POST_INDEX;
+        Object status = redisOps.hGet(RedisKeyManager.esReindexProgressKey(indexName), FIELD_STATUS);
+        return status != null
+                && ReindexProgress.Status.RUNNING.name().equals(status.toString())
+                && !redisOps.hasKey(RedisKeyManager.esReindexLockKey(indexName));
+    }
+
+    /**
+     * 查询重建进度（集群内任一实例均可查询）
+     */
+    public ReindexProgress getProgress() {
+        String indexName = IndexNameManager.POST_INDEX;
+        Map<Object, Object> hash = redisOps.hGetAll(RedisKeyManager.esReindexProgressKey(indexName));
+        if (hash == null || hash.isEmpty()) {
+            return ReindexProgress.builder()
+                    .indexName(IndexNameManager.POST_INDEX_ALIAS)
+                    .status(ReindexProgress.Status.IDLE)
+                    .build();
+        }
+        long indexed = toLong(hash.get(FIELD_INDEXED));
+        long elapsedMs = toLong(hash.get(FIELD_ELAPSED));
+        Object target = hash.get(FIELD_TARGET);
+        return ReindexProgress.builder()
+                .indexName(target != null ? target.toString() : IndexNameManager.POST_INDEX_ALIAS)
+                .status(toStatus(hash.get(FIELD_STATUS)))
+                .lastId(toLong(hash.get(FIELD_LAST_ID)))
+                .indexed(indexed)
+                .failed(toLong(hash.get(FIELD_FAILED)))
+                .elapsedMs(elapsedMs)
+                .docsPerSecond(elapsedMs > 0 ? indexed * 1000 / elapsedMs : 0L)
+                .startTime(toTime(hash.get(FIELD_START_TIME)))
+                .updateTime(toTime(hash.get(FIELD_UPDATE_TIME)))
+                .build();
+    }
+
+    /**
+     * 确定起点：续跑时沿用未完成的进度和构建中的索引，否则创建新版本索引从头开始
+     */
+    private RunState prepare(String indexName, boolean resume) {
+        String progressKey = RedisKeyManager.esReindexProgressKey(indexName);
+        Map<Object, Object> hash = redisOps.hGetAll(progressKey);
+        Object status = hash != null ? hash.get(FIELD_STATUS) : null;
+        Object target = hash != null ? hash.get(FIELD_TARGET) : null;
+
+        RunState state = new RunState();
+        if (resume && status != null && target != null
+                && !ReindexProgress.Status.COMPLETED.name().equals(status.toString())
+                && target.toString().equals(indexAliasService.getBuildingIndex(IndexNameManager.POST_INDEX_ALIAS))
+                && esOps.indexExists(target.toString())) {
+            state.target = target.toString();
+            state.lastId = toLong(hash.get(FIELD_LAST_ID));
+            state.indexed = toLong(hash.get(FIELD_INDEXED));
+            state.failed = toLong(hash.get(FIELD_FAILED));
+            state.elapsedMs = toLong(hash.get(FIELD_ELAPSED));
+            state.startTime = toLong(hash.get(FIELD_START_TIME));
+            log.info("[ES重建] 从断点续跑 - index: {}, lastId: {}, 已写入: {}", state.target, state.lastId, state.indexed);
+        } else {
+            // 丢弃未完成的构建，按当前映射创建新版本
+            indexAliasService.abortBuild(IndexNameManager.POST_INDEX_ALIAS);
+            redisOps.delete(progressKey);
+            state.target = indexAliasService.createVersion(indexName, PostIndex.class);
+            indexAliasService.beginBuild(IndexNameManager.POST_INDEX_ALIAS, state.target);
+            state.freshBuild = true;
+            state.startTime = System.currentTimeMillis();
+            log.info("[ES重建] 开始全量重建 - index: {}", state.target);
+        }
+        saveProgress(indexName, ReindexProgress.Status.RUNNING, state);
+        return state;
+    }
+
+    private void run(String indexName, RunState state) {
+        IndexCoordinates index = IndexCoordinates.of(state.target);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers),
+                r -> new Thread(r, "post-reindex-worker"));
+        boolean refreshDisabled = esOps.updateRefreshInterval(state.target, "-1");
+        ReindexProgress.Status finalStatus = ReindexProgress.Status.FAILED;
+        try {
+            if (state.freshBuild) {
+                // 等待各实例的构建索引缓存过期，确保扫描开始前实时变更已双写到新索引
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(IndexAliasService.BUILDING_INDEX_CACHE_MS + 1000));
+            }
+            while (!cancelRequested) {
+                long roundStart = System.currentTimeMillis();
+                List<Post> posts = postMapper.findPublishedForIndexAfterId(state.lastId, FETCH_SIZE);
+                if (posts == null || posts.isEmpty()) {
+                    break;
+                }
+
+                Set<String> failedIds = indexRound(posts, loadTags(posts), index, executor);
+                recordFailedIndexTasks(failedIds);
+
+                state.lastId = posts.get(posts.size() - 1).getId();
+                state.indexed += posts.size() - failedIds.size();
+                state.failed += failedIds.size();
+                state.elapsedMs += System.currentTimeMillis() - roundStart;
+                saveProgress(indexName, ReindexProgress.Status.RUNNING, state);
+                redisOps.expire(RedisKeyManager.esReindexLockKey(indexName), RedisKeyManager.ES_REINDEX_LOCK_TTL);
+
+                log.info("[ES重建] 进度 - lastId: {}, 已写入: {}, 失败: {}, 吞吐: {}/s",
+                        state.lastId, state.indexed, state.failed,
+                        state.elapsedMs > 0 ? state.indexed * 1000 / state.elapsedMs : 0);
+
+                if (posts.size() < FETCH_SIZE) {
+                    break;
+                }
+            }
+            if (cancelRequested) {
+                finalStatus = ReindexProgress.Status.CANCELLED;
+            } else {
+                // 恢复刷新后再切换别名，切换后立即可搜
+                esOps.updateRefreshInterval(state.target, DEFAULT_REFRESH_INTERVAL);
+                esOps.refreshIndex(index);
+                refreshDisabled = false;
+                replayBuildDeletes(index);
+                indexAliasService.publish(IndexNameManager.POST_INDEX_ALIAS, indexName, state.target);
+                finalStatus = ReindexProgress.Status.COMPLETED;
+            }
+            log.info("[ES重建] 重建结束 - status: {}, 已写入: {}, 失败: {}, 耗时: {}ms",
+                    finalStatus, state.indexed, state.failed, state.elapsedMs);
+        } catch (Exception e) {
+            log.error("[ES重建] 重建失败，进度已保存可续跑 - lastId: {}", state.lastId, e);
+        } finally {
+            executor.shutdownNow();
+            if (refreshDisabled) {
+                esOps.updateRefreshInterval(state.target, DEFAULT_REFRESH_INTERVAL);
+            }
+            try {
+                saveProgress(indexName, finalStatus, state);
+            } catch (Exception e) {
+                log.warn("[ES重建] 保存最终进度失败", e);
+            }
+            releaseLock(indexName);
+            running.set(false);
+        }
+    }
+
+    /**
+     * 写入一轮帖子：按文档数和估算字节数切分为多个 _bulk 请求并行发送
+     *
+     * @return 写入失败的文档ID；某个请求整体失败时抛出异常，本轮进度不推进
+     */
+    private Set<String> indexRound(List<Post> posts, Map<Long, List<String>> tags, IndexCoordinates index,
+                                   ExecutorService executor) throws Exception {
+        List<Future<Set<String>>> futures = new ArrayList<>();
+        List<Post> chunk = new ArrayList<>();
+        long chunkBytes = 0;
+        for (Post post : posts) {
+            long size = estimateBytes(post);
+            if (!chunk.isEmpty() && (chunk.size() >= bulkSize || chunkBytes + size > bulkBytes)) {
+                futures.add(submitBulk(chunk, tags, index, executor));
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+            chunk.add(post);
+            chunkBytes += size;
+        }
+        if (!chunk.isEmpty()) {
+            futures.add(submitBulk(chunk, tags, index, executor));
+        }
+
+        Set<String> failedIds = new HashSet<>();
+        for (Future<Set<String>> future : futures) {
+            failedIds.addAll(future.get());
+        }
+        return failedIds;
+    }
+
+    private Future<Set<String>> submitBulk(List<Post> chunk, Map<Long, List<String>> tags, IndexCoordinates index,
+                                           ExecutorService executor) {
+        return executor.submit(() -> {
+            List<IndexQuery> queries = new ArrayList<>(chunk.size());
+            for (Post post : chunk) {
+                queries.add(PostIndexConverter.toIndexQuery(PostIndexConverter.from(post, tags.get(post.getId()))));
+            }
+            return esOps.bulkIndex(queries, index);
+        });
+    }
+
+    /**
+     * 在新索引中重放构建期间的删除：批量导入可能在删除之后写回了删除前读到的帖子
+     * <p>重放时帖子已重新发布的跳过（其最新数据已由实时双写按版本写入）</p>
+     */
+    private void replayBuildDeletes(IndexCoordinates index) {
+        Set<String> deletedIds = indexAliasService.drainBuildDeletes(IndexNameManager.POST_INDEX_ALIAS);
+        if (deletedIds.isEmpty()) {
+            return;
+        }
+        List<Long> postIds = new ArrayList<>(deletedIds.size());
+        for (String id : deletedIds) {
+            postIds.add(Long.valueOf(id));
+        }
+        Set<Long> published = new HashSet<>();
+        for (int i = 0; i < postIds.size(); i += FETCH_SIZE) {
+            for (Post post : postMapper.findCountersByIds(postIds.subList(i, Math.min(i + FETCH_SIZE, postIds.size())))) {
+                if (Integer.valueOf(Post.STATUS_PUBLISHED).equals(post.getStatus())) {
+                    published.add(post.getId());
+                }
+            }
+        }
+        int replayed = 0;
+        for (Long postId : postIds) {
+            if (!published.contains(postId)) {
+                esOps.delete(String.valueOf(postId), index);
+                replayed++;
+            }
+        }
+        esOps.refreshIndex(index);
+        log.info("[ES重建] 重放构建期间的删除 - count: {}", replayed);
+    }
+
+    /**
+     * 批量加载一轮帖子的标签名称，每轮一次查询
+     */
+    private Map<Long, List<String>> loadTags(List<Post> posts) {
+        List<Long> postIds = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            postIds.add(post.getId());
+        }
+        Map<Long, List<String>> tags = new HashMap<>();
+        for (PostTagName row : tagMapper.selectTagNamesByPostIds(postIds)) {
+            if (row.getTagName() != null && !row.getTagName().isEmpty()) {
+                tags.computeIfAbsent(row.getPostId(), id -> new ArrayList<>()).add(row.getTagName());
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * 估算文档序列化后的字节数（中文按UTF-8每字符3字节）
+     */
+    private long estimateBytes(Post post) {
+        return DOC_OVERHEAD_BYTES + 3L * (length(post.getTitle()) + length(post.getDescription())
+                + length(post.getContent()) + length(post.getCoverUrl()));
+    }
+
+    private int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * 写入失败的帖子记录到失败任务集合，可通过重试接口补偿
+     */
+    private void recordFailedIndexTasks(Set<String> failedIds) {
+        if (failedIds.isEmpty()) {
+            return;
+        }
+        try {
+            String failedTasksKey = RedisKeyManager.esIndexFailedTasksKey();
+            redisOps.sAdd(failedTasksKey, failedIds.toArray());
+            redisOps.expire(failedTasksKey, FAILED_TASKS_TTL);
+            log.warn("[ES重建] 本轮有 {} 个文档写入失败，已记录到失败任务", failedIds.size());
+        } catch (Exception e) {
+            log.warn("[ES重建] 记录失败任务时发生异常: {}", failedIds, e);
+        }
+    }
+
+    private void saveProgress(String indexName, ReindexProgress.Status status, RunState state) {
+        String progressKey = RedisKeyManager.esReindexProgressKey(indexName);
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(FIELD_STATUS, status.name());
+        fields.put(FIELD_TARGET, state.target);
+        fields.put(FIELD_LAST_ID, state.lastId);
+        fields.put(FIELD_INDEXED, state.indexed);
+        fields.put(FIELD_FAILED, state.failed);
+        fields.put(FIELD_ELAPSED, state.elapsedMs);
+        fields.put(FIELD_START_TIME, state.startTime);
+        fields.put(FIELD_UPDATE_TIME, System.currentTimeMillis());
+        redisOps.hSetAll(progressKey, fields);
+        redisOps.expire(progressKey, RedisKeyManager.ES_REINDEX_PROGRESS_TTL);
+    }
+
+    /**
+     * 仅释放本实例持有的锁
+     */
+    private void releaseLock(String indexName) {
+        try {
+            String lockKey = RedisKeyManager.esReindexLockKey(indexName);
+            Object owner = redisOps.get(lockKey);
+            if (owner != null && instanceId.equals(owner.toString())) {
+                redisOps.delete(lockKey);
+            }
+        } catch (Exception e) {
+            log.warn("[ES重建] 释放锁失败", e);
+        }
+    }
+
+    private long toLong(Object value) {
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private ReindexProgress.Status toStatus(Object value) {
+        try {
+            return value != null ? ReindexProgress.Status.valueOf(value.toString()) : ReindexProgress.Status.IDLE;
+        } catch (IllegalArgumentException e) {
+            return ReindexProgress.Status.IDLE;
+        }
+    }
+
+    private LocalDateTime toTime(Object value) {
+        long millis = toLong(value);
+        return millis > 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+
+    /**
+     * 一次重建的运行状态，启动后仅由重建线程修改
+     */
+    private static class RunState {
+        String target;
+        boolean freshBuild;
+        long lastId;
+        long indexed;
+        long failed;
+        long elapsedMs;
+        long startTime;
+    }
+}
@@ -0,0 +1,26 @@
+package cn.xu.event.events;
+
+import cn.xu.model.entity.Notification;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * 通知批量事件
+ *
+ * <p>批量写入一组通知后发布，由监听器按接收者合并推送</p>
+ */
+@Getter
+public class NotificationBatchEvent extends ApplicationEvent {
+
+    /**
+     * 本批写入的通知（已回填ID）
+     */
+    private final List<Notification> notifications;
+
+    public NotificationBatchEvent(Object source, List<Notification> notifications) {
+        super(source);
+        this.notifications = notifications;
+    }
+}
@@ -0,0 +1,32 @@
+package cn.xu.event.events;
+
+import cn.xu.event.core.BaseEvent;
+import lombok.Getter;
+
+/**
+ * 标签事件
+ * <p>标签创建、修改、删除后发布，用于同步标签搜索索引</p>
+ */
+@Getter
+public class TagEvent extends BaseEvent {
+    
+    /** 标签ID */
+    private final Long tagId;
+    
+    public TagEvent(Long tagId, EventAction action) {
+        super(null, action);
+        this.tagId = tagId;
+    }
+    
+    public static TagEvent created(Long tagId) {
+        return new TagEvent(tagId, EventAction.CREATE);
+    }
+    
+    public static TagEvent updated(Long tagId) {
+        return new TagEvent(tagId, EventAction.UPDATE);
+    }
+    
+    public static TagEvent deleted(Long tagId) {
+        return new TagEvent(tagId, EventAction.DELETE);
+    }
+}
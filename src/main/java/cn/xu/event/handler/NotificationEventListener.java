@@ -1,5 +1,6 @@
 package cn.xu.event.handler;
 
+import cn.xu.event.events.NotificationBatchEvent;
 import cn.xu.event.events.NotificationEvent;
 import cn.xu.model.entity.Notification;
 import cn.xu.service.notification.NotificationPushService;
@@ -9,6 +10,12 @@ import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 通知事件监听器
  * 
@@ -46,4 +53,53 @@ public class NotificationEventListener {
             log.error("[通知事件] 处理失败: type={}, error={}", event.getType(), e.getMessage(), e);
         }
     }
+
+    /**
+     * 处理批量通知事件
+     *
+     * <p>按接收者分组，每个接收者只推送一次；同一条系统通知发给多个接收者时（群发）整体推送一次</p>
+     */
+    @Async
+    @EventListener
+    public void handleNotificationBatchEvent(NotificationBatchEvent event) {
+        List<Notification> notifications = event.getNotifications();
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<Notification>> byReceiver = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            byReceiver.computeIfAbsent(notification.getReceiverId(), id -> new ArrayList<>()).add(notification);
+        }
+
+        // 本批只有一条系统通知的接收者，按通知内容归组
+        Map<String, List<Long>> broadcastReceivers = new LinkedHashMap<>();
+        Map<String, Notification> broadcasts = new HashMap<>();
+        byReceiver.entrySet().removeIf(entry -> {
+            List<Notification> list = entry.getValue();
+            Notification only = list.get(0);
+            if (list.size() != 1 || !Integer.valueOf(Notification.TYPE_SYSTEM).equals(only.getType())) {
+                return false;
+            }
+            String key = only.getTitle() + "\n" + only.getContent();
+            broadcasts.putIfAbsent(key, only);
+            broadcastReceivers.computeIfAbsent(key, k -> new ArrayList<>()).add(entry.getKey());
+            return true;
+        });
+        broadcastReceivers.forEach((key, receiverIds) -> {
+            try {
+                pushService.pushToUsers(receiverIds, broadcasts.get(key));
+            } catch (Exception e) {
+                log.error("[通知事件] 群发推送失败: receivers={}, error={}", receiverIds.size(), e.getMessage(), e);
+            }
+        });
+
+        byReceiver.forEach((receiverId, list) -> {
+            try {
+                pushService.pushBatchToUser(receiverId, list);
+            } catch (Exception e) {
+                log.error("[通知事件] 批量推送失败: receiverId={}, error={}", receiverId, e.getMessage(), e);
+            }
+        });
+    }
 }
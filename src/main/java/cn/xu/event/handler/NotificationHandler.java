@@ -8,7 +8,7 @@ import cn.xu.model.entity.Comment;
 import cn.xu.model.entity.Notification;
 import cn.xu.model.entity.Post;
 import cn.xu.repository.CommentRepository;
-import cn.xu.service.notification.NotificationService;
+import cn.xu.service.notification.NotificationBatchWriter;
 import cn.xu.service.post.PostQueryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,15 +30,14 @@ import java.util.Optional;
  *   <li>收藏通知</li>
  *   <li>私信通知</li>
  * </ul>
- *
- *
+ * <p>通知交给 {@link NotificationBatchWriter} 按窗口合并、批量写入，不在事件线程上逐条入库和推送</p>
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class NotificationHandler {
 
-    private final NotificationService notificationService;
+    private final NotificationBatchWriter notificationBatchWriter;
     private final PostQueryService postQueryService;
     private final CommentRepository commentRepository;
 
@@ -85,7 +84,7 @@ public class NotificationHandler {
                     .updateTime(LocalDateTime.now())
                     .build();
 
-            notificationService.sendNotification(notification);
+            notificationBatchWriter.submit(notification);
             log.debug("[Handler] 评论通知已创建 - receiver: {}", receiverId);
 
         } catch (Exception e) {
@@ -121,7 +120,7 @@ public class NotificationHandler {
 
             Notification notification = Notification.createLikeNotification(
                     senderId, receiverId, event.getTargetId(), businessType);
-            notificationService.sendNotification(notification);
+            notificationBatchWriter.submit(notification);
             log.debug("[Handler] 点赞通知已创建 - receiver: {}", receiverId);
 
         } catch (Exception e) {
@@ -139,7 +138,7 @@ public class NotificationHandler {
         try {
             Notification notification = Notification.createFollowNotification(
                     event.getFollowerId(), event.getFolloweeId());
-            notificationService.sendNotification(notification);
+            notificationBatchWriter.submit(notification);
             log.debug("[Handler] 关注通知已创建 - followee: {}", event.getFolloweeId());
 
         } catch (Exception e) {
@@ -177,7 +176,7 @@ public class NotificationHandler {
                     .updateTime(LocalDateTime.now())
                     .build();
 
-            notificationService.sendNotification(notification);
+            notificationBatchWriter.submit(notification);
             log.debug("[Handler] 收藏通知已创建 - receiver: {}", receiverId);
 
         } catch (Exception e) {
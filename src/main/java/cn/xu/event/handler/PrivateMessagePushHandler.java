@@ -1,13 +1,12 @@
 package cn.xu.event.handler;
 
-import cn.xu.config.websocket.WebSocketSessionManager;
+import cn.xu.config.websocket.WebSocketClusterMessenger;
 import cn.xu.event.events.DMEvent;
 import cn.xu.model.entity.User;
 import cn.xu.service.user.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
@@ -17,14 +16,14 @@ import java.util.Map;
 
 /**
  * 私信WebSocket推送处理器
+ * <p>经 {@link WebSocketClusterMessenger} 推送，接收者连接在其他节点时由该节点投递</p>
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PrivateMessagePushHandler {
 
-    private final SimpMessagingTemplate messagingTemplate;
-    private final WebSocketSessionManager sessionManager;
+    private final WebSocketClusterMessenger clusterMessenger;
     private final UserService userService;
 
     /**
@@ -43,15 +42,6 @@ public class PrivateMessagePushHandler {
         log.info("[WebSocket推送] 收到私信事件 sender:{} → receiver:{} messageId:{}", 
                 senderId, receiverId, event.getMessageId());
 
-        // 检查接收者是否在线
-        boolean isOnline = sessionManager.isOnline(receiverId);
-        log.info("[WebSocket推送] 接收者在线状态: receiverId={} isOnline={}", receiverId, isOnline);
-        
-        if (!isOnline) {
-            log.info("[WebSocket推送] 接收者不在线，跳过推送");
-            return;
-        }
-
         try {
             // 获取发送者信息
             User sender = userService.getUserById(senderId);
@@ -67,13 +57,12 @@ public class PrivateMessagePushHandler {
             message.put("isGreeting", event.isGreeting());
             message.put("timestamp", LocalDateTime.now().toString());
 
-            // 推送给接收者
+            // 推送给接收者（不在线时跳过）
             String destination = "/queue/private-message";
-            messagingTemplate.convertAndSendToUser(
-                    receiverId.toString(),
-                    destination,
-                    message
-            );
+            if (!clusterMessenger.sendToUser(receiverId, destination, message)) {
+                log.info("[WebSocket推送] 接收者不在线，跳过推送 receiverId:{}", receiverId);
+                return;
+            }
 
             log.info("[WebSocket推送] 推送成功 sender:{} → receiver:{} destination:/user/{}{}", 
                     senderId, receiverId, receiverId, destination);
@@ -96,21 +85,15 @@ public class PrivateMessagePushHandler {
         Long readerId = event.getSenderId();
         Long otherUserId = event.getReceiverId();
 
-        if (!sessionManager.isOnline(otherUserId)) {
-            return;
-        }
-
         try {
             Map<String, Object> message = new HashMap<>();
             message.put("type", "message_read");
             message.put("readerId", readerId);
             message.put("timestamp", LocalDateTime.now().toString());
 
-            messagingTemplate.convertAndSendToUser(
-                    otherUserId.toString(),
-                    "/queue/private-message",
-                    message
-            );
+            if (!clusterMessenger.sendToUser(otherUserId, "/queue/private-message", message)) {
+                return;
+            }
 
             log.info("[WebSocket推送] 已读状态推送 reader:{} → other:{}", readerId, otherUserId);
 
@@ -0,0 +1,58 @@
+package cn.xu.event.handler;
+
+import cn.xu.event.core.BaseEvent.EventAction;
+import cn.xu.event.events.FollowEvent;
+import cn.xu.event.events.PostEvent;
+import cn.xu.service.follow.FollowTimelineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * 关注时间线事件监听器
+ *
+ * <p>维护关注时间线收件箱：
+ * <ul>
+ *   <li>发布帖子后推送到粉丝收件箱</li>
+ *   <li>关注/取消关注后失效关注者的收件箱</li>
+ * </ul>
+ * <p>删除、撤回的帖子不逐个清理收件箱，读取时过滤并顺带移除
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TimelineEventListener {
+
+    private final FollowTimelineService followTimelineService;
+
+    /**
+     * 帖子发布后推送（事件在事务提交后发布）
+     */
+    @Async
+    @EventListener
+    public void handlePostEvent(PostEvent event) {
+        if (event.getAction() != EventAction.CREATE) {
+            return;
+        }
+        try {
+            followTimelineService.fanOut(event.getOperatorId(), event.getPostId());
+        } catch (Exception e) {
+            log.error("[时间线] 帖子推送失败 - authorId: {}, postId: {}", event.getOperatorId(), event.getPostId(), e);
+        }
+    }
+
+    /**
+     * 关注关系变化后失效收件箱
+     */
+    @Async
+    @EventListener
+    public void handleFollowEvent(FollowEvent event) {
+        try {
+            followTimelineService.invalidate(event.getFollowerId());
+        } catch (Exception e) {
+            log.error("[时间线] 失效收件箱失败 - followerId: {}", event.getFollowerId(), e);
+        }
+    }
+}
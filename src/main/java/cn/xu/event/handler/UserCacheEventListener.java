@@ -0,0 +1,51 @@
+package cn.xu.event.handler;
+
+import cn.xu.cache.service.CacheService;
+import cn.xu.event.events.UserEvent;
+import cn.xu.service.user.UserQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用户缓存失效监听器
+ * <p>用户资料或状态变更提交后，清除用户卡片缓存和帖子列表使用的作者信息缓存</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCacheEventListener {
+
+    /**
+     * 帖子列表作者信息缓存前缀（见 PostConverter）
+     */
+    private static final String USER_INFO_CACHE_PREFIX = "user:info:";
+
+    private final UserQueryService userQueryService;
+    private final CacheService cacheService;
+
+    /**
+     * 用户资料更新后失效缓存（事务提交后执行，避免提交前被旧数据回填）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserEvent event) {
+        if (event.getUserEventType() != UserEvent.UserEventType.UPDATED) {
+            return;
+        }
+
+        Long userId = event.getUserId();
+        try {
+            List<Long> userIds = Collections.singletonList(userId);
+            userQueryService.evictCards(userIds);
+            cacheService.batchEvict(USER_INFO_CACHE_PREFIX, userIds);
+            log.debug("[缓存] 用户资料变更，已清除用户缓存 - userId: {}", userId);
+        } catch (Exception e) {
+            log.warn("[缓存] 清除用户缓存失败 - userId: {}", userId, e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package cn.xu.event.handler;
+
+import cn.xu.event.events.FollowEvent;
+import cn.xu.event.events.LikeEvent;
+import cn.xu.repository.mapper.CommentMapper;
+import cn.xu.repository.mapper.PostMapper;
+import cn.xu.service.user.UserRankingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 用户排行榜事件监听器
+ * <p>两次整体重建之间，关注、点赞变化后增量更新相关用户的排行分数（事务提交后执行，读取已提交的计数）</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserRankingEventListener {
+
+    private final UserRankingService userRankingService;
+    private final PostMapper postMapper;
+    private final CommentMapper commentMapper;
+
+    /**
+     * 关注/取消关注：被关注者粉丝数变化
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleFollowEvent(FollowEvent event) {
+        try {
+            userRankingService.refreshUserScores(event.getFolloweeId());
+        } catch (Exception e) {
+            log.warn("[用户排行] 增量更新失败 - followeeId: {}", event.getFolloweeId(), e);
+        }
+    }
+
+    /**
+     * 点赞/取消点赞：帖子或评论作者获赞数变化
+     */
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleLikeEvent(LikeEvent event) {
+        try {
+            Long authorId = event.getType() == LikeEvent.LikeType.POST
+                    ? postMapper.getAuthorId(event.getTargetId())
+                    : commentMapper.getAuthorId(event.getTargetId());
+            userRankingService.refreshUserScores(authorId);
+        } catch (Exception e) {
+            log.warn("[用户排行] 增量更新失败 - targetId: {}, type: {}", event.getTargetId(), event.getType(), e);
+        }
+    }
+}
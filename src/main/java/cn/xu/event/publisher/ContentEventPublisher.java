@@ -2,6 +2,7 @@ package cn.xu.event.publisher;
 
 import cn.xu.event.core.EventBus;
 import cn.xu.event.events.PostEvent;
+import cn.xu.event.events.TagEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Component;
  * <p>负责发布内容类事件：
  * <ul>
  *   <li>帖子事件</li>
+ *   <li>标签事件</li>
  * </ul>
  *
  *
@@ -43,4 +45,25 @@ public class ContentEventPublisher {
     public void publishPostDeleted(Long userId, Long postId) {
         eventBus.publish(PostEvent.deleted(userId, postId));
     }
+    
+    /**
+     * 发布标签创建事件
+     */
+    public void publishTagCreated(Long tagId) {
+        eventBus.publish(TagEvent.created(tagId));
+    }
+    
+    /**
+     * 发布标签更新事件
+     */
+    public void publishTagUpdated(Long tagId) {
+        eventBus.publish(TagEvent.updated(tagId));
+    }
+    
+    /**
+     * 发布标签删除事件
+     */
+    public void publishTagDeleted(Long tagId) {
+        eventBus.publish(TagEvent.deleted(tagId));
+    }
 }
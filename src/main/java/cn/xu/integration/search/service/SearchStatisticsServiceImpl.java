@@ -2,7 +2,11 @@ package cn.xu.integration.search.service;
 
 import cn.xu.cache.core.RedisKeyManager;
 import cn.xu.cache.core.RedisOperations;
+import cn.xu.cache.core.RedisPipeline;
 import cn.xu.service.search.SearchStatisticsService;
+import cn.xu.service.search.event.SearchEvent;
+import cn.xu.service.search.event.SearchEventBuffer;
+import cn.xu.service.search.event.SearchEventSink;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.ZSetOperations;
@@ -10,19 +14,23 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * 搜索统计服务实现
- * <p>记录搜索行为、统计热门关键词、提供搜索建议</p>
+ * <p>记录搜索行为、统计热门关键词（搜索建议见 SearchSuggestionService）</p>
+ * <p>搜索时只写入 {@link SearchEventBuffer}，统计数据由定时任务按窗口批量写入Redis，最多延迟一个窗口</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class SearchStatisticsServiceImpl implements SearchStatisticsService {
+public class SearchStatisticsServiceImpl implements SearchStatisticsService, SearchEventSink {
 
     private final RedisOperations redisOps;
+    private final SearchEventBuffer searchEventBuffer;
     private static final int ANTI_SPAM_WINDOW_SECONDS = 60;
 
     @Override
@@ -30,38 +38,72 @@ public class SearchStatisticsServiceImpl implements SearchStatisticsService {
         if (keyword == null || keyword.trim().isEmpty()) {
             return;
         }
+        searchEventBuffer.offer(SearchEvent.statistics(keyword.trim().toLowerCase(), hasResults));
+    }
 
-        try {
-            String normalizedKeyword = keyword.trim().toLowerCase();
-
-            String antiSpamKey = "post:search:antispam:" + normalizedKeyword;
-            boolean setSuccess = redisOps.setIfAbsent(antiSpamKey, "1", ANTI_SPAM_WINDOW_SECONDS);
-
-            if (!setSuccess) {
-                log.debug("[搜索] 搜索统计已记录（防刷）- keyword: {}", normalizedKeyword);
-                return;
+    /**
+     * 批量写入一个窗口的统计事件
+     * <p>窗口内同一关键词只取第一次；先用一次管道为各关键词设置防刷标记，
+     * 再用一次管道为设置成功（不在防刷窗口内）的关键词累加热度和当日计数</p>
+     */
+    @Override
+    public void flush(List<SearchEvent> events) {
+        Map<String, Boolean> firstByKeyword = new LinkedHashMap<>();
+        for (SearchEvent event : events) {
+            if (event.type() == SearchEvent.Type.STATISTICS) {
+                firstByKeyword.putIfAbsent(event.keyword(), event.hasResults());
             }
+        }
+        if (firstByKeyword.isEmpty()) {
+            return;
+        }
 
-            String hotKeywordsKey = RedisKeyManager.postSearchHotKeywordsKey();
-            redisOps.zIncrementScore(hotKeywordsKey, normalizedKeyword, 1);
-            redisOps.expire(hotKeywordsKey, 7 * 24 * 3600);
-
-            String today = LocalDateTime.now().toLocalDate().toString();
-            String searchStatsKey = "post:search:stats:" + today;
+        List<String> keywords = new ArrayList<>(firstByKeyword.keySet());
+        RedisPipeline antiSpam = redisOps.pipeline();
+        for (String keyword : keywords) {
+            antiSpam.setIfAbsent("post:search:antispam:" + keyword, "1", ANTI_SPAM_WINDOW_SECONDS);
+        }
+        List<Object> results = antiSpam.execute();
+        if (results == null) {
+            log.warn("[搜索] 记录搜索统计失败 - keywords: {}", keywords.size());
+            return;
+        }
 
-            redisOps.increment(searchStatsKey + ":total", 1);
-            if (hasResults) {
-                redisOps.increment(searchStatsKey + ":success", 1);
+        String hotKeywordsKey = RedisKeyManager.postSearchHotKeywordsKey();
+        RedisPipeline writes = redisOps.pipeline();
+        long success = 0;
+        long empty = 0;
+        for (int i = 0; i < keywords.size() && i < results.size(); i++) {
+            if (!Boolean.TRUE.equals(results.get(i))) {
+                continue;
+            }
+            String keyword = keywords.get(i);
+            writes.zIncrementScore(hotKeywordsKey, keyword, 1);
+            if (firstByKeyword.get(keyword)) {
+                success++;
             } else {
-                redisOps.increment(searchStatsKey + ":empty", 1);
+                empty++;
             }
+        }
+        if (success + empty == 0) {
+            log.debug("[搜索] 搜索统计已记录（防刷）- keywords: {}", keywords.size());
+            return;
+        }
+        writes.expire(hotKeywordsKey, 7 * 24 * 3600);
 
-            redisOps.expire(searchStatsKey + ":total", 30 * 24 * 3600);
-            redisOps.expire(searchStatsKey + ":success", 30 * 24 * 3600);
-            redisOps.expire(searchStatsKey + ":empty", 30 * 24 * 3600);
-        } catch (Exception e) {
-            log.warn("[搜索] 记录搜索统计失败 - keyword: {}", keyword, e);
+        String today = LocalDateTime.now().toLocalDate().toString();
+        String searchStatsKey = "post:search:stats:" + today;
+        writes.increment(searchStatsKey + ":total", success + empty);
+        if (success > 0) {
+            writes.increment(searchStatsKey + ":success", success);
         }
+        if (empty > 0) {
+            writes.increment(searchStatsKey + ":empty", empty);
+        }
+        writes.expire(searchStatsKey + ":total", 30 * 24 * 3600);
+        writes.expire(searchStatsKey + ":success", 30 * 24 * 3600);
+        writes.expire(searchStatsKey + ":empty", 30 * 24 * 3600);
+        writes.execute();
     }
 
     @Override
@@ -154,43 +196,6 @@ public class SearchStatisticsServiceImpl implements SearchStatisticsService {
         }
     }
 
-    @Override
-    public List<String> getSearchSuggestions(String keyword, int limit) {
-        try {
-            List<String> suggestions = new ArrayList<>();
-
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                String keywordTrimmed = keyword.trim().toLowerCase();
-                String hotKeywordsKey = RedisKeyManager.postSearchHotKeywordsKey();
-                Set<Object> hotKeywords = redisOps.zReverseRange(hotKeywordsKey, 0, 100);
-
-                if (hotKeywords != null && !hotKeywords.isEmpty()) {
-                    for (Object hotKeywordObj : hotKeywords) {
-                        if (suggestions.size() >= limit) {
-                            break;
-                        }
-                        if (hotKeywordObj != null) {
-                            String hotKeywordStr = hotKeywordObj.toString();
-                            if (hotKeywordStr != null && !hotKeywordStr.trim().isEmpty()) {
-                                String hotKeyword = hotKeywordStr.toLowerCase();
-                                if (hotKeyword.contains(keywordTrimmed)) {
-                                    suggestions.add(hotKeywordStr);
-                                }
-                            }
-                        }
-                    }
-                }
-            } else {
-                return getHotKeywords(limit);
-            }
-
-            return suggestions;
-        } catch (Exception e) {
-            log.error("[搜索] 获取搜索建议失败 - keyword: {}", keyword, e);
-            return new ArrayList<>();
-        }
-    }
-
     private static class SearchStatisticsImpl implements SearchStatistics {
         private final String date;
         private final long totalSearches;
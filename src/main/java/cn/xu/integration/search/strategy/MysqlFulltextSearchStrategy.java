@@ -0,0 +1,158 @@
+package cn.xu.integration.search.strategy;
+
+import cn.xu.common.ResponseCode;
+import cn.xu.integration.search.util.SearchKeywordNormalizer;
+import cn.xu.model.dto.search.SearchFilter;
+import cn.xu.model.entity.Post;
+import cn.xu.repository.mapper.PostMapper;
+import cn.xu.service.search.SearchStrategy;
+import cn.xu.support.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * MySQL全文索引搜索策略（ES与LIKE之间的中间档）
+ * <p>使用帖子表的 ft_title_content 全文索引（ngram分词）做布尔模式匹配，按相关度排序，
+ * 不再对标题、摘要做 LIKE 全表扫描；总数只统计到上限，避免大结果集的 COUNT</p>
+ * <p>全文索引不存在，或关键词都短于 ngram 词长（单字）时，交给 LIKE 策略处理</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MysqlFulltextSearchStrategy implements SearchStrategy {
+
+    /**
+     * ngram 分词的词长（MySQL 默认 ngram_token_size=2），短于该长度的词无法命中全文索引
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    /**
+     * 布尔模式的运算符，用户输入中出现时去除
+     */
+    private static final String BOOLEAN_OPERATORS = "+-<>()~*\"@";
+
+    private final PostMapper postMapper;
+    private final MysqlSearchStrategy likeStrategy;
+
+    /**
+     * 搜索结果总数统计上限
+     */
+    @Value("${app.post.query.fulltext.count-cap:1000}")
+    private int countCap;
+
+    private volatile boolean available = false;
+
+    @PostConstruct
+    public void init() {
+        try {
+            Integer indexCount = postMapper.countFulltextIndex();
+            available = indexCount != null && indexCount > 0;
+            log.info("[搜索] MySQL全文索引{}", available ? "可用" : "不存在，全文搜索策略不可用");
+        } catch (Exception e) {
+            available = false;
+            log.warn("[搜索] 检查MySQL全文索引失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Page<Post> search(String keyword, Pageable pageable) {
+        return search(keyword, null, pageable);
+    }
+
+    @Override
+    public Page<Post> search(String keyword, SearchFilter filter, Pageable pageable) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        String query = toBooleanQuery(keyword);
+        if (query == null) {
+            return likeStrategy.search(keyword, filter, pageable);
+        }
+        try {
+            LocalDateTime startTime = filter != null ? filter.getStartTime() : null;
+            LocalDateTime endTime = filter != null ? filter.getEndTime() : null;
+            int offset = (int) pageable.getOffset();
+            int size = pageable.getPageSize();
+
+            List<Post> posts = postMapper.fulltextSearchPosts(query, startTime, endTime, extractSortBy(filter), offset, size);
+            long total;
+            if (offset == 0 && posts.size() < size) {
+                // 第一页未取满，结果数即总数
+                total = posts.size();
+            } else {
+                Long count = postMapper.countFulltextSearchResults(query, startTime, endTime, countCap);
+                total = Math.max(count != null ? count : 0L, offset + posts.size());
+            }
+            log.debug("[搜索] MySQL全文搜索完成 - query: {}, total: {}", query, total);
+            return new PageImpl<>(posts, pageable, total);
+        } catch (Exception e) {
+            log.error("[搜索] MySQL全文搜索失败 - keyword: {}", keyword, e);
+            throw new BusinessException(ResponseCode.UN_ERROR.getCode(), "搜索失败，请稍后重试");
+        }
+    }
+
+    /**
+     * 转换为布尔模式查询：按空白切分，去掉运算符，每个词都必须出现（ngram 下每个词按短语匹配）
+     *
+     * @return 查询串；没有可用于全文索引的词时返回null
+     */
+    private String toBooleanQuery(String keyword) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : SearchKeywordNormalizer.normalize(keyword).split(" ")) {
+            StringBuilder cleaned = new StringBuilder(word.length());
+            for (char c : word.toCharArray()) {
+                if (BOOLEAN_OPERATORS.indexOf(c) < 0) {
+                    cleaned.append(c);
+                }
+            }
+            if (cleaned.length() >= NGRAM_TOKEN_SIZE) {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append('+').append(cleaned);
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : null;
+    }
+
+    /**
+     * 提取排序方式，未指定或按相关度时返回null
+     */
+    private String extractSortBy(SearchFilter filter) {
+        if (filter == null || filter.getSortOption() == null) {
+            return null;
+        }
+        switch (filter.getSortOption()) {
+            case TIME:
+                return "time";
+            case HOT:
+                return "hot";
+            case COMMENT:
+                return "comment";
+            case LIKE:
+                return "like";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "mysql_fulltext";
+    }
+}
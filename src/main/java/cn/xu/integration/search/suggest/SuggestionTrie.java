@@ -0,0 +1,228 @@
+package cn.xu.integration.search.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 搜索建议前缀树（压缩前缀树，构建后只读）
+ * <p>词条按权重降序编号，每个节点预先保存子树内编号最小（权重最高）的 topK 个词条，
+ * 前缀查询只需沿边走到前缀所在节点，耗时与前缀长度成正比，与词条总数无关</p>
+ * <p>一个词条可以挂多个索引键（整词、词中的单词起点、拼音首字母等），命中任意一个即返回该词条</p>
+ * <p>实例不可变，可被多线程并发查询；词典变化时重新构建并整体替换</p>
+ */
+public final class SuggestionTrie {
+
+    public static final SuggestionTrie EMPTY = new Builder(1).build();
+
+    private static final int[] NO_ENTRIES = new int[0];
+
+    private final String[] texts;
+    private final Node root;
+    private final int topK;
+
+    private SuggestionTrie(String[] texts, Node root, int topK) {
+        this.texts = texts;
+        this.root = root;
+        this.topK = topK;
+    }
+
+    /**
+     * 前缀查询
+     *
+     * @param prefix 已规范化（小写）的前缀
+     * @param limit  返回数量，不超过构建时的 topK
+     * @return 按权重降序的词条
+     */
+    public List<String> lookup(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int idx = Arrays.binarySearch(node.firstChars, prefix.charAt(i));
+            if (idx < 0) {
+                return Collections.emptyList();
+            }
+            Node child = node.children[idx];
+            int n = Math.min(child.label.length(), prefix.length() - i);
+            if (!prefix.regionMatches(i, child.label, 0, n)) {
+                return Collections.emptyList();
+            }
+            i += n;
+            node = child;
+        }
+        int size = Math.min(Math.min(limit, topK), node.top.length);
+        List<String> result = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            result.add(texts[node.top[k]]);
+        }
+        return result;
+    }
+
+    /**
+     * 词条数
+     */
+    public int size() {
+        return texts.length;
+    }
+
+    private static final class Node {
+        /**
+         * 从父节点到本节点的边（压缩后的多个字符）
+         */
+        private final String label;
+        private final char[] firstChars;
+        private final Node[] children;
+        private final int[] top;
+
+        private Node(String label, char[] firstChars, Node[] children, int[] top) {
+            this.label = label;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.top = top;
+        }
+    }
+
+    /**
+     * 构建器（非线程安全）
+     */
+    public static final class Builder {
+
+        private final int topK;
+        private final List<String> texts = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private final List<Collection<String>> keys = new ArrayList<>();
+
+        public Builder(int topK) {
+            this.topK = Math.max(1, topK);
+        }
+
+        /**
+         * 添加词条
+         *
+         * @param text   展示文本
+         * @param weight 权重，越大越靠前
+         * @param keys   索引键（已规范化）
+         */
+        public Builder add(String text, double weight, Collection<String> keys) {
+            if (text != null && keys != null && !keys.isEmpty()) {
+                texts.add(text);
+                weights.add(weight);
+                this.keys.add(keys);
+            }
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            int n = texts.size();
+            // 按权重降序编号，之后比较编号即可比较权重
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> weights.get(i)).reversed());
+            String[] rankedTexts = new String[n];
+            List<String> keyList = new ArrayList<>();
+            List<Integer> idList = new ArrayList<>();
+            for (int rank = 0; rank < n; rank++) {
+                int i = order[rank];
+                rankedTexts[rank] = texts.get(i);
+                for (String key : keys.get(i)) {
+                    if (key != null && !key.isEmpty()) {
+                        keyList.add(key);
+                        idList.add(rank);
+                    }
+                }
+            }
+
+            Integer[] sorted = new Integer[keyList.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = i;
+            }
+            Arrays.sort(sorted, Comparator.comparing(keyList::get));
+            String[] sortedKeys = new String[sorted.length];
+            int[] sortedIds = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                sortedKeys[i] = keyList.get(sorted[i]);
+                sortedIds[i] = idList.get(sorted[i]);
+            }
+
+            Node root = sortedKeys.length == 0
+                    ? new Node("", new char[0], new Node[0], NO_ENTRIES)
+                    : buildNode(sortedKeys, sortedIds, 0, sortedKeys.length, 0, 0, true);
+            return new SuggestionTrie(rankedTexts, root, topK);
+        }
+
+        /**
+         * 由有序键的区间 [lo, hi) 构建节点，区间内的键在 depth 之前相同，边从 labelStart 开始（根节点没有边）
+         */
+        private Node buildNode(String[] keys, int[] ids, int lo, int hi, int labelStart, int depth, boolean root) {
+            // 有序区间的公共前缀即首尾两个键的公共前缀
+            String first = keys[lo];
+            String last = keys[hi - 1];
+            int common = depth;
+            int max = Math.min(first.length(), last.length());
+            while (!root && common < max && first.charAt(common) == last.charAt(common)) {
+                common++;
+            }
+
+            int[] candidates = new int[topK * 4];
+            int count = 0;
+            int i = lo;
+            // 恰好在本节点结束的键排在区间最前面
+            while (i < hi && keys[i].length() == common) {
+                if (count == candidates.length) {
+                    count = compact(candidates, count);
+                }
+                candidates[count++] = ids[i++];
+            }
+
+            List<Character> firstChars = new ArrayList<>();
+            List<Node> children = new ArrayList<>();
+            while (i < hi) {
+                char c = keys[i].charAt(common);
+                int j = i + 1;
+                while (j < hi && keys[j].charAt(common) == c) {
+                    j++;
+                }
+                Node child = buildNode(keys, ids, i, j, common, common + 1, false);
+                firstChars.add(c);
+                children.add(child);
+                for (int id : child.top) {
+                    if (count == candidates.length) {
+                        count = compact(candidates, count);
+                    }
+                    candidates[count++] = id;
+                }
+                i = j;
+            }
+
+            count = compact(candidates, count);
+            char[] chars = new char[firstChars.size()];
+            for (int k = 0; k < chars.length; k++) {
+                chars[k] = firstChars.get(k);
+            }
+            return new Node(first.substring(labelStart, common), chars,
+                    children.toArray(new Node[0]), Arrays.copyOf(candidates, count));
+        }
+
+        /**
+         * 排序去重后保留前 topK 个编号，返回保留的数量
+         */
+        private int compact(int[] candidates, int count) {
+            Arrays.sort(candidates, 0, count);
+            int size = 0;
+            for (int k = 0; k < count && size < topK; k++) {
+                if (size == 0 || candidates[size - 1] != candidates[k]) {
+                    candidates[size++] = candidates[k];
+                }
+            }
+            return size;
+        }
+    }
+}
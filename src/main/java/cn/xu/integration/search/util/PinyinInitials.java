@@ -0,0 +1,96 @@
+package cn.xu.integration.search.util;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 汉字拼音首字母工具
+ * <p>GB2312 一级汉字（3755个常用字）按拼音排序，根据汉字的 GB2312 编码落在哪个声母区间即可得到首字母，
+ * 不需要额外的拼音词库；二级汉字、多音字不做处理</p>
+ */
+public final class PinyinInitials {
+
+    /**
+     * 各首字母区间的起始编码（GB2312 一级汉字），与 {@link #LETTERS} 一一对应
+     */
+    private static final int[] BOUNDARIES = {
+            0xB0A1, 0xB0C5, 0xB2C1, 0xB4EE, 0xB6EA, 0xB7A2, 0xB8C1, 0xB9FE, 0xBBF7,
+            0xBFA6, 0xC0AC, 0xC2E8, 0xC4C3, 0xC5B6, 0xC5BE, 0xC6DA, 0xC8BB, 0xC8F6,
+            0xCBFA, 0xCDDA, 0xCEF4, 0xD1B9, 0xD4D1};
+
+    private static final char[] LETTERS = {
+            'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'j',
+            'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's',
+            't', 'w', 'x', 'y', 'z'};
+
+    /**
+     * GB2312 一级汉字的结束编码（不含）
+     */
+    private static final int LEVEL1_END = 0xD7FA;
+
+    private static final Charset GB2312 = loadCharset();
+
+    private PinyinInitials() {
+    }
+
+    /**
+     * 单个汉字的拼音首字母
+     *
+     * @return 小写首字母；非一级汉字返回0
+     */
+    public static char initialOf(char c) {
+        if (GB2312 == null || !isCjk(c)) {
+            return 0;
+        }
+        byte[] bytes = String.valueOf(c).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return 0;
+        }
+        int code = ((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF);
+        if (code < BOUNDARIES[0] || code >= LEVEL1_END) {
+            return 0;
+        }
+        int idx = Arrays.binarySearch(BOUNDARIES, code);
+        return LETTERS[idx >= 0 ? idx : -idx - 2];
+    }
+
+    /**
+     * 文本的首字母串：汉字取拼音首字母，字母数字原样保留（小写），其余字符跳过
+     * <p>遇到无法识别的汉字时截断，保证结果仍是完整首字母串的前缀</p>
+     *
+     * @return 首字母串；文本不含汉字或首字母串为空时返回null
+     */
+    public static String of(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean hasCjk = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                char initial = initialOf(c);
+                if (initial == 0) {
+                    break;
+                }
+                sb.append(initial);
+                hasCjk = true;
+            } else if (c < 128 && Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return hasCjk && sb.length() > 0 ? sb.toString() : null;
+    }
+
+    public static boolean isCjk(char c) {
+        return c >= '一' && c <= '龥';
+    }
+
+    private static Charset loadCharset() {
+        try {
+            return Charset.forName("GB2312");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
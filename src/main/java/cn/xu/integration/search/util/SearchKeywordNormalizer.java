@@ -31,6 +31,12 @@ public class SearchKeywordNormalizer {
 
     private static final Pattern MULTIPLE_SPACES = Pattern.compile("\\s+");
 
+    // 英文数字片段输出的缓存词前缀最大长度
+    private static final int MAX_CACHE_PREFIX_LENGTH = 12;
+
+    // 中文连续片段或英文数字连续片段
+    private static final Pattern TERM_RUNS = Pattern.compile("[\\u4e00-\\u9fa5]+|[a-zA-Z0-9]+");
+
     // 使用 HashMap 优化全角转半角的查找性能，时间复杂度 O(1)
     private static final Map<Character, Character> CHAR_MAP = new HashMap<>();
 
@@ -93,4 +99,53 @@ public class SearchKeywordNormalizer {
 
         return keywords;
     }
-}
\ No newline at end of file
+
+    /**
+     * 提取用于搜索缓存失效的词
+     * <ul>
+     *   <li>英文数字片段（小写）：文档侧输出长度2到 {@value #MAX_CACHE_PREFIX_LENGTH} 的每个前缀；
+     *       搜索侧输出片段本身，超长时截取同样长度的前缀，不足2个字符的片段不输出</li>
+     *   <li>中文片段：按二元词输出（单字片段取单字），文档侧同时输出每个单字</li>
+     * </ul>
+     * <p>帖子中有以搜索片段开头的英文词、或包含搜索的中文片段时，两侧必有相同的词（按前缀匹配，与ES的 bool_prefix 一致）。
+     * 数据库 LIKE 还会匹配英文词中间的片段（如 "script" 之于 "javascript"），这类命中两侧没有相同的词；
+     * 搜索侧提取不出任何词时（如 "c"）也没有可对应的词，由调用方另行处理</p>
+     *
+     * @param text        文本
+     * @param maxTerms    最多返回的词数
+     * @param forDocument 是否为文档侧（帖子字段）；为false时按搜索词提取
+     */
+    public static java.util.Set<String> extractCacheTerms(String text, int maxTerms, boolean forDocument) {
+        java.util.Set<String> terms = new java.util.LinkedHashSet<>();
+        if (text == null || text.trim().isEmpty()) {
+            return terms;
+        }
+        java.util.regex.Matcher matcher = TERM_RUNS.matcher(normalize(text));
+        while (matcher.find() && terms.size() < maxTerms) {
+            String run = matcher.group();
+            if (run.charAt(0) < 128) {
+                String word = run.toLowerCase();
+                int end = Math.min(word.length(), MAX_CACHE_PREFIX_LENGTH);
+                if (!forDocument) {
+                    if (end >= 2) {
+                        terms.add(word.substring(0, end));
+                    }
+                } else {
+                    for (int i = 2; i <= end && terms.size() < maxTerms; i++) {
+                        terms.add(word.substring(0, i));
+                    }
+                }
+            } else if (run.length() == 1) {
+                terms.add(run);
+            } else {
+                for (int i = 0; i + 1 < run.length() && terms.size() < maxTerms; i++) {
+                    terms.add(run.substring(i, i + 2));
+                }
+                for (int i = 0; forDocument && i < run.length() && terms.size() < maxTerms; i++) {
+                    terms.add(run.substring(i, i + 1));
+                }
+            }
+        }
+        return terms;
+    }
+}
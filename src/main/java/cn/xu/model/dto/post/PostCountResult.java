@@ -0,0 +1,25 @@
+package cn.xu.model.dto.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 帖子计数统计结果
+ * <p>用于按帖子ID分组批量统计点赞数、收藏数</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCountResult {
+
+    /**
+     * 帖子ID
+     */
+    private Long postId;
+
+    /**
+     * 数量
+     */
+    private Long count;
+}
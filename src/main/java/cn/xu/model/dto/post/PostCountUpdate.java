@@ -0,0 +1,42 @@
+package cn.xu.model.dto.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 帖子计数校准项
+ * <p>浏览数、评论数按增量累加；点赞数、收藏数按读取时的值做条件覆盖，读取后被并发修改的行本次不写，
+ * 留到下次同步。字段为null表示该列不需要更新</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCountUpdate {
+
+    private Long postId;
+
+    /**
+     * 浏览数增量
+     */
+    private Long viewDelta;
+
+    /**
+     * 评论数增量
+     */
+    private Long commentDelta;
+
+    /**
+     * 读取时的点赞数及校准后的点赞数
+     */
+    private Long expectedLikeCount;
+    private Long likeCount;
+
+    /**
+     * 读取时的收藏数及校准后的收藏数
+     */
+    private Long expectedFavoriteCount;
+    private Long favoriteCount;
+}
@@ -0,0 +1,20 @@
+package cn.xu.model.dto.post;
+
+import lombok.Data;
+
+/**
+ * 帖子的一个标签名称（一行一个，标签名称中可以包含任何字符）
+ */
+@Data
+public class PostTagName {
+
+    /**
+     * 帖子ID
+     */
+    private Long postId;
+
+    /**
+     * 标签名称
+     */
+    private String tagName;
+}
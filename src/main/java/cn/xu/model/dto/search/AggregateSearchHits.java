@@ -0,0 +1,30 @@
+package cn.xu.model.dto.search;
+
+import cn.xu.model.entity.Post;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 聚合搜索的 ES 命中结果（一次 _msearch 的三个分组）
+ * <p>用户、标签只返回命中的ID（按相关度排序），展示数据由调用方按ID批量读取</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregateSearchHits {
+
+    private List<Post> posts;
+
+    private long postTotal;
+
+    private List<Long> userIds;
+
+    private long userTotal;
+
+    private List<Long> tagIds;
+
+    private long tagTotal;
+}
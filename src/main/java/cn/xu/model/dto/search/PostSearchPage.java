@@ -0,0 +1,33 @@
+package cn.xu.model.dto.search;
+
+import cn.xu.model.entity.Post;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 帖子搜索结果页
+ * <p>搜索结果在Redis中的缓存形式（Page 接口无法直接反序列化）</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSearchPage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Post> posts;
+
+    /**
+     * 命中总数（超过统计上限时为上限值）
+     */
+    private Long total;
+
+    /**
+     * 本页最后一条结果的排序值，作为下一页 search_after 的起点（仅ES结果有值）
+     */
+    private List<Object> lastSortValues;
+}
@@ -48,6 +48,10 @@ public class SearchFilter {
         /**
          * 点赞最多（按点赞数倒序）
          */
-        LIKE
+        LIKE,
+        /**
+         * 相关度（按匹配得分倒序，不支持相关度的搜索策略按最新发布处理）
+         */
+        RELEVANCE
     }
 }
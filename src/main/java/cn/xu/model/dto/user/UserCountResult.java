@@ -0,0 +1,25 @@
+package cn.xu.model.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户计数统计结果
+ * <p>用于按用户ID分组批量统计关注数、粉丝数、获赞数、发帖数、评论数</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCountResult {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 数量
+     */
+    private Long count;
+}
@@ -0,0 +1,50 @@
+package cn.xu.model.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户计数校准项
+ * <p>各列按读取时的值做条件覆盖，读取后被并发修改（如新的关注、点赞）的列本次不写，留到下次校验。
+ * 字段为null表示该列不需要更新</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCountUpdate {
+
+    private Long userId;
+
+    /**
+     * 读取时的关注数及校准后的关注数
+     */
+    private Long expectedFollowCount;
+    private Long followCount;
+
+    /**
+     * 读取时的粉丝数及校准后的粉丝数
+     */
+    private Long expectedFansCount;
+    private Long fansCount;
+
+    /**
+     * 读取时的获赞数及校准后的获赞数
+     */
+    private Long expectedLikeCount;
+    private Long likeCount;
+
+    /**
+     * 读取时的发帖数及校准后的发帖数
+     */
+    private Long expectedPostCount;
+    private Long postCount;
+
+    /**
+     * 读取时的评论数及校准后的评论数
+     */
+    private Long expectedCommentCount;
+    private Long commentCount;
+}
@@ -23,7 +23,7 @@ import java.util.List;
  */
 @Slf4j
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -7,6 +7,7 @@ import lombok.*;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * 帖子po
@@ -94,6 +95,16 @@ public class Post implements Serializable {
      */
     private Long shareCount;
 
+    /**
+     * 热度分数（由热门排行计算写入，仅热门查询返回）
+     */
+    private Double hotScore;
+
+    /**
+     * 搜索高亮片段（仅ES搜索结果返回，不落库），key 为字段名：title/description/content
+     */
+    private Map<String, String> highlights;
+
     /**
      * 状态
      */
@@ -10,6 +10,7 @@ public enum SearchStrategyType {
     
     AUTO("auto", "自动选择"),
     MYSQL("mysql", "MySQL搜索"),
+    MYSQL_FULLTEXT("fulltext", "MySQL全文索引搜索"),
     ELASTICSEARCH("elasticsearch", "Elasticsearch搜索");
     
     private final String code;
@@ -1 +1 @@
-package cn.xu.model.vo.post;import io.swagger.v3.oas.annotations.media.Schema;import lombok.AllArgsConstructor;import lombok.Builder;import lombok.Data;import lombok.NoArgsConstructor;/** * 帖子搜索返回VO * 这是 PostSearchService 返回的结构 */@Data@Builder@NoArgsConstructor@AllArgsConstructor@Schema(description = "帖子搜索返回数据")public class PostSearchResponseVO {    @Schema(description = "帖子ID")    private Long id;    @Schema(description = "标题")    private String title;    @Schema(description = "摘要/简介")    private String description;    @Schema(description = "内容简介")    private String content;    @Schema(description = "封面图片URL")    private String coverUrl;    @Schema(description = "用户ID")    private Long userId;    @Schema(description = "作者名称")    private String authorName;    @Schema(description = "作者头像")    private String avatar;    @Schema(description = "阅读数")    private Long viewCount;    @Schema(description = "点赞数")    private Long likeCount;    @Schema(description = "评论数")    private Long commentCount;    @Schema(description = "收藏数")    private Long favoriteCount;    @Schema(description = "分享数")    private Long shareCount;    @Schema(description = "是否推荐")    private Boolean isFeatured;    @Schema(description = "创建时间")    private java.time.LocalDateTime createTime;    @Schema(description = "更新时间")    private java.time.LocalDateTime updateTime;}
\ No newline at end of file
+package cn.xu.model.vo.post;import io.swagger.v3.oas.annotations.media.Schema;import lombok.AllArgsConstructor;import lombok.Builder;import lombok.Data;import lombok.NoArgsConstructor;/** * 帖子搜索返回VO * 这是 PostSearchService 返回的结构 */@Data@Builder@NoArgsConstructor@AllArgsConstructor@Schema(description = "帖子搜索返回数据")public class PostSearchResponseVO {    @Schema(description = "帖子ID")    private Long id;    @Schema(description = "标题")    private String title;    @Schema(description = "摘要/简介")    private String description;    @Schema(description = "内容简介")    private String content;    @Schema(description = "封面图片URL")    private String coverUrl;    @Schema(description = "用户ID")    private Long userId;    @Schema(description = "作者名称")    private String authorName;    @Schema(description = "作者头像")    private String avatar;    @Schema(description = "阅读数")    private Long viewCount;    @Schema(description = "点赞数")    private Long likeCount;    @Schema(description = "评论数")    private Long commentCount;    @Schema(description = "收藏数")    private Long favoriteCount;    @Schema(description = "分享数")    private Long shareCount;    @Schema(description = "是否推荐")    private Boolean isFeatured;    @Schema(description = "创建时间")    private java.time.LocalDateTime createTime;    @Schema(description = "更新时间")    private java.time.LocalDateTime updateTime;    @Schema(description = "高亮标题，命中词以<em>包裹，未命中时为空")    private String highlightTitle;    @Schema(description = "高亮摘要")    private String highlightDescription;    @Schema(description = "高亮正文片段")    private String highlightContent;}
\ No newline at end of file
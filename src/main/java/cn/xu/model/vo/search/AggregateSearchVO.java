@@ -43,6 +43,16 @@ public class AggregateSearchVO {
      */
     private Long costTime;
     
+    /**
+     * 是否为部分结果（有分组超时或被拒绝，对应分组为空）
+     */
+    private Boolean partial;
+    
+    /**
+     * 未完成的分组（posts / users / tags）
+     */
+    private List<String> incompleteGroups;
+    
     /**
      * 搜索结果分组
      */
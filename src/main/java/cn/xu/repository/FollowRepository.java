@@ -25,4 +25,6 @@ public interface FollowRepository {
     Long countFollowers(Long followedId);
 
     Integer findStatus(Long followerId, Long followedId);
+
+    List<Follow> findFollowersAfterId(Long followedId, Long lastId, int limit);
 }
@@ -16,6 +16,11 @@ public interface NotificationRepository {
      */
     Notification save(Notification notification);
 
+    /**
+     * 批量保存新通知（单条多行INSERT）
+     */
+    void saveAll(List<Notification> notifications);
+
     /**
      * 根据ID查询通知
      */
@@ -48,19 +53,30 @@ public interface NotificationRepository {
 
     /**
      * 将通知标记为已读
+     *
+     * @return 本次由未读变为已读的数量（已是已读时为0）
      */
-    void markAsRead(Long notificationId);
+    int markAsRead(Long notificationId);
 
     /**
      * 将用户的所有通知标记为已读（可按类型）
+     *
+     * @return 本次标记为已读的数量
      */
-    void markAllAsRead(Long userId, Integer type);
+    int markAllAsRead(Long userId, Integer type);
 
     /**
      * 删除通知
      */
     void delete(Long notificationId);
 
+    /**
+     * 仅当通知仍未读时删除
+     *
+     * @return 删除的数量（通知已读或不存在时为0）
+     */
+    int deleteUnread(Long notificationId);
+
     /**
      * 统计用户通知总数（按类型）
      */
@@ -4,6 +4,7 @@ import cn.xu.model.entity.Post;
 import cn.xu.repository.impl.PostRepositoryImpl.PostWithTags;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -57,9 +58,9 @@ public interface PostRepository {
 
     void incrementViewCount(Long postId);
 
+    void batchIncrementViewCount(Map<Long, Long> deltas);
+
     void increaseFavoriteCount(Long postId);
 
     void decreaseFavoriteCount(Long postId);
-
-    void updateHotScore(Long postId);
 }
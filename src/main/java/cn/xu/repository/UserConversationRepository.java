@@ -20,6 +20,12 @@ public interface UserConversationRepository {
      */
     void update(UserConversation conversation);
     
+    /**
+     * 一条语句写入或更新发送方、接收方两条会话
+     * <p>不存在则插入，存在则更新对方资料和最后消息、恢复已删除的会话并累加未读数</p>
+     */
+    void upsertPair(UserConversation senderConversation, UserConversation receiverConversation);
+    
     /**
      * 根据ID查询
      */
@@ -30,6 +36,16 @@ public interface UserConversationRepository {
      */
     Optional<UserConversation> findByOwnerAndOther(Long ownerId, Long otherUserId);
     
+    /**
+     * 批量查询用户与多个对方用户的会话
+     */
+    List<UserConversation> findByOwnerAndOthers(Long ownerId, List<Long> otherUserIds);
+    
+    /**
+     * 查询用户最近的未删除会话（只含对方用户ID、置顶标记和最后消息时间，用于重建会话列表缓存）
+     */
+    List<UserConversation> findRecentOrderKeys(Long ownerId, int limit);
+    
     /**
      * 查询用户的会话列表
      */
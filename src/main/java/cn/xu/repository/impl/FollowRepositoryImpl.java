@@ -85,4 +85,11 @@ public class FollowRepositoryImpl implements FollowRepository {
     public Integer findStatus(Long followerId, Long followedId) {
         return followMapper.findStatus(followerId, followedId);
     }
+    
+    /**
+     * 按主键游标分批查询粉丝关系
+     */
+    public List<Follow> findFollowersAfterId(Long followedId, Long lastId, int limit) {
+        return followMapper.findFollowersAfterId(followedId, lastId, limit);
+    }
 }
@@ -51,6 +51,29 @@ public class NotificationRepositoryImpl implements NotificationRepository {
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void saveAll(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        try {
+            for (Notification notification : notifications) {
+                notification.validate();
+                if (notification.getStatus() == null) {
+                    notification.setStatus(Notification.STATUS_VALID);
+                }
+            }
+            notificationMapper.batchInsert(notifications);
+            log.info("[通知服务] 批量新增通知成功, count={}", notifications.size());
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("[通知服务] 批量保存通知失败, count={}", notifications.size(), e);
+            throw new BusinessException("批量保存通知失败");
+        }
+    }
+
     @Override
     public Notification findById(Long id) {
         try {
@@ -130,11 +153,12 @@ public class NotificationRepositoryImpl implements NotificationRepository {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void markAsRead(Long notificationId) {
+    public int markAsRead(Long notificationId) {
         try {
             log.info("[通知服务] 开始将通知标记为已读, notificationId={}", notificationId);
-            notificationMapper.markAsRead(notificationId);
+            int updated = notificationMapper.markAsRead(notificationId);
             log.info("[通知服务] 标记已读成功");
+            return updated;
         } catch (Exception e) {
             log.error("[通知服务] 标记通知为已读失败, notificationId={}", notificationId, e);
             throw new BusinessException("标记通知为已读失败");
@@ -156,9 +180,9 @@ public class NotificationRepositoryImpl implements NotificationRepository {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void markAllAsRead(Long userId, Integer type) {
+    public int markAllAsRead(Long userId, Integer type) {
         try {
-            notificationMapper.markAllAsReadByType(userId, type);
+            return notificationMapper.markAllAsReadByType(userId, type);
         } catch (Exception e) {
             log.error("[通知服务] 标记用户通知为已读失败, userId={}, type={}", userId, type, e);
             throw new BusinessException("标记用户通知为已读失败");
@@ -176,6 +200,17 @@ public class NotificationRepositoryImpl implements NotificationRepository {
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int deleteUnread(Long notificationId) {
+        try {
+            return notificationMapper.deleteUnreadById(notificationId);
+        } catch (Exception e) {
+            log.error("[通知服务] 删除通知失败, notificationId={}", notificationId, e);
+            throw new BusinessException("删除通知失败");
+        }
+    }
+
     @Override
     public boolean exists(Long id) {
         try {
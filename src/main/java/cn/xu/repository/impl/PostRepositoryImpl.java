@@ -1,6 +1,5 @@
 package cn.xu.repository.impl;
 
-import cn.xu.cache.core.RedisOperations;
 import cn.xu.common.ResponseCode;
 import cn.xu.model.entity.Post;
 import cn.xu.model.entity.PostTag;
@@ -15,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -29,9 +29,6 @@ public class PostRepositoryImpl implements PostRepository {
 
     private final PostMapper postMapper;
     private final PostTagMapper postTagMapper;
-    private final RedisOperations redisOperations;
-
-    private static final String HOT_SCORE_KEY_PREFIX = "post:hot:score:";
 
     // ==================== 基础CRUD ====================
 
@@ -92,9 +89,6 @@ public class PostRepositoryImpl implements PostRepository {
             }
         }
 
-        // 更新热度分数
-        updateHotScore(postId);
-
         log.info("更新帖子成功 - ID: {}", postId);
     }
 
@@ -290,6 +284,16 @@ public class PostRepositoryImpl implements PostRepository {
         }
     }
 
+    /**
+     * 批量累加浏览量（单条 UPDATE ... CASE 语句）
+     */
+    public void batchIncrementViewCount(Map<Long, Long> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        postMapper.batchIncrementViewCount(deltas);
+    }
+
     /**
      * 增加收藏量
      */
@@ -316,60 +320,6 @@ public class PostRepositoryImpl implements PostRepository {
         }
     }
 
-    /**
-     * 更新热度分数
-     */
-    public void updateHotScore(Long postId) {
-        if (postId == null) {
-            return;
-        }
-
-        Post post = postMapper.findById(postId);
-        if (post == null) {
-            return;
-        }
-
-        double hotScore = calculateHotScore(post);
-
-        try {
-            redisOperations.zAdd("post:hot:ranking", postId.toString(), hotScore);
-        } catch (Exception e) {
-            log.warn("更新Redis热度排名失败 - postId: {}", postId, e);
-        }
-
-        log.debug("更新帖子热度分数 - postId: {}, score: {}", postId, hotScore);
-    }
-
-    /**
-     * 计算热度分数（Reddit Hot算法）
-     */
-    private double calculateHotScore(Post post) {
-        if (post == null) {
-            return 0.0;
-        }
-
-        long upvotes = post.getLikeCount() != null ? post.getLikeCount() : 0;
-        long score = upvotes;
-
-        long comments = post.getCommentCount() != null ? post.getCommentCount() : 0;
-        score += comments / 2;
-
-        long favorites = post.getFavoriteCount() != null ? post.getFavoriteCount() : 0;
-        score += favorites * 2;
-
-        long hoursSincePublish = 0;
-        if (post.getCreateTime() != null) {
-            hoursSincePublish = java.time.Duration.between(
-                    post.getCreateTime(),
-                    java.time.LocalDateTime.now()
-            ).toHours();
-        }
-
-        double hotScore = Math.log10(Math.max(1, score)) - (hoursSincePublish / 12.5);
-
-        return hotScore;
-    }
-
     // ==================== 私有辅助方法 ====================
 
     /**
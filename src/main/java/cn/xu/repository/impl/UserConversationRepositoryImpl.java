@@ -6,8 +6,12 @@ import cn.xu.repository.mapper.UserConversationMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 用户会话仓储实现
@@ -29,6 +33,15 @@ public class UserConversationRepositoryImpl implements UserConversationRepositor
         mapper.update(conversation);
     }
     
+    @Override
+    public void upsertPair(UserConversation senderConversation, UserConversation receiverConversation) {
+        // 按 owner_id 固定顺序写入，双方同时互发时加锁顺序一致，避免死锁
+        List<UserConversation> pair = Stream.of(senderConversation, receiverConversation)
+                .sorted(Comparator.comparing(UserConversation::getOwnerId))
+                .collect(Collectors.toList());
+        mapper.upsertPair(pair);
+    }
+    
     @Override
     public Optional<UserConversation> findById(Long id) {
         return Optional.ofNullable(mapper.selectById(id));
@@ -39,6 +52,19 @@ public class UserConversationRepositoryImpl implements UserConversationRepositor
         return Optional.ofNullable(mapper.selectByOwnerAndOther(ownerId, otherUserId));
     }
     
+    @Override
+    public List<UserConversation> findByOwnerAndOthers(Long ownerId, List<Long> otherUserIds) {
+        if (otherUserIds == null || otherUserIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return mapper.selectByOwnerAndOthers(ownerId, otherUserIds);
+    }
+    
+    @Override
+    public List<UserConversation> findRecentOrderKeys(Long ownerId, int limit) {
+        return mapper.selectRecentOrderKeys(ownerId, limit);
+    }
+    
     @Override
     public List<UserConversation> findByOwnerId(Long ownerId, int offset, int limit) {
         return mapper.selectActiveByOwnerId(ownerId, offset, limit);
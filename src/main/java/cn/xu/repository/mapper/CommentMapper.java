@@ -2,6 +2,7 @@ package cn.xu.repository.mapper;
 
 import cn.xu.model.enums.CommentSortType;
 import cn.xu.model.dto.comment.CommentCountResult;
+import cn.xu.model.dto.user.UserCountResult;
 import cn.xu.model.entity.Comment;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -192,6 +193,11 @@ public interface CommentMapper {
      */
     Long countByUserId(@Param("userId") Long userId);
     
+    /**
+     * 按用户ID区间分组统计评论数
+     */
+    List<UserCountResult> countByUserRange(@Param("startId") Long startId, @Param("endId") Long endId);
+    
     /**
      * 统计父评论的子评论数
      */
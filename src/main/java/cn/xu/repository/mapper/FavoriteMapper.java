@@ -1,5 +1,6 @@
 package cn.xu.repository.mapper;
 
+import cn.xu.model.dto.post.PostCountResult;
 import cn.xu.model.entity.Favorite;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -102,4 +103,11 @@ public interface FavoriteMapper {
             @Param("userId") Long userId,
             @Param("oldFolderId") Long oldFolderId,
             @Param("newFolderId") Long newFolderId);
+    
+    /**
+     * 按目标ID分组批量统计收藏数（没有收藏的目标不返回）
+     */
+    List<PostCountResult> batchCountByTargetIds(
+            @Param("targetType") String targetType,
+            @Param("targetIds") List<Long> targetIds);
 }
@@ -1,5 +1,6 @@
 package cn.xu.repository.mapper;
 
+import cn.xu.model.dto.user.UserCountResult;
 import cn.xu.model.entity.Follow;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -126,6 +127,26 @@ public interface FollowMapper {
      */
     List<Long> findMutualFollows(@Param("userId") Long userId, @Param("offset") int offset, @Param("limit") int limit);
     
+    /**
+     * 按主键游标分批查询粉丝关系（用于时间线扇出）
+     *
+     * @param followedId 被关注者ID
+     * @param lastId     上一批最后一条关注记录ID，首批传0
+     * @param limit      批大小
+     * @return 关注记录（仅含 id、follower_id），按ID升序
+     */
+    List<Follow> findFollowersAfterId(@Param("followedId") Long followedId, @Param("lastId") Long lastId, @Param("limit") int limit);
+    
+    /**
+     * 按关注者ID区间分组统计关注数
+     */
+    List<UserCountResult> countFollowingByUserRange(@Param("startId") Long startId, @Param("endId") Long endId);
+    
+    /**
+     * 按被关注者ID区间分组统计粉丝数
+     */
+    List<UserCountResult> countFollowersByUserRange(@Param("startId") Long startId, @Param("endId") Long endId);
+    
     /**
      * 统计所有关注关系数
      */
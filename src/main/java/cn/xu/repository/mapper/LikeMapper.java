@@ -143,6 +143,15 @@ public interface LikeMapper {
      */
     Long countReceivedLikesByUserComments(@Param("userId") Long userId);
     
+    /**
+     * 按作者ID区间分组统计收到的点赞数（帖子获赞 + 评论获赞）
+     * @param startId 作者ID下界（含）
+     * @param endId 作者ID上界（含）
+     * @return 各作者的获赞总数
+     */
+    List<cn.xu.model.dto.user.UserCountResult> countReceivedLikesByUserRange(@Param("startId") Long startId,
+                                                                           @Param("endId") Long endId);
+    
     /**
      * 统计所有点赞数
      */
@@ -171,4 +180,13 @@ public interface LikeMapper {
      * @return 点赞数
      */
     Long getLikeCount(@Param("targetId") Long targetId, @Param("type") Integer type);
+    
+    /**
+     * 按目标ID分组批量统计点赞数（没有点赞的目标不返回）
+     * @param type 点赞类型
+     * @param targetIds 目标ID列表
+     * @return 各目标的点赞数
+     */
+    java.util.List<cn.xu.model.dto.post.PostCountResult> batchCountByTargetIds(@Param("type") Integer type,
+                                                                             @Param("targetIds") java.util.List<Long> targetIds);
 }
@@ -18,6 +18,11 @@ public interface NotificationMapper {
      * 保存通知
      */
     void insert(Notification notification);
+
+    /**
+     * 批量保存通知（多行INSERT，回填ID）
+     */
+    int batchInsert(List<Notification> notifications);
     
     /**
      * 更新通知
@@ -54,7 +59,7 @@ public interface NotificationMapper {
     /**
      * 将通知标记为已读
      */
-    void markAsRead(@Param("id") Long id);
+    int markAsRead(@Param("id") Long id);
     
     /**
      * 将用户的所有通知标记为已读
@@ -66,6 +71,11 @@ public interface NotificationMapper {
      */
     void deleteById(@Param("id") Long id);
     
+    /**
+     * 删除仍未读的通知
+     */
+    int deleteUnreadById(@Param("id") Long id);
+    
     /**
      * 检查通知是否存在
      */
@@ -84,7 +94,7 @@ public interface NotificationMapper {
     /**
      * 将用户的通知标记为已读（可按类型）
      */
-    void markAllAsReadByType(@Param("receiverId") Long receiverId, @Param("type") Integer type);
+    int markAllAsReadByType(@Param("receiverId") Long receiverId, @Param("type") Integer type);
 
     /**
      * 统计用户通知数量（按类型）
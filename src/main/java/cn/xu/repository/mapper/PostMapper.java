@@ -1,6 +1,8 @@
 package cn.xu.repository.mapper;
 
+import cn.xu.model.dto.post.PostCountUpdate;
 import cn.xu.model.dto.post.SysPostQueryRequest;
+import cn.xu.model.dto.user.UserCountResult;
 import cn.xu.model.vo.post.SysPostListVO;
 import cn.xu.model.entity.Post;
 import cn.xu.model.entity.Tag;
@@ -8,6 +10,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 帖子Mapper接口
@@ -115,6 +118,37 @@ public interface PostMapper {
      */
     void updateViewCount(@Param("postId") Long postId, @Param("viewCount") Long viewCount);
 
+    /**
+     * 批量累加帖子浏览量
+     *
+     * @param deltas 帖子ID -> 浏览量增量
+     */
+    void batchIncrementViewCount(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 批量查询帖子计数列（不包含content，用于热度计算）
+     *
+     * @param ids 帖子ID列表
+     * @return 帖子列表（仅包含ID、计数和时间字段）
+     */
+    List<Post> findCountersByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 按ID顺序扫描已发布帖子的计数列（用于重建热门排行）
+     *
+     * @param lastId 上一批最后一个帖子ID（首次传0）
+     * @param limit  每批数量
+     * @return 帖子列表（仅包含ID、计数和时间字段）
+     */
+    List<Post> findPublishedCountersAfterId(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * 批量写入热度分数
+     *
+     * @param scores 帖子ID -> 热度分数
+     */
+    void batchUpdateHotScore(@Param("scores") Map<Long, Double> scores);
+
     /**
      * 分页查询帖子列表（带排序）
      */
@@ -132,6 +166,11 @@ public interface PostMapper {
      */
     Long countPublishedByUserId(@Param("userId") Long userId);
 
+    /**
+     * 按用户ID区间分组统计已发布帖子数量
+     */
+    List<UserCountResult> countPublishedByUserRange(@Param("startId") Long startId, @Param("endId") Long endId);
+
     /**
      * 统计用户草稿数量
      */
@@ -171,6 +210,32 @@ public interface PostMapper {
                                       @Param("startTime") java.time.LocalDateTime startTime,
                                       @Param("endTime") java.time.LocalDateTime endTime);
 
+    /**
+     * 全文索引搜索帖子（分页）
+     *
+     * @param query  布尔模式查询串，如 "+机器学习 +入门"
+     * @param sortBy 排序方式：time/hot/comment/like，为空时按相关度
+     */
+    List<Post> fulltextSearchPosts(@Param("query") String query,
+                                   @Param("startTime") java.time.LocalDateTime startTime,
+                                   @Param("endTime") java.time.LocalDateTime endTime,
+                                   @Param("sortBy") String sortBy,
+                                   @Param("offset") int offset,
+                                   @Param("limit") int limit);
+
+    /**
+     * 统计全文索引搜索结果数量，最多统计到 cap 条
+     */
+    Long countFulltextSearchResults(@Param("query") String query,
+                                    @Param("startTime") java.time.LocalDateTime startTime,
+                                    @Param("endTime") java.time.LocalDateTime endTime,
+                                    @Param("cap") int cap);
+
+    /**
+     * 帖子表全文索引 ft_title_content 的数量（0 表示未建立）
+     */
+    Integer countFulltextIndex();
+
     /**
      * 查询热门帖子列表
      */
@@ -222,6 +287,17 @@ public interface PostMapper {
                                   @Param("offset") int offset,
                                   @Param("limit") int limit);
 
+    /**
+     * 按ID倒序查询指定用户的已发布帖子ID（用于时间线收件箱重建和大V拉取）
+     *
+     * @param userIds  作者ID列表
+     * @param beforeId 游标，只返回ID小于该值的帖子，为空表示从最新开始
+     * @param limit    数量
+     */
+    List<Long> findPublishedIdsByUserIds(@Param("userIds") List<Long> userIds,
+                                         @Param("beforeId") Long beforeId,
+                                         @Param("limit") int limit);
+
     /**
      * 统计指定用户的帖子数量
      */
@@ -310,6 +386,13 @@ public interface PostMapper {
      */
     Long countFeatured();
 
+    /**
+     * 批量校准帖子计数（用于Redis同步，保留原更新时间）
+     *
+     * @param updates 校准项，浏览/评论为增量，点赞/收藏为带读取值条件的覆盖
+     */
+    void batchUpdateCounts(@Param("updates") List<PostCountUpdate> updates);
+
     /**
      * 批量更新帖子计数（用于Redis同步）
      */
@@ -320,9 +403,12 @@ public interface PostMapper {
                       @Param("favoriteCount") long favoriteCount);
 
     /**
-     * 分页查询所有帖子（用于批量索引）
+     * 按主键游标查询已发布帖子的索引字段（用于批量索引，正文只取前2000字，与 PostIndex.CONTENT_MAX_LENGTH 一致）
+     *
+     * @param lastId 上一批最后一个帖子ID，首批传0
+     * @param limit  每批数量
      */
-    List<Post> findAllWithPagination(@Param("offset") int offset, @Param("limit") int limit);
+    List<Post> findPublishedForIndexAfterId(@Param("lastId") Long lastId, @Param("limit") int limit);
 
     /**
      * 后台帖子列表查询（不包含content字段，优化性能）
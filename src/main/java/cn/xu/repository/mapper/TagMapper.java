@@ -1,6 +1,7 @@
 package cn.xu.repository.mapper;
 
 import cn.xu.model.dto.post.PostAndTagAgg;
+import cn.xu.model.dto.post.PostTagName;
 import cn.xu.model.entity.Tag;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -22,6 +23,11 @@ public interface TagMapper {
      * 根据帖子ID列表查询帖子标签聚合
      */
     List<PostAndTagAgg> selectByPostIds(@Param("postIds") List<Long> postIds);
+
+    /**
+     * 批量查询帖子的全部标签名称（每个标签一行，postIds 不能为空）
+     */
+    List<PostTagName> selectTagNamesByPostIds(@Param("postIds") List<Long> postIds);
     
     /**
      * 搜索标签
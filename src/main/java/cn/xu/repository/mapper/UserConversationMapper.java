@@ -15,6 +15,11 @@ import java.util.List;
 public interface UserConversationMapper {
     
     int insert(UserConversation conversation);
+
+    /**
+     * 一条语句写入或更新发送方、接收方两条会话（uk_owner_other 冲突时更新）
+     */
+    int upsertPair(@Param("list") List<UserConversation> conversations);
     
     int update(UserConversation conversation);
     
@@ -23,6 +28,14 @@ public interface UserConversationMapper {
     UserConversation selectByOwnerAndOther(@Param("ownerId") Long ownerId, 
                                            @Param("otherUserId") Long otherUserId);
     
+    List<UserConversation> selectByOwnerAndOthers(@Param("ownerId") Long ownerId,
+                                                  @Param("otherUserIds") List<Long> otherUserIds);
+
+    /**
+     * 查询用户最近的未删除会话，只返回排序所需字段（other_user_id, is_pinned, last_message_time）
+     */
+    List<UserConversation> selectRecentOrderKeys(@Param("ownerId") Long ownerId, @Param("limit") int limit);
+
     List<UserConversation> selectActiveByOwnerId(@Param("ownerId") Long ownerId,
                                                   @Param("offset") int offset,
                                                   @Param("limit") int limit);
@@ -1,5 +1,6 @@
 package cn.xu.repository.mapper;
 
+import cn.xu.model.dto.user.UserCountUpdate;
 import cn.xu.model.entity.User;
 import cn.xu.model.vo.user.UserFormVO;
 import org.apache.ibatis.annotations.Mapper;
@@ -305,6 +306,38 @@ public interface UserMapper {
         @Param("commentCount") Long commentCount
     );
     
+    /**
+     * 按主键游标查询用户的统计字段
+     * 
+     * @param lastId 上一批最后一个用户ID（不含）
+     * @param endId 区间上界（含）
+     * @param limit 批大小
+     * @return 用户列表（仅含ID、用户名和统计字段），按ID升序
+     */
+    List<User> findCountersAfterId(@Param("lastId") Long lastId, @Param("endId") Long endId, @Param("limit") int limit);
+    
+    /**
+     * 按主键游标查询正常状态的用户（用于构建搜索索引）
+     * 
+     * @param lastId 上一批最后一个用户ID（不含）
+     * @param limit 批大小
+     * @return 用户列表（仅含ID、用户名、昵称、简介、类型和粉丝数），按ID升序
+     */
+    List<User> findNormalForIndexAfterId(@Param("lastId") Long lastId, @Param("limit") int limit);
+    
+    /**
+     * 查询最大用户ID
+     */
+    Long findMaxId();
+    
+    /**
+     * 批量校准用户统计字段
+     * <p>每列按读取时的值做条件覆盖，读取后被并发修改的列保持不变</p>
+     * 
+     * @param updates 校准项（仅非null的列参与更新）
+     */
+    void batchUpdateUserCounts(@Param("updates") List<UserCountUpdate> updates);
+    
     /**
      * 搜索用户（支持username和nickname模糊查询）
      * 
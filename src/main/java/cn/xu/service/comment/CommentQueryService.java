@@ -210,6 +210,7 @@ public class CommentQueryService {
 
     /**
      * 热门评论查询（带分布式锁防止缓存击穿）
+     * <p>缓存命中时返回的是本地缓存中共享的对象，之后要补充子评论和用户信息，这里逐条复制</p>
      */
     private List<Comment> findCommentsByHotSort(FindCommentRequest request) {
         String cacheKey = String.format("%s%d:%d:%d:%d",
@@ -221,12 +222,16 @@ public class CommentQueryService {
         );
 
         // 使用带锁的列表缓存方法，防止缓存击穿
-        return cacheService.getListOrLoadWithLock(cacheKey, () -> 
+        List<Comment> cached = cacheService.getListOrLoadWithLock(cacheKey, () -> 
             commentRepository.findRootCommentsByHot(
                 request.getTargetType(), request.getTargetId(),
                 request.getPageNo(), request.getPageSize()),
-            CACHE_EXPIRE_SECONDS
+            CACHE_EXPIRE_SECONDS,
+            Comment.class
         );
+        return cached.stream()
+                .map(comment -> comment.toBuilder().build())
+                .collect(Collectors.toList());
     }
 
     /**
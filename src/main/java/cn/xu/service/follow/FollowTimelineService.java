@@ -0,0 +1,197 @@
+package cn.xu.service.follow;
+
+import cn.xu.cache.repository.TimelineCacheRepository;
+import cn.xu.common.response.CursorPageResponse;
+import cn.xu.model.entity.Follow;
+import cn.xu.model.entity.Post;
+import cn.xu.model.entity.User;
+import cn.xu.repository.FollowRepository;
+import cn.xu.repository.mapper.PostMapper;
+import cn.xu.service.user.UserQueryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 关注时间线服务
+ * <p>推拉结合：普通作者发帖时把帖子ID推送到每个粉丝的收件箱（写扩散）；
+ * 粉丝数超过阈值的作者不推送，读取时按游标从数据库拉取后与收件箱合并（读扩散）</p>
+ * <p>收件箱只为活跃用户维护：不存在的收件箱不接收推送，首次读取时按关注列表重建</p>
+ * <p>统一使用帖子ID作为游标，避免 OFFSET 深翻页</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FollowTimelineService {
+
+    /**
+     * 收件箱容量，超出部分的深翻页回源数据库
+     */
+    private static final int INBOX_CAPACITY = 800;
+
+    /**
+     * 推送阈值：粉丝数达到该值的作者改为读取时拉取
+     */
+    private static final long FANOUT_THRESHOLD = 10000;
+
+    /**
+     * 推送时每批粉丝数量
+     */
+    private static final int FANOUT_BATCH_SIZE = 500;
+
+    /**
+     * 时间线参与的关注用户数上限
+     */
+    private static final int FOLLOWING_LIMIT = 500;
+
+    private final TimelineCacheRepository timelineCacheRepository;
+    private final FollowRepository followRepository;
+    private final FollowService followService;
+    private final UserQueryService userQueryService;
+    private final PostMapper postMapper;
+
+    // ==================== 写入 ====================
+
+    /**
+     * 新帖子推送到粉丝收件箱
+     *
+     * @param authorId 作者ID
+     * @param postId   帖子ID
+     */
+    public void fanOut(Long authorId, Long postId) {
+        if (authorId == null || postId == null) {
+            return;
+        }
+        User author = userQueryService.batchGetByIds(Collections.singletonList(authorId)).get(authorId);
+        if (author == null || isPullAuthor(author)) {
+            log.debug("[时间线] 作者粉丝数超过阈值，跳过推送 - authorId: {}, postId: {}", authorId, postId);
+            return;
+        }
+
+        long lastId = 0L;
+        long followers = 0L;
+        long pushed = 0L;
+        while (true) {
+            List<Follow> batch = followRepository.findFollowersAfterId(authorId, lastId, FANOUT_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Long> followerIds = batch.stream().map(Follow::getFollowerId).collect(Collectors.toList());
+            pushed += timelineCacheRepository.pushToInboxes(followerIds, postId, INBOX_CAPACITY);
+            followers += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < FANOUT_BATCH_SIZE) {
+                break;
+            }
+        }
+        log.info("[时间线] 帖子推送完成 - authorId: {}, postId: {}, followers: {}, pushed: {}",
+                authorId, postId, followers, pushed);
+    }
+
+    /**
+     * 关注关系变化后失效收件箱，下次读取时按新的关注列表重建
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            timelineCacheRepository.evictInbox(userId);
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 按游标读取关注时间线
+     *
+     * @param userId   当前用户ID
+     * @param beforeId 游标（上一页最后一个帖子ID），首页为空
+     * @param size     每页数量
+     * @return 帖子列表，按发布顺序倒序
+     */
+    public CursorPageResponse<Post> getTimeline(Long userId, Long beforeId, int size) {
+        List<Long> followingIds = followService.getFollowingUserIds(userId, FOLLOWING_LIMIT);
+        if (followingIds.isEmpty()) {
+            return CursorPageResponse.empty(size);
+        }
+
+        // 按粉丝数拆分推送作者和拉取作者（用户卡片带缓存）
+        Map<Long, User> authors = userQueryService.batchGetByIds(followingIds);
+        List<Long> pushAuthorIds = new ArrayList<>();
+        List<Long> pullAuthorIds = new ArrayList<>();
+        for (Long followingId : followingIds) {
+            User author = authors.get(followingId);
+            if (author != null && isPullAuthor(author)) {
+                pullAuthorIds.add(followingId);
+            } else {
+                pushAuthorIds.add(followingId);
+            }
+        }
+
+        if (timelineCacheRepository.isInboxReady(userId)) {
+            timelineCacheRepository.touchInbox(userId);
+        } else {
+            rebuildInbox(userId, pushAuthorIds);
+        }
+
+        int fetch = size + 1;
+        TreeSet<Long> candidates = new TreeSet<>(Comparator.reverseOrder());
+        List<Long> inboxIds = timelineCacheRepository.getInboxPage(userId, beforeId, fetch);
+        candidates.addAll(inboxIds);
+        if (inboxIds.size() < fetch && !pushAuthorIds.isEmpty()) {
+            // 收件箱容量有限，翻过收件箱末尾后回源数据库
+            Long inboxTail = inboxIds.isEmpty() ? beforeId : inboxIds.get(inboxIds.size() - 1);
+            candidates.addAll(postMapper.findPublishedIdsByUserIds(pushAuthorIds, inboxTail, fetch - inboxIds.size()));
+        }
+        if (!pullAuthorIds.isEmpty()) {
+            candidates.addAll(postMapper.findPublishedIdsByUserIds(pullAuthorIds, beforeId, fetch));
+        }
+
+        List<Long> pageIds = candidates.stream().limit(size).collect(Collectors.toList());
+        boolean hasMore = candidates.size() > size;
+        String nextCursor = hasMore ? String.valueOf(pageIds.get(pageIds.size() - 1)) : null;
+        return CursorPageResponse.of(hydrate(userId, pageIds), nextCursor, hasMore, size);
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 按关注列表重建收件箱（冷用户首次访问、收件箱过期或关注关系变化后）
+     */
+    private void rebuildInbox(Long userId, List<Long> pushAuthorIds) {
+        List<Long> postIds = pushAuthorIds.isEmpty()
+                ? Collections.emptyList()
+                : postMapper.findPublishedIdsByUserIds(pushAuthorIds, null, INBOX_CAPACITY);
+        timelineCacheRepository.rebuildInbox(userId, postIds);
+        log.info("[时间线] 重建收件箱 - userId: {}, authors: {}, posts: {}", userId, pushAuthorIds.size(), postIds.size());
+    }
+
+    /**
+     * 批量加载帖子并保持顺序，已删除或撤回的帖子顺带从收件箱清除
+     */
+    private List<Post> hydrate(Long userId, List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Post> postMap = postMapper.findByIds(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity(), (a, b) -> a));
+        List<Post> result = new ArrayList<>(postIds.size());
+        List<Long> stale = new ArrayList<>();
+        for (Long postId : postIds) {
+            Post post = postMap.get(postId);
+            if (post != null && post.isPublished()) {
+                result.add(post);
+            } else {
+                stale.add(postId);
+            }
+        }
+        timelineCacheRepository.removeFromInbox(userId, stale);
+        return result;
+    }
+
+    private boolean isPullAuthor(User author) {
+        return author.getFansCount() != null && author.getFansCount() >= FANOUT_THRESHOLD;
+    }
+}
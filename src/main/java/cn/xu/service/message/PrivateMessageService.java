@@ -1,5 +1,7 @@
 package cn.xu.service.message;
 
+import cn.xu.cache.repository.ConversationCacheRepository;
+import cn.xu.cache.repository.UnreadCountCacheRepository;
 import cn.xu.event.publisher.MessageEventPublisher;
 import cn.xu.model.entity.PrivateMessage;
 import cn.xu.model.entity.User;
@@ -12,6 +14,7 @@ import cn.xu.repository.UserConversationRepository;
 import cn.xu.service.follow.FollowService;
 import cn.xu.service.user.UserService;
 import cn.xu.support.exception.BusinessException;
+import cn.xu.support.util.TransactionUtil;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -22,8 +25,12 @@ import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -49,6 +56,8 @@ public class PrivateMessageService {
     private final UserService userService;
     private final FollowService followService;
     private final MessageEventPublisher eventPublisher;
+    private final UnreadCountCacheRepository unreadCountCache;
+    private final ConversationCacheRepository conversationCache;
 
     private static final int MAX_CONTENT_LENGTH = 1000;
     private static final int MAX_PREVIEW_LENGTH = 100;
@@ -74,7 +83,7 @@ public class PrivateMessageService {
         boolean theyFollow = followService.isFollowed(receiverId, senderId);
         if (iFollow && theyFollow) {
             log.info("[权限检查] 互关，允许发送");
-            return PermissionResult.allowed();
+            return PermissionResult.allowedMutual();
         }
 
         // 3. 对方回复过检查
@@ -121,7 +130,7 @@ public class PrivateMessageService {
 
         // 4. 更新双方会话（关键步骤）
         String preview = getPreview(content);
-        updateBothConversations(senderId, receiverId, preview);
+        updateBothConversations(senderId, receiverId, preview, permission.isMutual());
 
         // 5. 处理打招呼记录
         handleGreetingRecord(senderId, receiverId, permission.isGreeting());
@@ -149,88 +158,45 @@ public class PrivateMessageService {
 
     /**
      * 更新双方会话记录（核心方法）
+     *
+     * <p>双方资料一次批量读取（走用户卡片缓存），两条会话用一条 INSERT ... ON DUPLICATE KEY UPDATE 写入；
+     * 事务提交后接收方未读数+1（接收方已免打扰时不变），并把会话移到双方会话列表的最前</p>
      */
-    private void updateBothConversations(Long senderId, Long receiverId, String preview) {
-        log.info("[会话更新] 开始更新双方会话");
-        
-        User sender = userService.getUserById(senderId);
-        User receiver = userService.getUserById(receiverId);
+    private void updateBothConversations(Long senderId, Long receiverId, String preview, boolean isMutual) {
+        Map<Long, User> users = userService.getBatchUserInfo(Set.of(senderId, receiverId));
+        User sender = users.get(senderId);
+        User receiver = users.get(receiverId);
         
         if (sender == null || receiver == null) {
             log.error("[会话更新] 用户不存在 sender:{} receiver:{}", sender, receiver);
             throw new BusinessException("用户不存在");
         }
         
-        boolean isMutual = followService.isFollowed(senderId, receiverId) 
-                       && followService.isFollowed(receiverId, senderId);
-        
-        // 更新发送者的会话
-        updateSingleConversation(senderId, receiverId, receiver.getNickname(), receiver.getAvatar(), 
-                                 preview, true, isMutual);
-        log.info("[会话更新] 发送者会话已更新 owner:{} other:{}", senderId, receiverId);
-        
-        // 更新接收者的会话（关键！）
-        updateSingleConversation(receiverId, senderId, sender.getNickname(), sender.getAvatar(), 
-                                 preview, false, isMutual);
-        log.info("[会话更新] 接收者会话已更新 owner:{} other:{}", receiverId, senderId);
-    }
-
-    /**
-     * 更新单个用户的会话记录
-     */
-    private void updateSingleConversation(Long ownerId, Long otherId, String otherNickname, 
-                                          String otherAvatar, String preview, boolean isSender, boolean isMutual) {
-        Optional<UserConversation> existingOpt = conversationRepository.findByOwnerAndOther(ownerId, otherId);
-        
+        UserConversation senderConv = UserConversation.createForSender(senderId, receiverId,
+                receiver.getNickname(), receiver.getAvatar(), isMutual);
+        UserConversation receiverConv = UserConversation.createForReceiver(receiverId, senderId,
+                sender.getNickname(), sender.getAvatar(), isMutual);
         LocalDateTime now = LocalDateTime.now();
-        
-        if (existingOpt.isPresent()) {
-            // 更新现有会话
-            UserConversation conv = existingOpt.get();
-            conv.setOtherNickname(otherNickname);
-            conv.setOtherAvatar(otherAvatar);
+        for (UserConversation conv : List.of(senderConv, receiverConv)) {
             conv.setLastMessage(preview);
             conv.setLastMessageTime(now);
-            conv.setLastMessageIsMine(isSender ? 1 : 0);
-            conv.setIsDeleted(0);
-            conv.setUpdateTime(now);
-            if (isMutual) {
-                conv.setRelationType(UserConversation.RELATION_MUTUAL);
-            }
-            conversationRepository.update(conv);
-            log.info("[会话更新] 更新现有会话 convId:{} owner:{} other:{}", conv.getId(), ownerId, otherId);
-            
-            // 接收者增加未读数
-            if (!isSender) {
-                conversationRepository.incrementUnreadCount(ownerId, otherId);
-                log.info("[会话更新] 接收者未读数+1 owner:{}", ownerId);
-            }
-        } else {
-            // 创建新会话
-            UserConversation conv = new UserConversation();
-            conv.setOwnerId(ownerId);
-            conv.setOtherUserId(otherId);
-            conv.setOtherNickname(otherNickname);
-            conv.setOtherAvatar(otherAvatar);
-            conv.setRelationType(isMutual ? UserConversation.RELATION_MUTUAL : UserConversation.RELATION_STRANGER);
-            conv.setConversationStatus(UserConversation.STATUS_ESTABLISHED);
-            conv.setIsInitiator(isSender ? 1 : 0);
-            conv.setIsBlocked(0);
-            conv.setIsBlockedBy(0);
-            conv.setUnreadCount(isSender ? 0 : 1);
-            conv.setLastMessage(preview);
-            conv.setLastMessageTime(now);
-            conv.setLastMessageIsMine(isSender ? 1 : 0);
-            conv.setIsPinned(0);
-            conv.setIsMuted(0);
-            conv.setIsDeleted(0);
             conv.setCreateTime(now);
             conv.setUpdateTime(now);
-            
-            conversationRepository.save(conv);
-            log.info("[会话更新] 创建新会话 convId:{} owner:{} other:{} unread:{}", 
-                    conv.getId(), ownerId, otherId, conv.getUnreadCount());
         }
+        conversationRepository.upsertPair(senderConv, receiverConv);
+        log.info("[会话更新] 双方会话已更新 sender:{} receiver:{}", senderId, receiverId);
+        
+        // 未读总数不统计免打扰的会话（与 countTotalUnread 一致），接收方已免打扰时不增加；
+        // 恢复已删除的会话时未读数从本条消息重新计算，因此未免打扰时总是+1
+        boolean receiverMuted = conversationRepository.findByOwnerAndOthers(receiverId, List.of(senderId)).stream()
+                .anyMatch(conv -> Integer.valueOf(1).equals(conv.getIsMuted()));
+        TransactionUtil.afterCommit("更新私信缓存", () -> {
+            if (!receiverMuted) {
+                unreadCountCache.incrementMessageUnread(receiverId, 1);
+            }
+            conversationCache.touchConversation(senderId, receiverId, now);
+            conversationCache.touchConversation(receiverId, senderId, now);
+        });
     }
 
     /**
@@ -280,8 +246,8 @@ public class PrivateMessageService {
         int offset = Math.max(0, (page - 1) * size);
         log.info("[会话列表] 查询 userId:{} page:{} size:{}", userId, page, size);
         
-        List<UserConversation> conversations = conversationRepository.findActiveByOwnerId(userId, offset, size);
-        int total = conversationRepository.countActiveByOwnerId(userId);
+        List<UserConversation> conversations = loadConversationPage(userId, offset, size);
+        int total = countConversations(userId);
         
         log.info("[会话列表] 查询到 {} 条会话，总数 {}", conversations.size(), total);
         
@@ -299,7 +265,7 @@ public class PrivateMessageService {
         int offset = Math.max(0, (page - 1) * size);
         log.info("[会话列表] 查询 userId:{} page:{} size:{}", userId, page, size);
         
-        List<UserConversation> conversations = conversationRepository.findActiveByOwnerId(userId, offset, size);
+        List<UserConversation> conversations = loadConversationPage(userId, offset, size);
         log.info("[会话列表] 查询到 {} 条会话", conversations.size());
         
         return conversations.stream()
@@ -307,6 +273,62 @@ public class PrivateMessageService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 读取一页会话
+     *
+     * <p>顺序取自会话列表缓存（ZSet），再按 uk_owner_other 批量查出这一页的会话；
+     * 缓存未加载时用最近会话的排序字段重建（读库期间有新消息则放弃重建），超出缓存范围的分页直接查库</p>
+     */
+    private List<UserConversation> loadConversationPage(Long userId, int offset, int size) {
+        List<Long> otherUserIds = null;
+        try {
+            otherUserIds = conversationCache.getConversationPage(userId, offset, size);
+            // 缓存范围内仍未命中说明列表未加载（不完整的列表只会在超出范围时未命中）
+            if (otherUserIds == null && offset + size <= ConversationCacheRepository.MAX_SIZE) {
+                long token = conversationCache.beginConversationLoad(userId);
+                List<UserConversation> recent = conversationRepository.findRecentOrderKeys(userId, ConversationCacheRepository.MAX_SIZE);
+                conversationCache.cacheConversations(userId, recent, token);
+                otherUserIds = recent.stream()
+                        .skip(offset)
+                        .limit(size)
+                        .map(UserConversation::getOtherUserId)
+                        .collect(Collectors.toList());
+            }
+        } catch (Exception e) {
+            log.warn("[会话列表] 读取缓存失败 userId:{}", userId, e);
+            otherUserIds = null;
+        }
+        if (otherUserIds == null) {
+            return conversationRepository.findActiveByOwnerId(userId, offset, size);
+        }
+        
+        Map<Long, UserConversation> byOther = conversationRepository.findByOwnerAndOthers(userId, otherUserIds).stream()
+                .collect(Collectors.toMap(UserConversation::getOtherUserId, Function.identity(), (a, b) -> a));
+        List<UserConversation> page = new ArrayList<>(otherUserIds.size());
+        for (Long otherUserId : otherUserIds) {
+            UserConversation conv = byOther.get(otherUserId);
+            if (conv != null && !Integer.valueOf(1).equals(conv.getIsDeleted())) {
+                page.add(conv);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * 会话总数（缓存完整时取缓存大小，否则查库）
+     */
+    private int countConversations(Long userId) {
+        try {
+            Integer cached = conversationCache.getConversationCount(userId);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (Exception e) {
+            log.warn("[会话列表] 读取缓存数量失败 userId:{}", userId, e);
+        }
+        return conversationRepository.countActiveByOwnerId(userId);
+    }
+
     /**
      * 获取或创建会话
      */
@@ -351,6 +373,8 @@ public class PrivateMessageService {
         conv.setUpdateTime(now);
         
         conversationRepository.save(conv);
+        TransactionUtil.afterCommit("更新私信缓存",
+                () -> conversationCache.touchConversation(currentUserId, targetUserId, now));
         log.info("[会话创建] 新会话 convId:{} owner:{} other:{}", conv.getId(), currentUserId, targetUserId);
         
         return toConversationVO(conv);
@@ -362,6 +386,10 @@ public class PrivateMessageService {
     @Transactional(rollbackFor = Exception.class)
     public void deleteConversation(Long currentUserId, Long otherUserId) {
         conversationRepository.softDelete(currentUserId, otherUserId);
+        TransactionUtil.afterCommit("更新私信缓存", () -> {
+            unreadCountCache.evictMessageUnread(currentUserId);
+            conversationCache.removeConversation(currentUserId, otherUserId);
+        });
         log.info("[会话删除] owner:{} other:{}", currentUserId, otherUserId);
     }
 
@@ -383,6 +411,7 @@ public class PrivateMessageService {
     public void markAsRead(Long currentUserId, Long otherUserId) {
         messageRepository.markAsRead(currentUserId, otherUserId);
         conversationRepository.clearUnreadCount(currentUserId, otherUserId);
+        TransactionUtil.afterCommit("更新私信缓存", () -> unreadCountCache.evictMessageUnread(currentUserId));
         log.info("[标记已读] user:{} other:{}", currentUserId, otherUserId);
         
         // 发布已读事件
@@ -456,8 +485,33 @@ public class PrivateMessageService {
 
     // ==================== 统计 ====================
 
+    /**
+     * 私信未读总数（优先读缓存，未命中时从会话表统计并写入缓存，统计期间未读数有变化时不写入）
+     */
     public int getTotalUnreadCount(Long userId) {
-        return conversationRepository.getTotalUnreadCount(userId);
+        try {
+            Long cached = unreadCountCache.getMessageUnreadTotal(userId);
+            if (cached != null) {
+                return cached.intValue();
+            }
+        } catch (Exception e) {
+            log.warn("[未读数] 读取缓存失败 user:{}", userId, e);
+        }
+        Long token = null;
+        try {
+            token = unreadCountCache.beginMessageUnreadLoad(userId);
+        } catch (Exception e) {
+            log.warn("[未读数] 写入加载标记失败 user:{}", userId, e);
+        }
+        int total = conversationRepository.getTotalUnreadCount(userId);
+        if (token != null) {
+            try {
+                unreadCountCache.cacheMessageUnreadTotal(userId, total, token);
+            } catch (Exception e) {
+                log.warn("[未读数] 写入缓存失败 user:{}", userId, e);
+            }
+        }
+        return total;
     }
 
     public int getUnreadCount(Long currentUserId, Long otherUserId) {
@@ -529,17 +583,23 @@ public class PrivateMessageService {
         private final boolean allowed;
         private final boolean greeting;
         private final String reason;
+        /** 双方互关（发送时直接用于会话关系类型，不再重复查询关注状态） */
+        private final boolean mutual;
 
         public static PermissionResult allowed() {
-            return new PermissionResult(true, false, "");
+            return new PermissionResult(true, false, "", false);
+        }
+
+        public static PermissionResult allowedMutual() {
+            return new PermissionResult(true, false, "", true);
         }
 
         public static PermissionResult allowedAsGreeting() {
-            return new PermissionResult(true, true, "");
+            return new PermissionResult(true, true, "", false);
         }
 
         public static PermissionResult denied(String reason) {
-            return new PermissionResult(false, false, reason);
+            return new PermissionResult(false, false, reason, false);
         }
 
         public boolean isGreeting() { return greeting; }
@@ -0,0 +1,262 @@
+package cn.xu.service.notification;
+
+import cn.xu.model.entity.Notification;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 通知批量写入器
+ *
+ * <p>事件处理线程只把通知放入缓冲即返回，定时任务按窗口取出后分批交给
+ * {@link NotificationService#sendNotifications}，一次多行INSERT写入并按接收者合并推送</p>
+ * <p>点赞、收藏、关注在同一窗口内按（接收者, 类型, 业务类型, 业务ID）合并为一条，
+ * 保留最新的发送者，内容改为“等N人…”；评论、回复等带正文的通知不合并，只批量写入</p>
+ * <p>缓冲达到上限时新通知直接逐条写入，不丢弃</p>
+ * <p>某一批写入失败时逐条重试，仍失败的放回缓冲等待下一轮，超过 {@value #MAX_ATTEMPTS} 轮后记录日志并放弃</p>
+ */
+@Slf4j
+@Component
+public class NotificationBatchWriter {
+
+    /**
+     * 单条通知最多尝试写入的轮数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final NotificationService notificationService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int capacity;
+    private final int insertBatchSize;
+
+    /**
+     * 合并Key -> 待写入通知；不合并的通知使用唯一序号作为Key
+     */
+    private final ConcurrentHashMap<String, PendingNotification> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder direct = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public NotificationBatchWriter(NotificationService notificationService,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${app.notification.batch.buffer-capacity:10000}") int capacity,
+                                   @Value("${app.notification.batch.insert-batch-size:500}") int insertBatchSize) {
+        this.notificationService = notificationService;
+        this.meterRegistry = meterRegistry;
+        this.capacity = Math.max(16, capacity);
+        this.insertBatchSize = Math.max(1, insertBatchSize);
+    }
+
+    @PostConstruct
+    public void bindMetrics() {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("notification.batch.pending", pending, ConcurrentHashMap::size)
+                .register(registry);
+        FunctionCounter.builder("notification.batch.accepted", accepted, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("notification.batch.merged", merged, LongAdder::sum)
+                .description("窗口内被合并掉的通知数")
+                .register(registry);
+        FunctionCounter.builder("notification.batch.written", written, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("notification.batch.direct", direct, LongAdder::sum)
+                .description("缓冲已满时直接写入的通知数")
+                .register(registry);
+        FunctionCounter.builder("notification.batch.dropped", dropped, LongAdder::sum)
+                .description("多轮重试后仍写入失败而放弃的通知数")
+                .register(registry);
+    }
+
+    /**
+     * 放入待写入通知
+     */
+    public void submit(Notification notification) {
+        if (notification == null) {
+            return;
+        }
+        notification.validate();
+
+        String key = aggregateKey(notification);
+        if (pending.size() >= capacity && (key == null || !pending.containsKey(key))) {
+            direct.increment();
+            notificationService.sendNotification(notification);
+            return;
+        }
+
+        accepted.increment();
+        if (key == null) {
+            pending.put("n:" + sequence.incrementAndGet(), new PendingNotification(notification));
+            return;
+        }
+        pending.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return new PendingNotification(notification);
+            }
+            existing.merge(notification);
+            merged.increment();
+            return existing;
+        });
+    }
+
+    /**
+     * 取出当前缓冲中的全部通知并分批写入
+     *
+     * @return 本次写入的通知数
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<PendingNotification> items = new ArrayList<>(pending.size());
+        for (String key : pending.keySet()) {
+            PendingNotification item = pending.remove(key);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        // 按提交时间写入，保持通知的先后顺序
+        items.sort(Comparator.comparing(PendingNotification::getSubmitTime));
+
+        int count = 0;
+        for (int i = 0; i < items.size(); i += insertBatchSize) {
+            List<PendingNotification> chunk = items.subList(i, Math.min(i + insertBatchSize, items.size()));
+            List<Notification> batch = new ArrayList<>(chunk.size());
+            for (PendingNotification item : chunk) {
+                batch.add(item.toNotification());
+            }
+            try {
+                notificationService.sendNotifications(batch);
+                count += batch.size();
+            } catch (Exception e) {
+                log.error("[通知批量写入] 批量写入失败，改为逐条写入 - count: {}", batch.size(), e);
+                count += writeOneByOne(chunk);
+            }
+        }
+        written.add(count);
+        return count;
+    }
+
+    /**
+     * 逐条写入批量写入失败的通知，仍失败的放回缓冲
+     *
+     * @return 写入成功的通知数
+     */
+    private int writeOneByOne(List<PendingNotification> chunk) {
+        int count = 0;
+        for (PendingNotification item : chunk) {
+            try {
+                notificationService.sendNotification(item.toNotification());
+                count++;
+            } catch (Exception e) {
+                if (item.attempt() < MAX_ATTEMPTS) {
+                    pending.put("r:" + sequence.incrementAndGet(), item);
+                } else {
+                    dropped.increment();
+                    log.error("[通知批量写入] 多次写入失败，放弃 - receiverId: {}, type: {}, businessId: {}",
+                            item.latest.getReceiverId(), item.latest.getType(), item.latest.getBusinessId(), e);
+                }
+            }
+        }
+        return count;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 应用关闭前写出剩余通知
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("[通知批量写入] 关闭前写入失败 - pending: {}", pending.size(), e);
+        }
+    }
+
+    /**
+     * 可合并通知的Key，不可合并返回null
+     */
+    private String aggregateKey(Notification notification) {
+        Integer type = notification.getType();
+        if (type == null || notification.getBusinessId() == null
+                || (type != Notification.TYPE_LIKE && type != Notification.TYPE_FAVORITE && type != Notification.TYPE_FOLLOW)) {
+            return null;
+        }
+        return notification.getReceiverId() + ":" + type + ":" + notification.getBusinessType() + ":" + notification.getBusinessId();
+    }
+
+    /**
+     * 窗口内的一条待写入通知，合并时只记录去重后的发送者
+     * <p>通知时间取最后一次提交的时间，而不是写入时间，同一批内的先后顺序与提交顺序一致</p>
+     */
+    private static final class PendingNotification {
+
+        private Notification latest;
+        private String content;
+        private final Set<Long> senderIds = new LinkedHashSet<>();
+        private LocalDateTime submitTime;
+        private int attempts;
+
+        PendingNotification(Notification notification) {
+            this.latest = notification;
+            this.content = notification.getContent();
+            this.senderIds.add(notification.getSenderId());
+            this.submitTime = LocalDateTime.now();
+        }
+
+        void merge(Notification notification) {
+            this.latest = notification;
+            this.content = notification.getContent();
+            this.senderIds.add(notification.getSenderId());
+            this.submitTime = LocalDateTime.now();
+        }
+
+        LocalDateTime getSubmitTime() {
+            return submitTime;
+        }
+
+        /**
+         * 记录一轮写入失败，返回已失败的轮数
+         */
+        int attempt() {
+            return ++attempts;
+        }
+
+        /**
+         * 生成待写入的通知，重试时可重复调用
+         */
+        Notification toNotification() {
+            int senders = senderIds.size();
+            // 回滚的批量写入可能已回填自增ID
+            latest.setId(null);
+            latest.setContent(senders > 1 ? "等" + senders + "人" + content : content);
+            latest.setCreateTime(submitTime);
+            latest.setUpdateTime(submitTime);
+            return latest;
+        }
+    }
+}
@@ -1,27 +1,31 @@
 package cn.xu.service.notification;
 
+import cn.xu.config.websocket.WebSocketClusterMessenger;
 import cn.xu.config.websocket.WebSocketSessionManager;
 import cn.xu.model.entity.Notification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 通知推送服务
  * 
- * <p>负责通过WebSocket推送通知给用户</p>
+ * <p>负责通过WebSocket推送通知给用户，用户连接在其他节点时经 {@link WebSocketClusterMessenger} 转发</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationPushService {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final WebSocketClusterMessenger clusterMessenger;
     private final WebSocketSessionManager sessionManager;
     private final NotificationService notificationService;
 
@@ -36,23 +40,17 @@ public class NotificationPushService {
             return;
         }
         
-        if (!sessionManager.isOnline(userId)) {
-            log.debug("[WebSocket推送] 用户不在线，跳过推送: userId={}", userId);
-            return;
-        }
-        
         try {
             Map<String, Object> message = buildNotificationMessage(notification);
             
             // 推送通知内容
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    "/queue/notifications",
-                    message
-            );
+            if (!clusterMessenger.sendToUser(userId, "/queue/notifications", message)) {
+                log.debug("[WebSocket推送] 用户不在线，跳过推送: userId={}", userId);
+                return;
+            }
             
             // 同时推送未读数量
-            pushUnreadCount(userId);
+            sendUnreadCount(userId);
             
             log.info("[WebSocket推送] 推送成功: userId={}, type={}", userId, notification.getType());
             
@@ -61,6 +59,75 @@ public class NotificationPushService {
         }
     }
 
+    /**
+     * 合并推送同一用户的一组通知
+     *
+     * <p>只推送最新一条通知（附带本次合并的通知数 batchCount）和一次未读数，
+     * 完整列表由客户端收到后按需拉取</p>
+     */
+    public void pushBatchToUser(Long userId, List<Notification> notifications) {
+        if (userId == null || notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        if (notifications.size() == 1) {
+            pushToUser(userId, notifications.get(0));
+            return;
+        }
+
+        try {
+            Map<String, Object> message = buildNotificationMessage(latestOf(notifications));
+            message.put("batchCount", notifications.size());
+
+            if (!clusterMessenger.sendToUser(userId, "/queue/notifications", message)) {
+                log.debug("[WebSocket推送] 用户不在线，跳过推送: userId={}", userId);
+                return;
+            }
+            sendUnreadCount(userId);
+
+            log.info("[WebSocket推送] 合并推送成功: userId={}, count={}", userId, notifications.size());
+
+        } catch (Exception e) {
+            log.error("[WebSocket推送] 合并推送失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 最新的一条通知（按创建时间，相同时取ID较大的）
+     */
+    private Notification latestOf(List<Notification> notifications) {
+        return notifications.stream()
+                .max(Comparator.comparing(Notification::getCreateTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Notification::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .orElseThrow();
+    }
+
+    /**
+     * 同一条通知推送给多个用户（系统通知群发）
+     *
+     * <p>消息只构建一次并经 {@link WebSocketClusterMessenger#sendToUsers} 批量投递，不带各用户的通知ID；
+     * 未读数只推送给在线的用户</p>
+     */
+    public void pushToUsers(Collection<Long> userIds, Notification notification) {
+        if (userIds == null || userIds.isEmpty() || notification == null) {
+            return;
+        }
+
+        try {
+            Map<String, Object> message = buildNotificationMessage(notification);
+            message.put("id", null);
+
+            Set<Long> online = clusterMessenger.sendToUsers(userIds, "/queue/notifications", message);
+            for (Long userId : online) {
+                sendUnreadCount(userId);
+            }
+
+            log.info("[WebSocket推送] 群发推送成功: users={}, online={}", userIds.size(), online.size());
+
+        } catch (Exception e) {
+            log.error("[WebSocket推送] 群发推送失败: users={}, error={}", userIds.size(), e.getMessage());
+        }
+    }
+
     /**
      * 推送未读数量给指定用户
      */
@@ -68,18 +135,17 @@ public class NotificationPushService {
         if (userId == null || !sessionManager.isOnline(userId)) {
             return;
         }
-        
+        sendUnreadCount(userId);
+    }
+
+    private void sendUnreadCount(Long userId) {
         try {
             long count = notificationService.getUnreadCount(userId);
             Map<String, Object> message = new HashMap<>();
             message.put("count", count);
             message.put("timestamp", LocalDateTime.now().toString());
             
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    "/queue/unread-count",
-                    message
-            );
+            clusterMessenger.sendToUser(userId, "/queue/unread-count", message);
             
             log.debug("[WebSocket推送] 未读数推送: userId={}, count={}", userId, count);
             
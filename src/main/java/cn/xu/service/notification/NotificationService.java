@@ -1,8 +1,11 @@
 package cn.xu.service.notification;
 
+import cn.xu.cache.repository.UnreadCountCacheRepository;
+import cn.xu.event.events.NotificationBatchEvent;
 import cn.xu.event.events.NotificationEvent;
 import cn.xu.model.entity.Notification;
 import cn.xu.repository.NotificationRepository;
+import cn.xu.support.util.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -10,6 +13,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +21,8 @@ import java.util.Map;
  * 通知服务
  * 
  * <p>提供通知的查询、已读标记、删除等功能
- *
+ * <p>未读数由 {@link UnreadCountCacheRepository} 缓存，发送、已读、删除在事务提交后同步增减；
+ * 批量操作直接清除缓存，下次读取时重新统计
  */
 @Slf4j
 @Service
@@ -26,6 +31,7 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final UnreadCountCacheRepository unreadCountCache;
 
     // ==================== 查询方法 ====================
 
@@ -74,7 +80,15 @@ public class NotificationService {
      */
     @Transactional(readOnly = true)
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        try {
+            Long cached = unreadCountCache.getNotificationUnreadTotal(userId);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (Exception e) {
+            log.warn("[通知] 读取未读数缓存失败: userId={}", userId, e);
+        }
+        return loadUnreadCountByType(userId).values().stream().mapToLong(Long::longValue).sum();
     }
 
     /**
@@ -82,7 +96,36 @@ public class NotificationService {
      */
     @Transactional(readOnly = true)
     public Map<Integer, Long> getUnreadCountByType(Long userId) {
-        return notificationRepository.getUnreadCountByType(userId);
+        try {
+            Map<Integer, Long> cached = unreadCountCache.getNotificationUnreadByType(userId);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (Exception e) {
+            log.warn("[通知] 读取未读数缓存失败: userId={}", userId, e);
+        }
+        return loadUnreadCountByType(userId);
+    }
+
+    /**
+     * 从数据库统计各类型未读数并写入缓存（统计期间未读数有变化时不写入，下次读取重新统计）
+     */
+    private Map<Integer, Long> loadUnreadCountByType(Long userId) {
+        Long token = null;
+        try {
+            token = unreadCountCache.beginNotificationUnreadLoad(userId);
+        } catch (Exception e) {
+            log.warn("[通知] 写入未读数加载标记失败: userId={}", userId, e);
+        }
+        Map<Integer, Long> counts = notificationRepository.getUnreadCountByType(userId);
+        if (token != null) {
+            try {
+                unreadCountCache.cacheNotificationUnread(userId, counts, token);
+            } catch (Exception e) {
+                log.warn("[通知] 写入未读数缓存失败: userId={}", userId, e);
+            }
+        }
+        return counts;
     }
 
     // ==================== 已读操作 ====================
@@ -97,7 +140,10 @@ public class NotificationService {
         }
         Notification notification = notificationRepository.findById(notificationId);
         if (notification != null && notification.belongsToUser(userId)) {
-            notificationRepository.markAsRead(notificationId);
+            if (notificationRepository.markAsRead(notificationId) > 0) {
+                TransactionUtil.afterCommit("更新未读数缓存",
+                        () -> unreadCountCache.incrementNotificationUnread(userId, notification.getType(), -1));
+            }
             log.debug("[通知] 标记已读: id={}", notificationId);
         }
     }
@@ -107,7 +153,13 @@ public class NotificationService {
      */
     @Transactional
     public void markAllAsRead(Long userId, Integer type) {
-        notificationRepository.markAllAsRead(userId, type);
+        int updated = notificationRepository.markAllAsRead(userId, type);
+        if (type == null) {
+            TransactionUtil.afterCommit("更新未读数缓存", () -> unreadCountCache.evictNotificationUnread(userId));
+        } else if (updated > 0) {
+            TransactionUtil.afterCommit("更新未读数缓存",
+                    () -> unreadCountCache.incrementNotificationUnread(userId, type, -updated));
+        }
         log.debug("[通知] 全部标记已读: userId={}, type={}", userId, type);
     }
 
@@ -115,6 +167,7 @@ public class NotificationService {
 
     /**
      * 删除单个通知（带权限校验）
+     * <p>先按未读条件删除，按影响行数决定是否减少未读数，与并发的标记已读只会有一方生效</p>
      */
     @Transactional
     public void delete(Long userId, Long notificationId) {
@@ -123,7 +176,12 @@ public class NotificationService {
         }
         Notification notification = notificationRepository.findById(notificationId);
         if (notification != null && notification.belongsToUser(userId)) {
-            notificationRepository.delete(notificationId);
+            if (notificationRepository.deleteUnread(notificationId) == 0) {
+                notificationRepository.delete(notificationId);
+            } else {
+                TransactionUtil.afterCommit("更新未读数缓存",
+                        () -> unreadCountCache.incrementNotificationUnread(userId, notification.getType(), -1));
+            }
             log.debug("[通知] 删除: id={}", notificationId);
         }
     }
@@ -138,6 +196,7 @@ public class NotificationService {
         }
         // 过滤只删除属于当前用户的通知
         notificationRepository.batchDeleteByUserIdAndIds(userId, notificationIds);
+        TransactionUtil.afterCommit("更新未读数缓存", () -> unreadCountCache.evictNotificationUnread(userId));
         log.debug("[通知] 批量删除: userId={}, count={}", userId, notificationIds.size());
     }
 
@@ -152,9 +211,37 @@ public class NotificationService {
     public void sendNotification(Notification notification) {
         notification.validate();
         notificationRepository.save(notification);
+        Long receiverId = notification.getReceiverId();
+        Integer type = notification.getType();
+        TransactionUtil.afterCommit("更新未读数缓存", () -> unreadCountCache.incrementNotificationUnread(receiverId, type, 1));
         log.debug("[通知] 已发送: type={}, receiver={}", notification.getType(), notification.getReceiverId());
         
         // 发布通知事件，触发WebSocket推送
         eventPublisher.publishEvent(new NotificationEvent(this, notification));
     }
+
+    /**
+     * 批量发送通知
+     *
+     * <p>一条多行INSERT写入整批通知，未读数按接收者和类型合并后增减，
+     * 发布一个 {@link NotificationBatchEvent} 由监听器按接收者合并推送</p>
+     */
+    @Transactional
+    public void sendNotifications(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        notificationRepository.saveAll(notifications);
+        log.debug("[通知] 已批量发送: count={}", notifications.size());
+
+        Map<Long, Map<Integer, Integer>> increments = new HashMap<>();
+        for (Notification notification : notifications) {
+            increments.computeIfAbsent(notification.getReceiverId(), id -> new HashMap<>())
+                    .merge(notification.getType(), 1, Integer::sum);
+        }
+        TransactionUtil.afterCommit("更新未读数缓存", () -> increments.forEach((receiverId, byType) ->
+                byType.forEach((type, count) -> unreadCountCache.incrementNotificationUnread(receiverId, type, count))));
+
+        eventPublisher.publishEvent(new NotificationBatchEvent(this, notifications));
+    }
 }
@@ -45,6 +45,7 @@ public class PostApplicationService {
 
     private final PostQueryService postQueryService;
     private final PostCommandService postCommandService;
+    private final PostViewCounter postViewCounter;
     private final PostStatisticsService postStatisticsService;
     private final PostConverter postConverter;
     private final PostValidationService postValidationService;
@@ -90,7 +91,7 @@ public class PostApplicationService {
             if (posts.size() > limit) {
                 posts = posts.subList(0, limit);
                 Post lastPost = posts.get(posts.size() - 1);
-                double hotScore = calculateHotScore(lastPost);
+                double hotScore = lastPost.getHotScore() != null ? lastPost.getHotScore() : 0.0;
                 nextCursor = hotScore + "_" + lastPost.getId();
             } else {
                 nextCursor = null;
@@ -123,17 +124,6 @@ public class PostApplicationService {
         return CursorPageResponse.of(result, nextCursor, hasMore, limit, total);
     }
 
-    /**
-     * 计算帖子热度分数
-     */
-    private double calculateHotScore(Post post) {
-        long likeCount = post.getLikeCount() != null ? post.getLikeCount() : 0;
-        long commentCount = post.getCommentCount() != null ? post.getCommentCount() : 0;
-        long viewCount = post.getViewCount() != null ? post.getViewCount() : 0;
-        long favoriteCount = post.getFavoriteCount() != null ? post.getFavoriteCount() : 0;
-        return likeCount * 3 + commentCount * 5 + viewCount * 0.5 + favoriteCount * 4;
-    }
-
     // ==================== 传统分页查询 ====================
 
     /**
@@ -429,7 +419,8 @@ public class PostApplicationService {
                 .coverUrl(post.getCoverUrl())
                 .author(author)
                 .tags(tags)
-                .viewCount(post.getViewCount())
+                .viewCount((post.getViewCount() != null ? post.getViewCount() : 0L)
+                        + postViewCounter.getPendingDelta(post.getId()))
                 .likeCount(post.getLikeCount())
                 .commentCount(post.getCommentCount())
                 .favoriteCount(post.getFavoriteCount())
@@ -520,6 +511,9 @@ public class PostApplicationService {
                 case "like":
                     sort = SearchFilter.SortOption.LIKE;
                     break;
+                case "relevance":
+                    sort = SearchFilter.SortOption.RELEVANCE;
+                    break;
                 default:
                     sort = SearchFilter.SortOption.TIME;
                     break;
@@ -41,6 +41,8 @@ public class PostCommandService {
     private final FileStorageService fileStorageService;
     private final ContentEventPublisher contentEventPublisher;
     private final ColumnPostService columnPostService;
+    private final PostViewCounter postViewCounter;
+    private final PostHotRankingService postHotRankingService;
 
     // ==================== 创建操作 ====================
 
@@ -144,7 +146,7 @@ public class PostCommandService {
             isNewPublish = !wasPublished;
         }
 
-        postRepository.updateHotScore(postId);
+        postHotRankingService.markDirty(postId);
 
         // 更新用户帖子数（仅新发布时）
         if (isNewPublish) {
@@ -208,6 +210,7 @@ public class PostCommandService {
         boolean wasPublished = Integer.valueOf(Post.STATUS_PUBLISHED).equals(post.getStatus());
         post.withdraw();
         postRepository.update(post, null);
+        postHotRankingService.remove(postId);
 
         if (wasPublished) {
             userMapper.decreasePostCount(userId);
@@ -242,6 +245,7 @@ public class PostCommandService {
 
         post.delete();
         postRepository.update(post, null);
+        postHotRankingService.remove(postId);
 
         if (wasPublished) {
             userMapper.decreasePostCount(authorId);
@@ -361,30 +365,18 @@ public class PostCommandService {
 
     /**
      * 浏览帖子（带防刷）
+     * <p>防刷标记使用 SET NX 一次完成检查和写入，浏览量先累加到内存缓冲，由定时任务批量刷盘</p>
      */
     public void viewPost(Long postId, Long userId, String clientIp) {
         if (postId == null) {
             return;
         }
 
-        boolean shouldIncrement = false;
-        if (userId == null) {
-            String ipKey = CacheConstants.POST_VIEW_IP_KEY_PREFIX + postId + ":" + clientIp;
-            if (!redisOperations.hasKey(ipKey)) {
-                shouldIncrement = true;
-                redisOperations.set(ipKey, "1", CacheConstants.POST_VIEW_CACHE_SECONDS);
-            }
-        } else {
-            String userKey = CacheConstants.POST_VIEW_USER_KEY_PREFIX + postId + ":" + userId;
-            if (!redisOperations.hasKey(userKey)) {
-                shouldIncrement = true;
-                redisOperations.set(userKey, "1", CacheConstants.POST_VIEW_CACHE_SECONDS);
-            }
-        }
-
-        if (shouldIncrement) {
-            postRepository.incrementViewCount(postId);
-            postRepository.updateHotScore(postId);
+        String viewKey = userId == null
+                ? CacheConstants.POST_VIEW_IP_KEY_PREFIX + postId + ":" + clientIp
+                : CacheConstants.POST_VIEW_USER_KEY_PREFIX + postId + ":" + userId;
+        if (redisOperations.setIfAbsent(viewKey, "1", CacheConstants.POST_VIEW_CACHE_SECONDS)) {
+            postViewCounter.increment(postId);
         }
     }
 
@@ -393,7 +385,7 @@ public class PostCommandService {
             Post post = getPostOrThrow(postId);
             post.increaseCommentCount();
             postRepository.update(post, null);
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
         }
     }
 
@@ -402,7 +394,7 @@ public class PostCommandService {
             Post post = getPostOrThrow(postId);
             post.decreaseCommentCount();
             postRepository.update(post, null);
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
         }
     }
 
@@ -411,7 +403,7 @@ public class PostCommandService {
             Post post = getPostOrThrow(postId);
             post.increaseLikeCount();
             postRepository.update(post, null);
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
         }
     }
 
@@ -420,27 +412,27 @@ public class PostCommandService {
             Post post = getPostOrThrow(postId);
             post.decreaseLikeCount();
             postRepository.update(post, null);
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
         }
     }
 
     public void increaseFavoriteCount(Long postId) {
         if (postId != null) {
             postRepository.increaseFavoriteCount(postId);
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
         }
     }
 
     public void decreaseFavoriteCount(Long postId) {
         if (postId != null) {
             postRepository.decreaseFavoriteCount(postId);
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
         }
     }
 
     public void updateHotScore(Long postId) {
         if (postId != null) {
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
         }
     }
 
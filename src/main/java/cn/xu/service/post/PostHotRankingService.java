@@ -0,0 +1,488 @@
+package cn.xu.service.post;
+
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.cache.core.RedisOperations;
+import cn.xu.cache.repository.PostCacheRepository;
+import cn.xu.model.entity.Post;
+import cn.xu.model.entity.PostTag;
+import cn.xu.repository.mapper.PostMapper;
+import cn.xu.repository.mapper.PostTagMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 帖子热门排行服务
+ * <p>按 PostHotScorePolicy 计算热度，维护Redis中的全局、按标签、按周期（周/月）热门排行ZSET</p>
+ * <p>点赞、评论、收藏、分享只标记帖子待重算，由定时任务按窗口批量增量更新（浏览量随刷盘批量更新）；
+ * 定时任务整体重建，同时把分数写回 post.hot_score 供数据库兜底查询</p>
+ * <p>时间衰减使排行分数随时间变化，所有分数按同一基准时间计算才可比较，基准时间在每次重建时前移</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostHotRankingService {
+
+    public static final String PERIOD_WEEK = "week";
+    public static final String PERIOD_MONTH = "month";
+
+    /**
+     * 全局排行容量，超出容量的分页回退到数据库
+     */
+    private static final int GLOBAL_CAPACITY = 5000;
+
+    /**
+     * 标签排行容量
+     */
+    private static final int TAG_CAPACITY = 1000;
+
+    /**
+     * 周期排行容量
+     */
+    private static final int PERIOD_CAPACITY = 1000;
+
+    /**
+     * 重建时每批扫描的帖子数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 批量重算时每批的帖子数
+     */
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    /**
+     * 分数相对变化小于该比例时不写回数据库（衰减使分数每次重建都会变化）
+     */
+    private static final double SCORE_WRITE_TOLERANCE = 0.01;
+
+    private final PostHotScorePolicy hotScorePolicy;
+    private final PostMapper postMapper;
+    private final PostTagMapper postTagMapper;
+    private final PostCacheRepository postCacheRepository;
+    private final RedisOperations redisOperations;
+
+    /**
+     * 计数已变化、等待重算热度的帖子
+     */
+    private final Set<Long> dirtyPostIds = ConcurrentHashMap.newKeySet();
+
+    // ==================== 增量更新 ====================
+
+    /**
+     * 标记帖子计数已变化，由定时任务批量重算（窗口内同一帖子的多次互动只重算一次）
+     */
+    public void markDirty(Long postId) {
+        if (postId != null) {
+            dirtyPostIds.add(postId);
+        }
+    }
+
+    /**
+     * 重算已标记的帖子
+     *
+     * @return 重算的帖子数
+     */
+    public synchronized int flushDirty() {
+        if (dirtyPostIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> postIds = new ArrayList<>(dirtyPostIds.size());
+        Iterator<Long> iterator = dirtyPostIds.iterator();
+        while (iterator.hasNext()) {
+            postIds.add(iterator.next());
+            iterator.remove();
+        }
+        for (int i = 0; i < postIds.size(); i += REFRESH_BATCH_SIZE) {
+            refresh(postIds.subList(i, Math.min(i + REFRESH_BATCH_SIZE, postIds.size())));
+        }
+        return postIds.size();
+    }
+
+    /**
+     * 帖子计数变化后重新计算热度
+     */
+    public void refresh(Long postId) {
+        if (postId != null) {
+            refresh(Collections.singletonList(postId));
+        }
+    }
+
+    /**
+     * 批量重新计算热度并更新所在的全部排行
+     */
+    public void refresh(List<Long> postIds) {
+        if (postIds == null || postIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Post> posts = postMapper.findCountersByIds(postIds);
+            Map<Long, List<Long>> tagIdsByPost = findTagIds(postIds);
+            LocalDateTime reference = getReferenceTime();
+
+            Map<String, Map<Long, Double>> scoresByKey = new HashMap<>();
+            Map<Long, Double> changedScores = new LinkedHashMap<>();
+            Set<Long> found = new HashSet<>();
+            for (Post post : posts) {
+                found.add(post.getId());
+                List<Long> tagIds = tagIdsByPost.getOrDefault(post.getId(), Collections.emptyList());
+                if (!post.isPublished()) {
+                    postCacheRepository.removeFromHotRanks(rankKeys(tagIds), post.getId());
+                    continue;
+                }
+
+                double score = score(post, reference);
+                for (String key : rankKeys(post, tagIds, reference)) {
+                    scoresByKey.computeIfAbsent(key, k -> new HashMap<>()).put(post.getId(), score);
+                }
+                if (isChanged(post.getHotScore(), score)) {
+                    changedScores.put(post.getId(), score);
+                }
+            }
+
+            // 已物理删除的帖子
+            for (Long postId : postIds) {
+                if (!found.contains(postId)) {
+                    postCacheRepository.removeFromHotRanks(rankKeys(Collections.emptyList()), postId);
+                }
+            }
+
+            scoresByKey.forEach((key, scores) -> postCacheRepository.addHotScores(key, scores, capacityOf(key)));
+            if (!changedScores.isEmpty()) {
+                postMapper.batchUpdateHotScore(changedScores);
+            }
+        } catch (Exception e) {
+            log.warn("[热门排行] 增量更新失败 - postIds: {}", postIds, e);
+        }
+    }
+
+    /**
+     * 帖子撤回或删除后移出所有排行
+     */
+    public void remove(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        try {
+            List<Long> tagIds = postTagMapper.selectTagIdsByPostId(postId);
+            postCacheRepository.removeFromHotRanks(rankKeys(tagIds != null ? tagIds : Collections.emptyList()), postId);
+        } catch (Exception e) {
+            log.warn("[热门排行] 移除帖子失败 - postId: {}", postId, e);
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 按排名分页读取热门帖子
+     *
+     * @param tagId  标签ID（可选）
+     * @param period 周期：week / month，为空表示全部
+     * @return 帖子列表；排行未就绪或分页超出排行容量时返回null，由调用方回退到数据库
+     */
+    public List<Post> getHotPosts(Long tagId, String period, int offset, int limit) {
+        String key = rankKey(tagId, period);
+        long size = postCacheRepository.getHotRankSize(key);
+        if (size == 0 || (offset + limit > size && size >= capacityOf(key))) {
+            return null;
+        }
+        return hydrate(postCacheRepository.getHotRankPage(key, offset, limit));
+    }
+
+    /**
+     * 按游标读取热门帖子（游标为上一页最后一条的分数和ID）
+     *
+     * @return 帖子列表（hotScore已填充，用于生成下一页游标）；排行无法继续提供时返回null
+     */
+    public List<Post> getHotPostsAfter(Long tagId, Double cursorScore, Long cursorId, int limit) {
+        String key = rankKey(tagId, null);
+        long size = postCacheRepository.getHotRankSize(key);
+        if (size == 0) {
+            return null;
+        }
+
+        List<ZSetOperations.TypedTuple<Object>> tuples = cursorScore != null && cursorId != null
+                ? postCacheRepository.getHotRankAfter(key, cursorScore, cursorId, limit)
+                : postCacheRepository.getHotRankPage(key, 0, limit);
+        if (tuples.size() < limit && size >= capacityOf(key)) {
+            // 排行已被截断，剩余部分交给数据库
+            return null;
+        }
+        return hydrate(tuples);
+    }
+
+    /**
+     * 全局排行是否已构建
+     */
+    public boolean isReady() {
+        return postCacheRepository.getHotRankSize(RedisKeyManager.postHotRankKey()) > 0;
+    }
+
+    // ==================== 重建 ====================
+
+    /**
+     * 全量重建所有热门排行
+     * <p>按主键分批扫描已发布帖子，在内存中为每个排行保留TopN，最后通过临时Key + RENAME整体替换</p>
+     *
+     * @return 扫描的帖子数
+     */
+    public int rebuild() {
+        LocalDateTime reference = LocalDateTime.now();
+        LocalDateTime weekStart = periodStart(PERIOD_WEEK, reference);
+        LocalDateTime monthStart = periodStart(PERIOD_MONTH, reference);
+
+        TopScores global = new TopScores(GLOBAL_CAPACITY);
+        TopScores week = new TopScores(PERIOD_CAPACITY);
+        TopScores month = new TopScores(PERIOD_CAPACITY);
+        Map<Long, TopScores> tags = new HashMap<>();
+
+        int scanned = 0;
+        int written = 0;
+        long lastId = 0L;
+        while (true) {
+            List<Post> batch = postMapper.findPublishedCountersAfterId(lastId, REBUILD_BATCH_SIZE);
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = batch.stream().map(Post::getId).collect(Collectors.toList());
+            Map<Long, List<Long>> tagIdsByPost = findTagIds(ids);
+            Map<Long, Double> changedScores = new LinkedHashMap<>();
+            for (Post post : batch) {
+                double score = score(post, reference);
+                global.offer(post.getId(), score);
+                if (post.getCreateTime() != null && !post.getCreateTime().isBefore(weekStart)) {
+                    week.offer(post.getId(), score);
+                }
+                if (post.getCreateTime() != null && !post.getCreateTime().isBefore(monthStart)) {
+                    month.offer(post.getId(), score);
+                }
+                for (Long tagId : tagIdsByPost.getOrDefault(post.getId(), Collections.emptyList())) {
+                    tags.computeIfAbsent(tagId, k -> new TopScores(TAG_CAPACITY)).offer(post.getId(), score);
+                }
+                if (isChanged(post.getHotScore(), score)) {
+                    changedScores.put(post.getId(), score);
+                }
+            }
+            if (!changedScores.isEmpty()) {
+                postMapper.batchUpdateHotScore(changedScores);
+                written += changedScores.size();
+            }
+
+            scanned += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        postCacheRepository.replaceHotRank(RedisKeyManager.postHotRankKey(), global.toMap());
+        postCacheRepository.replaceHotRank(RedisKeyManager.postHotRankPeriodKey(PERIOD_WEEK), week.toMap());
+        postCacheRepository.replaceHotRank(RedisKeyManager.postHotRankPeriodKey(PERIOD_MONTH), month.toMap());
+        tags.forEach((tagId, top) -> postCacheRepository.replaceHotRank(RedisKeyManager.postHotRankTagKey(tagId), top.toMap()));
+        removeStaleTagRanks(tags.keySet());
+        setReferenceTime(reference);
+
+        log.info("[热门排行] 重建完成 - posts: {}, tags: {}, hotScoreUpdated: {}", scanned, tags.size(), written);
+        return scanned;
+    }
+
+    // ==================== 私有方法 ====================
+
+    private double score(Post post, LocalDateTime reference) {
+        return hotScorePolicy.calculateInstance(
+                post.getLikeCount() != null ? post.getLikeCount() : 0L,
+                post.getCommentCount() != null ? post.getCommentCount() : 0L,
+                post.getViewCount() != null ? post.getViewCount() : 0L,
+                post.getFavoriteCount() != null ? post.getFavoriteCount() : 0L,
+                post.getCreateTime(),
+                reference);
+    }
+
+    /**
+     * 按相对变化判断是否需要写回，旧帖子的分数随衰减只有微小变化，不必每次重建都写
+     */
+    private boolean isChanged(Double stored, double score) {
+        if (stored == null) {
+            return true;
+        }
+        double diff = Math.abs(stored - score);
+        return diff > SCORE_WRITE_TOLERANCE * Math.max(Math.abs(stored), Math.abs(score));
+    }
+
+    private List<Post> hydrate(List<ZSetOperations.TypedTuple<Object>> tuples) {
+        if (tuples.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            if (tuple.getValue() == null) {
+                continue;
+            }
+            try {
+                scores.put(Long.parseLong(tuple.getValue().toString()), tuple.getScore());
+            } catch (NumberFormatException e) {
+                log.warn("[热门排行] 非法成员: {}", tuple.getValue());
+            }
+        }
+        if (scores.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Post> postMap = postMapper.findByIds(new ArrayList<>(scores.keySet())).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post, (a, b) -> a));
+        List<Post> result = new ArrayList<>(scores.size());
+        scores.forEach((postId, score) -> {
+            Post post = postMap.get(postId);
+            if (post != null && post.isPublished()) {
+                post.setHotScore(score);
+                result.add(post);
+            }
+        });
+        return result;
+    }
+
+    private Map<Long, List<Long>> findTagIds(List<Long> postIds) {
+        List<PostTag> postTags = postTagMapper.selectByPostIds(postIds);
+        if (postTags == null || postTags.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return postTags.stream()
+                .filter(pt -> pt.getPostId() != null && pt.getTagId() != null)
+                .collect(Collectors.groupingBy(PostTag::getPostId,
+                        Collectors.mapping(PostTag::getTagId, Collectors.toList())));
+    }
+
+    /**
+     * 帖子应进入的排行
+     */
+    private List<String> rankKeys(Post post, List<Long> tagIds, LocalDateTime reference) {
+        List<String> keys = new ArrayList<>();
+        keys.add(RedisKeyManager.postHotRankKey());
+        LocalDateTime createTime = post.getCreateTime();
+        if (createTime != null && !createTime.isBefore(periodStart(PERIOD_WEEK, reference))) {
+            keys.add(RedisKeyManager.postHotRankPeriodKey(PERIOD_WEEK));
+        }
+        if (createTime != null && !createTime.isBefore(periodStart(PERIOD_MONTH, reference))) {
+            keys.add(RedisKeyManager.postHotRankPeriodKey(PERIOD_MONTH));
+        }
+        for (Long tagId : tagIds) {
+            keys.add(RedisKeyManager.postHotRankTagKey(tagId));
+        }
+        return keys;
+    }
+
+    /**
+     * 帖子可能所在的全部排行
+     */
+    private List<String> rankKeys(List<Long> tagIds) {
+        List<String> keys = new ArrayList<>();
+        keys.add(RedisKeyManager.postHotRankKey());
+        keys.add(RedisKeyManager.postHotRankPeriodKey(PERIOD_WEEK));
+        keys.add(RedisKeyManager.postHotRankPeriodKey(PERIOD_MONTH));
+        for (Long tagId : tagIds) {
+            keys.add(RedisKeyManager.postHotRankTagKey(tagId));
+        }
+        return keys;
+    }
+
+    private String rankKey(Long tagId, String period) {
+        if (tagId != null) {
+            return RedisKeyManager.postHotRankTagKey(tagId);
+        }
+        if (PERIOD_WEEK.equals(period) || PERIOD_MONTH.equals(period)) {
+            return RedisKeyManager.postHotRankPeriodKey(period);
+        }
+        return RedisKeyManager.postHotRankKey();
+    }
+
+    private int capacityOf(String key) {
+        if (RedisKeyManager.postHotRankKey().equals(key)) {
+            return GLOBAL_CAPACITY;
+        }
+        if (RedisKeyManager.postHotRankPeriodKey(PERIOD_WEEK).equals(key)
+                || RedisKeyManager.postHotRankPeriodKey(PERIOD_MONTH).equals(key)) {
+            return PERIOD_CAPACITY;
+        }
+        return TAG_CAPACITY;
+    }
+
+    private static LocalDateTime periodStart(String period, LocalDateTime reference) {
+        return PERIOD_WEEK.equals(period) ? reference.minusWeeks(1) : reference.minusMonths(1);
+    }
+
+    /**
+     * 删除已没有已发布帖子的标签排行
+     */
+    private void removeStaleTagRanks(Set<Long> activeTagIds) {
+        String prefix = RedisKeyManager.postHotRankTagKeyPrefix();
+        List<String> staleKeys = new ArrayList<>();
+        for (String key : redisOperations.scan(prefix + "*", 100)) {
+            String idPart = key.substring(prefix.length());
+            if (idPart.matches("\\d+") && !activeTagIds.contains(Long.parseLong(idPart))) {
+                staleKeys.add(key);
+            }
+        }
+        if (!staleKeys.isEmpty()) {
+            redisOperations.delete(staleKeys);
+        }
+    }
+
+    private LocalDateTime getReferenceTime() {
+        Object value = redisOperations.get(RedisKeyManager.postHotRankReferenceKey());
+        if (value != null) {
+            try {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(value.toString())), ZoneId.systemDefault());
+            } catch (NumberFormatException e) {
+                log.warn("[热门排行] 基准时间格式错误: {}", value);
+            }
+        }
+        return LocalDateTime.now();
+    }
+
+    private void setReferenceTime(LocalDateTime reference) {
+        redisOperations.set(RedisKeyManager.postHotRankReferenceKey(),
+                String.valueOf(reference.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+    }
+
+    /**
+     * 固定容量的TopN（小顶堆）
+     */
+    private static class TopScores {
+
+        private final int capacity;
+        private final PriorityQueue<Map.Entry<Long, Double>> heap;
+
+        TopScores(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(Map.Entry.<Long, Double>comparingByValue());
+        }
+
+        void offer(Long postId, double score) {
+            if (heap.size() < capacity) {
+                heap.offer(new AbstractMap.SimpleEntry<>(postId, score));
+            } else if (score > heap.peek().getValue()) {
+                heap.poll();
+                heap.offer(new AbstractMap.SimpleEntry<>(postId, score));
+            }
+        }
+
+        Map<Long, Double> toMap() {
+            Map<Long, Double> map = new HashMap<>(heap.size() * 2);
+            for (Map.Entry<Long, Double> entry : heap) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+            return map;
+        }
+    }
+}
@@ -57,8 +57,25 @@ public class PostHotScorePolicy {
      * @return               热度分数（带时间衰减）
      */
     public double calculateInstance(long likeCount, long commentCount, long viewCount, long favoriteCount, LocalDateTime publishTime) {
+        return calculateInstance(likeCount, commentCount, viewCount, favoriteCount, publishTime, LocalDateTime.now());
+    }
+
+    /**
+     * 计算帖子在指定基准时间的热度值（排行榜内所有帖子按同一基准时间计算，分数才可比较）
+     * @param likeCount      点赞数
+     * @param commentCount   评论数
+     * @param viewCount      浏览数
+     * @param favoriteCount  收藏数
+     * @param publishTime    发布时间
+     * @param referenceTime  衰减基准时间，早于发布时间时按0小时计算
+     * @return               热度分数（带时间衰减）
+     */
+    public double calculateInstance(long likeCount, long commentCount, long viewCount, long favoriteCount,
+                                    LocalDateTime publishTime, LocalDateTime referenceTime) {
         // 时间差（小时）
-        long hoursSincePublished = Duration.between(publishTime, LocalDateTime.now()).toHours();
+        long hoursSincePublished = publishTime != null
+                ? Math.max(0, Duration.between(publishTime, referenceTime).toHours())
+                : 0;
 
         // 基础热度值（权重可配置）
         double baseScore = likeCount * likeWeight + commentCount * commentWeight + 
@@ -23,6 +23,7 @@ public class PostQueryService {
 
     private final PostRepository postRepository;
     private final PostMapper postMapper;
+    private final PostHotRankingService postHotRankingService;
 
     // ==================== 单条查询 ====================
 
@@ -78,14 +79,30 @@ public class PostQueryService {
 
     // ==================== 热门/精选查询 ====================
 
+    /**
+     * 热门帖子：优先读取Redis热门排行，排行未就绪或超出容量时按 hot_score 索引查库
+     */
     public List<Post> getHotPosts(int pageNo, int pageSize) {
         int offset = calcOffset(pageNo, pageSize);
-        return postRepository.findHotPosts(offset, pageSize);
+        List<Post> ranked = postHotRankingService.getHotPosts(null, null, offset, pageSize);
+        return ranked != null ? ranked : postRepository.findHotPosts(offset, pageSize);
     }
 
     public List<Post> getHotPostsByTag(Long tagId, int pageNo, int pageSize) {
         int offset = calcOffset(pageNo, pageSize);
-        return postMapper.findHotPostsByTagId(tagId, offset, pageSize);
+        List<Post> ranked = postHotRankingService.getHotPosts(tagId, null, offset, pageSize);
+        return ranked != null ? ranked : postMapper.findHotPostsByTagId(tagId, offset, pageSize);
+    }
+
+    /**
+     * 周期热门帖子（周榜/月榜）
+     *
+     * @param period    week / month
+     * @param startTime 周期起始时间（数据库兜底查询使用）
+     */
+    public List<Post> getHotPostsByPeriod(String period, java.time.LocalDateTime startTime, int limit) {
+        List<Post> ranked = postHotRankingService.getHotPosts(null, period, 0, limit);
+        return ranked != null ? ranked : postMapper.findHotPostsByTimeRange(startTime, 0, limit);
     }
 
     public List<Post> getFeaturedPosts(int pageNo, int pageSize) {
@@ -142,10 +159,14 @@ public class PostQueryService {
      * @param cursorId    游标ID
      * @param tagId       标签ID（可选）
      * @param limit       每页数量
-     * @return 帖子列表
+     * @return 帖子列表（hotScore已填充，用于生成下一页游标）
      */
     public List<Post> getByCursorHot(Double cursorScore, Long cursorId, Long tagId, int limit) {
         try {
+            List<Post> ranked = postHotRankingService.getHotPostsAfter(tagId, cursorScore, cursorId, limit);
+            if (ranked != null) {
+                return ranked;
+            }
             return postMapper.findByCursorHot(cursorScore, cursorId, tagId, limit);
         } catch (Exception e) {
             log.error("游标分页查询热门失败: cursorScore={}, cursorId={}, tagId={}", 
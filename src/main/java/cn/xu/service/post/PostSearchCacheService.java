@@ -1,29 +1,33 @@
 package cn.xu.service.post;
 
 import cn.xu.cache.core.RedisKeyManager;
-import cn.xu.cache.core.DistributedLock;
 import cn.xu.cache.core.RedisOperations;
+import cn.xu.cache.core.RedisPipeline;
 import cn.xu.common.ResponseCode;
 import cn.xu.event.core.BaseEvent.EventAction;
 import cn.xu.event.events.PostEvent;
 import cn.xu.integration.search.strategy.ElasticsearchSearchStrategy;
+import cn.xu.integration.search.util.SearchKeywordNormalizer;
+import cn.xu.model.dto.search.SearchFilter;
 import cn.xu.model.entity.Post;
+import cn.xu.model.entity.Tag;
 import cn.xu.support.exception.BusinessException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.redis.core.Cursor;
-import org.springframework.data.redis.core.RedisCallback;
-import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import java.util.TreeSet;
 
 /**
  * 帖子搜索缓存服务
@@ -32,7 +36,17 @@ import java.util.concurrent.TimeUnit;
  * 主要功能:
  * - 监听帖子创建、更新、删除等事件
  * - 同步Elasticsearch索引
- * - 清理相关的缓存
+ * - 维护搜索缓存代数
+ *
+ * 缓存失效:
+ * - 搜索结果缓存Key包含全局代数和搜索词各自的代数，见 {@link #buildResultKey}
+ * - 帖子创建/更新时，标题、摘要、标签名和正文中的词代数+1（与搜索匹配的字段一致，英文按词前缀），
+ *   同时无词搜索代数+1；删除时全局代数+1
+ * - 提取不出搜索词的搜索（如单个字母）按无词搜索代数缓存，任一帖子变更即失效
+ * - 代数变化后旧缓存不再命中，按TTL自然过期，不需要扫描和删除Key
+ * - 例外：更新时从帖子中删掉的词、正文超出 {@value #MAX_CONTENT_TERMS} 个词的部分、
+ *   以及数据库 LIKE 匹配到英文词中间片段的帖子不会使缓存失效，
+ *   这类搜索最多在结果缓存TTL（app.post.query.cache.ttl）内仍返回旧结果
  */
 @Slf4j
 @Service
@@ -40,11 +54,26 @@ import java.util.concurrent.TimeUnit;
 public class PostSearchCacheService {
 
     private final PostQueryService postQueryService;
+    private final PostTagService postTagService;
     private final RedisOperations redisOps;
 
+    /**
+     * 单个帖子变更最多更新的词代数
+     */
+    private static final int MAX_POST_TERMS = 128;
+
+    /**
+     * 正文最多更新的词代数（正文可能很长，超出部分依赖缓存TTL）
+     */
+    private static final int MAX_CONTENT_TERMS = 1024;
+
+    /**
+     * 单次搜索最多参与缓存Key的词数，超出的词不再区分（仍受全局代数和TTL约束）
+     */
+    private static final int MAX_QUERY_TERMS = 32;
+
     // 可选依赖 - setter注入
     private ElasticsearchSearchStrategy esStrategy;
-    private DistributedLock distributedLock;
 
     // ==================== Setter注入 ====================
 
@@ -53,11 +82,6 @@ public class PostSearchCacheService {
         this.esStrategy = esStrategy;
     }
 
-    @Autowired(required = false)
-    public void setDistributedLock(DistributedLock distributedLock) {
-        this.distributedLock = distributedLock;
-    }
-
     // 异步处理帖子事件
     @Async
     @EventListener
@@ -66,24 +90,16 @@ public class PostSearchCacheService {
             if (event.getAction() == EventAction.CREATE ||
                     event.getAction() == EventAction.UPDATE) {
                 syncElasticsearchIndexAsync(event.getPostId());
-                String title = event.getTitle();
-                if (title != null) {
-                    clearRelatedSearchCacheWithLock(title, null);
-                }
+                invalidatePostTerms(event.getPostId(), event.getTitle());
             } else if (event.getAction() == EventAction.DELETE) {
                 try {
                     if (esStrategy != null) {
                         esStrategy.removeIndexedPost(event.getPostId());
                     }
-                    if (distributedLock != null) {
-                        distributedLock.executeWithLock("cache:clear:all:lock", 10, TimeUnit.SECONDS,
-                                () -> clearAllSearchCache());
-                    } else {
-                        clearAllSearchCache();
-                    }
                 } catch (Exception ex) {
                     log.error("删除ES索引失败: postId={}", event.getPostId(), ex);
                 }
+                invalidateAll();
             }
         } catch (Exception e) {
             log.error("处理帖子事件失败: postId={}, eventType={}", event.getPostId(), event.getEventType(), e);
@@ -144,113 +160,116 @@ public class PostSearchCacheService {
         }
     }
 
-    private void clearRelatedSearchCache(String title) {
-        clearRelatedSearchCache(title, null);
-    }
+    // ==================== 缓存代数 ====================
+
+    /**
+     * 构建搜索结果缓存Key：摘要包含规范化查询、筛选条件、分页、全局代数和搜索词代数；
+     * 提取不出搜索词时改用无词搜索代数
+     *
+     * @return 缓存Key；读取代数失败时返回null（本次不走缓存）
+     */
+    public String buildResultKey(String keyword, SearchFilter filter, Pageable pageable) {
+        String normalized = SearchKeywordNormalizer.normalize(keyword).toLowerCase();
+        Set<String> terms = new TreeSet<>(SearchKeywordNormalizer.extractCacheTerms(normalized, MAX_QUERY_TERMS, false));
 
-    private void clearRelatedSearchCacheWithLock(String title, String description) {
-        if (distributedLock != null) {
-            String lockKey = "cache:clear:lock:" + (title != null ? title.hashCode() : 0) +
-                    (description != null ? description.hashCode() : 0);
-            distributedLock.executeWithLock(lockKey, 5, TimeUnit.SECONDS,
-                    () -> clearRelatedSearchCache(title, description));
-        } else {
-            clearRelatedSearchCache(title, description);
+        List<String> generationKeys = new ArrayList<>(terms.size() + 1);
+        generationKeys.add(RedisKeyManager.postSearchGenerationKey());
+        if (terms.isEmpty()) {
+            generationKeys.add(RedisKeyManager.postSearchUntermedGenerationKey());
+        }
+        for (String term : terms) {
+            generationKeys.add(RedisKeyManager.postSearchTermGenerationKey(term));
+        }
+        List<Object> generations = redisOps.multiGet(generationKeys);
+        if (generations == null || generations.size() != generationKeys.size()) {
+            return null;
         }
-    }
 
-    private void clearRelatedSearchCache(String title, String description) {
-        if ((title == null || title.trim().isEmpty()) &&
-                (description == null || description.trim().isEmpty())) {
-            return;
+        StringBuilder sb = new StringBuilder(normalized);
+        if (filter != null) {
+            sb.append('|').append(filter.getStartTime())
+                    .append('|').append(filter.getEndTime())
+                    .append('|').append(filter.getSortOption());
         }
+        sb.append('|').append(pageable.getPageNumber()).append('|').append(pageable.getPageSize());
+        sb.append("|g").append(generationValue(generations.get(0)));
+        int i = 1;
+        if (terms.isEmpty()) {
+            sb.append("|_=").append(generationValue(generations.get(i++)));
+        }
+        for (String term : terms) {
+            sb.append('|').append(term).append('=').append(generationValue(generations.get(i++)));
+        }
+        return RedisKeyManager.postSearchPageKey(DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
 
+    /**
+     * 帖子所有可被搜索字段中的词代数+1；读取帖子失败时至少按事件中的标题失效
+     */
+    private void invalidatePostTerms(Long postId, String title) {
+        Set<String> terms = new LinkedHashSet<>(SearchKeywordNormalizer.extractCacheTerms(title, MAX_POST_TERMS, true));
         try {
-            java.util.List<String> keywords = new java.util.ArrayList<>();
-
-            if (title != null && !title.trim().isEmpty()) {
-                String normalizedTitle = cn.xu.integration.search.util.SearchKeywordNormalizer.normalize(title);
-                if (!normalizedTitle.isEmpty()) {
-                    keywords.add(normalizedTitle);
-                    java.util.List<String> extractedKeywords =
-                            cn.xu.integration.search.util.SearchKeywordNormalizer.extractKeywords(normalizedTitle);
-                    for (String keyword : extractedKeywords) {
-                        if (keyword.length() >= 2 && keyword.length() <= 20) {
-                            keywords.add(keyword);
-                        }
-                    }
-                }
+            Optional<Post> postOpt = postQueryService.getById(postId);
+            if (postOpt.isPresent()) {
+                Post post = postOpt.get();
+                terms.addAll(SearchKeywordNormalizer.extractCacheTerms(post.getTitle(), MAX_POST_TERMS, true));
+                terms.addAll(SearchKeywordNormalizer.extractCacheTerms(post.getDescription(), MAX_POST_TERMS, true));
+                terms.addAll(SearchKeywordNormalizer.extractCacheTerms(post.getContent(), MAX_CONTENT_TERMS, true));
             }
-
-            if (description != null && !description.trim().isEmpty()) {
-                String normalizedDesc = cn.xu.integration.search.util.SearchKeywordNormalizer.normalize(description);
-                if (!normalizedDesc.isEmpty()) {
-                    java.util.List<String> extractedKeywords =
-                            cn.xu.integration.search.util.SearchKeywordNormalizer.extractKeywords(normalizedDesc);
-                    for (String keyword : extractedKeywords) {
-                        if (keyword.length() >= 2 && keyword.length() <= 20) {
-                            keywords.add(keyword);
-                        }
-                    }
-                }
-            }
-
-            Set<String> uniqueKeywords = new HashSet<>(keywords);
-            for (String keyword : uniqueKeywords) {
-                invalidateSearchCache(keyword);
+            for (Tag tag : postTagService.getTagsByPostId(postId)) {
+                terms.addAll(SearchKeywordNormalizer.extractCacheTerms(tag.getName(), MAX_POST_TERMS, true));
             }
         } catch (Exception e) {
-            log.warn("清理缓存失败: title={}", title, e);
+            log.warn("读取帖子可搜索字段失败，只按标题失效搜索缓存: postId={}", postId, e);
         }
+        invalidateTerms(terms);
     }
 
-    private void invalidateSearchCache(String keyword) {
-        if (keyword == null || keyword.trim().isEmpty()) {
-            return;
-        }
+    /**
+     * 文本中各词的代数+1，包含这些词的搜索缓存失效（一次管道往返）
+     * <p>无词搜索代数同时+1，提取不出搜索词的搜索也随之失效</p>
+     */
+    private void invalidateTerms(String text) {
+        invalidateTerms(SearchKeywordNormalizer.extractCacheTerms(text, MAX_POST_TERMS, true));
+    }
 
+    private void invalidateTerms(Set<String> terms) {
         try {
-            String keyPrefix = RedisKeyManager.postSearchKeyPrefix(keyword.trim());
-            String pattern = keyPrefix + "*";
-            Set<String> keys = scanKeys(pattern);
-            if (keys != null && !keys.isEmpty()) {
-                redisOps.delete(keys);
+            String untermedKey = RedisKeyManager.postSearchUntermedGenerationKey();
+            RedisPipeline pipeline = redisOps.pipeline()
+                    .increment(untermedKey, 1)
+                    .expire(untermedKey, RedisKeyManager.SEARCH_TERM_GENERATION_TTL);
+            for (String term : terms) {
+                String generationKey = RedisKeyManager.postSearchTermGenerationKey(term);
+                pipeline.increment(generationKey, 1)
+                        .expire(generationKey, RedisKeyManager.SEARCH_TERM_GENERATION_TTL);
             }
+            pipeline.execute();
         } catch (Exception e) {
-            log.warn("清理缓存失败: keyword={}", keyword, e);
+            log.warn("更新搜索词代数失败: terms={}", terms.size(), e);
         }
     }
 
-    private void clearAllSearchCache() {
+    /**
+     * 全局代数+1，全部搜索缓存失效
+     */
+    private void invalidateAll() {
         try {
-            Set<String> keys = scanKeys("post:search:*");
-            if (keys != null && !keys.isEmpty()) {
-                redisOps.delete(keys);
-            }
+            redisOps.increment(RedisKeyManager.postSearchGenerationKey(), 1);
         } catch (Exception e) {
-            log.error("清理所有搜索缓存失败", e);
+            log.error("更新搜索全局代数失败", e);
         }
     }
 
-    private Set<String> scanKeys(String pattern) {
-        try {
-            return redisOps.scan(pattern, 100);
-        } catch (Exception e) {
-            log.warn("SCAN操作失败，尝试使用KEYS操作: pattern={}", pattern, e);
-            try {
-                return redisOps.keys(pattern);
-            } catch (Exception fallbackException) {
-                log.error("KEYS操作失败: pattern={}", pattern, fallbackException);
-                return new HashSet<>();
-            }
-        }
+    private String generationValue(Object value) {
+        return value != null ? value.toString() : "0";
     }
 
     public void invalidateSearchCacheManually(String keyword) {
-        invalidateSearchCache(keyword);
+        invalidateTerms(keyword);
     }
 
     public void clearAllSearchCacheManually() {
-        clearAllSearchCache();
+        invalidateAll();
     }
 }
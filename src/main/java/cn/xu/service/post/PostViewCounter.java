@@ -0,0 +1,157 @@
+package cn.xu.service.post;
+
+import cn.xu.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帖子浏览量写回缓冲
+ * <p>浏览请求只在内存中累加增量，由定时任务批量刷入数据库</p>
+ * <p>累加与取出都是对同一个Key的原子操作（merge / remove），刷盘时取走的增量不会与并发浏览交错丢失</p>
+ * <p>刷盘时使用一条 UPDATE ... CASE 语句更新整批帖子，热度分数在每次刷盘后统一重算一次</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostViewCounter {
+
+    /**
+     * 单条批量UPDATE语句包含的最大帖子数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final PostRepository postRepository;
+    private final PostHotRankingService postHotRankingService;
+
+    /**
+     * 待刷盘的浏览量增量：postId -> 增量
+     */
+    private final ConcurrentHashMap<Long, Long> pendingDeltas = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushedViews = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+
+    /**
+     * 记录一次有效浏览
+     */
+    public void increment(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        pendingDeltas.merge(postId, 1L, Long::sum);
+    }
+
+    /**
+     * 获取尚未刷盘的浏览量增量
+     */
+    public long getPendingDelta(Long postId) {
+        if (postId == null) {
+            return 0L;
+        }
+        return pendingDeltas.getOrDefault(postId, 0L);
+    }
+
+    /**
+     * 将缓冲中的增量刷入数据库
+     *
+     * @return 本次刷盘的帖子数
+     */
+    public synchronized int flush() {
+        if (pendingDeltas.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Long> snapshot = drain();
+        if (snapshot.isEmpty()) {
+            return 0;
+        }
+
+        int flushedPosts = 0;
+        List<Long> batchIds = new ArrayList<>(FLUSH_BATCH_SIZE);
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> entry : snapshot.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= FLUSH_BATCH_SIZE) {
+                flushedPosts += flushBatch(batch, batchIds);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushedPosts += flushBatch(batch, batchIds);
+        }
+
+        // 每次刷盘只重算一次热度
+        if (!batchIds.isEmpty()) {
+            postHotRankingService.refresh(batchIds);
+        }
+
+        flushCount.incrementAndGet();
+        log.debug("[浏览量] 刷盘完成 - posts: {}, pending: {}", flushedPosts, pendingDeltas.size());
+        return flushedPosts;
+    }
+
+    /**
+     * 已刷盘的浏览量总数
+     */
+    public long getFlushedViews() {
+        return flushedViews.get();
+    }
+
+    /**
+     * 已执行的刷盘次数
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * 应用关闭前刷出剩余增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("[浏览量] 关闭前刷盘失败 - pending: {}", pendingDeltas.size(), e);
+        }
+    }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 逐个取走增量，取走的同时从缓冲中移除
+     * <p>remove 与 increment 的 merge 对同一Key互斥：取走之前的浏览计入本次刷盘，之后的浏览重新建项</p>
+     */
+    private Map<Long, Long> drain() {
+        Map<Long, Long> snapshot = new LinkedHashMap<>();
+        for (Long postId : pendingDeltas.keySet()) {
+            Long delta = pendingDeltas.remove(postId);
+            if (delta != null && delta > 0) {
+                snapshot.put(postId, delta);
+            }
+        }
+        return snapshot;
+    }
+
+    private int flushBatch(Map<Long, Long> batch, List<Long> flushedIds) {
+        try {
+            postRepository.batchIncrementViewCount(batch);
+            flushedIds.addAll(batch.keySet());
+            flushedViews.addAndGet(batch.values().stream().mapToLong(Long::longValue).sum());
+            return batch.size();
+        } catch (Exception e) {
+            log.error("[浏览量] 批量刷盘失败，增量回退到缓冲 - count: {}", batch.size(), e);
+            batch.forEach((postId, delta) -> pendingDeltas.merge(postId, delta, Long::sum));
+            return 0;
+        }
+    }
+}
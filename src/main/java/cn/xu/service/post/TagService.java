@@ -1,6 +1,7 @@
 package cn.xu.service.post;
 
 import cn.xu.common.constants.BooleanConstants;
+import cn.xu.event.publisher.ContentEventPublisher;
 import cn.xu.model.dto.post.PostTagRelation;
 import cn.xu.model.entity.Tag;
 import cn.xu.repository.PostTagRepository;
@@ -26,6 +27,7 @@ public class TagService {
 
     private final TagRepository tagRepository;
     private final PostTagRepository postTagRepository;
+    private final ContentEventPublisher contentEventPublisher;
 
     // ==================== 标签CRUD ====================
 
@@ -91,6 +93,7 @@ public class TagService {
             Tag newTag = getTagById(newId);
             if (newTag != null) {
                 log.info("创建标签成功, name: {}, id: {}", trimmedName, newTag.getId());
+                contentEventPublisher.publishTagCreated(newTag.getId());
                 return newTag;
             }
 
@@ -141,6 +144,7 @@ public class TagService {
             }
 
             log.info("更新标签成功, id: {}, name: {} -> {}", id, existingTag.getName(), trimmedName);
+            contentEventPublisher.publishTagUpdated(id);
             return updatedTag;
         } catch (BusinessException e) {
             throw e;
@@ -188,6 +192,7 @@ public class TagService {
             // 更新标签
             tagRepository.updateTag(tag);
             log.info("更新标签成功, id: {}", tag.getId());
+            contentEventPublisher.publishTagUpdated(tag.getId());
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -216,6 +221,7 @@ public class TagService {
             tagRepository.deleteTag(id);
 
             log.info("删除标签成功, id: {}, name: {}", id, existingTag.getName());
+            contentEventPublisher.publishTagDeleted(id);
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -246,6 +252,7 @@ public class TagService {
             tagRepository.updateTag(tag);
 
             log.info("切换标签推荐状态成功, id: {}, isRecommended: {}", id, newStatus);
+            contentEventPublisher.publishTagUpdated(id);
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
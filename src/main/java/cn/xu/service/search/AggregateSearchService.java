@@ -1,6 +1,9 @@
 package cn.xu.service.search;
 
+import cn.xu.elasticsearch.service.ElasticsearchAggregateSearchService;
+import cn.xu.integration.search.strategy.MysqlFulltextSearchStrategy;
 import cn.xu.model.dto.post.PostTagRelation;
+import cn.xu.model.dto.search.AggregateSearchHits;
 import cn.xu.model.entity.Post;
 import cn.xu.model.entity.Tag;
 import cn.xu.model.entity.User;
@@ -13,24 +16,38 @@ import cn.xu.service.post.PostQueryService;
 import cn.xu.service.post.PostStatisticsService;
 import cn.xu.service.post.TagService;
 import cn.xu.service.user.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PreDestroy;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
  * 聚合搜索服务
- * <p>并行搜索帖子、用户、标签，返回聚合结果</p>
- 
+ * <p>启用 ES 时三个分组合并为一次 _msearch 请求，命中后各分组并行补全展示数据；
+ * ES 不可用、请求失败或超过 ES 等待时间时并行搜索数据库</p>
+ * <p>各分组有独立的截止时间（ES 与数据库两条路径都从请求开始计时），到期未完成的分组被取消并以空结果返回，
+ * 响应标记为部分结果；各分组耗时记录在 search.aggregate.group 指标（带直方图）中</p>
  */
 @Slf4j
 @Service
@@ -42,6 +59,9 @@ public class AggregateSearchService {
     
     @Resource
     private PostStatisticsService postStatisticsService;
+
+    @Resource
+    private MysqlFulltextSearchStrategy fulltextStrategy;
     
     @Resource(name = "tagService")
     private TagService tagService;
@@ -50,9 +70,34 @@ public class AggregateSearchService {
     private UserService userService;
     
     /**
-     * 自定义线程池，用于异步搜索
+     * 聚合搜索专用线程池（有界队列，见 ThreadPoolConfig）
      */
-    private final ExecutorService searchExecutor = Executors.newFixedThreadPool(3);
+    @Resource(name = "searchThreadPool")
+    private ExecutorService searchExecutor;
+    
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /**
+     * ES 聚合搜索（未启用 ES 时为null）
+     */
+    @Autowired(required = false)
+    private ElasticsearchAggregateSearchService esAggregateSearchService;
+    
+    @Value("${app.search.aggregate.deadline.posts:1500}")
+    private long postsDeadlineMs;
+    
+    @Value("${app.search.aggregate.deadline.users:800}")
+    private long usersDeadlineMs;
+    
+    @Value("${app.search.aggregate.deadline.tags:500}")
+    private long tagsDeadlineMs;
+
+    /**
+     * 等待 ES 命中结果的时间，超过后各分组改为搜索数据库，应小于各分组的截止时间
+     */
+    @Value("${app.search.aggregate.deadline.msearch:300}")
+    private long msearchDeadlineMs;
     
     /**
      * 日期格式化器
@@ -65,36 +110,32 @@ public class AggregateSearchService {
     private static final int DEFAULT_LIMIT = 10;
 
     /**
-     * 搜索超时时间
+     * 分组名称（同时用作指标标签和未完成分组的返回值）
      */
-    private static final int SEARCH_TIMEOUT_SECONDS = 5;
+    private static final String GROUP_POSTS = "posts";
+    private static final String GROUP_USERS = "users";
+    private static final String GROUP_TAGS = "tags";
 
     /**
-     * 关闭线程池（应用关闭时调用）
+     * ES 单次请求的指标标签
      */
-    @PreDestroy
-    public void shutdown() {
-        log.info("正在关闭聚合搜索线程池...");
-        if (searchExecutor != null && !searchExecutor.isShutdown()) {
-            searchExecutor.shutdown();
-            try {
-                if (!searchExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
-                    log.warn("线程池未能在10秒内正常关闭，强制关闭");
-                    searchExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                log.warn("等待线程池关闭时被中断，强制关闭");
-                searchExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
-        log.info("聚合搜索线程池已关闭");
+    private static final String GROUP_MSEARCH = "msearch";
+
+    private static final String METRIC_GROUP = "search.aggregate.group";
+    private static final String METRIC_TOTAL = "search.aggregate";
+
+    /**
+     * 线程池指标（线程数、队列长度、拒绝数等）
+     */
+    @PostConstruct
+    public void bindExecutorMetrics() {
+        new ExecutorServiceMetrics(searchExecutor, "searchThreadPool", Tags.empty()).bindTo(registry());
     }
 
     /**
      * 聚合搜索
      *
-     * <p>使用CompletableFuture并行搜索帖子、用户、标签，提高搜索效率</p>
+     * <p>优先走 ES 单次请求，失败时在专用线程池中并行搜索数据库；超过截止时间的分组返回空结果，响应的 partial 为 true</p>
      *
      * @param keyword 搜索关键词
      * @param postLimit 帖子数量限制
@@ -117,85 +158,198 @@ public class AggregateSearchService {
         log.info("开始聚合搜索: keyword={}, postLimit={}, userLimit={}, tagLimit={}",
                 normalizedKeyword, safePostLimit, safeUserLimit, safeTagLimit);
 
-        try {
-            // 使用CompletableFuture并行搜索三种类型
-            CompletableFuture<SearchResultGroup<PostSearchItem>> postsFuture =
-                    CompletableFuture.supplyAsync(() -> searchPosts(normalizedKeyword, safePostLimit), searchExecutor);
-
-            CompletableFuture<SearchResultGroup<UserSearchItem>> usersFuture =
-                    CompletableFuture.supplyAsync(() -> searchUsers(normalizedKeyword, safeUserLimit), searchExecutor);
-
-            CompletableFuture<SearchResultGroup<TagSearchItem>> tagsFuture =
-                    CompletableFuture.supplyAsync(() -> searchTags(normalizedKeyword, safeTagLimit), searchExecutor);
-
-            // 等待所有搜索完成，设置超时时间
-            CompletableFuture<Void> allFutures = CompletableFuture.allOf(postsFuture, usersFuture, tagsFuture);
-            allFutures.get(SEARCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-
-            // 获取搜索结果
-            SearchResultGroup<PostSearchItem> postsResult = postsFuture.join();
-            SearchResultGroup<UserSearchItem> usersResult = usersFuture.join();
-            SearchResultGroup<TagSearchItem> tagsResult = tagsFuture.join();
-
-            long costTime = System.currentTimeMillis() - startTime;
-
-            log.info("聚合搜索完成: keyword={}, posts={}, users={}, tags={}, costTime={}ms",
-                    normalizedKeyword,
-                    postsResult.getTotal(),
-                    usersResult.getTotal(),
-                    tagsResult.getTotal(),
-                    costTime);
-
-            return AggregateSearchVO.builder()
-                    .keyword(normalizedKeyword)
-                    .posts(postsResult)
-                    .users(usersResult)
-                    .tags(tagsResult)
-                    .costTime(costTime)
-                    .build();
+        long startNanos = System.nanoTime();
+        AggregateSearchVO result = null;
+        if (esAggregateSearchService != null && esAggregateSearchService.isAvailable()) {
+            result = searchWithElasticsearch(normalizedKeyword, safePostLimit, safeUserLimit, safeTagLimit, startNanos);
+        }
+        if (result == null) {
+            // 截止时间仍从请求开始计算，ES 已用掉的时间不会让分组超出各自的截止时间
+            result = searchWithFanOut(normalizedKeyword, safePostLimit, safeUserLimit, safeTagLimit, startNanos);
+        }
 
-        } catch (Exception e) {
-            log.error("聚合搜索失败: keyword={}", normalizedKeyword, e);
-            long costTime = System.currentTimeMillis() - startTime;
-            return buildEmptyResponse(normalizedKeyword, costTime);
+        boolean partial = Boolean.TRUE.equals(result.getPartial());
+        long costNanos = System.nanoTime() - startNanos;
+        Timer.builder(METRIC_TOTAL)
+                .tag("partial", String.valueOf(partial))
+                .publishPercentileHistogram()
+                .register(registry())
+                .record(costNanos, TimeUnit.NANOSECONDS);
+        long costTime = System.currentTimeMillis() - startTime;
+        result.setCostTime(costTime);
+
+        if (partial) {
+            log.warn("聚合搜索返回部分结果: keyword={}, incompleteGroups={}, costTime={}ms",
+                    normalizedKeyword, result.getIncompleteGroups(), costTime);
         }
+        log.info("聚合搜索完成: keyword={}, posts={}, users={}, tags={}, costTime={}ms",
+                normalizedKeyword,
+                result.getPosts().getTotal(),
+                result.getUsers().getTotal(),
+                result.getTags().getTotal(),
+                costTime);
+        return result;
     }
 
     /**
-     * 搜索帖子
+     * 通过 ES 一次 _msearch 搜索三个分组，再按分组并行补全展示数据
+     *
+     * <p>命中结果最多等待 msearch 截止时间，补全各分组时按各自的截止时间等待。
+     * 请求失败、超时或线程池已满时返回null，由调用方降级到数据库并行搜索</p>
      */
-    private SearchResultGroup<PostSearchItem> searchPosts(String keyword, int limit) {
+    private AggregateSearchVO searchWithElasticsearch(String keyword, int postLimit, int userLimit, int tagLimit,
+                                                      long startNanos) {
+        Future<AggregateSearchHits> future = submit(() -> esAggregateSearchService.search(keyword, postLimit, userLimit, tagLimit));
+        if (future == null) {
+            recordGroup(GROUP_MSEARCH, "rejected", startNanos);
+            return null;
+        }
+
+        AggregateSearchHits hits;
         try {
-            // 使用PostQueryService搜索帖子
-            List<Post> posts = postQueryService.search(keyword, 0, limit);
-            long total = postStatisticsService.countSearch(keyword);
+            hits = future.get(msearchDeadlineMs, TimeUnit.MILLISECONDS);
+            recordGroup(GROUP_MSEARCH, "success", startNanos);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            recordGroup(GROUP_MSEARCH, "timeout", startNanos);
+            log.warn("ES聚合搜索超时，降级到数据库搜索: keyword={}, deadline={}ms", keyword, msearchDeadlineMs);
+            return null;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            recordGroup(GROUP_MSEARCH, "interrupted", startNanos);
+            AggregateSearchVO interrupted = buildEmptyResponse(keyword, 0L);
+            interrupted.setPartial(true);
+            interrupted.setIncompleteGroups(new ArrayList<>(List.of(GROUP_POSTS, GROUP_USERS, GROUP_TAGS)));
+            return interrupted;
+        } catch (ExecutionException e) {
+            log.warn("ES聚合搜索失败，降级到数据库搜索: keyword={}, error={}", keyword, e.getCause().getMessage());
+            recordGroup(GROUP_MSEARCH, "error", startNanos);
+            return null;
+        }
 
-            if (posts == null || posts.isEmpty()) {
-                return buildEmptyPostResult();
-            }
+        Future<SearchResultGroup<PostSearchItem>> postsFuture =
+                submit(() -> buildPostGroup(hits.getPosts(), hits.getPostTotal(), postLimit));
+        Future<SearchResultGroup<UserSearchItem>> usersFuture =
+                submit(() -> buildUserGroup(hits.getUserIds(), hits.getUserTotal(), userLimit));
+        Future<SearchResultGroup<TagSearchItem>> tagsFuture =
+                submit(() -> buildTagGroup(hits.getTagIds(), hits.getTagTotal(), tagLimit));
+        return awaitGroups(keyword, postsFuture, usersFuture, tagsFuture, startNanos);
+    }
 
-            // 获取作者信息
-            Set<Long> userIds = posts.stream()
-                    .map(Post::getUserId)
-                    .filter(id -> id != null)
-                    .collect(Collectors.toSet());
+    /**
+     * 数据库并行搜索：三个分组分别提交，按各自的截止时间等待
+     */
+    private AggregateSearchVO searchWithFanOut(String keyword, int postLimit, int userLimit, int tagLimit,
+                                               long startNanos) {
+        Future<SearchResultGroup<PostSearchItem>> postsFuture = submit(() -> searchPosts(keyword, postLimit));
+        Future<SearchResultGroup<UserSearchItem>> usersFuture = submit(() -> searchUsers(keyword, userLimit));
+        Future<SearchResultGroup<TagSearchItem>> tagsFuture = submit(() -> searchTags(keyword, tagLimit));
+        return awaitGroups(keyword, postsFuture, usersFuture, tagsFuture, startNanos);
+    }
 
-            Map<Long, User> userMap = userService.getBatchUserInfo(userIds);
+    /**
+     * 按各分组的截止时间等待结果并组装响应，总等待时间不超过最长的截止时间
+     */
+    private AggregateSearchVO awaitGroups(String keyword,
+                                          Future<SearchResultGroup<PostSearchItem>> postsFuture,
+                                          Future<SearchResultGroup<UserSearchItem>> usersFuture,
+                                          Future<SearchResultGroup<TagSearchItem>> tagsFuture,
+                                          long startNanos) {
+        List<String> incompleteGroups = new ArrayList<>();
+        SearchResultGroup<PostSearchItem> postsResult =
+                await(GROUP_POSTS, postsFuture, startNanos, postsDeadlineMs, incompleteGroups);
+        SearchResultGroup<UserSearchItem> usersResult =
+                await(GROUP_USERS, usersFuture, startNanos, usersDeadlineMs, incompleteGroups);
+        SearchResultGroup<TagSearchItem> tagsResult =
+                await(GROUP_TAGS, tagsFuture, startNanos, tagsDeadlineMs, incompleteGroups);
 
-            // 获取帖子标签
-            List<Long> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
-            Map<Long, List<String>> postTagsMap = getPostTagsMap(postIds);
+        return AggregateSearchVO.builder()
+                .keyword(keyword)
+                .posts(postsResult != null ? postsResult : buildEmptyPostResult())
+                .users(usersResult != null ? usersResult : buildEmptyUserResult())
+                .tags(tagsResult != null ? tagsResult : buildEmptyTagResult())
+                .partial(!incompleteGroups.isEmpty())
+                .incompleteGroups(incompleteGroups)
+                .build();
+    }
 
-            // 转换为帖子搜索项
-            List<PostSearchItem> items = posts.stream()
-                    .map(post -> convertToPostSearchItem(post, userMap, postTagsMap))
-                    .collect(Collectors.toList());
+    /**
+     * 提交分组搜索，线程池已满时返回null
+     */
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return searchExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
 
-            return SearchResultGroup.<PostSearchItem>builder()
-                    .list(items)
-                    .total(total)
-                    .hasMore(total > limit)
-                    .build();
+    /**
+     * 在截止时间内等待分组结果，超时则取消（中断执行中的查询）
+     *
+     * @return 分组结果；被拒绝、超时或失败时返回null，并记入 incompleteGroups
+     */
+    private <T> T await(String group, Future<T> future, long startNanos, long deadlineMs, List<String> incompleteGroups) {
+        String outcome;
+        T result = null;
+        if (future == null) {
+            outcome = "rejected";
+        } else {
+            long remainingNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMs) - System.nanoTime();
+            try {
+                result = future.get(Math.max(0L, remainingNanos), TimeUnit.NANOSECONDS);
+                outcome = "success";
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                outcome = "timeout";
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                outcome = "interrupted";
+            } catch (ExecutionException e) {
+                log.error("聚合搜索分组执行失败: group={}", group, e.getCause());
+                outcome = "error";
+            }
+        }
+        recordGroup(group, outcome, startNanos);
+        if (result == null) {
+            incompleteGroups.add(group);
+        }
+        return result;
+    }
+
+    private void recordGroup(String group, String outcome, long startNanos) {
+        Timer.builder(METRIC_GROUP)
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry())
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private MeterRegistry registry() {
+        return meterRegistry != null ? meterRegistry : Metrics.globalRegistry;
+    }
+
+    /**
+     * 搜索帖子
+     */
+    private SearchResultGroup<PostSearchItem> searchPosts(String keyword, int limit) {
+        try {
+            List<Post> posts;
+            long total;
+            if (fulltextStrategy.isAvailable()) {
+                // 全文索引：按相关度取一页，总数只统计到上限
+                Page<Post> page = fulltextStrategy.search(keyword, PageRequest.of(0, limit));
+                posts = page.getContent();
+                total = page.getTotalElements();
+            } else {
+                // 使用PostQueryService搜索帖子
+                posts = postQueryService.search(keyword, 0, limit);
+                total = postStatisticsService.countSearch(keyword);
+            }
+            return buildPostGroup(posts, total, limit);
 
         } catch (Exception e) {
             log.error("搜索帖子失败: keyword={}", keyword, e);
@@ -203,6 +357,78 @@ public class AggregateSearchService {
         }
     }
 
+    /**
+     * 将一页帖子补全作者、标签后转换为帖子分组
+     */
+    private SearchResultGroup<PostSearchItem> buildPostGroup(List<Post> posts, long total, int limit) {
+        if (posts == null || posts.isEmpty()) {
+            return buildEmptyPostResult();
+        }
+
+        // 获取作者信息
+        Set<Long> userIds = posts.stream()
+                .map(Post::getUserId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+
+        Map<Long, User> userMap = userService.getBatchUserInfo(userIds);
+
+        // 获取帖子标签
+        List<Long> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+        Map<Long, List<String>> postTagsMap = getPostTagsMap(postIds);
+
+        // 转换为帖子搜索项
+        List<PostSearchItem> items = posts.stream()
+                .map(post -> convertToPostSearchItem(post, userMap, postTagsMap))
+                .collect(Collectors.toList());
+
+        return SearchResultGroup.<PostSearchItem>builder()
+                .list(items)
+                .total(total)
+                .hasMore(total > limit)
+                .build();
+    }
+
+    /**
+     * 按 ES 命中顺序批量读取用户
+     */
+    private SearchResultGroup<UserSearchItem> buildUserGroup(List<Long> ids, long total, int limit) {
+        if (ids == null || ids.isEmpty()) {
+            return buildEmptyUserResult();
+        }
+        Map<Long, User> userMap = userService.getBatchUserInfo(new LinkedHashSet<>(ids));
+        List<UserSearchItem> items = ids.stream()
+                .map(userMap::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToUserSearchItem)
+                .collect(Collectors.toList());
+        return SearchResultGroup.<UserSearchItem>builder()
+                .list(items)
+                .total(total)
+                .hasMore(total > limit)
+                .build();
+    }
+
+    /**
+     * 按 ES 命中顺序批量读取标签
+     */
+    private SearchResultGroup<TagSearchItem> buildTagGroup(List<Long> ids, long total, int limit) {
+        if (ids == null || ids.isEmpty()) {
+            return buildEmptyTagResult();
+        }
+        Map<Long, Tag> tagMap = tagService.batchGetTags(new LinkedHashSet<>(ids));
+        List<TagSearchItem> items = ids.stream()
+                .map(tagMap::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToTagSearchItem)
+                .collect(Collectors.toList());
+        return SearchResultGroup.<TagSearchItem>builder()
+                .list(items)
+                .total(total)
+                .hasMore(total > limit)
+                .build();
+    }
+
     /**
      * 搜索用户
      */
@@ -409,6 +635,8 @@ public class AggregateSearchService {
                 .users(buildEmptyUserResult())
                 .tags(buildEmptyTagResult())
                 .costTime(costTime)
+                .partial(false)
+                .incompleteGroups(Collections.emptyList())
                 .build();
     }
     
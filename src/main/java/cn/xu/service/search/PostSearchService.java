@@ -3,28 +3,35 @@ package cn.xu.service.search;
 import cn.xu.cache.core.RedisOperations;
 import cn.xu.common.ResponseCode;
 import cn.xu.integration.search.strategy.ElasticsearchSearchStrategy;
+import cn.xu.integration.search.strategy.MysqlFulltextSearchStrategy;
 import cn.xu.integration.search.strategy.MysqlSearchStrategy;
+import cn.xu.model.dto.search.PostSearchPage;
 import cn.xu.model.dto.search.SearchFilter;
 import cn.xu.model.entity.Post;
 import cn.xu.model.entity.User;
 import cn.xu.model.enums.SearchStrategyType;
 import cn.xu.model.vo.post.PostSearchResponseVO;
+import cn.xu.service.post.PostSearchCacheService;
 import cn.xu.service.user.UserService;
 import cn.xu.support.exception.BusinessException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * 帖子搜索服务（支持ES/MySQL自动降级）
+ * <p>降级顺序：Elasticsearch -> MySQL全文索引 -> MySQL LIKE</p>
  */
 @Slf4j
 @Service
@@ -34,7 +41,10 @@ public class PostSearchService {
 
     // 必需依赖 - 构造器注入
     private final MysqlSearchStrategy mysqlStrategy;
+    private final MysqlFulltextSearchStrategy fulltextStrategy;
     private final UserService userService;
+    private final PostSearchCacheService searchCacheService;
+    private final SearchSuggestionService suggestionService;
 
     // 可选依赖 - setter 注入
     private ElasticsearchSearchStrategy esStrategy;
@@ -57,10 +67,16 @@ public class PostSearchService {
 
     public PostSearchService(
             MysqlSearchStrategy mysqlStrategy,
-            UserService userService
+            MysqlFulltextSearchStrategy fulltextStrategy,
+            UserService userService,
+            PostSearchCacheService searchCacheService,
+            SearchSuggestionService suggestionService
     ) {
         this.mysqlStrategy = mysqlStrategy;
+        this.fulltextStrategy = fulltextStrategy;
         this.userService = userService;
+        this.searchCacheService = searchCacheService;
+        this.suggestionService = suggestionService;
     }
 
     // ==================== Setter 注入 ====================
@@ -103,22 +119,35 @@ public class PostSearchService {
             return;
         }
 
+        if (strategyType == SearchStrategyType.MYSQL_FULLTEXT) {
+            currentStrategy = mysqlFallback();
+            log.info("使用{}搜索策略", currentStrategy.getStrategyName());
+            return;
+        }
+
         if (strategyType == SearchStrategyType.ELASTICSEARCH && esAvailable) {
             currentStrategy = esStrategy;
             log.info("使用Elasticsearch搜索策略");
             return;
         }
 
-        // auto模式，优先选择ES，如果不可用，则退回MySQL
+        // auto模式，优先选择ES，如果不可用，则退回MySQL（全文索引优先）
         if (esAvailable) {
             currentStrategy = esStrategy;
             log.info("自动选择Elasticsearch搜索策略");
         } else {
-            currentStrategy = mysqlStrategy;
-            log.info("自动选择MySQL搜索策略");
+            currentStrategy = mysqlFallback();
+            log.info("自动选择{}搜索策略", currentStrategy.getStrategyName());
         }
     }
 
+    /**
+     * MySQL兜底策略：全文索引可用时用全文索引，否则用LIKE
+     */
+    private SearchStrategy mysqlFallback() {
+        return fulltextStrategy.isAvailable() ? fulltextStrategy : mysqlStrategy;
+    }
+
     // ==================== 搜索查询 ====================
 
     /**
@@ -136,10 +165,15 @@ public class PostSearchService {
         }
 
         String normalizedKeyword = normalizeKeyword(keyword);
+        SearchFilter normalizedFilter = normalizeFilter(filter);
 
-        // 1. 检查缓存
+        // 1. 检查缓存（Key包含缓存代数，帖子变更后旧Key自然不再命中）
+        String cacheKey = null;
         if (cacheEnabled && redisOps != null) {
-            Page<Post> cached = getFromCache(normalizedKeyword, filter, pageable);
+            cacheKey = searchCacheService.buildResultKey(normalizedKeyword, normalizedFilter, pageable);
+        }
+        if (cacheKey != null) {
+            Page<Post> cached = getFromCache(cacheKey, pageable);
             if (cached != null) {
                 log.debug("使用缓存查询: keyword={}", normalizedKeyword);
                 return cached;
@@ -147,11 +181,11 @@ public class PostSearchService {
         }
 
         // 2. 执行搜索查询
-        Page<Post> result = searchWithFallback(normalizedKeyword, filter, pageable);
+        Page<Post> result = searchWithFallback(normalizedKeyword, normalizedFilter, pageable);
 
         // 3. 保存缓存
-        if (cacheEnabled && redisOps != null && result != null) {
-            saveToCache(normalizedKeyword, filter, pageable, result);
+        if (cacheKey != null && result != null) {
+            saveToCache(cacheKey, result);
         }
 
         // 4. 记录搜索统计
@@ -164,30 +198,39 @@ public class PostSearchService {
      * 执行搜索查询，并支持降级
      */
     private Page<Post> searchWithFallback(String keyword, SearchFilter filter, Pageable pageable) {
+        SearchStrategy strategy = currentStrategy;
         try {
             // 使用当前策略进行搜索
-            Page<Post> result = currentStrategy.search(keyword, filter, pageable);
+            Page<Post> result = strategy.search(keyword, filter, pageable);
             log.debug("搜索成功: strategy={}, keyword={}, total={}",
-                    currentStrategy.getStrategyName(), keyword, result.getTotalElements());
+                    strategy.getStrategyName(), keyword, result.getTotalElements());
             return result;
 
         } catch (Exception e) {
-            log.error("搜索失败: strategy={}, keyword={}", currentStrategy.getStrategyName(), keyword, e);
-
-            // 如果ES策略失败，尝试回退到MySQL
-            if (currentStrategy == esStrategy && mysqlStrategy.isAvailable()) {
-                log.warn("ES搜索失败，回退到MySQL: keyword={}", keyword);
+            log.error("搜索失败: strategy={}, keyword={}", strategy.getStrategyName(), keyword, e);
+
+            // ES失败回退到MySQL（全文索引优先），全文索引失败回退到LIKE
+            SearchStrategy fallback = null;
+            if (strategy == esStrategy) {
+                fallback = mysqlFallback();
+            } else if (strategy == fulltextStrategy) {
+                fallback = mysqlStrategy;
+            }
+            if (fallback != null && fallback.isAvailable()) {
+                log.warn("{}搜索失败，回退到{}: keyword={}", strategy.getStrategyName(), fallback.getStrategyName(), keyword);
                 try {
-                    Page<Post> result = mysqlStrategy.search(keyword, filter, pageable);
-                    log.info("MySQL搜索成功: keyword={}, total={}", keyword, result.getTotalElements());
+                    Page<Post> result = fallback.search(keyword, filter, pageable);
+                    log.info("{}搜索成功: keyword={}, total={}", fallback.getStrategyName(), keyword, result.getTotalElements());
 
-                    // 禁用ES并切换为MySQL
-                    esAvailable = false;
-                    currentStrategy = mysqlStrategy;
+                    // 禁用失败的策略并切换
+                    if (strategy == esStrategy) {
+                        esAvailable = false;
+                    }
+                    currentStrategy = fallback;
 
                     return result;
                 } catch (Exception fallbackException) {
-                    log.error("MySQL搜索失败: keyword={}", keyword, fallbackException);
+                    log.error("{}搜索失败: keyword={}", fallback.getStrategyName(), keyword, fallbackException);
                     throw new BusinessException(ResponseCode.UN_ERROR.getCode(), "搜索服务失败");
                 }
             }
@@ -198,60 +241,41 @@ public class PostSearchService {
 
     // ==================== 缓存处理 ====================
 
-    private Page<Post> getFromCache(String keyword, SearchFilter filter, Pageable pageable) {
+    private Page<Post> getFromCache(String cacheKey, Pageable pageable) {
         try {
-            String cacheKey = buildCacheKey(keyword, filter, pageable);
-            Object cached = redisOps.get(cacheKey);
-            if (cached != null) {
-                // 处理 LinkedHashMap 反序列化问题
-                if (cached instanceof org.springframework.data.domain.Page) {
-                    @SuppressWarnings("unchecked")
-                    Page<Post> page = (Page<Post>) cached;
-                    // 检查内容是否为 LinkedHashMap
-                    if (!page.isEmpty() && page.getContent().get(0) instanceof java.util.Map) {
-                        log.warn("检测到缓存反序列化为 LinkedHashMap，清除缓存: keyword={}", keyword);
-                        redisOps.delete(cacheKey);
-                        return null;
-                    }
-                    return page;
-                }
+            // 值序列化不带类型信息，读出的是Map，需转回 PostSearchPage
+            PostSearchPage page = redisOps.convertValue(redisOps.get(cacheKey), PostSearchPage.class);
+            if (page == null || page.getPosts() == null) {
+                return null;
             }
-            return null;
+            return new PageImpl<>(page.getPosts(), pageable, page.getTotal() != null ? page.getTotal() : 0L);
         } catch (Exception e) {
-            log.warn("获取缓存失败: keyword={}", keyword, e);
+            log.warn("获取缓存失败: key={}", cacheKey, e);
             return null;
         }
     }
 
-    private void saveToCache(String keyword, SearchFilter filter, Pageable pageable, Page<Post> result) {
+    private void saveToCache(String cacheKey, Page<Post> result) {
         try {
-            String cacheKey = buildCacheKey(keyword, filter, pageable);
-            redisOps.set(cacheKey, result, cacheTtlSeconds);
+            PostSearchPage page = new PostSearchPage(new ArrayList<>(result.getContent()), result.getTotalElements(), null);
+            redisOps.set(cacheKey, page, cacheTtlSeconds);
         } catch (Exception e) {
-            log.warn("保存缓存失败: keyword={}", keyword, e);
+            log.warn("保存缓存失败: key={}", cacheKey, e);
         }
     }
 
-    private String buildCacheKey(String keyword, SearchFilter filter, Pageable pageable) {
-        StringBuilder sb = new StringBuilder("post:search:");
-        sb.append(keyword);
-
-        if (filter != null) {
-            if (filter.getStartTime() != null) {
-                sb.append(":start:").append(filter.getStartTime());
-            }
-            if (filter.getEndTime() != null) {
-                sb.append(":end:").append(filter.getEndTime());
-            }
-            if (filter.getSortOption() != null) {
-                sb.append(":sort:").append(filter.getSortOption());
-            }
+    /**
+     * 时间范围截断到分钟，按当前时间计算的时间范围（如最近一天）在一分钟内可命中同一份缓存
+     */
+    private SearchFilter normalizeFilter(SearchFilter filter) {
+        if (filter == null) {
+            return null;
         }
-
-        sb.append(":page:").append(pageable.getPageNumber());
-        sb.append(":size:").append(pageable.getPageSize());
-
-        return sb.toString();
+        return SearchFilter.builder()
+                .startTime(filter.getStartTime() != null ? filter.getStartTime().truncatedTo(ChronoUnit.MINUTES) : null)
+                .endTime(filter.getEndTime() != null ? filter.getEndTime().truncatedTo(ChronoUnit.MINUTES) : null)
+                .sortOption(filter.getSortOption())
+                .build();
     }
 
     // ==================== 搜索统计 ====================
@@ -293,6 +317,9 @@ public class PostSearchService {
         if (strategyType == SearchStrategyType.ELASTICSEARCH && esAvailable) {
             currentStrategy = esStrategy;
             log.info("切换到Elasticsearch策略");
+        } else if (strategyType == SearchStrategyType.MYSQL_FULLTEXT && fulltextStrategy.isAvailable()) {
+            currentStrategy = fulltextStrategy;
+            log.info("切换到MySQL全文索引策略");
         } else if (strategyType == SearchStrategyType.MYSQL) {
             currentStrategy = mysqlStrategy;
             log.info("切换到MySQL策略");
@@ -329,6 +356,11 @@ public class PostSearchService {
                     vo.setCommentCount(post.getCommentCount());
                     vo.setCreateTime(post.getCreateTime());
                     vo.setUserId(post.getUserId());
+                    if (post.getHighlights() != null) {
+                        vo.setHighlightTitle(post.getHighlights().get("title"));
+                        vo.setHighlightDescription(post.getHighlights().get("description"));
+                        vo.setHighlightContent(post.getHighlights().get("content"));
+                    }
                     
                     // 获取用户信息
                     try {
@@ -349,17 +381,17 @@ public class PostSearchService {
     }
 
     /**
-     * 获取搜索建议
+     * 获取搜索建议（关键词为空时返回热门搜索词）
      *
      * @param keyword 关键词前缀
      * @param limit 返回数量
      * @return 建议列表
      */
     public List<String> getSearchSuggestions(String keyword, int limit) {
-        if (statisticsService == null) {
-            return Collections.emptyList();
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return getHotKeywords(limit);
         }
-        return statisticsService.getSearchSuggestions(keyword, limit);
+        return suggestionService.suggest(null, keyword, limit);
     }
 
     /**
@@ -1,6 +1,10 @@
 package cn.xu.service.search;
 
 import cn.xu.cache.core.RedisOperations;
+import cn.xu.cache.core.RedisPipeline;
+import cn.xu.service.search.event.SearchEvent;
+import cn.xu.service.search.event.SearchEventBuffer;
+import cn.xu.service.search.event.SearchEventSink;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,13 +17,15 @@ import java.util.*;
  * <p>基于Redis实现搜索历史和热词功能</p>
  * <p>用户搜索历史：Redis List，最多保存20条</p>
  * <p>热门搜索词：Redis ZSet，按搜索次数排序</p>
+ * <p>记录搜索只写入事件缓冲，由定时任务批量写入，刚搜索过的词会在下一个窗口后出现在历史中</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class SearchHistoryService {
+public class SearchHistoryService implements SearchEventSink {
 
     private final RedisOperations redisOps;
+    private final SearchEventBuffer searchEventBuffer;
 
     /** 用户搜索历史前缀 */
     private static final String HISTORY_KEY_PREFIX = "search:history:";
@@ -38,7 +44,7 @@ public class SearchHistoryService {
     private static final int DAILY_HOT_EXPIRE_DAYS = 2;
 
     /**
-     * 记录搜索（保存历史 + 更新热词）
+     * 记录搜索（保存历史 + 更新热词），写入事件缓冲后立即返回
      * 
      * @param userId 用户ID（可为null，未登录用户）
      * @param keyword 搜索关键词
@@ -47,51 +53,76 @@ public class SearchHistoryService {
         if (keyword == null || keyword.trim().isEmpty()) {
             return;
         }
-        keyword = keyword.trim();
-        
-        try {
-            // 1. 保存用户搜索历史（登录用户）
-            if (userId != null) {
-                saveHistory(userId, keyword);
+        searchEventBuffer.offer(SearchEvent.history(userId, keyword.trim()));
+    }
+
+    /**
+     * 批量写入一个窗口的历史事件（一次管道往返）
+     * <p>同一用户的多次搜索合并为按最后一次搜索排序的去重列表，热词按窗口内次数一次累加</p>
+     */
+    @Override
+    public void flush(List<SearchEvent> events) {
+        Map<Long, LinkedHashSet<String>> historyByUser = new HashMap<>();
+        Map<String, Long> hotCounts = new HashMap<>();
+        for (SearchEvent event : events) {
+            if (event.type() != SearchEvent.Type.HISTORY) {
+                continue;
             }
-            
-            // 2. 更新热词计数
-            updateHotWord(keyword);
-            
-        } catch (Exception e) {
-            log.error("记录搜索失败: userId={}, keyword={}", userId, keyword, e);
+            if (event.userId() != null) {
+                LinkedHashSet<String> keywords = historyByUser.computeIfAbsent(event.userId(), k -> new LinkedHashSet<>());
+                // 重新插入使其排到最后（最近一次搜索）
+                keywords.remove(event.keyword());
+                keywords.add(event.keyword());
+            }
+            hotCounts.merge(event.keyword(), 1L, Long::sum);
+        }
+        if (hotCounts.isEmpty()) {
+            return;
+        }
+
+        RedisPipeline pipeline = redisOps.pipeline();
+        historyByUser.forEach((userId, keywords) -> saveHistory(pipeline, userId, keywords));
+        updateHotWords(pipeline, hotCounts);
+        if (pipeline.execute() == null) {
+            log.warn("记录搜索失败: users={}, keywords={}", historyByUser.size(), hotCounts.size());
         }
     }
 
     /**
-     * 保存用户搜索历史
+     * 保存用户搜索历史（按时间先后依次去重并放到列表头部）
      */
-    private void saveHistory(Long userId, String keyword) {
+    private void saveHistory(RedisPipeline pipeline, Long userId, Collection<String> keywords) {
         String key = HISTORY_KEY_PREFIX + userId;
         
-        // 先移除已存在的相同关键词（去重）
-        redisOps.lRemove(key, 0, keyword);
-        
-        // 添加到列表头部
-        redisOps.lPush(key, keyword);
+        // 跳过最终会被裁掉的较早关键词
+        int skip = Math.max(0, keywords.size() - MAX_HISTORY_SIZE);
+        for (String keyword : keywords) {
+            if (skip-- > 0) {
+                continue;
+            }
+            // 先移除已存在的相同关键词（去重），再添加到列表头部
+            pipeline.lRemove(key, 0, keyword);
+            pipeline.lPush(key, keyword);
+        }
         
         // 保留最近N条
-        redisOps.lTrim(key, 0, MAX_HISTORY_SIZE - 1);
+        pipeline.lTrim(key, 0, MAX_HISTORY_SIZE - 1);
         
         // 设置过期时间（转换为秒）
-        redisOps.expire(key, HISTORY_EXPIRE_DAYS * 86400);
+        pipeline.expire(key, HISTORY_EXPIRE_DAYS * 86400);
     }
 
     /**
      * 更新热词计数
      */
-    private void updateHotWord(String keyword) {
-        // 总热词计数
-        redisOps.zIncrementScore(HOT_KEY, keyword, 1);
-        
-        // 每日热词计数
-        redisOps.zIncrementScore(HOT_DAILY_KEY, keyword, 1);
-        redisOps.expire(HOT_DAILY_KEY, DAILY_HOT_EXPIRE_DAYS * 86400);
+    private void updateHotWords(RedisPipeline pipeline, Map<String, Long> hotCounts) {
+        hotCounts.forEach((keyword, count) -> {
+            // 总热词计数
+            pipeline.zIncrementScore(HOT_KEY, keyword, count);
+            // 每日热词计数
+            pipeline.zIncrementScore(HOT_DAILY_KEY, keyword, count);
+        });
+        pipeline.expire(HOT_DAILY_KEY, DAILY_HOT_EXPIRE_DAYS * 86400);
     }
 
     /**
@@ -180,45 +211,4 @@ public class SearchHistoryService {
             return Collections.emptyList();
         }
     }
-
-    /**
-     * 获取搜索建议（历史 + 热词匹配）
-     * 
-     * @param userId 用户ID（可为null）
-     * @param prefix 输入前缀
-     * @return 搜索建议列表
-     */
-    public List<String> getSuggestions(Long userId, String prefix) {
-        if (prefix == null || prefix.trim().isEmpty()) {
-            return Collections.emptyList();
-        }
-        
-        prefix = prefix.trim().toLowerCase();
-        Set<String> suggestions = new LinkedHashSet<>();
-        
-        try {
-            // 1. 从用户历史中匹配
-            if (userId != null) {
-                List<String> history = getHistory(userId);
-                String finalPrefix = prefix;
-                history.stream()
-                        .filter(h -> h.toLowerCase().contains(finalPrefix))
-                        .limit(5)
-                        .forEach(suggestions::add);
-            }
-            
-            // 2. 从热词中匹配
-            List<String> hotWords = getHotWords();
-            String finalPrefix2 = prefix;
-            hotWords.stream()
-                    .filter(h -> h.toLowerCase().contains(finalPrefix2))
-                    .limit(5)
-                    .forEach(suggestions::add);
-            
-            return new ArrayList<>(suggestions).subList(0, Math.min(suggestions.size(), 10));
-        } catch (Exception e) {
-            log.error("获取搜索建议失败: prefix={}", prefix, e);
-            return Collections.emptyList();
-        }
-    }
-}
+}
\ No newline at end of file
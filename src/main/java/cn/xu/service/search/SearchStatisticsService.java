@@ -17,8 +17,6 @@ public interface SearchStatisticsService {
     
     List<String> getHotKeywords(int limit);
     
-    List<String> getSearchSuggestions(String keyword, int limit);
-    
     interface SearchStatistics {
         String getDate();
         long getTotalSearches();
@@ -0,0 +1,235 @@
+package cn.xu.service.search;
+
+import cn.xu.integration.search.suggest.SuggestionTrie;
+import cn.xu.integration.search.util.PinyinInitials;
+import cn.xu.integration.search.util.SearchKeywordNormalizer;
+import cn.xu.model.entity.Tag;
+import cn.xu.repository.mapper.PostMapper;
+import cn.xu.repository.mapper.TagMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 搜索建议服务
+ * <p>热门搜索词、标签名、热门帖子标题合并为一个词典，按搜索次数加权后构建内存前缀树，
+ * 输入联想时只做一次前缀查询，不再逐次读取Redis后在内存里遍历匹配</p>
+ * <p>搜索词按较短周期刷新，标签和标题按较长周期刷新，词典没有变化时不重建；
+ * 登录用户的搜索历史在查询时叠加在前面</p>
+ * <p>支持拼音首字母联想（如输入 jc 匹配“教程”），仅覆盖常用汉字</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchSuggestionService {
+
+    /**
+     * 每个前缀最多返回的建议数
+     */
+    private static final int MAX_SUGGESTIONS = 20;
+
+    /**
+     * 单个词条最多的索引键数（整词、单词起点、拼音首字母）
+     */
+    private static final int MAX_KEYS_PER_ENTRY = 8;
+
+    /**
+     * 标签、标题的基础权重系数，远小于搜索次数，搜索过的词始终排在前面
+     */
+    private static final double TAG_PRIOR = 0.5;
+    private static final double TITLE_PRIOR = 0.1;
+
+    private final SearchStatisticsService statisticsService;
+    private final SearchHistoryService searchHistoryService;
+    private final TagMapper tagMapper;
+    private final PostMapper postMapper;
+
+    @Value("${app.search.suggest.keyword-limit:5000}")
+    private int keywordLimit;
+
+    @Value("${app.search.suggest.tag-limit:2000}")
+    private int tagLimit;
+
+    @Value("${app.search.suggest.title-limit:5000}")
+    private int titleLimit;
+
+    @Value("${app.search.suggest.source-refresh-interval:600000}")
+    private long sourceRefreshInterval;
+
+    private volatile SuggestionTrie trie = SuggestionTrie.EMPTY;
+
+    // 以下字段只在刷新任务中读写
+    private Map<String, Double> keywordWeights = Collections.emptyMap();
+    private Map<String, Double> tagWeights = Collections.emptyMap();
+    private Map<String, Double> titleWeights = Collections.emptyMap();
+    private long sourceLoadedAt = 0;
+
+    /**
+     * 输入联想
+     *
+     * @param userId 用户ID（可为null，未登录不叠加历史）
+     * @param prefix 输入前缀
+     * @param limit  返回数量
+     * @return 建议列表，搜索历史在前
+     */
+    public List<String> suggest(Long userId, String prefix, int limit) {
+        String key = normalizeKey(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        limit = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+
+        Set<String> seen = new HashSet<>();
+        List<String> suggestions = new ArrayList<>(limit);
+        if (userId != null) {
+            // 历史最多占一半，给词典留出位置
+            int historyLimit = Math.max(1, limit / 2);
+            for (String history : searchHistoryService.getHistory(userId)) {
+                if (suggestions.size() >= historyLimit) {
+                    break;
+                }
+                if (matches(history, key) && seen.add(normalizeKey(history))) {
+                    suggestions.add(history);
+                }
+            }
+        }
+        for (String text : trie.lookup(key, limit)) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            if (seen.add(normalizeKey(text))) {
+                suggestions.add(text);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * 刷新词典：每次刷新读取热门搜索词，间隔超过 source-refresh-interval 时重新读取标签和标题
+     */
+    @Scheduled(fixedDelayString = "${app.search.suggest.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            boolean changed = false;
+            long now = System.currentTimeMillis();
+            if (now - sourceLoadedAt >= sourceRefreshInterval) {
+                Map<String, Double> tags = loadTags();
+                Map<String, Double> titles = loadTitles();
+                sourceLoadedAt = now;
+                if (!tags.equals(tagWeights) || !titles.equals(titleWeights)) {
+                    tagWeights = tags;
+                    titleWeights = titles;
+                    changed = true;
+                }
+            }
+            Map<String, Double> keywords = loadKeywords();
+            if (!keywords.equals(keywordWeights)) {
+                keywordWeights = keywords;
+                changed = true;
+            }
+            if (changed) {
+                long start = System.currentTimeMillis();
+                trie = buildTrie();
+                log.debug("[搜索建议] 词典已重建 - size: {}, cost: {}ms", trie.size(), System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.warn("[搜索建议] 刷新词典失败，继续使用旧词典: {}", e.getMessage());
+        }
+    }
+
+    private SuggestionTrie buildTrie() {
+        // 同一规范化文本只保留一个词条，权重为搜索次数加上来源的基础权重
+        Map<String, String> texts = new HashMap<>();
+        Map<String, Double> weights = new HashMap<>();
+        for (Map<String, Double> source : List.of(titleWeights, tagWeights, keywordWeights)) {
+            for (Map.Entry<String, Double> entry : source.entrySet()) {
+                String key = normalizeKey(entry.getKey());
+                if (!key.isEmpty()) {
+                    texts.put(key, entry.getKey());
+                    weights.merge(key, entry.getValue(), Double::sum);
+                }
+            }
+        }
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(MAX_SUGGESTIONS);
+        for (Map.Entry<String, String> entry : texts.entrySet()) {
+            builder.add(entry.getValue(), weights.get(entry.getKey()), indexKeys(entry.getKey()));
+        }
+        return builder.build();
+    }
+
+    private Map<String, Double> loadKeywords() {
+        Map<String, Double> result = new HashMap<>();
+        for (SearchStatisticsService.HotKeyword hot : statisticsService.getHotKeywordsWithCount(keywordLimit)) {
+            result.put(hot.getKeyword(), (double) hot.getCount());
+        }
+        return result;
+    }
+
+    private Map<String, Double> loadTags() {
+        Map<String, Double> result = new HashMap<>();
+        for (Tag tag : tagMapper.getHotTags(tagLimit)) {
+            if (tag.getName() != null) {
+                int usage = tag.getUsageCount() != null ? tag.getUsageCount() : 0;
+                result.put(tag.getName(), TAG_PRIOR * (1 + Math.log1p(usage)));
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Double> loadTitles() {
+        Map<String, Double> result = new HashMap<>();
+        for (Map<String, Object> post : postMapper.selectHotPosts(titleLimit)) {
+            Object title = post.get("title");
+            if (title != null) {
+                Object views = post.get("viewCount");
+                long viewCount = views instanceof Number ? ((Number) views).longValue() : 0L;
+                result.put(title.toString(), TITLE_PRIOR * Math.log1p(viewCount));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 历史记录是否匹配前缀（与词典使用相同的索引键）
+     */
+    private boolean matches(String text, String prefix) {
+        for (String key : indexKeys(normalizeKey(text))) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 词条的索引键：整词、词中每个单词的起点（空白、标点之后及中英文交界处），以及拼音首字母
+     */
+    private static List<String> indexKeys(String normalized) {
+        List<String> keys = new ArrayList<>(4);
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length() && keys.size() < MAX_KEYS_PER_ENTRY - 1; i++) {
+            char prev = normalized.charAt(i - 1);
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)
+                    && (!Character.isLetterOrDigit(prev) || PinyinInitials.isCjk(prev) != PinyinInitials.isCjk(c))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        String initials = PinyinInitials.of(normalized);
+        if (initials != null && initials.length() > 1 && !keys.contains(initials)) {
+            keys.add(initials);
+        }
+        return keys;
+    }
+
+    private static String normalizeKey(String text) {
+        return SearchKeywordNormalizer.normalize(text).toLowerCase(Locale.ROOT);
+    }
+}
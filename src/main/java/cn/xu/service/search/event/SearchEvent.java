@@ -0,0 +1,31 @@
+package cn.xu.service.search.event;
+
+/**
+ * 搜索事件（写入 {@link SearchEventBuffer}，由定时任务批量写入Redis）
+ *
+ * @param type       事件类型
+ * @param userId     用户ID（未登录为null）
+ * @param keyword    搜索关键词（已去除首尾空白）
+ * @param hasResults 是否有结果（仅统计事件有意义）
+ */
+public record SearchEvent(Type type, Long userId, String keyword, boolean hasResults) {
+
+    public enum Type {
+        /**
+         * 搜索统计：热门关键词、每日搜索总数/有结果数/无结果数
+         */
+        STATISTICS,
+        /**
+         * 搜索历史：用户历史列表和热词
+         */
+        HISTORY
+    }
+
+    public static SearchEvent statistics(String keyword, boolean hasResults) {
+        return new SearchEvent(Type.STATISTICS, null, keyword, hasResults);
+    }
+
+    public static SearchEvent history(Long userId, String keyword) {
+        return new SearchEvent(Type.HISTORY, userId, keyword, false);
+    }
+}
@@ -0,0 +1,138 @@
+package cn.xu.service.search.event;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 搜索事件缓冲
+ * <p>搜索请求只把事件放入有界队列即返回，不再在请求线程上逐条访问Redis；
+ * 定时任务按窗口取出全部事件交给各 {@link SearchEventSink}，由其按关键词合并后用管道批量写入</p>
+ * <p>队列满时新事件直接丢弃并计数（统计数据允许少量丢失），不阻塞搜索请求</p>
+ */
+@Slf4j
+@Component
+public class SearchEventBuffer {
+
+    private final ObjectProvider<SearchEventSink> sinks;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ArrayBlockingQueue<SearchEvent> queue;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong flushCount = new AtomicLong();
+
+    /**
+     * 上次报告丢弃时的丢弃总数，用于只在有新增丢弃时打印日志
+     */
+    private long reportedDropped = 0;
+
+    public SearchEventBuffer(ObjectProvider<SearchEventSink> sinks,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${app.search.analytics.buffer-capacity:10000}") int capacity) {
+        this.sinks = sinks;
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, capacity));
+    }
+
+    @PostConstruct
+    public void bindMetrics() {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("search.events.pending", queue, ArrayBlockingQueue::size)
+                .register(registry);
+        FunctionCounter.builder("search.events.accepted", accepted, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("search.events.dropped", dropped, LongAdder::sum)
+                .register(registry);
+    }
+
+    /**
+     * 放入事件，队列已满时丢弃
+     *
+     * @return 是否放入成功
+     */
+    public boolean offer(SearchEvent event) {
+        if (event == null) {
+            return false;
+        }
+        if (queue.offer(event)) {
+            accepted.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 取出当前队列中的全部事件并交给各写入方
+     *
+     * @return 本次处理的事件数
+     */
+    public synchronized int flush() {
+        long droppedTotal = dropped.sum();
+        if (droppedTotal > reportedDropped) {
+            log.warn("[搜索事件] 缓冲已满，丢弃事件 - 新增: {}, 累计: {}", droppedTotal - reportedDropped, droppedTotal);
+            reportedDropped = droppedTotal;
+        }
+
+        if (queue.isEmpty()) {
+            return 0;
+        }
+        List<SearchEvent> events = new ArrayList<>(queue.size());
+        queue.drainTo(events);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        for (SearchEventSink sink : sinks) {
+            try {
+                sink.flush(events);
+            } catch (Exception e) {
+                log.error("[搜索事件] 写入失败 - sink: {}, events: {}", sink.getClass().getSimpleName(), events.size(), e);
+            }
+        }
+        flushCount.incrementAndGet();
+        return events.size();
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * 应用关闭前写出剩余事件
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("[搜索事件] 关闭前写入失败 - pending: {}", queue.size(), e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package cn.xu.service.search.event;
+
+import java.util.List;
+
+/**
+ * 搜索事件的批量写入方
+ * <p>每次刷新时收到一个时间窗口内的全部事件（按到达顺序），自行筛选类型、按关键词合并后写入</p>
+ */
+public interface SearchEventSink {
+
+    /**
+     * 写入一批事件，实现方需自行处理异常
+     *
+     * @param events 窗口内的事件（包含所有类型）
+     */
+    void flush(List<SearchEvent> events);
+}
@@ -9,6 +9,7 @@ import cn.xu.model.entity.Share;
 import cn.xu.model.vo.share.ShareStatsVO;
 import cn.xu.repository.PostRepository;
 import cn.xu.repository.mapper.ShareMapper;
+import cn.xu.service.post.PostHotRankingService;
 import cn.xu.support.exception.BusinessException;
 import cn.xu.support.util.LoginUserUtil;
 import cn.xu.support.util.RateLimiter;
@@ -34,6 +35,7 @@ public class ShareService {
 
     private final ShareMapper shareMapper;
     private final PostRepository postRepository;
+    private final PostHotRankingService postHotRankingService;
     private final ApplicationEventPublisher eventPublisher;
     private final RedisOperations redisOps;
 
@@ -91,7 +93,7 @@ public class ShareService {
         if (allowIncrement) {
             post.increaseShareCount();
             postRepository.update(post, null);
-            postRepository.updateHotScore(postId);
+            postHotRankingService.markDirty(postId);
             
             // 发布分享事件
             eventPublisher.publishEvent(new ShareEvent(postId, post.getUserId(), userId, platform));
@@ -4,6 +4,7 @@ import cn.dev33.satoken.stp.StpUtil;
 import cn.xu.common.ResponseCode;
 import cn.xu.common.constants.RoleConstants;
 import cn.xu.config.AdminConfig;
+import cn.xu.event.publisher.UserEventPublisher;
 import cn.xu.model.dto.user.SysUserRequest;
 import cn.xu.model.entity.User;
 import cn.xu.model.enums.UserType;
@@ -30,6 +31,7 @@ public class UserAdminService {
     private final UserRepository userRepository;
     private final UserQueryService queryService;
     private final AdminConfig adminConfig;
+    private final UserEventPublisher userEventPublisher;
 
     /**
      * 添加用户
@@ -95,7 +97,7 @@ public class UserAdminService {
         }
 
         try {
-            User user = queryService.getById(request.getId());
+            User user = queryService.getForUpdate(request.getId());
 
             if (StringUtils.isNotBlank(request.getUsername())) {
                 user.setUsername(request.getUsername());
@@ -133,6 +135,7 @@ public class UserAdminService {
 
             user.setUpdateTime(LocalDateTime.now());
             userRepository.save(user);
+            userEventPublisher.publishUpdated(user.getId(), user.getNickname(), user.getAvatar());
             log.info("管理员更新用户成功, userId: {}", request.getId());
         } catch (BusinessException e) {
             throw e;
@@ -160,6 +163,7 @@ public class UserAdminService {
                 } catch (Exception e) {
                     log.warn("踢出用户登录失败, userId: {}", userId);
                 }
+                userEventPublisher.publishUpdated(userId, null, null);
             }
             log.info("批量删除用户成功, userIds: {}", userIds);
         } catch (Exception e) {
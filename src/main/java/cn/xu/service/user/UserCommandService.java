@@ -3,6 +3,7 @@ package cn.xu.service.user;
 import cn.dev33.satoken.stp.StpUtil;
 import cn.xu.common.ResponseCode;
 import cn.xu.common.constants.FilePathConstants;
+import cn.xu.event.publisher.UserEventPublisher;
 import cn.xu.integration.file.service.FileStorageService;
 import cn.xu.model.dto.user.UpdateUserProfileRequest;
 import cn.xu.model.entity.User;
@@ -29,6 +30,7 @@ public class UserCommandService {
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final UserQueryService queryService;
+    private final UserEventPublisher userEventPublisher;
 
     /**
      * 更新用户资料
@@ -40,7 +42,7 @@ public class UserCommandService {
         }
 
         try {
-            User user = queryService.getById(userId);
+            User user = queryService.getForUpdate(userId);
             boolean updated = false;
 
             if (StringUtils.isNotBlank(request.getNickname())) {
@@ -63,6 +65,7 @@ public class UserCommandService {
             if (updated) {
                 user.setUpdateTime(LocalDateTime.now());
                 userRepository.save(user);
+                userEventPublisher.publishUpdated(userId, user.getNickname(), user.getAvatar());
                 log.info("更新用户资料成功, userId: {}", userId);
             }
         } catch (BusinessException e) {
@@ -103,10 +106,11 @@ public class UserCommandService {
         }
 
         try {
-            User user = queryService.getById(userId);
+            User user = queryService.getForUpdate(userId);
             user.setAvatar(avatarUrl);
             user.setUpdateTime(LocalDateTime.now());
             userRepository.save(user);
+            userEventPublisher.publishUpdated(userId, user.getNickname(), avatarUrl);
             log.info("更新用户头像成功, userId: {}", userId);
         } catch (BusinessException e) {
             throw e;
@@ -126,10 +130,11 @@ public class UserCommandService {
         }
 
         try {
-            User user = queryService.getById(userId);
+            User user = queryService.getForUpdate(userId);
             user.setStatus(User.STATUS_DISABLED);
             user.setUpdateTime(LocalDateTime.now());
             userRepository.save(user);
+            userEventPublisher.publishUpdated(userId, null, null);
             StpUtil.kickout(userId);
             log.info("禁止用户成功, userId: {}", userId);
         } catch (BusinessException e) {
@@ -150,10 +155,11 @@ public class UserCommandService {
         }
 
         try {
-            User user = queryService.getById(userId);
+            User user = queryService.getForUpdate(userId);
             user.setStatus(User.STATUS_NORMAL);
             user.setUpdateTime(LocalDateTime.now());
             userRepository.save(user);
+            userEventPublisher.publishUpdated(userId, null, null);
             log.info("解封用户成功, userId: {}", userId);
         } catch (BusinessException e) {
             throw e;
@@ -173,10 +179,11 @@ public class UserCommandService {
         }
 
         try {
-            User user = queryService.getById(userId);
+            User user = queryService.getForUpdate(userId);
             user.setStatus(User.STATUS_DELETED);
             user.setUpdateTime(LocalDateTime.now());
             userRepository.save(user);
+            userEventPublisher.publishUpdated(userId, null, null);
             StpUtil.kickout(userId);
             log.info("删除用户成功, userId: {}", userId);
         } catch (BusinessException e) {
@@ -197,7 +204,7 @@ public class UserCommandService {
         }
 
         try {
-            User user = queryService.getById(userId);
+            User user = queryService.getForUpdate(userId);
             if (!user.verifyPassword(password)) {
                 throw new BusinessException(ResponseCode.PASSWORD_ERROR.getCode(), "密码错误");
             }
@@ -205,6 +212,7 @@ public class UserCommandService {
             user.setStatus(User.STATUS_DELETED);
             user.setUpdateTime(LocalDateTime.now());
             userRepository.save(user);
+            userEventPublisher.publishUpdated(userId, null, null);
             StpUtil.kickout(userId);
             log.info("用户注销账户成功, userId: {}", userId);
         } catch (BusinessException e) {
@@ -1,5 +1,6 @@
 package cn.xu.service.user;
 
+import cn.xu.cache.repository.UserCardCacheRepository;
 import cn.xu.common.ResponseCode;
 import cn.xu.model.entity.User;
 import cn.xu.repository.UserRepository;
@@ -9,23 +10,52 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * 用户查询服务
  * <p>负责用户信息查询、批量查询、搜索等读操作</p>
+ * <p>getById / batchGetByIds 返回用户卡片（不含密码等敏感字段），走缓存；写操作需完整实体时使用 getForUpdate</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserQueryService {
 
+    /**
+     * 等待其他线程加载同一用户的最长时间（毫秒）
+     */
+    private static final long COALESCE_WAIT_MILLIS = 3000;
+
     private final UserRepository userRepository;
+    private final UserCardCacheRepository userCardCacheRepository;
+
+    /**
+     * 正在从数据库加载的用户：userId -> 加载结果，并发未命中的请求共享同一次查询
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<User>> inFlightLoads = new ConcurrentHashMap<>();
 
     /**
-     * 根据ID获取用户
+     * 根据ID获取用户卡片（走缓存，只读展示用）
      */
     public User getById(Long userId) {
+        if (userId == null) {
+            throw new BusinessException(ResponseCode.NULL_PARAMETER.getCode(), "用户ID不能为空");
+        }
+        User card = batchGetByIds(Collections.singletonList(userId)).get(userId);
+        if (card == null) {
+            throw new BusinessException(ResponseCode.NOT_FOUND.getCode(), "用户不存在");
+        }
+        return card;
+    }
+
+    /**
+     * 根据ID获取完整用户实体（直接查库，供更新、校验密码等写操作使用）
+     */
+    public User getForUpdate(Long userId) {
         if (userId == null) {
             throw new BusinessException(ResponseCode.NULL_PARAMETER.getCode(), "用户ID不能为空");
         }
@@ -65,24 +95,41 @@ public class UserQueryService {
     }
 
     /**
-     * 批量获取用户信息（返回Map）
+     * 批量获取用户卡片（返回Map）
+     * <p>先一次MGET读缓存，未命中的用户合并为一次数据库查询；并发请求同一用户时只查一次库</p>
      */
     public Map<Long, User> batchGetByIds(Collection<Long> userIds) {
         if (userIds == null || userIds.isEmpty()) {
             return new HashMap<>();
         }
 
+        Set<Long> uniqueIds = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (uniqueIds.isEmpty()) {
+            return new HashMap<>();
+        }
+
         try {
-            Set<Long> uniqueIds = new HashSet<>(userIds);
-            List<User> users = userRepository.findByIds(new ArrayList<>(uniqueIds));
-            return users.stream()
-                    .collect(Collectors.toMap(User::getId, user -> user, (a, b) -> a));
+            Set<Long> missed = new LinkedHashSet<>();
+            Map<Long, User> result = userCardCacheRepository.getCards(uniqueIds, missed);
+            if (!missed.isEmpty()) {
+                result.putAll(loadCoalesced(missed));
+            }
+            return result;
         } catch (Exception e) {
             log.error("批量获取用户信息失败, userIds: {}", userIds, e);
             return new HashMap<>();
         }
     }
 
+    /**
+     * 使缓存的用户卡片失效
+     */
+    public void evictCards(Collection<Long> userIds) {
+        userCardCacheRepository.evictCards(userIds);
+    }
+
     /**
      * 批量获取用户列表
      */
@@ -162,4 +209,55 @@ public class UserQueryService {
             return 0L;
         }
     }
+
+    // ==================== 私有方法 ====================
+
+    /**
+     * 合并并发未命中：本线程负责加载尚无人加载的用户，其余等待正在进行的加载结果
+     */
+    private Map<Long, User> loadCoalesced(Set<Long> missed) {
+        Map<Long, CompletableFuture<User>> owned = new HashMap<>();
+        Map<Long, CompletableFuture<User>> waiting = new HashMap<>();
+        for (Long userId : missed) {
+            CompletableFuture<User> future = new CompletableFuture<>();
+            CompletableFuture<User> existing = inFlightLoads.putIfAbsent(userId, future);
+            if (existing == null) {
+                owned.put(userId, future);
+            } else {
+                waiting.put(userId, existing);
+            }
+        }
+
+        Map<Long, User> result = new HashMap<>();
+        if (!owned.isEmpty()) {
+            try {
+                Map<Long, User> loaded = userRepository.findByIds(new ArrayList<>(owned.keySet())).stream()
+                        .collect(Collectors.toMap(User::getId, UserCardCacheRepository::toCard, (a, b) -> a));
+                userCardCacheRepository.cacheCards(owned.keySet(), loaded);
+                result.putAll(loaded);
+                owned.forEach((userId, future) -> future.complete(loaded.get(userId)));
+            } catch (Exception e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(inFlightLoads::remove);
+            }
+        }
+
+        waiting.forEach((userId, future) -> {
+            try {
+                User user = future.get(COALESCE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                if (user != null) {
+                    result.put(userId, user);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // 其他线程加载失败或超时，自行查库兜底
+                userRepository.findById(userId)
+                        .ifPresent(user -> result.put(userId, UserCardCacheRepository.toCard(user)));
+            }
+        });
+        return result;
+    }
 }
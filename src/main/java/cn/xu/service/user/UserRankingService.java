@@ -22,6 +22,11 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserRankingService {
 
+    /**
+     * 每个排行保留的用户数
+     */
+    public static final int RANKING_CAPACITY = 1000;
+
     private final UserRepository userRepository;
     private final UserRankingCacheRepository userRankingCacheRepository;
 
@@ -39,20 +44,10 @@ public class UserRankingService {
                 return userRepository.findByIds(new ArrayList<>(cachedUserIds));
             }
 
-            // 缓存未命中，从数据库查询
+            // 缓存未命中，从数据库查询（排行由定时任务整体发布，单页结果不回写，避免覆盖完整排行）
             int offset = Math.max(0, (page - 1) * size);
             List<User> users = userRepository.findUserRanking(sortType, offset, size);
 
-            // 写入缓存
-            if (users != null && !users.isEmpty()) {
-                Map<Long, Double> userScores = new HashMap<>();
-                for (User user : users) {
-                    double score = calculateRankingScore(user, sortType);
-                    userScores.put(user.getId(), score);
-                }
-                userRankingCacheRepository.cacheUserRanking(sortType, userScores);
-            }
-
             return users != null ? users : new ArrayList<>();
         } catch (Exception e) {
             log.error("查询用户排行榜失败, sortType: {}, page: {}, size: {}", sortType, page, size, e);
@@ -60,28 +55,50 @@ public class UserRankingService {
         }
     }
 
+    /**
+     * 重新计算单个用户在各排行中的分数（关注、点赞变化后调用）
+     * <p>两次整体发布之间增量维护排行，分数取数据库中的最新计数</p>
+     */
+    public void refreshUserScores(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null || user.getStatus() == null || !user.isNormal()) {
+            return;
+        }
+        Map<String, Double> scores = new HashMap<>();
+        for (UserRankingSortType type : UserRankingSortType.values()) {
+            scores.put(type.getCode(), calculateRankingScore(user, type.getCode()));
+        }
+        userRankingCacheRepository.updateUserScores(userId, scores, RANKING_CAPACITY);
+    }
+
     /**
      * 计算用户排行榜分数
+     * <p>与 findUserRanking 的数据库排序保持一致：单项排行以次要指标作为并列时的区分</p>
      */
-    private double calculateRankingScore(User user, String sortType) {
+    public static double calculateRankingScore(User user, String sortType) {
         if (user == null) return 0.0;
 
-        UserRankingSortType rankingSortType = UserRankingSortType.fromCode(sortType);
+        long fans = user.getFansCount() != null ? user.getFansCount() : 0L;
+        long likes = user.getLikeCount() != null ? user.getLikeCount() : 0L;
+        long posts = user.getPostCount() != null ? user.getPostCount() : 0L;
 
-        switch (rankingSortType) {
+        switch (UserRankingSortType.fromCode(sortType)) {
             case FANS:
-                return user.getFansCount() != null ? user.getFansCount().doubleValue() : 0.0;
+                // 粉丝数 * 1000000 + 获赞数
+                return fans * 1000000.0 + likes;
             case LIKES:
-                return user.getLikeCount() != null ? user.getLikeCount().doubleValue() : 0.0;
+                // 获赞数 * 1000000 + 粉丝数
+                return likes * 1000000.0 + fans;
             case POSTS:
-                return user.getPostCount() != null ? user.getPostCount().doubleValue() : 0.0;
+                // 帖子数 * 1000000 + 获赞数
+                return posts * 1000000.0 + likes;
             case COMPREHENSIVE:
             default:
-                // 综合分数 = 粉丝数*1 + 获赞数*0.5 + 帖子数*2
-                double fans = user.getFansCount() != null ? user.getFansCount() : 0.0;
-                double likes = user.getLikeCount() != null ? user.getLikeCount() : 0.0;
-                double posts = user.getPostCount() != null ? user.getPostCount() : 0.0;
-                return fans + likes * 0.5 + posts * 2;
+                // 综合分数 = 粉丝数 * 0.4 + 获赞数 * 0.4 + 帖子数 * 0.2
+                return fans * 0.4 + likes * 0.4 + posts * 0.2;
         }
     }
 }
@@ -43,8 +43,10 @@ public class PostHotScoreCacheHelper {
      */
     private void increment(Long postId, String type) {
         String key = RedisKeyManager.postHotCacheKey(postId);
-        redisOps.hIncrement(key, type, 1);
-        redisOps.expire(key, 3600);
+        redisOps.pipeline()
+                .hIncrement(key, type, 1)
+                .expire(key, 3600)
+                .execute();
     }
 
     /**
@@ -0,0 +1,299 @@
+package cn.xu.support.util;
+
+import java.util.*;
+
+/**
+ * 敏感词匹配自动机
+ * <p>Aho–Corasick 自动机，转移表用双数组（base/check）存储，字符先映射为紧凑编码再寻址</p>
+ * <p>构建完成后只读，可被多个线程同时使用；词库变更时整体重建后替换引用</p>
+ * <p>字符按UTF-16代码单元处理，增补平面字符（如emoji）以代理对的两个单元依次匹配</p>
+ */
+final class SensitiveWordAutomaton {
+
+    private static final int ROOT = 0;
+
+    /**
+     * 未占用的check值
+     */
+    private static final int FREE = -1;
+
+    /**
+     * 字符 -> 编码（从1开始，0表示字符不在词库中）
+     */
+    private final char[] charCodes;
+
+    private final int[] base;
+    private final int[] check;
+    private final int[] fail;
+
+    /**
+     * 状态对应前缀的长度
+     */
+    private final int[] depth;
+
+    /**
+     * 以该状态结尾的最长敏感词长度（含失败链上的输出），0表示无输出
+     */
+    private final int[] maxLength;
+
+    private final int wordCount;
+
+    private SensitiveWordAutomaton(char[] charCodes, int[] base, int[] check, int[] fail, int[] depth,
+                                   int[] maxLength, int wordCount) {
+        this.charCodes = charCodes;
+        this.base = base;
+        this.check = check;
+        this.fail = fail;
+        this.depth = depth;
+        this.maxLength = maxLength;
+        this.wordCount = wordCount;
+    }
+
+    /**
+     * 构建自动机
+     *
+     * @param words 敏感词（空白词会被忽略）
+     */
+    static SensitiveWordAutomaton build(Collection<String> words) {
+        // 1. 字符编码
+        char[] charCodes = new char[Character.MAX_VALUE + 1];
+        int codeCount = 0;
+        Set<String> distinctWords = new LinkedHashSet<>();
+        for (String word : words) {
+            if (word == null || word.isEmpty()) {
+                continue;
+            }
+            distinctWords.add(word);
+            for (int i = 0; i < word.length(); i++) {
+                char ch = word.charAt(i);
+                if (charCodes[ch] == 0) {
+                    charCodes[ch] = (char) ++codeCount;
+                }
+            }
+        }
+
+        // 2. 普通前缀树，子节点按编码有序，便于按层放入双数组
+        List<TreeMap<Integer, Integer>> children = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Boolean> terminals = new ArrayList<>();
+        children.add(new TreeMap<>());
+        depths.add(0);
+        terminals.add(false);
+        for (String word : distinctWords) {
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                int code = charCodes[word.charAt(i)];
+                Integer child = children.get(node).get(code);
+                if (child == null) {
+                    child = children.size();
+                    children.add(new TreeMap<>());
+                    depths.add(i + 1);
+                    terminals.add(false);
+                    children.get(node).put(code, child);
+                }
+                node = child;
+            }
+            terminals.set(node, true);
+        }
+
+        // 3. 按BFS顺序放入双数组
+        int nodeCount = children.size();
+        int[] stateOf = new int[nodeCount];
+        int capacity = Math.max(16, nodeCount * 2 + codeCount + 1);
+        int[] base = new int[capacity];
+        int[] check = new int[capacity];
+        Arrays.fill(check, FREE);
+        check[ROOT] = Integer.MIN_VALUE;
+        int used = 1;
+        int searchFrom = 1;
+
+        List<Integer> order = new ArrayList<>(nodeCount);
+        order.add(ROOT);
+        for (int index = 0; index < order.size(); index++) {
+            int node = order.get(index);
+            TreeMap<Integer, Integer> nodeChildren = children.get(node);
+            if (nodeChildren.isEmpty()) {
+                continue;
+            }
+            int state = stateOf[node];
+            int firstCode = nodeChildren.firstKey();
+
+            while (searchFrom < check.length && check[searchFrom] != FREE) {
+                searchFrom++;
+            }
+            int b = Math.max(1, searchFrom - firstCode);
+            while (true) {
+                int required = b + nodeChildren.lastKey() + 1;
+                if (required > check.length) {
+                    int newCapacity = Math.max(required, check.length * 2);
+                    base = Arrays.copyOf(base, newCapacity);
+                    int oldLength = check.length;
+                    check = Arrays.copyOf(check, newCapacity);
+                    Arrays.fill(check, oldLength, newCapacity, FREE);
+                }
+                boolean fits = true;
+                for (int code : nodeChildren.keySet()) {
+                    if (check[b + code] != FREE) {
+                        fits = false;
+                        break;
+                    }
+                }
+                if (fits) {
+                    break;
+                }
+                b++;
+            }
+
+            base[state] = b;
+            for (Map.Entry<Integer, Integer> entry : nodeChildren.entrySet()) {
+                int childState = b + entry.getKey();
+                check[childState] = state;
+                stateOf[entry.getValue()] = childState;
+                used = Math.max(used, childState + 1);
+                order.add(entry.getValue());
+            }
+        }
+        base = Arrays.copyOf(base, used);
+        check = Arrays.copyOf(check, used);
+
+        // 4. 失败指针与输出，BFS顺序保证父状态和更短的后缀先处理
+        int[] fail = new int[used];
+        int[] depth = new int[used];
+        int[] maxLength = new int[used];
+        for (int node : order) {
+            int state = stateOf[node];
+            for (Map.Entry<Integer, Integer> entry : children.get(node).entrySet()) {
+                int code = entry.getKey();
+                int childNode = entry.getValue();
+                int childState = stateOf[childNode];
+
+                int target = ROOT;
+                if (state != ROOT) {
+                    int f = fail[state];
+                    while (true) {
+                        int t = transition(base, check, f, code);
+                        if (t >= 0) {
+                            target = t;
+                            break;
+                        }
+                        if (f == ROOT) {
+                            break;
+                        }
+                        f = fail[f];
+                    }
+                }
+                fail[childState] = target;
+                depth[childState] = depths.get(childNode);
+
+                int own = terminals.get(childNode) ? depths.get(childNode) : 0;
+                maxLength[childState] = own > 0 ? own : maxLength[target];
+            }
+        }
+
+        return new SensitiveWordAutomaton(charCodes, base, check, fail, depth, maxLength, distinctWords.size());
+    }
+
+    private static int transition(int[] base, int[] check, int state, int code) {
+        int t = base[state] + code;
+        return t < check.length && check[t] == state ? t : -1;
+    }
+
+    /**
+     * 读入一个字符后的状态
+     */
+    private int next(int state, char ch) {
+        int code = charCodes[ch];
+        if (code == 0) {
+            return ROOT;
+        }
+        while (true) {
+            int t = base[state] + code;
+            if (t < check.length && check[t] == state) {
+                return t;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    /**
+     * 词库中的敏感词数量
+     */
+    int size() {
+        return wordCount;
+    }
+
+    /**
+     * 是否包含任一敏感词（不分配对象）
+     */
+    boolean matches(CharSequence text) {
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = next(state, text.charAt(i));
+            if (maxLength[state] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从左到右查找互不重叠的敏感词，最左优先、同起点取最长（与原DFA逐位置匹配的结果一致，
+     * 如词库 {"bc", "abcd"} 在 "abcd" 中命中 "abcd"）
+     * <p>扫描中保留当前最优候选，当前状态的前缀长度说明已不可能再出现起点更靠左或同起点更长的词时输出候选，
+     * 并从候选结尾重新开始扫描，只有与候选重叠的少量字符会被重读</p>
+     */
+    List<String> findAll(String text) {
+        List<String> result = new ArrayList<>();
+        int length = text.length();
+        int state = ROOT;
+        int candidateStart = -1;
+        int candidateEnd = -1;
+        int i = 0;
+        while (i < length || candidateStart >= 0) {
+            if (i < length) {
+                state = next(state, text.charAt(i));
+                int matched = maxLength[state];
+                if (matched > 0) {
+                    int start = i + 1 - matched;
+                    if (candidateStart < 0 || start <= candidateStart) {
+                        candidateStart = start;
+                        candidateEnd = i + 1;
+                    }
+                }
+                i++;
+                if (candidateStart < 0 || i - depth[state] <= candidateStart) {
+                    continue;
+                }
+            }
+            result.add(text.substring(candidateStart, candidateEnd));
+            i = candidateEnd;
+            state = ROOT;
+            candidateStart = -1;
+        }
+        return result;
+    }
+
+    /**
+     * 将所有命中的字符替换为指定字符，未命中时返回原字符串
+     * <p>与 {@link #findAll} 不同，相互重叠的敏感词全部替换（如词库 {"ab", "bcd"} 时 "abcd" 整体被替换），
+     * 避免只替换左侧的词后留下可辨认的残余</p>
+     */
+    String replace(String text, char replaceChar) {
+        char[] chars = null;
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = next(state, text.charAt(i));
+            int matched = maxLength[state];
+            if (matched > 0) {
+                if (chars == null) {
+                    chars = text.toCharArray();
+                }
+                Arrays.fill(chars, i + 1 - matched, i + 1, replaceChar);
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+}
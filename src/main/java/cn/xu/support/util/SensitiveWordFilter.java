@@ -1,7 +1,9 @@
 package cn.xu.support.util;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -11,15 +13,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 敏感词过滤器
- * <p>通过DFA算法辅助敏感词过滤的工具</p>
- 
+ * <p>基于Aho–Corasick自动机，单次扫描完成匹配，耗时与文本长度线性相关</p>
+ * <p>配置了外部词库文件时定时检查文件变更并热加载：新自动机构建完成后整体替换，加载期间过滤不受影响</p>
  */
 @Slf4j
 @Component
@@ -31,19 +35,20 @@ public class SensitiveWordFilter {
     private static final String SENSITIVE_WORD_FILE = "sensitive-words.txt";
 
     /**
-     * 敏感词的字典
+     * 外部词库文件路径，为空时使用classpath下的词库（不支持热加载）
      */
-    private final Map<Character, Object> sensitiveWordMap = new HashMap<>();
+    @Value("${app.sensitive-word.location:}")
+    private String location;
 
     /**
-     * 结束标记
+     * 当前使用的自动机
      */
-    private static final Character END_MARK = '\0'; // 用于标识敏感词的结束
+    private volatile SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of());
 
     /**
-     * 最小匹配长度，避免匹配过短的词
+     * 外部词库文件最近一次加载时的修改时间
      */
-    private int minMatchLength = Integer.MAX_VALUE;
+    private volatile long lastModified;
 
     /**
      * 初始化方法，加载敏感词字典
@@ -51,86 +56,104 @@ public class SensitiveWordFilter {
     @PostConstruct
     public void init() {
         try {
-            loadSensitiveWords();
-            log.info("敏感词库初始化成功，共加载了 {} 个敏感词", sensitiveWordMap.size());
+            List<String> words = loadSensitiveWords();
+            automaton = SensitiveWordAutomaton.build(words);
+            log.info("敏感词库初始化成功，共加载了 {} 个敏感词", automaton.size());
         } catch (Exception e) {
             log.error("加载敏感词库失败，错误信息: {}", e.getMessage(), e);
             // 加载默认敏感词库
-            loadDefaultSensitiveWords();
+            automaton = SensitiveWordAutomaton.build(loadDefaultSensitiveWords());
+        }
+    }
+
+    /**
+     * 定时检查外部词库文件，发生变更时重新加载
+     */
+    @Scheduled(fixedDelayString = "${app.sensitive-word.reload-interval:60000}")
+    public void checkForUpdates() {
+        if (!StringUtils.hasText(location)) {
+            return;
+        }
+        try {
+            Path path = Paths.get(location);
+            if (Files.exists(path) && Files.getLastModifiedTime(path).toMillis() != lastModified) {
+                reload();
+            }
+        } catch (Exception e) {
+            log.warn("检查敏感词文件变更失败: {}, error: {}", location, e.getMessage());
+        }
+    }
+
+    /**
+     * 重新加载敏感词库
+     * <p>加载失败时继续使用当前词库</p>
+     *
+     * @return 是否加载成功
+     */
+    public synchronized boolean reload() {
+        try {
+            List<String> words = loadSensitiveWords();
+            SensitiveWordAutomaton loaded = SensitiveWordAutomaton.build(words);
+            automaton = loaded;
+            log.info("敏感词库重新加载成功，共加载了 {} 个敏感词", loaded.size());
+            return true;
+        } catch (Exception e) {
+            log.error("重新加载敏感词库失败，继续使用当前词库: {}", e.getMessage(), e);
+            return false;
         }
     }
 
     /**
      * 加载敏感词文件
      */
-    private void loadSensitiveWords() {
+    private List<String> loadSensitiveWords() throws IOException {
+        if (StringUtils.hasText(location)) {
+            Path path = Paths.get(location);
+            if (!Files.exists(path)) {
+                throw new IOException("敏感词文件不存在: " + location);
+            }
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            List<String> words;
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                words = readWords(inputStream);
+            }
+            lastModified = modified;
+            return words;
+        }
+
         ClassPathResource resource = new ClassPathResource(SENSITIVE_WORD_FILE);
         if (!resource.exists()) {
             log.warn("未找到敏感词文件: {}，将使用默认敏感词库", SENSITIVE_WORD_FILE);
-            loadDefaultSensitiveWords();
-            return;
+            return loadDefaultSensitiveWords();
         }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return readWords(inputStream);
+        }
+    }
 
-        try (InputStream inputStream = resource.getInputStream();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-
+    /**
+     * 逐行读取敏感词，忽略空行和#开头的注释行
+     */
+    private List<String> readWords(InputStream inputStream) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 String word = line.trim();
                 if (StringUtils.hasText(word) && !word.startsWith("#")) {
-                    addSensitiveWord(word);
-                    minMatchLength = Math.min(minMatchLength, word.length());
+                    words.add(word);
                 }
             }
-        } catch (IOException e) {
-            log.error("读取敏感词文件出错: {}", SENSITIVE_WORD_FILE, e);
-            loadDefaultSensitiveWords();
         }
+        return words;
     }
 
     /**
      * 加载默认的敏感词
      */
-    private void loadDefaultSensitiveWords() {
+    private List<String> loadDefaultSensitiveWords() {
         log.info("加载默认敏感词库");
-        String[] defaultWords = {
-                "敏感词1", "敏感词2", "敏感词3", "敏感词4"
-        };
-
-        for (String word : defaultWords) {
-            addSensitiveWord(word);
-            minMatchLength = Math.min(minMatchLength, word.length());
-        }
-    }
-
-    /**
-     * 添加敏感词到字典
-     *
-     * @param word 敏感词
-     */
-    private void addSensitiveWord(String word) {
-        if (!StringUtils.hasText(word)) {
-            return;
-        }
-
-        Map<Character, Object> currentMap = sensitiveWordMap;
-        for (int i = 0; i < word.length(); i++) {
-            char keyChar = word.charAt(i);
-            Object wordMap = currentMap.get(keyChar);
-
-            if (wordMap != null) {
-                currentMap = (Map<Character, Object>) wordMap;
-            } else {
-                Map<Character, Object> newWordMap = new HashMap<>();
-                newWordMap.put(END_MARK, false);
-                currentMap.put(keyChar, newWordMap);
-                currentMap = newWordMap;
-            }
-
-            if (i == word.length() - 1) {
-                currentMap.put(END_MARK, true);
-            }
-        }
+        return Arrays.asList("敏感词1", "敏感词2", "敏感词3", "敏感词4");
     }
 
     /**
@@ -143,40 +166,24 @@ public class SensitiveWordFilter {
         if (!StringUtils.hasText(text)) {
             return false;
         }
-
-        for (int i = 0; i < text.length(); i++) {
-            int matchFlag = checkSensitiveWord(text, i);
-            if (matchFlag > 0) {
-                return true;
-            }
-        }
-        return false;
+        return automaton.matches(text);
     }
 
     /**
      * 获取文本中的敏感词列表
      *
      * @param text 输入文本
-     * @return 敏感词列表
+     * @return 敏感词列表（从左到右，互不重叠，同一起点取最长的词）
      */
     public List<String> getSensitiveWords(String text) {
-        List<String> sensitiveWords = new ArrayList<>();
         if (!StringUtils.hasText(text)) {
-            return sensitiveWords;
-        }
-
-        for (int i = 0; i < text.length(); i++) {
-            int length = checkSensitiveWord(text, i);
-            if (length > 0) {
-                sensitiveWords.add(text.substring(i, i + length));
-                i = i + length - 1;
-            }
+            return new ArrayList<>();
         }
-        return sensitiveWords;
+        return automaton.findAll(text);
     }
 
     /**
-     * 替换文本中的敏感词
+     * 替换文本中的敏感词（相互重叠的敏感词全部替换）
      *
      * @param text        输入文本
      * @param replaceChar 替换字符
@@ -186,61 +193,6 @@ public class SensitiveWordFilter {
         if (!StringUtils.hasText(text)) {
             return text;
         }
-
-        StringBuilder result = new StringBuilder(text);
-        for (int i = 0; i < result.length(); i++) {
-            int length = checkSensitiveWord(result.toString(), i);
-            if (length > 0) {
-                for (int j = 0; j < length; j++) {
-                    result.setCharAt(i + j, replaceChar);
-                }
-                i = i + length - 1;
-            }
-        }
-        return result.toString();
-    }
-
-    /**
-     * 检查指定位置的文本是否包含敏感词
-     *
-     * @param text       输入文本
-     * @param beginIndex 检查的起始位置
-     * @return 返回匹配的敏感词长度，0表示没有匹配
-     */
-    private int checkSensitiveWord(String text, int beginIndex) {
-        if (beginIndex >= text.length() || beginIndex < 0) {
-            return 0;
-        }
-
-        // 判断剩余长度是否足够匹配最小敏感词
-        if (text.length() - beginIndex < minMatchLength) {
-            return 0;
-        }
-
-        Map<Character, Object> currentMap = sensitiveWordMap;
-        int matchFlag = 0;
-        boolean flag = false;
-
-        for (int i = beginIndex; i < text.length(); i++) {
-            char word = text.charAt(i);
-            Map<Character, Object> wordMap = (Map<Character, Object>) currentMap.get(word);
-
-            if (wordMap != null) {
-                matchFlag++;
-                currentMap = wordMap;
-                if (Boolean.TRUE.equals(wordMap.get(END_MARK))) {
-                    flag = true;
-                    break;
-                }
-            } else {
-                break;
-            }
-        }
-
-        if (matchFlag < minMatchLength || !flag) {
-            matchFlag = 0;
-        }
-
-        return matchFlag;
+        return automaton.replace(text, replaceChar);
     }
 }
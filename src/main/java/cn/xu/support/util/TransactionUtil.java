@@ -0,0 +1,39 @@
+package cn.xu.support.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ * <p>缓存更新等附带操作放到事务提交之后执行，回滚时不执行，失败只记录日志不影响主流程</p>
+ */
+@Slf4j
+public class TransactionUtil {
+
+    /**
+     * 事务提交后执行操作，当前没有事务时立即执行
+     *
+     * @param description 操作描述，失败时写入日志
+     * @param action      要执行的操作
+     */
+    public static void afterCommit(String description, Runnable action) {
+        Runnable safeAction = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.error("[事务提交后] {}失败", description, e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            safeAction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                safeAction.run();
+            }
+        });
+    }
+}
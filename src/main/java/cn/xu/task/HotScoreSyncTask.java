@@ -2,6 +2,7 @@ package cn.xu.task;
 
 import cn.xu.cache.core.RedisKeyManager;
 import cn.xu.cache.core.RedisOperations;
+import cn.xu.cache.core.RedisPipeline;
 import cn.xu.integration.search.strategy.ElasticsearchSearchStrategy;
 import cn.xu.model.entity.Post;
 import cn.xu.service.post.PostQueryService;
@@ -16,9 +17,10 @@ import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -95,22 +97,47 @@ public class HotScoreSyncTask {
     @Scheduled(cron = "0 0 * * * ?")
     public void decayHotComments() {
         String pattern = RedisKeyManager.commentHotDecayKey() + ":*";
-        Set<String> keys = scanKeys(pattern);
-        for (String zsetKey : keys) {
-            Set<ZSetOperations.TypedTuple<Object>> hotComments = redisOps.zRangeWithScores(zsetKey, 0, -1);
-
-            if (hotComments != null) {
-                for (ZSetOperations.TypedTuple<Object> tuple : hotComments) {
-                    double oldScore = tuple.getScore();
-                    double newScore = oldScore * 0.98;
-                    redisOps.zAdd(zsetKey, Objects.requireNonNull(tuple.getValue()), newScore);
-
-                    if (newScore < 5) {
-                        redisOps.zRemove(zsetKey, tuple.getValue());
-                    }
+        List<String> keys = new ArrayList<>(scanKeys(pattern));
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        // 一次管道读取全部ZSet
+        RedisPipeline reads = redisOps.pipeline();
+        keys.forEach(key -> reads.zRangeWithScores(key, 0, -1));
+        List<Object> results = reads.execute();
+        if (results == null) {
+            return;
+        }
+
+        // 衰减后的分数批量写回，低于阈值的成员批量移除，一次管道写入
+        RedisPipeline writes = redisOps.pipeline();
+        for (int i = 0; i < keys.size() && i < results.size(); i++) {
+            if (!(results.get(i) instanceof Set)) {
+                continue;
+            }
+            Set<ZSetOperations.TypedTuple<Object>> decayed = new HashSet<>();
+            List<Object> expired = new ArrayList<>();
+            for (Object item : (Set<?>) results.get(i)) {
+                if (!(item instanceof ZSetOperations.TypedTuple)) {
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                ZSetOperations.TypedTuple<Object> tuple = (ZSetOperations.TypedTuple<Object>) item;
+                if (tuple.getValue() == null || tuple.getScore() == null) {
+                    continue;
+                }
+                double newScore = tuple.getScore() * 0.98;
+                if (newScore < 5) {
+                    expired.add(tuple.getValue());
+                } else {
+                    decayed.add(ZSetOperations.TypedTuple.of(tuple.getValue(), newScore));
                 }
             }
+            writes.zAdd(keys.get(i), decayed).zRemove(keys.get(i), expired.toArray());
         }
+        writes.execute();
+        log.info("[定时任务] 热门评论分数衰减完成 - keys: {}, commands: {}", keys.size(), writes.size());
     }
 
     private int parseIntSafe(Object obj) {
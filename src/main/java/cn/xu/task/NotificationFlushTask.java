@@ -0,0 +1,34 @@
+package cn.xu.task;
+
+import cn.xu.service.notification.NotificationBatchWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知批量写入定时任务
+ * <p>按固定窗口把缓冲中的互动通知合并后批量写入并推送</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationFlushTask {
+
+    private final NotificationBatchWriter notificationBatchWriter;
+
+    /**
+     * 默认每2秒写入一次，可通过 app.notification.batch.flush-interval-ms 调整
+     */
+    @Scheduled(fixedDelayString = "${app.notification.batch.flush-interval-ms:2000}")
+    public void flushNotifications() {
+        try {
+            int written = notificationBatchWriter.flush();
+            if (written > 0) {
+                log.debug("[定时任务] 通知批量写入完成，通知数: {}", written);
+            }
+        } catch (Exception e) {
+            log.error("[定时任务] 通知批量写入失败", e);
+        }
+    }
+}
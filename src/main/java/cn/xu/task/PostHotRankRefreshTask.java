@@ -0,0 +1,34 @@
+package cn.xu.task;
+
+import cn.xu.service.post.PostHotRankingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 帖子热度批量重算定时任务
+ * <p>定期重算点赞、评论、收藏、分享后被标记的帖子，更新热门排行</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostHotRankRefreshTask {
+
+    private final PostHotRankingService postHotRankingService;
+
+    /**
+     * 默认每5秒重算一次，可通过 post.hot-rank.refresh-interval-ms 调整
+     */
+    @Scheduled(fixedDelayString = "${post.hot-rank.refresh-interval-ms:5000}")
+    public void refreshDirtyPosts() {
+        try {
+            int refreshed = postHotRankingService.flushDirty();
+            if (refreshed > 0) {
+                log.debug("[定时任务] 热度批量重算完成，帖子数: {}", refreshed);
+            }
+        } catch (Exception e) {
+            log.error("[定时任务] 热度批量重算失败", e);
+        }
+    }
+}
@@ -1,25 +1,17 @@
 package cn.xu.task;
 
-import cn.xu.cache.core.RedisKeyManager;
-import cn.xu.cache.core.RedisOperations;
-import cn.xu.model.entity.Post;
-import cn.xu.repository.mapper.PostMapper;
-import cn.xu.service.post.PostHotScorePolicy;
+import cn.xu.service.post.PostHotRankingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
  * 帖子热度定时更新任务
- * 
+ *
  *
  */
 @Slf4j
@@ -27,79 +19,32 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PostHotnessTask {
 
-    private final RedisOperations redisOps;
-    private final PostMapper postMapper;
+    private final PostHotRankingService postHotRankingService;
 
     /**
-     * 定时任务：每小时更新一次帖子的热度分数
-     * 使用批量查询优化性能，避免 N+1 查询问题
+     * 定时任务：每小时重建一次热门排行（全局/标签/周榜/月榜）
+     * 时间衰减需要按新的基准时间重算全部分数，同时淘汰过期的周期排行成员
      */
     @Scheduled(cron = "0 0 * * * ?")
     public void updatePostHotScores() {
         try {
-            // 获取 Redis 中所有帖子的热度数据
-            Set<ZSetOperations.TypedTuple<Object>> allPosts = redisOps.zRangeWithScores(
-                    RedisKeyManager.postHotRankKey(), 0, -1);
-
-            if (allPosts == null || allPosts.isEmpty()) {
-                log.debug("Redis 中没有帖子热度数据，跳过更新");
-                return;
-            }
-
-            // 1. 收集所有帖子ID
-            List<Long> postIds = allPosts.stream()
-                    .map(tuple -> {
-                        try {
-                            return Long.parseLong((String) Objects.requireNonNull(tuple.getValue()));
-                        } catch (Exception e) {
-                            log.warn("解析帖子ID失败: {}", tuple.getValue());
-                            return null;
-                        }
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-
-            if (postIds.isEmpty()) {
-                log.warn("没有有效的帖子ID");
-                return;
-            }
-
-            // 2. 批量查询帖子（解决 N+1 问题）
-            List<Post> posts = postMapper.findByIds(postIds);
-            if (posts == null || posts.isEmpty()) {
-                log.warn("批量查询帖子结果为空");
-                return;
-            }
-
-            // 3. 构建 ID -> Post 的映射，便于快速查找
-            Map<Long, Post> postMap = posts.stream()
-                    .collect(Collectors.toMap(Post::getId, post -> post));
-
-            // 4. 批量更新热度分数
-            int updateCount = 0;
-            for (Long postId : postIds) {
-                Post post = postMap.get(postId);
-                if (post != null) {
-                    // 计算帖子的热度分数，带时间衰减
-                    double hotScore = PostHotScorePolicy.calculate(
-                            post.getLikeCount() != null ? post.getLikeCount() : 0L,
-                            post.getCommentCount() != null ? post.getCommentCount() : 0L,
-                            post.getFavoriteCount() != null ? post.getFavoriteCount() : 0L,
-                            post.getCreateTime()
-                    );
-
-                    // 更新 Redis 中该帖子的热度分数
-                    redisOps.zAdd(RedisKeyManager.postHotRankKey(), postId.toString(), hotScore);
-                    updateCount++;
-                }
-            }
-
-            // 5. 保证 Redis 中只保存前1000名帖子的热度数据
-            redisOps.zRemoveRange(RedisKeyManager.postHotRankKey(), 1000, -1);
-
-            log.info("帖子热度更新成功，更新数量 {}/{}，保留前1000篇帖子热度", updateCount, postIds.size());
+            long start = System.currentTimeMillis();
+            int scanned = postHotRankingService.rebuild();
+            log.info("[定时任务] 帖子热门排行重建完成 - posts: {}, 耗时: {}ms",
+                    scanned, System.currentTimeMillis() - start);
         } catch (Exception e) {
-            log.error("帖子热度更新失败", e);
+            log.error("[定时任务] 帖子热门排行重建失败", e);
+        }
+    }
+
+    /**
+     * 启动时排行为空则立即重建，避免等待到下一个整点
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!postHotRankingService.isReady()) {
+            updatePostHotScores();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package cn.xu.task;
+
+import cn.xu.service.post.PostViewCounter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 帖子浏览量刷盘定时任务
+ * <p>定期将内存中累积的浏览量增量批量写入数据库</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostViewFlushTask {
+
+    private final PostViewCounter postViewCounter;
+
+    /**
+     * 默认每5秒刷盘一次，可通过 post.view-count.flush-interval-ms 调整
+     */
+    @Scheduled(fixedDelayString = "${post.view-count.flush-interval-ms:5000}")
+    public void flushViewCounts() {
+        try {
+            int flushed = postViewCounter.flush();
+            if (flushed > 0) {
+                log.debug("[定时任务] 浏览量刷盘完成，帖子数: {}", flushed);
+            }
+        } catch (Exception e) {
+            log.error("[定时任务] 浏览量刷盘失败", e);
+        }
+    }
+}
@@ -1,117 +1,107 @@
 package cn.xu.task;
 
-import cn.xu.cache.repository.FavoriteCacheRepository;
-import cn.xu.cache.repository.LikeCacheRepository;
 import cn.xu.cache.core.RedisKeyManager;
 import cn.xu.cache.core.RedisOperations;
+import cn.xu.cache.core.RedisPipeline;
+import cn.xu.model.dto.post.PostCountResult;
+import cn.xu.model.dto.post.PostCountUpdate;
 import cn.xu.model.entity.Like;
 import cn.xu.model.entity.Post;
 import cn.xu.model.enums.favorite.TargetType;
-import cn.xu.repository.FavoriteRepository;
+import cn.xu.repository.mapper.FavoriteMapper;
+import cn.xu.repository.mapper.LikeMapper;
 import cn.xu.repository.mapper.PostMapper;
-import cn.xu.service.like.LikeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * Redis数据同步任务
  * 负责定时将Redis中的计数数据同步到数据库
- * 
+ *
  * 重要：此任务使用增量同步策略
  * - 如果Redis中有数据，使用数据库当前值 + Redis增量值
  * - 如果Redis中没有数据，从数据库恢复真实值到Redis（而不是用0覆盖数据库）
+ *
+ * 按主键游标分批扫描已发布帖子的计数列，每批：
+ * - 点赞数、收藏数各一条 GROUP BY 统计
+ * - 浏览数、评论数增量一次管道读取
+ * - 变化的帖子一条批量UPDATE，计数缓存一次管道回写
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RedisSyncTask {
 
+    /**
+     * 每批扫描的帖子数
+     */
+    private static final int BATCH_SIZE = 500;
+
     private final PostMapper postMapper;
-    private final FavoriteRepository favoriteRepository;
+    private final LikeMapper likeMapper;
+    private final FavoriteMapper favoriteMapper;
     private final RedisOperations redisOperations;
-    private final LikeCacheRepository likeCacheRepository;
-    private final FavoriteCacheRepository favoriteCacheRepository;
-    private final LikeService likeDomainService;
+
+    /**
+     * 防止定时触发和手动触发并发执行
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
 
     /**
      * 定时任务：定时同步 Redis 数据到 MySQL
      * 每小时执行一次，将Redis中的帖子计数更新到数据库
-     * 
+     *
      * 同步策略：
      * 1. 对于点赞数和收藏数：从数据库统计真实值，然后同步到Redis（确保数据一致性）
-     * 2. 对于浏览数和评论数：从Redis读取增量值，累加到数据库当前值
+     * 2. 对于浏览数和评论数：从Redis读取增量值，以增量方式累加到数据库（不覆盖并发写入）
      */
     @Scheduled(cron = "0 0 * * * ?")
     public void syncPostCounts() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("[定时任务] Redis计数同步正在执行，跳过本次触发");
+            return;
+        }
         try {
-            log.info("开始同步Redis数据到数据库");
-
-            List<Post> posts = postMapper.findAll();
+            log.info("[定时任务] 开始同步Redis数据到数据库");
+            long start = System.currentTimeMillis();
 
-            int successCount = 0;
-            int skipCount = 0;
+            long lastId = 0L;
+            int batches = 0;
+            int scanned = 0;
+            int updated = 0;
             int errorCount = 0;
-            
-            for (Post post : posts) {
-                if (post.getStatus() == null || "DRAFT".equals(post.getStatus())) {
-                    skipCount++;
-                    continue;
+            while (true) {
+                List<Post> posts = postMapper.findPublishedCountersAfterId(lastId, BATCH_SIZE);
+                if (posts.isEmpty()) {
+                    break;
                 }
-
+                lastId = posts.get(posts.size() - 1).getId();
+                batches++;
+                scanned += posts.size();
                 try {
-                    Long postId = post.getId();
-                    
-                    // 1. 点赞数：从数据库统计真实值（因为数据库是唯一真实数据源）
-                    long likeCount = syncLikeCount(postId);
-                    
-                    // 2. 收藏数：从数据库统计真实值（因为数据库是唯一真实数据源）
-                    long favoriteCount = syncFavoriteCount(postId);
-                    
-                    // 3. 浏览数：从Redis读取增量值，如果Redis中没有，保持数据库当前值
-                    long viewCount = syncViewCount(postId, post.getViewCount() != null ? post.getViewCount() : 0L);
-                    
-                    // 4. 评论数：从Redis读取增量值，如果Redis中没有，保持数据库当前值
-                    long commentCount = syncCommentCount(postId, post.getCommentCount() != null ? post.getCommentCount() : 0L);
-
-                    // 只有当值发生变化时才更新数据库
-                    boolean needUpdate = false;
-                    if (post.getLikeCount() == null || !post.getLikeCount().equals(likeCount)) {
-                        post.setLikeCount(likeCount);
-                        needUpdate = true;
-                    }
-                    if (post.getFavoriteCount() == null || !post.getFavoriteCount().equals(favoriteCount)) {
-                        post.setFavoriteCount(favoriteCount);
-                        needUpdate = true;
-                    }
-                    if (post.getViewCount() == null || !post.getViewCount().equals(viewCount)) {
-                        post.setViewCount(viewCount);
-                        needUpdate = true;
-                    }
-                    if (post.getCommentCount() == null || !post.getCommentCount().equals(commentCount)) {
-                        post.setCommentCount(commentCount);
-                        needUpdate = true;
-                    }
-                    
-                    if (needUpdate) {
-                        postMapper.updateCounts(postId, likeCount, favoriteCount, viewCount, commentCount);
-                        log.debug("同步帖子计数成功 - postId: {}, like: {}, favorite: {}, view: {}, comment: {}", 
-                                postId, likeCount, favoriteCount, viewCount, commentCount);
-                    }
-                    
-                    successCount++;
+                    updated += syncBatch(posts);
                 } catch (Exception e) {
-                    log.error("同步帖子计数失败 - postId: {}", post.getId(), e);
-                    errorCount++;
+                    errorCount += posts.size();
+                    log.error("[定时任务] 同步帖子计数批次失败 - 截止postId: {}", lastId, e);
+                }
+                if (posts.size() < BATCH_SIZE) {
+                    break;
                 }
             }
 
-            log.info("Redis数据同步完成，成功: {}, 跳过: {}, 失败: {}", successCount, skipCount, errorCount);
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            log.info("[定时任务] Redis数据同步完成 - 扫描: {}, 更新: {}, 失败: {}, 批次: {}, 耗时: {}ms, 吞吐: {}/s",
+                    scanned, updated, errorCount, batches, elapsed, scanned * 1000L / elapsed);
         } catch (Exception e) {
-            log.error("Redis数据同步失败", e);
+            log.error("[定时任务] Redis数据同步失败", e);
+        } finally {
+            running.set(false);
         }
     }
 
@@ -123,88 +113,97 @@ public class RedisSyncTask {
     }
 
     /**
-     * 同步点赞数：从数据库统计真实值，然后同步到Redis
+     * 同步一批帖子
+     *
+     * @return 计数发生变化并写回数据库的帖子数
      */
-    private long syncLikeCount(Long postId) {
-        try {
-            Long dbLikeCount = likeDomainService.getLikeCount(postId, Like.LikeType.POST.getCode());
-            likeCacheRepository.setLikeCount(postId, Like.LikeType.POST, dbLikeCount);
-            log.debug("同步点赞数成功 - postId: {}, count: {}", postId, dbLikeCount);
-            return dbLikeCount;
-        } catch (Exception e) {
-            log.error("同步点赞数失败 - postId: {}", postId, e);
-            Long cachedCount = likeCacheRepository.getLikeCount(postId, Like.LikeType.POST);
-            return cachedCount != null ? cachedCount : 0L;
+    private int syncBatch(List<Post> posts) {
+        List<Long> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+
+        // 1. 点赞数、收藏数：从数据库统计真实值（因为数据库是唯一真实数据源）
+        Map<Long, Long> likeCounts = toCountMap(likeMapper.batchCountByTargetIds(Like.LikeType.POST.getCode(), postIds));
+        Map<Long, Long> favoriteCounts = toCountMap(
+                favoriteMapper.batchCountByTargetIds(TargetType.POST.getDbCode(), postIds));
+
+        // 2. 浏览数、评论数：从Redis读取增量值（一次管道读取）
+        RedisPipeline reads = redisOperations.pipeline();
+        for (Long postId : postIds) {
+            reads.get(RedisKeyManager.postViewCountKey(postId))
+                    .get(RedisKeyManager.postCommentCountKey(postId));
         }
-    }
+        List<Object> increments = reads.execute();
+
+        List<PostCountUpdate> changed = new ArrayList<>();
+        RedisPipeline writes = redisOperations.pipeline();
+        RedisPipeline consumed = redisOperations.pipeline();
+        for (int i = 0; i < posts.size(); i++) {
+            Post post = posts.get(i);
+            Long postId = post.getId();
+
+            long likeCount = likeCounts.getOrDefault(postId, 0L);
+            long favoriteCount = favoriteCounts.getOrDefault(postId, 0L);
+            PostCountUpdate.PostCountUpdateBuilder update = PostCountUpdate.builder().postId(postId);
+            boolean dirty = false;
+
+            // Redis读取失败时不累加增量；只扣减本次读到的增量，读取之后新增的部分留到下次同步
+            if (increments != null) {
+                Long viewIncrement = convertToLong(increments.get(i * 2));
+                if (viewIncrement != null && viewIncrement > 0) {
+                    update.viewDelta(viewIncrement);
+                    consumed.increment(RedisKeyManager.postViewCountKey(postId), -viewIncrement);
+                    dirty = true;
+                }
+                Long commentIncrement = convertToLong(increments.get(i * 2 + 1));
+                if (commentIncrement != null && commentIncrement > 0) {
+                    update.commentDelta(commentIncrement);
+                    consumed.increment(RedisKeyManager.postCommentCountKey(postId), -commentIncrement);
+                    dirty = true;
+                }
+            }
 
-    /**
-     * 同步收藏数：从数据库统计真实值，然后同步到Redis
-     */
-    private long syncFavoriteCount(Long postId) {
-        try {
-            int dbFavoriteCount = favoriteRepository.countFavoritedItemsByTarget(postId, TargetType.POST.getDbCode());
-            favoriteCacheRepository.setFavoriteCount(postId, TargetType.POST.getDbCode(), (long) dbFavoriteCount);
-            log.debug("同步收藏数成功 - postId: {}, count: {}", postId, dbFavoriteCount);
-            return dbFavoriteCount;
-        } catch (Exception e) {
-            log.error("同步收藏数失败 - postId: {}", postId, e);
-            try {
-                return favoriteRepository.countFavoritedItemsByTarget(postId, TargetType.POST.getDbCode());
-            } catch (Exception ex) {
-                log.error("从数据库获取收藏数失败 - postId: {}", postId, ex);
-                Long cachedCount = favoriteCacheRepository.getFavoriteCount(postId, TargetType.POST.getDbCode());
-                return cachedCount != null ? cachedCount : 0L;
+            // 点赞数、收藏数同步到Redis
+            writes.set(RedisKeyManager.likeCountKey(Like.LikeType.POST, postId), likeCount, RedisKeyManager.COUNT_TTL)
+                    .set(RedisKeyManager.favoriteCountKey(TargetType.POST.getDbCode(), postId), favoriteCount,
+                            RedisKeyManager.COUNT_TTL);
+
+            // 只写与数据库读取值不同的列，条件为读取值
+            if (valueOf(post.getLikeCount()) != likeCount) {
+                update.expectedLikeCount(valueOf(post.getLikeCount())).likeCount(likeCount);
+                dirty = true;
+            }
+            if (valueOf(post.getFavoriteCount()) != favoriteCount) {
+                update.expectedFavoriteCount(valueOf(post.getFavoriteCount())).favoriteCount(favoriteCount);
+                dirty = true;
+            }
+            if (dirty) {
+                changed.add(update.build());
             }
         }
-    }
 
-    /**
-     * 同步浏览数：从Redis读取增量值，如果Redis中没有，保持数据库当前值
-     */
-    private long syncViewCount(Long postId, long currentDbValue) {
-        try {
-            String key = RedisKeyManager.postViewCountKey(postId);
-            Long redisValue = convertToLong(redisOperations.get(key));
-            
-            if (redisValue != null && redisValue > 0) {
-                long newValue = currentDbValue + redisValue;
-                redisOperations.set(key, 0L);
-                log.debug("同步浏览数成功 - postId: {}, dbValue: {}, redisIncrement: {}, newValue: {}", 
-                        postId, currentDbValue, redisValue, newValue);
-                return newValue;
-            } else {
-                log.debug("Redis中没有浏览数增量，保持数据库值 - postId: {}, value: {}", postId, currentDbValue);
-                return currentDbValue;
-            }
-        } catch (Exception e) {
-            log.warn("同步浏览数失败 - postId: {}, 保持数据库当前值: {}", postId, currentDbValue, e);
-            return currentDbValue;
+        // 3. 先写数据库再扣减Redis增量，数据库写入失败时增量保留到下次同步
+        if (!changed.isEmpty()) {
+            postMapper.batchUpdateCounts(changed);
+            consumed.execute();
         }
+        writes.execute();
+
+        log.debug("[定时任务] 同步帖子计数批次 - 起始postId: {}, size: {}, changed: {}",
+                postIds.get(0), posts.size(), changed.size());
+        return changed.size();
     }
 
-    /**
-     * 同步评论数：从Redis读取增量值，如果Redis中没有，保持数据库当前值
-     */
-    private long syncCommentCount(Long postId, long currentDbValue) {
-        try {
-            String key = RedisKeyManager.postCommentCountKey(postId);
-            Long redisValue = convertToLong(redisOperations.get(key));
-            
-            if (redisValue != null && redisValue > 0) {
-                long newValue = currentDbValue + redisValue;
-                redisOperations.set(key, 0L);
-                log.debug("同步评论数成功 - postId: {}, dbValue: {}, redisIncrement: {}, newValue: {}", 
-                        postId, currentDbValue, redisValue, newValue);
-                return newValue;
-            } else {
-                log.debug("Redis中没有评论数增量，保持数据库值 - postId: {}, value: {}", postId, currentDbValue);
-                return currentDbValue;
+    private Map<Long, Long> toCountMap(List<PostCountResult> results) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (PostCountResult result : results) {
+            if (result.getPostId() != null && result.getCount() != null) {
+                counts.put(result.getPostId(), result.getCount());
             }
-        } catch (Exception e) {
-            log.warn("同步评论数失败 - postId: {}, 保持数据库当前值: {}", postId, currentDbValue, e);
-            return currentDbValue;
         }
+        return counts;
+    }
+
+    private long valueOf(Long value) {
+        return value != null ? value : 0L;
     }
 
     /**
@@ -0,0 +1,34 @@
+package cn.xu.task;
+
+import cn.xu.service.search.event.SearchEventBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索事件写入定时任务
+ * <p>按固定窗口把缓冲中的搜索统计、搜索历史事件批量写入Redis</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchEventFlushTask {
+
+    private final SearchEventBuffer searchEventBuffer;
+
+    /**
+     * 默认每秒写入一次，可通过 app.search.analytics.flush-interval-ms 调整
+     */
+    @Scheduled(fixedDelayString = "${app.search.analytics.flush-interval-ms:1000}")
+    public void flushSearchEvents() {
+        try {
+            int flushed = searchEventBuffer.flush();
+            if (flushed > 0) {
+                log.debug("[定时任务] 搜索事件写入完成，事件数: {}", flushed);
+            }
+        } catch (Exception e) {
+            log.error("[定时任务] 搜索事件写入失败", e);
+        }
+    }
+}
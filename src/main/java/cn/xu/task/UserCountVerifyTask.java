@@ -1,5 +1,9 @@
 package cn.xu.task;
 
+import cn.xu.cache.core.RedisKeyManager;
+import cn.xu.cache.core.RedisOperations;
+import cn.xu.model.dto.user.UserCountResult;
+import cn.xu.model.dto.user.UserCountUpdate;
 import cn.xu.model.entity.User;
 import cn.xu.repository.mapper.*;
 import lombok.RequiredArgsConstructor;
@@ -7,7 +11,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 用户统计字段定时校验任务
@@ -21,17 +30,43 @@ import java.util.List;
  *   <li>发现不一致时自动同步</li>
  *   <li>记录同步日志供排查</li>
  * </ul>
+ *
+ * 执行方式：
+ * <ul>
+ *   <li>按用户ID区间分成多个分区并行校验，分区内按主键游标分批</li>
+ *   <li>每批对每张来源表执行一条 GROUP BY 统计，内存中对比后批量更新</li>
+ *   <li>每批完成后把分区进度写入Redis断点，任务中断后下一轮从断点续跑</li>
+ * </ul>
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class UserCountVerifyTask {
 
+    /**
+     * 每批校验的用户数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 并行分区数
+     */
+    private static final int PARTITIONS = 4;
+
+    private static final String FIELD_MAX_ID = "maxId";
+    private static final String FIELD_PARTITION_PREFIX = "p";
+
     private final UserMapper userMapper;
     private final FollowMapper followMapper;
     private final PostMapper postMapper;
     private final CommentMapper commentMapper;
     private final LikeMapper likeMapper;
+    private final RedisOperations redisOperations;
+
+    /**
+     * 防止定时触发和手动触发并发执行
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
 
     /**
      * 定时校验任务
@@ -42,91 +77,139 @@ public class UserCountVerifyTask {
      */
     @Scheduled(cron = "0 0 3 * * ?")
     public void verifyAndFixUserCounts() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("[定时任务] 用户统计校验正在执行，跳过本次触发");
+            return;
+        }
         log.info("[定时任务] 开始校验用户统计信息...");
 
         long startTime = System.currentTimeMillis();
-        int fixedCount = 0;
-        int totalCount = 0;
+        AtomicInteger totalCount = new AtomicInteger();
+        AtomicInteger fixedCount = new AtomicInteger();
+        ExecutorService executor = null;
 
         try {
-            // 1. 使用分页查询，避免一次性加载所有用户
-            int pageSize = 500;
-            int offset = 0;
-
-            while (true) {
-                List<User> users = userMapper.selectByPage(offset, pageSize);
-                if (users == null || users.isEmpty()) {
-                    break;
+            String checkpointKey = RedisKeyManager.userCountVerifyCheckpointKey();
+            Map<Object, Object> checkpoint = redisOperations.hGetAll(checkpointKey);
+
+            // 1. 确定本轮区间：有断点时沿用断点记录的上界，保证分区边界不变
+            Long maxId = convertToLong(checkpoint.get(FIELD_MAX_ID));
+            if (maxId == null) {
+                maxId = userMapper.findMaxId();
+                if (maxId == null) {
+                    log.info("[定时任务] 没有用户，跳过校验");
+                    return;
                 }
+                checkpoint = Collections.emptyMap();
+                redisOperations.hSet(checkpointKey, FIELD_MAX_ID, maxId);
+                redisOperations.expire(checkpointKey, RedisKeyManager.TASK_CHECKPOINT_TTL);
+            } else {
+                log.info("[定时任务] 从断点续跑 - maxId: {}, checkpoint: {}", maxId, checkpoint);
+            }
 
-                totalCount += users.size();
+            // 2. 按ID区间分区并行校验
+            long partitionSize = maxId / PARTITIONS + 1;
+            executor = Executors.newFixedThreadPool(PARTITIONS, r -> new Thread(r, "user-count-verify"));
+            List<Future<?>> futures = new ArrayList<>();
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                long rangeStart = partition * partitionSize;
+                long rangeEnd = Math.min(maxId, rangeStart + partitionSize);
+                Long resumeId = convertToLong(checkpoint.get(FIELD_PARTITION_PREFIX + partition));
+                long lastId = resumeId != null ? Math.max(rangeStart, resumeId) : rangeStart;
+                final int index = partition;
+                futures.add(executor.submit(() ->
+                        verifyRange(index, lastId, rangeEnd, checkpointKey, totalCount, fixedCount)));
+            }
 
-                // 2. 逐个校验并同步
-                for (User user : users) {
-                    boolean fixed = verifyAndFixSingleUser(user);
-                    if (fixed) {
-                        fixedCount++;
-                    }
+            boolean completed = true;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    completed = false;
+                    log.error("[定时任务] 分区校验失败，保留断点待下次续跑", e);
                 }
+            }
 
-                offset += pageSize;
-
-                // 防止一次处理太多，记录进度
-                if (offset % 2000 == 0) {
-                    log.debug("已处理{}条记录，继续下一批，offset={}", fixedCount, offset);
-                }
+            // 3. 全部分区完成后清除断点
+            if (completed) {
+                redisOperations.delete(checkpointKey);
             }
 
             long costTime = System.currentTimeMillis() - startTime;
             log.info("[定时任务] 校验完成！总数={}, 同步数={}, 耗时={}ms",
-                    totalCount, fixedCount, costTime);
+                    totalCount.get(), fixedCount.get(), costTime);
 
         } catch (Exception e) {
             log.error("[定时任务] 校验失败", e);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+            running.set(false);
         }
     }
 
     /**
-     * 校验并同步单个用户的统计信息
-     *
-     * <p>比较数据库冗余字段与实际统计值，发现不一致时自动同步
-     *
-     * @param user 用户对象
-     * @return true表示进行了同步，false表示数据一致无需同步
+     * 校验一个分区：(lastId, rangeEnd]
      */
-    private boolean verifyAndFixSingleUser(User user) {
-        try {
-            Long userId = user.getId();
-
-            // 1. 统计实际的关注数
-            Long actualFollowCount = (long) followMapper.countFollowing(userId);
+    private void verifyRange(int partition, long lastId, long rangeEnd, String checkpointKey,
+                             AtomicInteger totalCount, AtomicInteger fixedCount) {
+        while (lastId < rangeEnd) {
+            List<User> users = userMapper.findCountersAfterId(lastId, rangeEnd, BATCH_SIZE);
+            if (users == null || users.isEmpty()) {
+                break;
+            }
 
-            // 2. 统计实际的粉丝数
-            Long actualFansCount = (long) followMapper.countFollowers(userId);
+            fixedCount.addAndGet(verifyBatch(users));
+            totalCount.addAndGet(users.size());
 
-            // 3. 统计实际的获赞数（用户发的帖子和评论收到的点赞总数）
-            Long actualLikeCount = calculateTotalReceivedLikes(userId);
+            lastId = users.get(users.size() - 1).getId();
+            redisOperations.hSet(checkpointKey, FIELD_PARTITION_PREFIX + partition, lastId);
+            log.debug("分区{}已处理至userId={}", partition, lastId);
 
-            // 4. 统计实际的发帖数
-            Long actualPostCount = postMapper.countPublishedByUserId(userId);
-            if (actualPostCount == null) {
-                actualPostCount = 0L;
+            if (users.size() < BATCH_SIZE) {
+                break;
             }
+        }
+    }
 
-            // 5. 统计实际的评论数
-            Long actualCommentCount = commentMapper.countByUserId(userId);
-            if (actualCommentCount == null) {
-                actualCommentCount = 0L;
-            }
+    /**
+     * 校验并同步一批用户的统计信息
+     *
+     * <p>按该批用户的ID区间一次性统计各项实际值，比较数据库冗余字段，不一致的批量同步。
+     * 同步按读取时的值做条件覆盖：读取之后提交的关注、点赞等已改变了该列，本次不写，由下次校验处理
+     *
+     * @param users 按ID升序的一批用户
+     * @return 进行了同步的用户数
+     */
+    private int verifyBatch(List<User> users) {
+        Long startId = users.get(0).getId();
+        Long endId = users.get(users.size() - 1).getId();
+
+        // 1. 每张来源表一条分组统计
+        Map<Long, Long> followCounts = toCountMap(followMapper.countFollowingByUserRange(startId, endId));
+        Map<Long, Long> fansCounts = toCountMap(followMapper.countFollowersByUserRange(startId, endId));
+        Map<Long, Long> likeCounts = toCountMap(likeMapper.countReceivedLikesByUserRange(startId, endId));
+        Map<Long, Long> postCounts = toCountMap(postMapper.countPublishedByUserRange(startId, endId));
+        Map<Long, Long> commentCounts = toCountMap(commentMapper.countByUserRange(startId, endId));
+
+        // 2. 内存中对比
+        List<UserCountUpdate> corrections = new ArrayList<>();
+        for (User user : users) {
+            Long userId = user.getId();
+            Long actualFollowCount = followCounts.getOrDefault(userId, 0L);
+            Long actualFansCount = fansCounts.getOrDefault(userId, 0L);
+            Long actualLikeCount = likeCounts.getOrDefault(userId, 0L);
+            Long actualPostCount = postCounts.getOrDefault(userId, 0L);
+            Long actualCommentCount = commentCounts.getOrDefault(userId, 0L);
 
-            // 6. 获取用户当前值，处理null情况
             Long dbFollowCount = user.getFollowCount() != null ? user.getFollowCount() : 0L;
             Long dbFansCount = user.getFansCount() != null ? user.getFansCount() : 0L;
             Long dbLikeCount = user.getLikeCount() != null ? user.getLikeCount() : 0L;
             Long dbPostCount = user.getPostCount() != null ? user.getPostCount() : 0L;
             Long dbCommentCount = user.getCommentCount() != null ? user.getCommentCount() : 0L;
 
-            // 7. 对比并判断是否需要同步
             boolean needFix = !dbFollowCount.equals(actualFollowCount)
                     || !dbFansCount.equals(actualFansCount)
                     || !dbLikeCount.equals(actualLikeCount)
@@ -143,58 +226,53 @@ public class UserCountVerifyTask {
                         dbPostCount, actualPostCount,
                         dbCommentCount, actualCommentCount
                 );
-
-                // 8. 同步数据
-                userMapper.updateUserCounts(
-                        userId,
-                        actualFollowCount,
-                        actualFansCount,
-                        actualLikeCount,
-                        actualPostCount,
-                        actualCommentCount
-                );
-
-                log.info("[同步成功] userId={}, username={}", userId, user.getUsername());
-                return true;
+                // 只写不一致的列，条件为读取值
+                UserCountUpdate.UserCountUpdateBuilder update = UserCountUpdate.builder().userId(userId);
+                if (!dbFollowCount.equals(actualFollowCount)) {
+                    update.expectedFollowCount(dbFollowCount).followCount(actualFollowCount);
+                }
+                if (!dbFansCount.equals(actualFansCount)) {
+                    update.expectedFansCount(dbFansCount).fansCount(actualFansCount);
+                }
+                if (!dbLikeCount.equals(actualLikeCount)) {
+                    update.expectedLikeCount(dbLikeCount).likeCount(actualLikeCount);
+                }
+                if (!dbPostCount.equals(actualPostCount)) {
+                    update.expectedPostCount(dbPostCount).postCount(actualPostCount);
+                }
+                if (!dbCommentCount.equals(actualCommentCount)) {
+                    update.expectedCommentCount(dbCommentCount).commentCount(actualCommentCount);
+                }
+                corrections.add(update.build());
             }
+        }
 
-            return false;
-
-        } catch (Exception e) {
-            log.error("[校验失败] userId={}, username={}", user.getId(), user.getUsername(), e);
-            return false;
+        // 3. 批量同步
+        if (!corrections.isEmpty()) {
+            userMapper.batchUpdateUserCounts(corrections);
+            log.info("[同步成功] userId区间=[{}, {}], 同步数={}", startId, endId, corrections.size());
         }
+        return corrections.size();
     }
 
-    /**
-     * 计算用户收到的总点赞数
-     *
-     * <p>即：用户发布的帖子和评论被别人点赞的总数
-     *
-     * <p>计算公式：帖子获赞数 + 评论获赞数
-     *
-     * @param userId 用户ID
-     * @return 总获赞数
-     */
-    private Long calculateTotalReceivedLikes(Long userId) {
-        try {
-            // 统计用户帖子收到的点赞数
-            Long postLikes = likeMapper.countReceivedLikesByUserPosts(userId);
-            if (postLikes == null) {
-                postLikes = 0L;
-            }
-
-            // 统计用户评论收到的点赞数
-            Long commentLikes = likeMapper.countReceivedLikesByUserComments(userId);
-            if (commentLikes == null) {
-                commentLikes = 0L;
+    private Map<Long, Long> toCountMap(List<UserCountResult> results) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (UserCountResult result : results) {
+            if (result.getUserId() != null && result.getCount() != null) {
+                counts.put(result.getUserId(), result.getCount());
             }
+        }
+        return counts;
+    }
 
-            return postLikes + commentLikes;
-
-        } catch (Exception e) {
-            log.error("[统计获赞数失败] userId={}", userId, e);
-            return 0L;
+    private Long convertToLong(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
@@ -191,7 +191,7 @@ CREATE TABLE `post` (
   `favorite_count` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT '收藏数',
   `comment_count` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT '评论数',
   `share_count` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT '分享数',
-  `hot_score` DECIMAL(10,2) NOT NULL DEFAULT 0.00 COMMENT '热度分数',
+  `hot_score` DOUBLE NOT NULL DEFAULT 0 COMMENT '热度分数（带时间衰减，旧帖子的分数很小，不能按两位小数存储）',
   
   -- 时间戳
   `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
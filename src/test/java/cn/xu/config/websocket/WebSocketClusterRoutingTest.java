@@ -0,0 +1,237 @@
+package cn.xu.config.websocket;
+
+import cn.xu.cache.core.RedisKeyManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 多节点WebSocket推送路由测试
+ * <p>同一进程内启动两个节点（会话管理、在线记录、集群推送各一套），在线记录和节点频道用内存实现代替Redis</p>
+ */
+class WebSocketClusterRoutingTest {
+
+    private static final String DESTINATION = "/queue/notifications";
+
+    /**
+     * userId -> 持有会话的节点（所有节点共享，相当于Redis中的 ws:presence:{userId}）
+     */
+    private final Map<Long, Set<String>> presence = new ConcurrentHashMap<>();
+
+    /**
+     * 节点ID -> 节点（相当于Redis发布/订阅的 ws:node:{nodeId} 频道）
+     */
+    private final Map<String, Node> channels = new ConcurrentHashMap<>();
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new Node("node-a");
+        nodeB = new Node("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.messenger.shutdown();
+        nodeB.messenger.shutdown();
+    }
+
+    @Test
+    void routesToUserConnectedToAnotherNode() {
+        nodeB.sessions.addSession(7L, "s-1");
+        Map<String, Object> payload = Map.of("type", "like");
+
+        assertTrue(nodeA.messenger.sendToUser(7L, DESTINATION, payload));
+
+        verify(nodeB.template, timeout(2000)).convertAndSendToUser("7", DESTINATION, payload);
+        verify(nodeA.template, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    void deliversLocallyWithoutPublishing() {
+        nodeA.sessions.addSession(7L, "s-1");
+
+        assertTrue(nodeA.messenger.sendToUser(7L, DESTINATION, "hello"));
+
+        verify(nodeA.template).convertAndSendToUser("7", DESTINATION, "hello");
+        verify(nodeA.redis, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void offlineUserIsNotDelivered() {
+        assertFalse(nodeA.messenger.sendToUser(7L, DESTINATION, "hello"));
+        verify(nodeA.redis, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void batchPushSplitsLocalAndRemoteUsers() {
+        nodeA.sessions.addSession(1L, "a-1");
+        nodeB.sessions.addSession(2L, "b-1");
+        nodeB.sessions.addSession(3L, "b-2");
+
+        Set<Long> delivered = nodeA.messenger.sendToUsers(List.of(1L, 2L, 3L, 4L), DESTINATION, "notice");
+
+        assertEquals(Set.of(1L, 2L, 3L), delivered);
+        verify(nodeA.template).convertAndSendToUser("1", DESTINATION, "notice");
+        // 目标节点上的多个用户共用一次转换后的消息
+        verify(nodeB.template, timeout(2000)).send(eq("/user/2" + DESTINATION), any(Message.class));
+        verify(nodeB.template, timeout(2000)).send(eq("/user/3" + DESTINATION), any(Message.class));
+        // 同一节点上的用户合并为一条频道消息
+        verify(nodeA.redis, timeout(2000)).convertAndSend(eq(RedisKeyManager.wsNodeChannel("node-b")), anyString());
+    }
+
+    @Test
+    void userMovingBetweenNodesFollowsPresence() {
+        nodeB.sessions.addSession(7L, "b-1");
+        nodeB.sessions.removeSession(7L, "b-1");
+        nodeA.sessions.addSession(7L, "a-1");
+
+        assertEquals(Set.of("node-a"), presence.get(7L));
+        assertTrue(nodeB.messenger.sendToUser(7L, DESTINATION, "hello"));
+        verify(nodeA.template, timeout(2000)).convertAndSendToUser("7", DESTINATION, "hello");
+    }
+
+    @Test
+    void reconnectDuringDisconnectKeepsUserOnline() {
+        nodeA.sessions.addSession(7L, "old");
+        // 最后一个会话断开、尚未移除在线记录时，同一用户在本节点重连
+        nodeA.presence.beforeOffline = () -> nodeA.sessions.addSession(7L, "new");
+
+        nodeA.sessions.removeSession(7L, "old");
+
+        assertEquals(Set.of("new"), nodeA.sessions.getSessions(7L));
+        assertEquals(Set.of("node-a"), presence.get(7L));
+        assertTrue(nodeB.messenger.sendToUser(7L, DESTINATION, "hello"));
+    }
+
+    // ==================== 测试节点 ====================
+
+    /**
+     * 一个应用节点：会话管理 + 在线记录 + 集群推送，Redis频道用内存路由代替
+     */
+    private final class Node {
+
+        final InMemoryPresenceRegistry presence;
+        final WebSocketSessionManager sessions;
+        final WebSocketClusterMessenger messenger;
+        final SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+
+        Node(String nodeId) {
+            presence = new InMemoryPresenceRegistry(nodeId);
+            sessions = new WebSocketSessionManager(presence);
+            when(template.getMessageConverter()).thenReturn(new SimpleMessageConverter());
+            when(template.getUserDestinationPrefix()).thenReturn("/user/");
+            when(redis.convertAndSend(anyString(), anyString())).thenAnswer(invocation -> {
+                String channel = invocation.getArgument(0);
+                String body = invocation.getArgument(1);
+                for (Node target : channels.values()) {
+                    if (RedisKeyManager.wsNodeChannel(target.presence.getNodeId()).equals(channel)) {
+                        target.messenger.onMessage(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                                body.getBytes(StandardCharsets.UTF_8)), null);
+                        return 1L;
+                    }
+                }
+                return 0L;
+            });
+            messenger = new WebSocketClusterMessenger(template, sessions, presence, redis,
+                    mock(RedisMessageListenerContainer.class), new ObjectMapper());
+            ReflectionTestUtils.setField(messenger, "batchIntervalMs", 5L);
+            ReflectionTestUtils.setField(messenger, "batchSize", 100);
+            messenger.init();
+            channels.put(nodeId, this);
+        }
+    }
+
+    /**
+     * 共享内存中的在线记录
+     */
+    private final class InMemoryPresenceRegistry extends WebSocketPresenceRegistry {
+
+        private final String nodeId;
+        Runnable beforeOffline;
+
+        InMemoryPresenceRegistry(String nodeId) {
+            super(null);
+            this.nodeId = nodeId;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public void online(Long userId) {
+            presence.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(nodeId);
+        }
+
+        @Override
+        public void offline(Long userId) {
+            Runnable hook = beforeOffline;
+            beforeOffline = null;
+            if (hook != null) {
+                hook.run();
+            }
+            Set<String> nodes = presence.get(userId);
+            if (nodes != null) {
+                nodes.remove(nodeId);
+            }
+        }
+
+        @Override
+        public Set<String> nodesOf(Long userId) {
+            Set<String> nodes = presence.get(userId);
+            return nodes != null ? new HashSet<>(nodes) : Collections.emptySet();
+        }
+
+        @Override
+        public Map<Long, Set<String>> nodesOf(Collection<Long> userIds) {
+            Map<Long, Set<String>> result = new HashMap<>();
+            for (Long userId : userIds) {
+                Set<String> nodes = nodesOf(userId);
+                if (!nodes.isEmpty()) {
+                    result.put(userId, nodes);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package cn.xu.support.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 敏感词自动机测试
+ * <p>覆盖双数组构建、重叠与最长匹配、增补平面字符，并与逐位置的朴素匹配做随机对照</p>
+ */
+class SensitiveWordAutomatonTest {
+
+    @Test
+    void emptyDictionaryMatchesNothing() {
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of());
+
+        assertEquals(0, automaton.size());
+        assertFalse(automaton.matches("任意文本"));
+        assertEquals(List.of(), automaton.findAll("任意文本"));
+        String text = "任意文本";
+        assertSame(text, automaton.replace(text, '*'));
+    }
+
+    @Test
+    void blankAndDuplicateWordsAreIgnored() {
+        List<String> words = new ArrayList<>(List.of("坏词", "坏词", ""));
+        words.add(null);
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(words);
+
+        assertEquals(1, automaton.size());
+        assertEquals(List.of("坏词", "坏词"), automaton.findAll("坏词和坏词"));
+    }
+
+    @Test
+    void prefersLongestWordAtLeftmostStart() {
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of("bc", "abcd"));
+
+        assertEquals(List.of("abcd"), automaton.findAll("abcd"));
+        assertEquals(List.of("bc"), automaton.findAll("abcx"));
+    }
+
+    @Test
+    void prefersLongerWordWithSameStart() {
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of("ab", "abcde"));
+
+        assertEquals(List.of("abcde"), automaton.findAll("xabcdex"));
+        assertEquals(List.of("ab"), automaton.findAll("xabcdx"));
+    }
+
+    @Test
+    void resumesAfterCandidateWhenLongerWordFails() {
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of("ab", "cd", "abcde"));
+
+        assertEquals(List.of("ab", "cd"), automaton.findAll("abcdx"));
+        assertEquals(List.of("ab", "cd"), automaton.findAll("abcd"));
+    }
+
+    @Test
+    void overlappingWordsAreReportedWithoutOverlap() {
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of("ab", "bcd", "de"));
+
+        assertEquals(List.of("ab", "de"), automaton.findAll("abcde"));
+        assertEquals("*****", automaton.replace("abcde", '*'));
+    }
+
+    @Test
+    void replaceMasksEveryOverlappingWord() {
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of("ab", "bcd"));
+
+        assertEquals(List.of("ab"), automaton.findAll("abcd"));
+        assertEquals("****x", automaton.replace("abcdx", '*'));
+    }
+
+    @Test
+    void matchesWordInsideFailureChain() {
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of("she", "he", "hers"));
+
+        assertTrue(automaton.matches("ushers"));
+        assertEquals(List.of("she"), automaton.findAll("ushers"));
+        assertEquals("u*****", automaton.replace("ushers", '*'));
+        assertFalse(automaton.matches("ush"));
+    }
+
+    @Test
+    void supplementaryCharactersMatchAsSurrogatePairs() {
+        String grinning = new String(Character.toChars(0x1F600));
+        String beaming = new String(Character.toChars(0x1F601));
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(List.of(grinning + "坏", "𠮷野"));
+
+        assertTrue(automaton.matches("前" + grinning + "坏后"));
+        assertFalse(automaton.matches("前" + beaming + "坏后"));
+        assertEquals(List.of(grinning + "坏"), automaton.findAll(beaming + grinning + "坏"));
+        assertEquals(List.of("𠮷野"), automaton.findAll("𠮷野家"));
+        assertEquals("***家", automaton.replace("𠮷野家", '*'));
+    }
+
+    @Test
+    void largeAlphabetBuildsValidDoubleArray() {
+        List<String> words = new ArrayList<>();
+        for (char ch = '一'; ch < '一' + 2000; ch++) {
+            words.add(ch + "词");
+        }
+        SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(words);
+
+        assertEquals(2000, automaton.size());
+        for (String word : words) {
+            assertEquals(List.of(word), automaton.findAll("前" + word + "后"));
+        }
+        assertFalse(automaton.matches("词一"));
+    }
+
+    @Test
+    void agreesWithNaiveLeftmostLongestMatching() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Set<String> words = new LinkedHashSet<>();
+            int wordCount = 1 + random.nextInt(12);
+            while (words.size() < wordCount) {
+                words.add(randomText(random, 1 + random.nextInt(5)));
+            }
+            SensitiveWordAutomaton automaton = SensitiveWordAutomaton.build(words);
+            for (int sample = 0; sample < 20; sample++) {
+                String text = randomText(random, random.nextInt(40));
+                assertEquals(naiveFindAll(words, text), automaton.findAll(text), () -> words + " / " + text);
+                assertEquals(naiveReplace(words, text), automaton.replace(text, '*'), () -> words + " / " + text);
+                assertEquals(!naiveFindAll(words, text).isEmpty(), automaton.matches(text), () -> words + " / " + text);
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 逐位置取最长匹配，命中后跳到词尾
+     */
+    private static List<String> naiveFindAll(Collection<String> words, String text) {
+        List<String> result = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            int longest = 0;
+            for (String word : words) {
+                if (word.length() > longest && text.startsWith(word, i)) {
+                    longest = word.length();
+                }
+            }
+            if (longest > 0) {
+                result.add(text.substring(i, i + longest));
+                i += longest;
+            } else {
+                i++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 替换所有出现位置（含重叠）
+     */
+    private static String naiveReplace(Collection<String> words, String text) {
+        char[] chars = text.toCharArray();
+        for (String word : words) {
+            for (int from = text.indexOf(word); from >= 0; from = text.indexOf(word, from + 1)) {
+                for (int j = from; j < from + word.length(); j++) {
+                    chars[j] = '*';
+                }
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,209 @@
+package cn.xu.support.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 敏感词匹配基准测试：双数组自动机与原HashMap嵌套DFA对比
+ * <p>不参与单元测试，需要时运行本类的main方法（在IDE中，或 test-compile 后以测试类路径执行）</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensitiveWordFilterBenchmark {
+
+    /**
+     * 词库大小
+     */
+    @Param({"1000", "20000"})
+    private int wordCount;
+
+    /**
+     * 文本长度（字符数），对应短评论到长帖子
+     */
+    @Param({"200", "5000"})
+    private int textLength;
+
+    private SensitiveWordAutomaton automaton;
+    private HashMapDfa hashMapDfa;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            words.add(randomChinese(random, 2 + random.nextInt(4)));
+        }
+        automaton = SensitiveWordAutomaton.build(words);
+        hashMapDfa = new HashMapDfa(words);
+
+        // 正文随机生成，每约500字插入一个敏感词
+        StringBuilder builder = new StringBuilder(textLength);
+        while (builder.length() < textLength) {
+            builder.append(randomChinese(random, 500));
+            builder.append(words.get(random.nextInt(words.size())));
+        }
+        text = builder.substring(0, textLength);
+    }
+
+    @Benchmark
+    public boolean containsAutomaton() {
+        return automaton.matches(text);
+    }
+
+    @Benchmark
+    public boolean containsHashMapDfa() {
+        return hashMapDfa.contains(text);
+    }
+
+    @Benchmark
+    public List<String> findAllAutomaton() {
+        return automaton.findAll(text);
+    }
+
+    @Benchmark
+    public List<String> findAllHashMapDfa() {
+        return hashMapDfa.findAll(text);
+    }
+
+    @Benchmark
+    public String replaceAutomaton() {
+        return automaton.replace(text, '*');
+    }
+
+    @Benchmark
+    public String replaceHashMapDfa() {
+        return hashMapDfa.replace(text, '*');
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SensitiveWordFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * 常用汉字范围内的随机文本，词库和正文共用，保证有足够的前缀命中
+     */
+    private static String randomChinese(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('一' + random.nextInt(3000)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 原实现：HashMap嵌套的DFA，逐位置匹配，替换时每个位置都会复制一次文本
+     */
+    @SuppressWarnings("unchecked")
+    private static final class HashMapDfa {
+
+        private static final Character END_MARK = '\0';
+
+        private final Map<Character, Object> root = new HashMap<>();
+        private int minMatchLength = Integer.MAX_VALUE;
+
+        HashMapDfa(List<String> words) {
+            for (String word : words) {
+                Map<Character, Object> current = root;
+                for (int i = 0; i < word.length(); i++) {
+                    char ch = word.charAt(i);
+                    Object next = current.get(ch);
+                    if (next != null) {
+                        current = (Map<Character, Object>) next;
+                    } else {
+                        Map<Character, Object> created = new HashMap<>();
+                        created.put(END_MARK, false);
+                        current.put(ch, created);
+                        current = created;
+                    }
+                    if (i == word.length() - 1) {
+                        current.put(END_MARK, true);
+                    }
+                }
+                minMatchLength = Math.min(minMatchLength, word.length());
+            }
+        }
+
+        boolean contains(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (check(text, i) > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<String> findAll(String text) {
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < text.length(); i++) {
+                int length = check(text, i);
+                if (length > 0) {
+                    result.add(text.substring(i, i + length));
+                    i = i + length - 1;
+                }
+            }
+            return result;
+        }
+
+        String replace(String text, char replaceChar) {
+            StringBuilder result = new StringBuilder(text);
+            for (int i = 0; i < result.length(); i++) {
+                int length = check(result.toString(), i);
+                if (length > 0) {
+                    for (int j = 0; j < length; j++) {
+                        result.setCharAt(i + j, replaceChar);
+                    }
+                    i = i + length - 1;
+                }
+            }
+            return result.toString();
+        }
+
+        private int check(String text, int beginIndex) {
+            if (text.length() - beginIndex < minMatchLength) {
+                return 0;
+            }
+            Map<Character, Object> current = root;
+            int matched = 0;
+            boolean end = false;
+            for (int i = beginIndex; i < text.length(); i++) {
+                Map<Character, Object> next = (Map<Character, Object>) current.get(text.charAt(i));
+                if (next == null) {
+                    break;
+                }
+                matched++;
+                current = next;
+                if (Boolean.TRUE.equals(next.get(END_MARK))) {
+                    end = true;
+                    break;
+                }
+            }
+            return end && matched >= minMatchLength ? matched : 0;
+        }
+    }
+}
@@ -13,11 +13,19 @@ interface HomePostParams {
   excludeId?: number
 }
 
-export function getFollowingPosts(params: { page?: number; size?: number }): Promise<ApiResponse<PageResponse<Post>>> {
+interface FollowingFeedResponse {
+  data: Post[]
+  nextCursor: string | null
+  hasMore: boolean
+  pageSize: number
+}
+
+// 关注时间线（游标分页），cursor 为上一页返回的 nextCursor，首页不传
+export function getFollowingPosts(params: { cursor?: string | null; size?: number }): Promise<ApiResponse<FollowingFeedResponse>> {
   return request({
-    url: '/home/following',
+    url: '/home/following/feed',
     method: 'get',
-    params: { page: params.page || 1, size: params.size || 10 }
+    params: { cursor: params.cursor || undefined, size: params.size || 10 }
   })
 }
 